@@ -0,0 +1,142 @@
+package io.jexxa.adapterapi.invocation;
+
+import io.jexxa.adapterapi.interceptor.AfterInterceptor;
+import io.jexxa.adapterapi.interceptor.AroundInterceptor;
+import io.jexxa.adapterapi.interceptor.BeforeInterceptor;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In contrast to {@link TransactionalInvocationHandler}, this invocation handler does not serialize all invocations
+ * by a JVM-wide lock. Instead, each thread runs its invocation within its own transaction scope, so that invocations
+ * from different driving adapters can be processed in parallel.
+ * <p>
+ * If invocations must not run in parallel, serialization can be enabled by defining a serialization key via
+ * {@link #serializeBy(Function)}. All invocations that result in an equal serialization key are executed one after
+ * another, whereas invocations with different keys still run in parallel.
+ * <p>
+ * Example: Serialize all invocations on the same object
+ * <pre>
+ * {@code
+ * InvocationManager.setDefaultInvocationHandler(
+ *      new ConcurrentTransactionalInvocationHandler().serializeBy(ConcurrentTransactionalInvocationHandler.BY_TARGET)
+ * );
+ * }
+ * </pre>
+ */
+@SuppressWarnings("UnusedReturnValue")
+public class ConcurrentTransactionalInvocationHandler
+        extends SharedInvocationHandler
+        implements AroundInterceptor, BeforeInterceptor, AfterInterceptor
+{
+    /** Serialization key that serializes all invocations on the same target object */
+    public static final Function<InvocationContext, Object> BY_TARGET = InvocationContext::getTarget;
+
+    // Locks are shared between all instances so that equal keys are serialized independent of the used handler
+    private static final Map<Object, KeyLock> KEY_LOCKS = new ConcurrentHashMap<>();
+
+    private Function<InvocationContext, Object> serializationKey;
+
+    public ConcurrentTransactionalInvocationHandler()
+    {
+        this(null);
+    }
+
+    private ConcurrentTransactionalInvocationHandler(Function<InvocationContext, Object> serializationKey)
+    {
+        this.serializationKey = serializationKey;
+    }
+
+    /**
+     * Enables serialization of invocations that result in an equal key.
+     *
+     * @param serializationKey function that returns the key used for serialization. If the function returns null,
+     *                         the invocation is not serialized.
+     * @return this invocation handler
+     */
+    public ConcurrentTransactionalInvocationHandler serializeBy(Function<InvocationContext, Object> serializationKey)
+    {
+        this.serializationKey = Objects.requireNonNull(serializationKey);
+        return this;
+    }
+
+    @Override
+    public JexxaInvocationHandler newInstance() {
+        return new ConcurrentTransactionalInvocationHandler(serializationKey);
+    }
+
+    @Override
+    protected void invoke(InvocationContext invocationContext)  {
+        var key = (serializationKey != null) ? serializationKey.apply(invocationContext) : null;
+        if (key == null)
+        {
+            transactionalInvoke(invocationContext);
+            return;
+        }
+
+        var keyLock = acquire(key);
+        try {
+            transactionalInvoke(invocationContext);
+        } finally {
+            release(key, keyLock);
+        }
+    }
+
+    private void transactionalInvoke(InvocationContext invocationContext)
+    {
+        TransactionManager.initTransaction();
+        // The transaction scope of the current thread must be closed exactly once, even if the invocation fails with an Error
+        var invoked = false;
+        try {
+            super.invoke(invocationContext);
+            invoked = true;
+        } finally {
+            if (invoked)
+            {
+                TransactionManager.closeTransaction();
+            }
+            else
+            {
+                rollbackAndClose();
+            }
+        }
+    }
+
+    private static void rollbackAndClose()
+    {
+        try {
+            TransactionManager.rollback();
+        } finally {
+            TransactionManager.closeTransaction();
+        }
+    }
+
+    private static KeyLock acquire(Object key)
+    {
+        // Reference counting ensures that a lock is removed as soon as it is no longer used by any thread
+        var keyLock = KEY_LOCKS.compute(key, (k, existing) -> {
+            var result = (existing != null) ? existing : new KeyLock();
+            ++result.users;
+            return result;
+        });
+        keyLock.lock.lock();
+        return keyLock;
+    }
+
+    private static void release(Object key, KeyLock keyLock)
+    {
+        keyLock.lock.unlock();
+        KEY_LOCKS.computeIfPresent(key, (k, existing) -> --existing.users == 0 ? null : existing);
+    }
+
+    private static class KeyLock
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users = 0;
+    }
+}
@@ -3,12 +3,33 @@ package io.jexxa.adapterapi.invocation.transaction;
 import io.jexxa.adapterapi.JexxaContext;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Supplier;
 
+/**
+ * The TransactionManager forwards the transaction boundaries of an invocation to all registered {@link TransactionHandler}.
+ * <p>
+ * Transaction boundaries are managed per thread. So each thread that calls {@link #initTransaction()} gets its own
+ * transaction scope that ends with the corresponding {@link #closeTransaction()}. Nested calls of
+ * {@link #initTransaction()} within the same thread join the already running transaction.
+ * <p>
+ * A {@link TransactionHandler} can either be registered for all transactions via {@link #registerTransactionHandler(TransactionHandler)},
+ * or it can be enlisted in the transaction of the current thread via {@link #enlist(TransactionHandler)} as soon as it is
+ * used for the first time. In the latter case, only handlers that were actually used within a transaction are committed
+ * or rolled back.
+ */
 public class TransactionManager {
     private static final TransactionManager INSTANCE = new TransactionManager();
 
-    private final List<TransactionHandler> transactionHandlerList = new ArrayList<>();
+    // Transaction handlers are registered rarely but iterated on each invocation, potentially by multiple threads in parallel
+    private final Set<TransactionHandler> transactionHandlers = new CopyOnWriteArraySet<>();
+    private final ThreadLocal<TransactionScope> transactionScope = new ThreadLocal<>();
+
     public static TransactionManager getInstance()
     {
         return INSTANCE;
@@ -16,27 +37,289 @@ public class TransactionManager {
 
     public static void registerTransactionHandler(TransactionHandler transactionHandler)
     {
-        INSTANCE.transactionHandlerList.add(transactionHandler);
+        INSTANCE.transactionHandlers.add(transactionHandler);
+    }
+
+    /**
+     * Enlists the given handler in the transaction of the current thread. The transaction of the handler is initialized
+     * when it is enlisted for the first time and closed together with the transaction of the current thread.
+     * If the current thread does not run within a transaction, or the handler is already part of the transaction, this
+     * method has no effect.
+     *
+     * @param transactionHandler that should participate in the transaction of the current thread
+     */
+    public static void enlist(TransactionHandler transactionHandler)
+    {
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null || !scope.add(transactionHandler))
+        {
+            return;
+        }
+
+        // The handler is enlisted before its transaction is initialized, so that a handler can enlist itself during initialization
+        transactionHandler.initTransaction();
     }
 
     public static void initTransaction()
     {
-        INSTANCE.transactionHandlerList.forEach(TransactionHandler::initTransaction);
+        var scope = INSTANCE.transactionScope.get();
+        if (scope != null)
+        {
+            ++scope.depth;
+            return;
+        }
+
+        var newScope = new TransactionScope();
+        INSTANCE.transactionScope.set(newScope);
+        INSTANCE.transactionHandlers.forEach(handler -> {
+            newScope.add(handler);
+            handler.initTransaction();
+        });
     }
 
+    /**
+     * Closes the transaction of the current thread. If closing a {@link TransactionHandler} fails, all handlers that
+     * are not closed yet are rolled back and the exception is rethrown. In any case, the transaction scope of the current
+     * thread is removed, so that this method must be called exactly once per transaction.
+     */
     public static void closeTransaction()
     {
-        INSTANCE.transactionHandlerList.forEach(TransactionHandler::closeTransaction);
+        var scope = INSTANCE.transactionScope.get();
+        if (scope != null && scope.depth > 0)
+        {
+            --scope.depth;
+            return;
+        }
+
+        if (scope == null)
+        {
+            INSTANCE.transactionHandlers.forEach(TransactionHandler::closeTransaction);
+            return;
+        }
+
+        var beforeCommitFailure = runBeforeCommit(scope);
+        RuntimeException closeFailure = null;
+        var committed = false;
+        try {
+            closeFailure = closeHandlers(scope);
+            committed = !scope.rolledBack;
+        } finally {
+            INSTANCE.transactionScope.remove();
+            if (committed)
+            {
+                scope.afterCommit.forEach(Runnable::run);
+            }
+            scope.afterCompletion.forEach(Runnable::run);
+        }
+
+        if (beforeCommitFailure != null)
+        {
+            if (closeFailure != null)
+            {
+                beforeCommitFailure.addSuppressed(closeFailure);
+            }
+            throw beforeCommitFailure;
+        }
+
+        if (closeFailure != null)
+        {
+            throw closeFailure;
+        }
     }
 
     public static void rollback()
     {
-        INSTANCE.transactionHandlerList.forEach(TransactionHandler::rollback);
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null)
+        {
+            INSTANCE.transactionHandlers.forEach(TransactionHandler::rollback);
+            return;
+        }
+
+        scope.rolledBack = true;
+        // A handler can enlist further handlers, so that we cannot use an iterator
+        for (var i = 0; i < scope.handlers.size(); ++i)
+        {
+            scope.handlers.get(i).rollback();
+        }
+        scope.afterRollback.forEach(Runnable::run);
+    }
+
+    /**
+     * Returns if the current thread runs within a transaction that was started by {@link #initTransaction()}
+     *
+     * @return true if the current thread runs within a transaction, otherwise false
+     */
+    public static boolean isTransactionActive()
+    {
+        return INSTANCE.transactionScope.get() != null;
+    }
+
+    /**
+     * Registers a callback that is executed after the transaction of the current thread was closed. This can be used
+     * to release resources that are bound to the transaction of the current thread, such as a leased connection.
+     *
+     * @param callback that is executed after the transaction of the current thread was closed
+     * @throws IllegalStateException if the current thread does not run within a transaction
+     */
+    public static void afterCompletion(Runnable callback)
+    {
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null)
+        {
+            throw new IllegalStateException("Could not register callback because current thread does not run within a transaction");
+        }
+        scope.afterCompletion.add(callback);
+    }
+
+    /**
+     * Registers a callback that is executed before the transaction of the current thread is committed, i.e., before any
+     * {@link TransactionHandler} is closed. This can be used to write changes that were deferred until the end of the
+     * transaction. If a callback fails, the transaction is rolled back and the exception is rethrown by {@link #closeTransaction()}.
+     * <p>
+     * The callback is not executed if the transaction was rolled back.
+     *
+     * @param callback that is executed before the transaction of the current thread is committed
+     * @throws IllegalStateException if the current thread does not run within a transaction
+     */
+    public static void beforeCommit(Runnable callback)
+    {
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null)
+        {
+            throw new IllegalStateException("Could not register callback because current thread does not run within a transaction");
+        }
+        scope.beforeCommit.add(callback);
+    }
+
+    /**
+     * Registers a callback that is executed after the transaction of the current thread was successfully committed.
+     * In contrast to {@link #afterCompletion(Runnable)}, the callback is not executed if the transaction was rolled back
+     * or if closing the transaction failed.
+     *
+     * @param callback that is executed after the transaction of the current thread was committed
+     * @throws IllegalStateException if the current thread does not run within a transaction
+     */
+    public static void afterCommit(Runnable callback)
+    {
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null)
+        {
+            throw new IllegalStateException("Could not register callback because current thread does not run within a transaction");
+        }
+        scope.afterCommit.add(callback);
+    }
+
+    /**
+     * Registers a callback that is executed each time the transaction of the current thread is rolled back by
+     * {@link #rollback()}. This can be used to discard state that must not outlive the rolled back changes.
+     *
+     * @param callback that is executed after the transaction of the current thread was rolled back
+     * @throws IllegalStateException if the current thread does not run within a transaction
+     */
+    public static void afterRollback(Runnable callback)
+    {
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null)
+        {
+            throw new IllegalStateException("Could not register callback because current thread does not run within a transaction");
+        }
+        scope.afterRollback.add(callback);
+    }
+
+    /**
+     * Returns a resource that is bound to the transaction of the current thread. If no resource is bound to the given key,
+     * the resource is created by using the given supplier. All resources are released when the transaction of the
+     * current thread is closed.
+     *
+     * @param key that identifies the resource within the transaction
+     * @param supplier to create the resource if it is not bound to the transaction yet
+     * @param <R> type of the resource
+     * @return the resource that is bound to the given key
+     * @throws IllegalStateException if the current thread does not run within a transaction
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R getResource(Object key, Supplier<R> supplier)
+    {
+        var scope = INSTANCE.transactionScope.get();
+        if (scope == null)
+        {
+            throw new IllegalStateException("Could not get resource because current thread does not run within a transaction");
+        }
+        return (R) scope.resources.computeIfAbsent(key, element -> supplier.get());
+    }
+
+    private static RuntimeException runBeforeCommit(TransactionScope scope)
+    {
+        if (scope == null || scope.rolledBack)
+        {
+            return null;
+        }
+
+        try {
+            // A callback can register further callbacks, so that we cannot use an iterator
+            for (var i = 0; i < scope.beforeCommit.size(); ++i)
+            {
+                scope.beforeCommit.get(i).run();
+            }
+            return null;
+        } catch (RuntimeException e) {
+            rollback();
+            return e;
+        }
+    }
+
+    /**
+     * Closes all handlers of given scope in the order in which they were initialized. If a handler cannot be closed,
+     * this handler and all handlers that are not closed yet are rolled back.
+     *
+     * @return the exception of the first handler that could not be closed, or null if all handlers were closed
+     */
+    private static RuntimeException closeHandlers(TransactionScope scope)
+    {
+        // A handler can enlist further handlers while it is closed, so that we cannot use an iterator
+        for (var i = 0; i < scope.handlers.size(); ++i)
+        {
+            try {
+                scope.handlers.get(i).closeTransaction();
+            } catch (RuntimeException e) {
+                rollbackPendingHandlers(scope, i, e);
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private static void rollbackPendingHandlers(TransactionScope scope, int failedHandler, RuntimeException closeFailure)
+    {
+        scope.rolledBack = true;
+        for (var i = failedHandler; i < scope.handlers.size(); ++i)
+        {
+            var handler = scope.handlers.get(i);
+            try {
+                handler.rollback();
+                if (i != failedHandler)
+                {
+                    handler.closeTransaction();
+                }
+            } catch (RuntimeException e) {
+                closeFailure.addSuppressed(e);
+            }
+        }
+
+        for (var callback : scope.afterRollback)
+        {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                closeFailure.addSuppressed(e);
+            }
+        }
     }
 
     public static void clear()
     {
-        getInstance().transactionHandlerList.clear();
+        getInstance().transactionHandlers.clear();
     }
 
     private TransactionManager()
@@ -45,4 +328,27 @@ public class TransactionManager {
         JexxaContext.registerCleanupHandler(TransactionManager::clear);
     }
 
+    private static class TransactionScope
+    {
+        private int depth = 0;
+        // Handlers in the order in which they were initialized
+        private final List<TransactionHandler> handlers = new ArrayList<>();
+        private final Set<TransactionHandler> enlistedHandlers = new HashSet<>();
+        private final List<Runnable> afterCompletion = new ArrayList<>();
+        private final List<Runnable> beforeCommit = new ArrayList<>();
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private final List<Runnable> afterRollback = new ArrayList<>();
+        private final Map<Object, Object> resources = new HashMap<>();
+        private boolean rolledBack = false;
+
+        private boolean add(TransactionHandler transactionHandler)
+        {
+            if (!enlistedHandlers.add(transactionHandler))
+            {
+                return false;
+            }
+            handlers.add(transactionHandler);
+            return true;
+        }
+    }
 }
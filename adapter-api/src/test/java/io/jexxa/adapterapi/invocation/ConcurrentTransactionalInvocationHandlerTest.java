@@ -0,0 +1,288 @@
+package io.jexxa.adapterapi.invocation;
+
+import io.jexxa.adapterapi.CountingObject;
+import io.jexxa.adapterapi.invocation.transaction.TransactionHandler;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTransactionalInvocationHandlerTest {
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final int[] SCALING_THREADS = {1, 2, 4, 8};
+    private static final int INVOCATIONS_PER_THREAD = 5;
+    private static final long SIMULATED_IO_DURATION = 20; // in ms
+
+    private final AtomicInteger activeInvocations = new AtomicInteger();
+    private final AtomicInteger maxActiveInvocations = new AtomicInteger();
+    private CountingTransactionHandler transactionHandler;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp()
+    {
+        transactionHandler = new CountingTransactionHandler();
+        TransactionManager.registerTransactionHandler(transactionHandler);
+        executorService = Executors.newFixedThreadPool(SCALING_THREADS[SCALING_THREADS.length - 1]);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        executorService.shutdownNow();
+        TransactionManager.clear();
+    }
+
+    @Test
+    void invokeInParallel()
+    {
+        //Arrange
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler();
+
+        //Act
+        runInParallel(threadID -> objectUnderTest.invoke(new CountingObject(), this::simulateIO));
+
+        //Assert
+        assertTrue(maxActiveInvocations.get() > 1);
+        assertEquals(NUMBER_OF_THREADS * INVOCATIONS_PER_THREAD, transactionHandler.closedTransactions.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void serializeInvocationsOnSameTarget()
+    {
+        //Arrange
+        var target = new CountingObject();
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler()
+                .serializeBy(ConcurrentTransactionalInvocationHandler.BY_TARGET);
+
+        //Act
+        runInParallel(threadID -> objectUnderTest.invoke(target, this::simulateIO));
+
+        //Assert
+        assertEquals(1, maxActiveInvocations.get());
+        assertEquals(NUMBER_OF_THREADS * INVOCATIONS_PER_THREAD, transactionHandler.closedTransactions.get());
+    }
+
+    @Test
+    void invokeDifferentTargetsInParallel()
+    {
+        //Arrange
+        var targets = new ArrayList<CountingObject>();
+        for (int i = 0; i < NUMBER_OF_THREADS; ++i)
+        {
+            targets.add(new CountingObject());
+        }
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler()
+                .serializeBy(ConcurrentTransactionalInvocationHandler.BY_TARGET);
+
+        //Act
+        runInParallel(threadID -> objectUnderTest.invoke(targets.get(threadID), this::simulateIO));
+
+        //Assert
+        assertTrue(maxActiveInvocations.get() > 1);
+    }
+
+    @Test
+    void throughputScalesWithNumberOfThreads()
+    {
+        //Arrange
+        var globalLockHandler = new TransactionalInvocationHandler();
+        var concurrentHandler = new ConcurrentTransactionalInvocationHandler();
+        var globalLockThroughput = new double[SCALING_THREADS.length];
+        var concurrentThroughput = new double[SCALING_THREADS.length];
+
+        //Act
+        for (int i = 0; i < SCALING_THREADS.length; ++i)
+        {
+            int numberOfThreads = SCALING_THREADS[i];
+            globalLockThroughput[i] = throughput(numberOfThreads,
+                    runInParallel(numberOfThreads, threadID -> globalLockHandler.invoke(new CountingObject(), this::simulateIO)));
+            concurrentThroughput[i] = throughput(numberOfThreads,
+                    runInParallel(numberOfThreads, threadID -> concurrentHandler.invoke(new CountingObject(), this::simulateIO)));
+        }
+
+        //Assert - Since invocations wait for (simulated) IO, they can run in parallel even on a single CPU
+        for (int i = 1; i < SCALING_THREADS.length; ++i)
+        {
+            assertTrue(concurrentThroughput[i] > concurrentThroughput[i - 1],
+                    "Throughput with " + SCALING_THREADS[i] + " threads must be higher than with " + SCALING_THREADS[i - 1]);
+        }
+        var maxThreads = SCALING_THREADS.length - 1;
+        assertTrue(concurrentThroughput[maxThreads] > 2 * concurrentThroughput[0]);
+        assertTrue(globalLockThroughput[maxThreads] < 2 * globalLockThroughput[0]);
+        assertTrue(concurrentThroughput[maxThreads] > globalLockThroughput[maxThreads]);
+    }
+
+    @Test
+    void nestedInvocationJoinsTransaction()
+    {
+        //Arrange
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler();
+        var target = new CountingObject();
+
+        //Act
+        objectUnderTest.invoke(target, () -> objectUnderTest.invoke(target, target::increment));
+
+        //Assert
+        assertEquals(1, target.getCounter());
+        assertEquals(1, transactionHandler.initializedTransactions.get());
+        assertEquals(1, transactionHandler.closedTransactions.get());
+    }
+
+    @Test
+    void closeTransactionOnError()
+    {
+        //Arrange
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler();
+        var target = new CountingObject();
+
+        //Act
+        try {
+            objectUnderTest.invoke(target, () -> { throw new AssertionError("Simulated error"); });
+        } catch (AssertionError e) {
+            // expected error
+        }
+        objectUnderTest.invoke(target, target::increment);
+
+        //Assert
+        assertEquals(1, transactionHandler.rolledBackTransactions.get());
+        assertEquals(2, transactionHandler.closedTransactions.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void closeTransactionOnceIfCommitFails()
+    {
+        //Arrange
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler();
+        var target = new CountingObject();
+        transactionHandler.failOnClose = true;
+
+        //Act
+        assertThrows(IllegalStateException.class, () -> objectUnderTest.invoke(target, target::increment));
+
+        //Assert
+        assertEquals(1, transactionHandler.closedTransactions.get());
+        assertEquals(1, transactionHandler.rolledBackTransactions.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void rollbackOnException()
+    {
+        //Arrange
+        var objectUnderTest = new ConcurrentTransactionalInvocationHandler();
+        var target = new CountingObject();
+
+        //Act
+        try {
+            objectUnderTest.invoke(target, () -> { throw new IllegalStateException("Simulated failure"); });
+        } catch (IllegalStateException e) {
+            // expected exception
+        }
+
+        //Assert
+        assertEquals(1, transactionHandler.rolledBackTransactions.get());
+        assertEquals(1, transactionHandler.closedTransactions.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    private void simulateIO()
+    {
+        int active = activeInvocations.incrementAndGet();
+        maxActiveInvocations.accumulateAndGet(active, Math::max);
+        try {
+            Thread.sleep(SIMULATED_IO_DURATION);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeInvocations.decrementAndGet();
+        }
+    }
+
+    private long runInParallel(IntConsumer invocation)
+    {
+        return runInParallel(NUMBER_OF_THREADS, invocation);
+    }
+
+    /**
+     * Returns the number of invocations per second
+     */
+    private static double throughput(int numberOfThreads, long durationInNanos)
+    {
+        return numberOfThreads * INVOCATIONS_PER_THREAD * 1e9 / durationInNanos;
+    }
+
+    private long runInParallel(int numberOfThreads, IntConsumer invocation)
+    {
+        activeInvocations.set(0);
+        maxActiveInvocations.set(0);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; ++i)
+        {
+            int threadID = i;
+            tasks.add(() -> {
+                for (int j = 0; j < INVOCATIONS_PER_THREAD; ++j)
+                {
+                    invocation.accept(threadID);
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        var futures = tasks.stream().map(executorService::submit).toList();
+        for (var future : futures)
+        {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static class CountingTransactionHandler implements TransactionHandler
+    {
+        private final AtomicInteger initializedTransactions = new AtomicInteger();
+        private final AtomicInteger closedTransactions = new AtomicInteger();
+        private final AtomicInteger rolledBackTransactions = new AtomicInteger();
+        private boolean failOnClose = false;
+
+        @Override
+        public void initTransaction()
+        {
+            initializedTransactions.incrementAndGet();
+        }
+
+        @Override
+        public void closeTransaction()
+        {
+            closedTransactions.incrementAndGet();
+            if (failOnClose)
+            {
+                throw new IllegalStateException("Simulated commit failure");
+            }
+        }
+
+        @Override
+        public void rollback()
+        {
+            rolledBackTransactions.incrementAndGet();
+        }
+    }
+}
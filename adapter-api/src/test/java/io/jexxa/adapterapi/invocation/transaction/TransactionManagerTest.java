@@ -0,0 +1,285 @@
+package io.jexxa.adapterapi.invocation.transaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionManagerTest {
+
+    @AfterEach
+    void tearDown()
+    {
+        TransactionManager.clear();
+    }
+
+    @Test
+    void enlistOnlyUsedHandler()
+    {
+        //Arrange
+        var usedHandler = new CountingTransactionHandler();
+        var unusedHandler = new CountingTransactionHandler();
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(usedHandler);
+        TransactionManager.enlist(usedHandler);
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, usedHandler.initializedTransactions);
+        assertEquals(1, usedHandler.closedTransactions);
+        assertEquals(0, unusedHandler.initializedTransactions);
+        assertEquals(0, unusedHandler.closedTransactions);
+    }
+
+    @Test
+    void rollbackEnlistedHandler()
+    {
+        //Arrange
+        var enlistedHandler = new CountingTransactionHandler();
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(enlistedHandler);
+
+        //Act
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, enlistedHandler.rolledBackTransactions);
+        assertEquals(1, enlistedHandler.closedTransactions);
+    }
+
+    @Test
+    void enlistOutsideTransaction()
+    {
+        //Arrange
+        var handler = new CountingTransactionHandler();
+
+        //Act
+        TransactionManager.enlist(handler);
+
+        //Assert
+        assertEquals(0, handler.initializedTransactions);
+    }
+
+    @Test
+    void enlistInNextTransaction()
+    {
+        //Arrange
+        var handler = new CountingTransactionHandler();
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(handler);
+        TransactionManager.closeTransaction();
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, handler.initializedTransactions);
+        assertEquals(1, handler.closedTransactions);
+    }
+
+    @Test
+    void afterCompletionOutsideTransaction()
+    {
+        assertThrows(IllegalStateException.class, () -> TransactionManager.afterCompletion(() -> {}));
+    }
+
+    @Test
+    void afterCommit()
+    {
+        //Arrange
+        var committedTransactions = new AtomicInteger();
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.afterCommit(committedTransactions::incrementAndGet);
+        TransactionManager.closeTransaction();
+
+        TransactionManager.initTransaction();
+        TransactionManager.afterCommit(committedTransactions::incrementAndGet);
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, committedTransactions.get());
+    }
+
+    @Test
+    void afterRollback()
+    {
+        //Arrange
+        var rolledBackTransactions = new AtomicInteger();
+
+        //Act
+        TransactionManager.initTransaction();
+        TransactionManager.afterRollback(rolledBackTransactions::incrementAndGet);
+        TransactionManager.closeTransaction();
+
+        TransactionManager.initTransaction();
+        TransactionManager.afterRollback(rolledBackTransactions::incrementAndGet);
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, rolledBackTransactions.get());
+    }
+
+    @Test
+    void beforeCommit()
+    {
+        //Arrange
+        var handler = new CountingTransactionHandler();
+        var closedTransactionsBeforeCommit = new AtomicInteger(-1);
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(handler);
+
+        //Act
+        TransactionManager.beforeCommit(() -> closedTransactionsBeforeCommit.set(handler.closedTransactions));
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(0, closedTransactionsBeforeCommit.get());
+        assertEquals(1, handler.closedTransactions);
+    }
+
+    @Test
+    void rollbackFailedBeforeCommit()
+    {
+        //Arrange
+        var handler = new CountingTransactionHandler();
+        var committedTransactions = new AtomicInteger();
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(handler);
+        TransactionManager.afterCommit(committedTransactions::incrementAndGet);
+
+        //Act
+        TransactionManager.beforeCommit(() -> { throw new IllegalArgumentException("deferred write failed"); });
+        assertThrows(IllegalArgumentException.class, TransactionManager::closeTransaction);
+
+        //Assert
+        assertEquals(1, handler.rolledBackTransactions);
+        assertEquals(1, handler.closedTransactions);
+        assertEquals(0, committedTransactions.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void rollbackPendingHandlersIfCloseFails()
+    {
+        //Arrange
+        var closedHandler = new CountingTransactionHandler();
+        CountingTransactionHandler failingHandler = new FailingTransactionHandler();
+        var pendingHandler = new CountingTransactionHandler();
+        var committedTransactions = new AtomicInteger();
+        var rolledBackTransactions = new AtomicInteger();
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(closedHandler);
+        TransactionManager.enlist(failingHandler);
+        TransactionManager.enlist(pendingHandler);
+        TransactionManager.afterCommit(committedTransactions::incrementAndGet);
+        TransactionManager.afterRollback(rolledBackTransactions::incrementAndGet);
+
+        //Act
+        assertThrows(IllegalStateException.class, TransactionManager::closeTransaction);
+
+        //Assert
+        assertEquals(1, closedHandler.closedTransactions);
+        assertEquals(0, closedHandler.rolledBackTransactions);
+        assertEquals(1, failingHandler.rolledBackTransactions);
+        assertEquals(1, pendingHandler.rolledBackTransactions);
+        assertEquals(1, pendingHandler.closedTransactions);
+        assertEquals(0, committedTransactions.get());
+        assertEquals(1, rolledBackTransactions.get());
+        assertFalse(TransactionManager.isTransactionActive());
+    }
+
+    @Test
+    void enlistHandlerWhileClosing()
+    {
+        //Arrange
+        var lateHandler = new CountingTransactionHandler();
+        CountingTransactionHandler enlistingHandler = new CountingTransactionHandler()
+        {
+            @Override
+            public void closeTransaction()
+            {
+                super.closeTransaction();
+                TransactionManager.enlist(lateHandler);
+            }
+        };
+        TransactionManager.initTransaction();
+        TransactionManager.enlist(enlistingHandler);
+
+        //Act
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(1, enlistingHandler.closedTransactions);
+        assertEquals(1, lateHandler.initializedTransactions);
+        assertEquals(1, lateHandler.closedTransactions);
+    }
+
+    @Test
+    void resourceBoundToTransaction()
+    {
+        //Arrange
+        TransactionManager.initTransaction();
+        var resource = TransactionManager.getResource(this, Object::new);
+
+        //Act
+        var sameResource = TransactionManager.getResource(this, Object::new);
+        TransactionManager.closeTransaction();
+        TransactionManager.initTransaction();
+        var nextResource = TransactionManager.getResource(this, Object::new);
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertSame(resource, sameResource);
+        assertNotSame(resource, nextResource);
+        assertThrows(IllegalStateException.class, () -> TransactionManager.getResource(this, Object::new));
+    }
+
+    private static class FailingTransactionHandler extends CountingTransactionHandler
+    {
+        @Override
+        public void closeTransaction()
+        {
+            throw new IllegalStateException("Simulated commit failure");
+        }
+    }
+
+    private static class CountingTransactionHandler implements TransactionHandler
+    {
+        private int initializedTransactions = 0;
+        private int closedTransactions = 0;
+        private int rolledBackTransactions = 0;
+
+        @Override
+        public void initTransaction()
+        {
+            ++initializedTransactions;
+            TransactionManager.enlist(this); // A handler may enlist itself during initialization
+        }
+
+        @Override
+        public void closeTransaction()
+        {
+            ++closedTransactions;
+        }
+
+        @Override
+        public void rollback()
+        {
+            ++rolledBackTransactions;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
  */
 public class TransactionalOutboxSender extends MessageSender {
     private static final List<TransactionalOutboxSender> TRANSACTIONAL_OUTBOX_SENDERS = new ArrayList<>();
+    private static final int OUTBOX_PAGE_SIZE = 100;
     private static boolean cleanupRegistered = false;
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
     private IRepository<JexxaOutboxMessage, UUID> outboxRepository;
@@ -133,19 +134,25 @@ public class TransactionalOutboxSender extends MessageSender {
 
     private synchronized void sendOutboxMessages()
     {
-        outboxRepository.get().stream()
-            .filter(outboxMessage -> outboxMessage.destinationType.equals(DestinationType.QUEUE))
-            .forEach(outboxMessage -> {
-                sendToQueue(outboxMessage);
-                outboxRepository.remove(outboxMessage.messageId());
+        // Messages are sent and removed page by page, so that only a single page is kept in memory. The next page is
+        // read before the current page is removed, so that the key of the last message still exists.
+        var outboxMessages = outboxRepository.page(OUTBOX_PAGE_SIZE);
+        while (!outboxMessages.isEmpty())
+        {
+            outboxMessages.forEach(outboxMessage -> {
+                if (outboxMessage.destinationType.equals(DestinationType.QUEUE))
+                {
+                    sendToQueue(outboxMessage);
+                } else {
+                    sendToTopic(outboxMessage);
+                }
             });
 
-        outboxRepository.get().stream()
-            .filter(outboxMessage -> outboxMessage.destinationType.equals(DestinationType.TOPIC))
-            .forEach(outboxMessage -> {
-                sendToTopic(outboxMessage);
-                outboxRepository.remove(outboxMessage.messageId());
-            });
+            var lastMessage = outboxMessages.get(outboxMessages.size() - 1).messageId();
+            var nextMessages = outboxRepository.page(lastMessage, OUTBOX_PAGE_SIZE);
+            outboxRepository.removeAll(outboxMessages.stream().map(JexxaOutboxMessage::messageId).toList());
+            outboxMessages = nextMessages;
+        }
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
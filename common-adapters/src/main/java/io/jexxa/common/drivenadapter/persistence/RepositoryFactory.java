@@ -2,6 +2,8 @@ package io.jexxa.common.drivenadapter.persistence;
 
 
 import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.cache.CachingRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.cache.IdentityMapRepository;
 import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
 import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository;
 import io.jexxa.common.facade.factory.ClassFactory;
@@ -9,6 +11,7 @@ import io.jexxa.common.facade.jdbc.JDBCProperties;
 import io.jexxa.common.facade.logger.ApplicationBanner;
 import io.jexxa.common.facade.utils.annotation.CheckReturnValue;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -43,8 +46,19 @@ public final class RepositoryFactory
             var strategy = getRepositoryType(aggregateClazz, properties);
 
             var result = ClassFactory.newInstanceOf(strategy, new Object[]{aggregateClazz, keyFunction, properties});
+            var repository = (IRepository<T, K>) result.orElseThrow();
 
-            return (IRepository<T, K>) result.orElseThrow();
+            if (isListed(aggregateClazz, properties, RepositoryProperties.repositoryCacheAggregates()))
+            {
+                repository = new CachingRepository<>(repository, aggregateClazz, keyFunction, properties);
+            }
+
+            if (isListed(aggregateClazz, properties, RepositoryProperties.repositoryIdentityMapAggregates()))
+            {
+                repository = new IdentityMapRepository<>(repository, aggregateClazz, keyFunction);
+            }
+
+            return repository;
         }
         catch (ReflectiveOperationException e)
         {
@@ -106,6 +120,19 @@ public final class RepositoryFactory
     }
 
 
+    /**
+     * Checks if given aggregate type is listed in given property, such as
+     * {@link RepositoryProperties#repositoryCacheAggregates()} for a {@link CachingRepository} or
+     * {@link RepositoryProperties#repositoryIdentityMapAggregates()} for an {@link IdentityMapRepository}
+     */
+    private static boolean isListed(Class<?> aggregateClazz, Properties properties, String key)
+    {
+        var listedAggregates = properties.getProperty(key, "");
+        return Arrays.stream(listedAggregates.split(","))
+                .map(String::trim)
+                .anyMatch(element -> element.equals("*") || element.equals(aggregateClazz.getSimpleName()));
+    }
+
     @SuppressWarnings("DuplicatedCode")
     private static <T> Class<?> getRepositoryType(Class<T> aggregateClazz, Properties properties)
     {
@@ -0,0 +1,39 @@
+package io.jexxa.common.drivenadapter.persistence;
+
+import io.jexxa.common.facade.jdbc.JDBCProperties;
+
+/**
+ * Properties of the repositories that are not specific to JDBC. All keys use the prefix of {@link JDBCProperties}, so
+ * that changing the prefix there applies to all repository properties.
+ */
+public final class RepositoryProperties
+{
+    /** Defines a comma separated list of the simple class names of aggregates whose repositories are decorated with a CachingRepository, or "*" for all aggregates. Default is no aggregate */
+    public static String repositoryCacheAggregates() { return prefix() + "repository.cache.aggregates";}
+    /** Defines a comma separated list of the simple class names of aggregates whose repositories are decorated with an IdentityMapRepository, or "*" for all aggregates. Default is no aggregate */
+    public static String repositoryIdentityMapAggregates() { return prefix() + "repository.identitymap.aggregates";}
+    /** Defines the maximal number of aggregates that are cached for an aggregate type. Default is 1000 */
+    public static String repositoryCacheSize() { return prefix() + "repository.cache.size";}
+    /** Defines the time in milliseconds after which a cached aggregate expires. Default is 0, which means that cached aggregates do not expire */
+    public static String repositoryCacheTTL() { return prefix() + "repository.cache.ttl";}
+    /** Defines the name of the {@link io.jexxa.common.facade.codec.ValueCodec} used to store aggregates, such as json or binary. Default is json */
+    public static String repositoryValueCodec() { return prefix() + "repository.value.codec";}
+
+    /** Defines the directory in which a PersistentIMDBRepository stores its journal and snapshot files. This property is mandatory for a PersistentIMDBRepository */
+    public static String repositoryIMDBDirectory() { return prefix() + "repository.imdb.directory";}
+    /** Defines the number of journaled changes after which a PersistentIMDBRepository writes a snapshot. Default is 10000 */
+    public static String repositoryIMDBSnapshotThreshold() { return prefix() + "repository.imdb.snapshot.threshold";}
+    /** If "true", a PersistentIMDBRepository syncs each change to disk before the changing method returns. Default is "true" */
+    public static String repositoryIMDBSync() { return prefix() + "repository.imdb.sync";}
+    /** If "true", an IMDBRepository stores immutable aggregates by reference and copies mutable aggregates without encoding them. Default is "false" */
+    public static String repositoryIMDBStoreByReference() { return prefix() + "repository.imdb.store.by.reference";}
+    /** Defines the size in bytes of the off-heap buffers in which an OffHeapRepository stores its aggregates. Default is 16777216 (16 MiB) */
+    public static String repositoryOffHeapSlabSize() { return prefix() + "repository.offheap.slab.size";}
+
+    public static String prefix() {return JDBCProperties.prefix();}
+
+    private RepositoryProperties()
+    {
+        //private constructor
+    }
+}
@@ -1,27 +1,32 @@
 package io.jexxa.common.drivenadapter.persistence.objectstore.imdb;
 
 
+import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetadataSchema;
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.NumericTag;
 import io.jexxa.common.drivenadapter.persistence.objectstore.INumericQuery;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
+import static io.jexxa.common.drivenadapter.persistence.objectstore.imdb.MetaTagIndex.keysOf;
+
+/**
+ * Numeric query that selects the aggregates from the sorted index of its MetaTag. Values are compared by their
+ * {@link MetaTagIndex.NumericValue} representation.
+ */
+class IMDBNumericQuery<T, K, S, M extends Enum<M> & MetadataSchema> implements INumericQuery<T, S>
 {
     private final NumericTag<T, S> numericTag;
-    private final IMDBObjectStore<T, K, ?> objectStore;
-
-    private Map<K, T> getOwnAggregateMap()
-    {
-        return objectStore.getAggregates();
-    }
+    private final IMDBObjectStore<T, K, M> objectStore;
+    private final M metaTag;
 
-    IMDBNumericQuery(IMDBObjectStore<T, K, ?> objectStore, NumericTag<T, S> numericTag, Class<S> queryType)
+    IMDBNumericQuery(IMDBObjectStore<T, K, M> objectStore, M metaTag, NumericTag<T, S> numericTag, Class<S> queryType)
     {
         this.objectStore = objectStore;
+        this.metaTag = metaTag;
         this.numericTag = numericTag;
         Objects.requireNonNull( queryType );//Type required for java type inference
     }
@@ -29,202 +34,134 @@ class IMDBNumericQuery<T, K, S> implements INumericQuery<T, S>
     @Override
     public List<T> isGreaterOrEqualThan(S startValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .filter(element -> compareToValue(element, startValue) >= 0)
-                .toList();
+        var value = toNumericValue(startValue);
+        return query(index -> keysOf(index.getValues().tailMap(value, true)));
     }
 
     @Override
     public List<T> isGreaterThan(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .filter(element -> compareToValue(element, value) > 0)
-                .toList();
+        var startValue = toNumericValue(value);
+        return query(index -> keysOf(index.getValues().tailMap(startValue, false)));
     }
 
     @Override
     public List<T> getRangeClosed(S startValue, S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .filter(element -> compareToValue(element, startValue) >= 0)
-                .filter(element -> compareToValue(element, endValue) <= 0)
-                .toList();
+        var start = toNumericValue(startValue);
+        var end = toNumericValue(endValue);
+        if (start.compareTo(end) > 0)
+        {
+            return List.of();
+        }
+        return query(index -> keysOf(index.getValues().subMap(start, true, end, true)));
     }
 
     @Override
     public List<T> getRange(S startValue, S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .filter(element -> compareToValue(element, startValue) >= 0)
-                .filter(element -> compareToValue(element, endValue) < 0)
-                .toList();
+        var start = toNumericValue(startValue);
+        var end = toNumericValue(endValue);
+        if (start.compareTo(end) > 0)
+        {
+            return List.of();
+        }
+        return query(index -> keysOf(index.getValues().subMap(start, true, end, false)));
     }
 
     @Override
     public List<T> isLessOrEqualThan(S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .filter(element -> compareToValue(element, endValue) <= 0)
-                .toList();
+        var value = toNumericValue(endValue);
+        return query(index -> keysOf(index.getValues().headMap(value, true)));
     }
 
     @Override
     public List<T> isLessThan(S endValue)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .filter(element -> compareToValue(element, endValue) < 0)
-                .toList();
+        var value = toNumericValue(endValue);
+        return query(index -> keysOf(index.getValues().headMap(value, false)));
     }
 
     @Override
     public List<T> getAscending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(this::compareToAggregate)
-                .limit(amount)
-                .toList();
+        return query(index -> ascending(index).limit(Math.max(0, amount)));
     }
 
     @Override
     public List<T> getAscending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(this::compareToAggregate)
-                .toList();
+        return query(IMDBNumericQuery::ascending);
     }
 
     @Override
     public List<T> getDescending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
-                .limit(amount)
-                .toList();
+        return query(index -> descending(index).limit(Math.max(0, amount)));
     }
 
     @Override
     public List<T> getDescending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
-                .toList();
+        return query(IMDBNumericQuery::descending);
     }
 
     @Override
     public List<T> isEqualTo(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter(element-> compareToValue(element, value) == 0)
-                .toList();
+        var equalValue = toNumericValue(value);
+        return query(index -> index.getValues().getOrDefault(equalValue, Set.of()).stream());
     }
 
     @Override
     public List<T> isNotEqualTo(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter(element-> compareToValue(element, value) != 0)
-                .toList();
+        // A null value is treated as greater than all other values and is therefore not equal to given value
+        var notEqualValue = toNumericValue(value);
+        return query(index -> Stream.concat(
+                Stream.concat(
+                        keysOf(index.getValues().headMap(notEqualValue, false)),
+                        keysOf(index.getValues().tailMap(notEqualValue, false))),
+                index.getNullValues().stream()));
     }
 
     @Override
     public List<T> isNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) == null)
-                .toList();
+        return query(index -> index.getNullValues().stream());
     }
 
     @Override
     public List<T> isNotNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> numericTag.getFromAggregate(element) != null)
-                .toList();
+        return query(index -> keysOf(index.getValues()));
     }
 
-    private int compareToValue(T aggregate, S value)
+    private List<T> query(Function<MetaTagIndex<T, K, MetaTagIndex.NumericValue>, Stream<K>> keySelector)
     {
-        Objects.requireNonNull(aggregate);
-        Objects.requireNonNull(value);
-
-        var aggregateValue = numericTag.getFromAggregate(aggregate);
-
-        if(aggregateValue == null)
-        {
-            return 1;
-        }
-
-        return typeSpecificCompareTo(aggregateValue, numericTag.getFromValue(value));
+        return objectStore.query(metaTag, keySelector);
     }
 
-    protected int typeSpecificCompareTo(Number value1, Number value2)
+    private MetaTagIndex.NumericValue toNumericValue(S value)
     {
-        //Handle both != null
-        var aggregateValue1BD = new BigDecimal( value1.toString() );
-        var aggregateValue2BD = new BigDecimal( value2.toString() );
-        return aggregateValue1BD.compareTo(aggregateValue2BD);
+        Objects.requireNonNull(value);
+        return MetaTagIndex.toNumericValue(numericTag.getFromValue(value));
     }
+
     /**
-     * Compares the value of the two aggregates which each other
-     *
-     * @param aggregate1 first aggregate
-     * @param aggregate2 second aggregate
-     * @return 0: If the value of aggregate1 is equal to value aggregate2 <br>
-     *     -1: If value of aggregate1 &lt; value of aggregate2 <br>
-     *     1: If value of aggregate1 &gt; value of aggregate2 <br>
-     *     1: If one of the given values is null <br>
+     * Null values are always at the end of the list
      */
-    @SuppressWarnings("DuplicatedCode")
-    private int compareToAggregate(T aggregate1, T aggregate2)
+    private static <K> Stream<K> ascending(MetaTagIndex<?, K, MetaTagIndex.NumericValue> index)
     {
-        Objects.requireNonNull(aggregate1);
-        Objects.requireNonNull(aggregate2);
-
-        var aggregateValue1 = numericTag.getFromAggregate(aggregate1);
-        var aggregateValue2 = numericTag.getFromAggregate(aggregate2);
-
-        if ( aggregateValue1 == null && aggregateValue2 == null)
-        {
-            return 0;
-        } else if ( aggregateValue1 == null || aggregateValue2 == null)
-        {
-            return 1;
-        }
+        return Stream.concat(keysOf(index.getValues()), index.getNullValues().stream());
+    }
 
-        return typeSpecificCompareTo( aggregateValue1, aggregateValue2);
+    /**
+     * Null values are always at the end of the list
+     */
+    private static <K> Stream<K> descending(MetaTagIndex<?, K, MetaTagIndex.NumericValue> index)
+    {
+        return Stream.concat(keysOf(index.getValues().descendingMap()), index.getNullValues().stream());
     }
 }
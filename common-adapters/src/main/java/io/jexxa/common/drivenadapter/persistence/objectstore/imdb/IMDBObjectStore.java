@@ -8,22 +8,49 @@ import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.StringTag;
 import io.jexxa.common.drivenadapter.persistence.objectstore.IObjectStore;
 import io.jexxa.common.drivenadapter.persistence.objectstore.IStringQuery;
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetadataSchema;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.AggregateMap;
 import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
-import io.jexxa.common.facade.json.JSONManager;
 
 
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * IMDBRepository that supports queries on the MetaTags of the aggregates.
+ * <p>
+ * For each numeric and string MetaTag, a sorted index is maintained when aggregates are added, updated, or removed.
+ * Therefore, queries on the order, ranges, equality, and prefixes of values only decode the matching aggregates.
+ * Like the aggregates, the indexes are shared by all IMDBObjectStores of an aggregate type.
+ * <p>
+ * Important note: The indexes only include changes made by an IMDBObjectStore. So, aggregates of the same type must not
+ * be changed by an {@link IMDBRepository}.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ * @param <M> Type of the MetadataSchema
+ */
 @SuppressWarnings("rawtypes")
 public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends IMDBRepository<T, K> implements IObjectStore<T, K, M>
 {
+    private static final Map<Class<?>, Indexes<?, ?>> INDEXES_MAP = new ConcurrentHashMap<>();
+
     private final Set<M> metaData;
+    private final Function<T, K> keyFunction;
+    private final Indexes<T, K> indexes;
 
+    @SuppressWarnings("unchecked")
     public IMDBObjectStore(
             Class<T> aggregateClazz,
             Function<T, K> keyFunction,
@@ -33,6 +60,9 @@ public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends
     {
         super(aggregateClazz, keyFunction, properties);
         this.metaData = EnumSet.allOf(metaData);
+        this.keyFunction = keyFunction;
+        this.indexes = (Indexes<T, K>) INDEXES_MAP.computeIfAbsent(aggregateClazz, element -> new Indexes<>());
+        registerIndexes();
     }
 
     @Override
@@ -47,7 +77,7 @@ public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends
         //noinspection unchecked
         NumericTag<T, S> numericTag = (NumericTag) metaTag.getTag();
 
-        return new IMDBNumericQuery<>(this, numericTag, queryType);
+        return new IMDBNumericQuery<>(this, metaTag, numericTag, queryType);
     }
 
     @Override
@@ -62,18 +92,194 @@ public class IMDBObjectStore<T, K, M extends Enum<M> & MetadataSchema>  extends
         //noinspection unchecked
         StringTag<T, S> stringTag = (StringTag) metaTag.getTag();
 
-        return new IMDBStringQuery<>(this, stringTag, queryType);
+        return new IMDBStringQuery<>(this, metaTag, stringTag, queryType);
     }
 
+    @Override
+    public void update(T aggregate)
+    {
+        change(() -> super.update(aggregate), index -> index.put(keyFunction.apply(aggregate), aggregate));
+    }
 
-    Map<K, T> getAggregates()
+    @Override
+    public void remove(K key)
     {
-        Map<K, String> myggregateMap = getAggregateMap(getAggregateClazz());
-        return myggregateMap
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> JSONManager.getJSONConverter().fromJson(entry.getValue(), getAggregateClazz())));
+        change(() -> super.remove(key), index -> index.remove(key));
     }
 
-}
+    @Override
+    public void removeAll()
+    {
+        change(super::removeAll, MetaTagIndex::clear);
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        change(() -> super.add(aggregate), index -> index.put(keyFunction.apply(aggregate), aggregate));
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        change(() -> super.save(aggregate), index -> index.put(keyFunction.apply(aggregate), aggregate));
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        change(() -> super.addAll(aggregates), index -> aggregates.forEach(aggregate -> index.put(keyFunction.apply(aggregate), aggregate)));
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        change(() -> super.updateAll(aggregates), index -> aggregates.forEach(aggregate -> index.put(keyFunction.apply(aggregate), aggregate)));
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        change(() -> super.removeAll(keys), index -> keys.forEach(index::remove));
+    }
+
+    /**
+     * Returns the aggregates whose keys are selected from the index of given MetaTag. The aggregates are returned in
+     * the order of the selected keys.
+     */
+    <V extends Comparable<V>> List<T> query(M metaTag, Function<MetaTagIndex<T, K, V>, Stream<K>> keySelector)
+    {
+        validateIndexes();
+
+        var readLock = indexes.lock.readLock();
+        readLock.lock();
+        try {
+            @SuppressWarnings("unchecked")
+            var index = (MetaTagIndex<T, K, V>) indexes.metaTagIndexes.get(metaTag);
+            if (index == null)
+            {
+                throw new IllegalArgumentException("MetaTag " + metaTag.name() + " is neither a numeric nor a string tag");
+            }
+
+            AggregateMap<K> aggregateMap = getAggregateMap();
+            return keySelector.apply(index)
+                    .map(aggregateMap::get)
+                    .filter(Objects::nonNull)
+                    .map(this::toAggregate)
+                    .toList();
+        } finally {
+            readLock.unlock();
+        }
+    }
 
+    /**
+     * Applies given change to the aggregates and its result to all indexes. Changes are serialized, so that the order
+     * of changes in the indexes matches the order of changes of the aggregates.
+     */
+    private void change(Runnable change, Consumer<MetaTagIndex<T, K, ?>> indexChange)
+    {
+        var writeLock = indexes.lock.writeLock();
+        writeLock.lock();
+        try {
+            rebuildIndexesIfOutdated();
+            change.run();
+            indexes.metaTagIndexes.values().forEach(indexChange);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void registerIndexes()
+    {
+        var writeLock = indexes.lock.writeLock();
+        writeLock.lock();
+        try {
+            var newIndexes = new HashMap<Enum<?>, MetaTagIndex<T, K, ?>>();
+            metaData.stream()
+                    .filter(element -> !indexes.metaTagIndexes.containsKey(element))
+                    .forEach(element -> createIndex(element).ifPresent(index -> newIndexes.put(element, index)));
+
+            if (indexes.aggregateMap == getAggregateMap())
+            {
+                // Existing indexes are up to date, so that only new indexes must be filled
+                fillIndexes(newIndexes.values());
+                indexes.metaTagIndexes.putAll(newIndexes);
+            }
+            else
+            {
+                indexes.metaTagIndexes.putAll(newIndexes);
+                rebuildIndexesIfOutdated();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<MetaTagIndex<T, K, ?>> createIndex(M metaTag)
+    {
+        if (metaTag.getTag() instanceof NumericTag numericTag)
+        {
+            return Optional.of(MetaTagIndex.numericIndex((NumericTag<T, ?>) numericTag));
+        }
+        if (metaTag.getTag() instanceof StringTag stringTag)
+        {
+            return Optional.of(MetaTagIndex.stringIndex((StringTag<T, ?>) stringTag));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The aggregate map of an aggregate type is replaced when all IMDBRepositories are cleared. In this case, the
+     * indexes are rebuilt from the new aggregate map.
+     */
+    private void validateIndexes()
+    {
+        if (indexes.aggregateMap != getAggregateMap())
+        {
+            var writeLock = indexes.lock.writeLock();
+            writeLock.lock();
+            try {
+                rebuildIndexesIfOutdated();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void rebuildIndexesIfOutdated()
+    {
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        if (indexes.aggregateMap != aggregateMap)
+        {
+            indexes.metaTagIndexes.values().forEach(MetaTagIndex::clear);
+            fillIndexes(indexes.metaTagIndexes.values());
+            indexes.aggregateMap = aggregateMap;
+        }
+    }
+
+    private void fillIndexes(Collection<MetaTagIndex<T, K, ?>> metaTagIndexes)
+    {
+        if (metaTagIndexes.isEmpty())
+        {
+            return;
+        }
+
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        aggregateMap.forEach((key, value) -> {
+            var aggregate = toAggregate(value);
+            metaTagIndexes.forEach(index -> index.put(key, aggregate));
+        });
+    }
+
+    /**
+     * Indexes of all IMDBObjectStores of an aggregate type
+     */
+    private static final class Indexes<T, K>
+    {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Enum<?>, MetaTagIndex<T, K, ?>> metaTagIndexes = new HashMap<>();
+        // Aggregate map from which the indexes were created
+        private volatile AggregateMap<?> aggregateMap;
+    }
+}
@@ -2,25 +2,33 @@ package io.jexxa.common.drivenadapter.persistence.objectstore.imdb;
 
 
 import io.jexxa.common.drivenadapter.persistence.objectstore.IStringQuery;
+import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetadataSchema;
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.StringTag;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-
-class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static io.jexxa.common.drivenadapter.persistence.objectstore.imdb.MetaTagIndex.keysOf;
+
+/**
+ * String query that selects the aggregates from the sorted index of its MetaTag. Queries on equality and prefixes
+ * look up the matching values, all other queries scan the indexed values without decoding any aggregate.
+ */
+class IMDBStringQuery<T, K, S, M extends Enum<M> & MetadataSchema> implements IStringQuery<T, S>
 {
     private final StringTag<T, S> stringTag;
-    private final IMDBObjectStore<T, K, ?> objectStore;
-    private Map<K, T> getOwnAggregateMap()
-    {
-        return objectStore.getAggregates();
-    }
+    private final IMDBObjectStore<T, K, M> objectStore;
+    private final M metaTag;
 
-    IMDBStringQuery(IMDBObjectStore<T, K, ?> objectStore, StringTag<T, S> stringTag, Class<S> queryType)
+    IMDBStringQuery(IMDBObjectStore<T, K, M> objectStore, M metaTag, StringTag<T, S> stringTag, Class<S> queryType)
     {
         this.objectStore = objectStore;
+        this.metaTag = metaTag;
         this.stringTag = stringTag;
         Objects.requireNonNull( queryType );//Type required for java type inference
     }
@@ -29,151 +37,113 @@ class IMDBStringQuery<T, K, S> implements IStringQuery<T, S>
     @Override
     public List<T> beginsWith(S value)
     {
-        return getOwnAggregateMap()
-                .values()
+        var prefix = toString(value);
+        return query(index -> index.getValues()
+                .tailMap(prefix, true)
+                .entrySet()
                 .stream()
-                .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> stringTag.getFromAggregate(element).startsWith(stringTag.getFromValue(value)))
-                .toList();
+                .takeWhile(entry -> entry.getKey().startsWith(prefix))
+                .flatMap(entry -> entry.getValue().stream()));
     }
 
     @Override
     public List<T> endsWith(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> stringTag.getFromAggregate(element).endsWith(stringTag.getFromValue(value)))
-                .toList();
+        var suffix = toString(value);
+        return query(index -> filter(index, element -> element.endsWith(suffix)));
     }
 
     @Override
     public List<T> includes(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> stringTag.getFromAggregate(element).contains(stringTag.getFromValue(value)))
-                .toList();
+        var includedValue = toString(value);
+        return query(index -> filter(index, element -> element.contains(includedValue)));
     }
 
     @Override
     public List<T> isEqualTo(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> stringTag.getFromAggregate(element).equals(stringTag.getFromValue(value)))
-                .toList();
+        var equalValue = toString(value);
+        return query(index -> index.getValues().getOrDefault(equalValue, Set.of()).stream());
     }
 
     @Override
     public List<T> notIncludes(S value)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> stringTag.getFromAggregate(element) != null)
-                .filter( element -> !stringTag.getFromAggregate(element).contains(stringTag.getFromValue(value)))
-                .toList();
+        var includedValue = toString(value);
+        return query(index -> filter(index, element -> !element.contains(includedValue)));
     }
 
     @Override
     public List<T> isNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> stringTag.getFromAggregate(element) == null)
-                .toList();
+        return query(index -> index.getNullValues().stream());
     }
 
     @Override
     public List<T> isNotNull()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .filter( element -> stringTag.getFromAggregate(element) != null)
-                .toList();
+        return query(index -> keysOf(index.getValues()));
     }
 
     @Override
     public List<T> getAscending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(Comparator.comparing(stringTag::getFromAggregate))
-                .limit(amount)
-                .toList();
+        return query(index -> ascending(index).limit(Math.max(0, amount)));
     }
 
     @Override
     public List<T> getAscending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted(this::compareToAggregate)
-                .toList();
+        return query(IMDBStringQuery::ascending);
     }
 
     @Override
     public List<T> getDescending(int amount)
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
-                .limit(amount)
-                .toList();
+        return query(index -> descending(index).limit(Math.max(0, amount)));
     }
 
     @Override
     public List<T> getDescending()
     {
-        return getOwnAggregateMap()
-                .values()
-                .stream()
-                .sorted((element1, element2) -> compareToAggregate(element2, element1))
-                .toList();
+        return query(IMDBStringQuery::descending);
     }
 
-    protected int typeSpecificCompareTo(String value1, String value2)
+    private List<T> query(Function<MetaTagIndex<T, K, String>, Stream<K>> keySelector)
     {
-        return value1.compareTo(value2);
+        return objectStore.query(metaTag, keySelector);
     }
 
-    /**
-     * Compares the value of the two aggregates which each other
-     *
-     * @param aggregate1 first aggregate
-     * @param aggregate2 second aggregate
-     * @return 0: If the value of aggregate1 is equal to value aggregate2 <br>
-     *     -1: If value of aggregate1 &lt; value of aggregate2 <br>
-     *     1: If value of aggregate1 &gt; value of aggregate2 <br>
-     */
-    @SuppressWarnings("DuplicatedCode")
-    private int compareToAggregate(T aggregate1, T aggregate2)
+    private String toString(S value)
     {
-        Objects.requireNonNull(aggregate1);
-        Objects.requireNonNull(aggregate2);
+        Objects.requireNonNull(value);
+        return stringTag.getFromValue(value);
+    }
 
-        var aggregateValue1 = stringTag.getFromAggregate(aggregate1);
-        var aggregateValue2 = stringTag.getFromAggregate(aggregate2);
+    private static <K> Stream<K> filter(MetaTagIndex<?, K, String> index, Predicate<String> predicate)
+    {
+        return index.getValues()
+                .entrySet()
+                .stream()
+                .filter(entry -> predicate.test(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .flatMap(Set::stream);
+    }
 
-        if ( aggregateValue1 == null && aggregateValue2 == null)
-        {
-            return 0;
-        } else if ( aggregateValue1 == null || aggregateValue2 == null)
-        {
-            return 1;
-        }
+    /**
+     * Null values are always at the end of the list
+     */
+    private static <K> Stream<K> ascending(MetaTagIndex<?, K, String> index)
+    {
+        return Stream.concat(keysOf(index.getValues()), index.getNullValues().stream());
+    }
 
-        return typeSpecificCompareTo( aggregateValue1, aggregateValue2);
+    /**
+     * Null values are always at the end of the list
+     */
+    private static <K> Stream<K> descending(MetaTagIndex<?, K, String> index)
+    {
+        return Stream.concat(keysOf(index.getValues().descendingMap()), index.getNullValues().stream());
     }
 }
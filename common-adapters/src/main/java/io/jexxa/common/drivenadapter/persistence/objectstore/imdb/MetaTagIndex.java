@@ -0,0 +1,157 @@
+package io.jexxa.common.drivenadapter.persistence.objectstore.imdb;
+
+import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.NumericTag;
+import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.StringTag;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Sorted index of the values of a single MetaTag, which maps each value to the keys of the aggregates with this value.
+ * <p>
+ * The index is not thread-safe. Access is synchronized by {@link IMDBObjectStore}.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ * @param <V> Type of the indexed value
+ */
+final class MetaTagIndex<T, K, V extends Comparable<V>>
+{
+    private final Function<T, V> valueFunction;
+    private final TreeMap<V, Set<K>> values = new TreeMap<>();
+    private final Set<K> nullValues = new HashSet<>();
+    // Required to find the entry of an aggregate when it is updated or removed
+    private final Map<K, V> indexedValues = new HashMap<>();
+
+    static <T, K> MetaTagIndex<T, K, NumericValue> numericIndex(NumericTag<T, ?> numericTag)
+    {
+        return new MetaTagIndex<>(aggregate -> toNumericValue(numericTag.getFromAggregate(aggregate)));
+    }
+
+    static <T, K> MetaTagIndex<T, K, String> stringIndex(StringTag<T, ?> stringTag)
+    {
+        return new MetaTagIndex<>(stringTag::getFromAggregate);
+    }
+
+    /**
+     * Converts a number into its indexed representation, so that numbers of different types can be compared
+     */
+    static NumericValue toNumericValue(Number value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+        if (value instanceof Double || value instanceof Float)
+        {
+            var doubleValue = value.doubleValue();
+            if (Double.isNaN(doubleValue))
+            {
+                return NumericValue.NAN;
+            }
+            if (Double.isInfinite(doubleValue))
+            {
+                return doubleValue > 0 ? NumericValue.POSITIVE_INFINITY : NumericValue.NEGATIVE_INFINITY;
+            }
+        }
+        return new NumericValue(NumericValue.FINITE, value instanceof BigDecimal bigDecimal ? bigDecimal : new BigDecimal(value.toString()));
+    }
+
+    static <K> Stream<K> keysOf(Map<?, Set<K>> values)
+    {
+        return values.values().stream().flatMap(Set::stream);
+    }
+
+    private MetaTagIndex(Function<T, V> valueFunction)
+    {
+        this.valueFunction = valueFunction;
+    }
+
+    void put(K key, T aggregate)
+    {
+        remove(key);
+
+        var value = valueFunction.apply(aggregate);
+        if (value == null)
+        {
+            nullValues.add(key);
+        }
+        else
+        {
+            values.computeIfAbsent(value, element -> new HashSet<>()).add(key);
+            indexedValues.put(key, value);
+        }
+    }
+
+    void remove(K key)
+    {
+        if (nullValues.remove(key))
+        {
+            return;
+        }
+
+        var value = indexedValues.remove(key);
+        if (value != null)
+        {
+            var keys = values.get(value);
+            keys.remove(key);
+            if (keys.isEmpty())
+            {
+                values.remove(value);
+            }
+        }
+    }
+
+    void clear()
+    {
+        values.clear();
+        nullValues.clear();
+        indexedValues.clear();
+    }
+
+    /**
+     * Returns the non-null values in ascending order. The returned map must not be changed.
+     */
+    NavigableMap<V, Set<K>> getValues()
+    {
+        return values;
+    }
+
+    /**
+     * Returns the keys of all aggregates whose value is null. The returned set must not be changed.
+     */
+    Set<K> getNullValues()
+    {
+        return nullValues;
+    }
+    /**
+     * Indexed representation of a number. Finite numbers are compared by their {@link BigDecimal} representation.
+     * Like {@link Double#compare(double, double)}, negative infinity is less than all finite numbers, and positive
+     * infinity is greater than all finite numbers. NaN is kept in a separate bucket that is greater than positive
+     * infinity.
+     */
+    record NumericValue(int bucket, BigDecimal value) implements Comparable<NumericValue>
+    {
+        private static final int FINITE = 1;
+        private static final NumericValue NEGATIVE_INFINITY = new NumericValue(0, null);
+        private static final NumericValue POSITIVE_INFINITY = new NumericValue(2, null);
+        private static final NumericValue NAN = new NumericValue(3, null);
+
+        @Override
+        public int compareTo(NumericValue other)
+        {
+            if (bucket != other.bucket)
+            {
+                return Integer.compare(bucket, other.bucket);
+            }
+            return bucket == FINITE ? value.compareTo(other.value) : 0;
+        }
+    }
+}
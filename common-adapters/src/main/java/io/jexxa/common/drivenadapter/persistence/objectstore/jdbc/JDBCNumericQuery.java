@@ -7,11 +7,14 @@ import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRep
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTag;
 
 import io.jexxa.common.facade.jdbc.JDBCConnection;
+import io.jexxa.common.facade.jdbc.JDBCQuery;
 import io.jexxa.common.facade.jdbc.builder.SQLOrder;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObjectQuery<T, S, M> implements INumericQuery<T, S>
 {
@@ -22,12 +25,13 @@ class JDBCNumericQuery<T,S, M extends Enum<M> & MetadataSchema> extends JDBCObje
     private final Class<M> metaDataSchema;
 
     JDBCNumericQuery(Supplier<JDBCConnection> jdbcConnection,
+                     Function<JDBCQuery, Stream<T>> aggregateReader,
                      M metaData,
                      Class<T> aggregateClazz,
                      Class<M> metaDataSchema,
                      Class<S> queryType)
     {
-        super(jdbcConnection, metaData, aggregateClazz, metaDataSchema, queryType);
+        super(jdbcConnection, aggregateReader, metaData, aggregateClazz, metaDataSchema, queryType);
 
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.nameOfRow = Objects.requireNonNull(metaData);
@@ -7,27 +7,26 @@ import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRep
 import io.jexxa.common.facade.jdbc.JDBCConnection;
 import io.jexxa.common.facade.jdbc.JDBCQuery;
 import io.jexxa.common.facade.jdbc.builder.SQLOrder;
-import io.jexxa.common.facade.json.JSONConverter;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
-
-import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 class JDBCObjectQuery <T, S, M extends Enum<M> & MetadataSchema>
 {
     private final Supplier<JDBCConnection> jdbcConnection;
+    private final Function<JDBCQuery, Stream<T>> aggregateReader;
 
     private final Class<T> aggregateClazz;
-    private final JSONConverter jsonConverter = getJSONConverter();
     private final M nameOfRow;
     private final Class<M> metaData;
 
     public JDBCObjectQuery(
             Supplier<JDBCConnection> jdbcConnection,
+            Function<JDBCQuery, Stream<T>> aggregateReader,
             M nameOfRow,
             Class<T> aggregateClazz,
             Class<M> metaData,
@@ -35,6 +34,7 @@ class JDBCObjectQuery <T, S, M extends Enum<M> & MetadataSchema>
     )
     {
         this.jdbcConnection = Objects.requireNonNull( jdbcConnection );
+        this.aggregateReader = Objects.requireNonNull( aggregateReader );
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.nameOfRow = Objects.requireNonNull(nameOfRow);
         this.metaData = Objects.requireNonNull(metaData);
@@ -121,10 +121,11 @@ class JDBCObjectQuery <T, S, M extends Enum<M> & MetadataSchema>
 
     protected List<T> searchElements(JDBCQuery query)
     {
-        return query.asString()
-                .flatMap(Optional::stream)
-                .map( element -> jsonConverter.fromJson(element, aggregateClazz))
-                .toList();
+        // Streaming avoids that all serialized and deserialized aggregates are kept in memory at the same time
+        try (var elements = aggregateReader.apply(query.streaming()))
+        {
+            return elements.toList();
+        }
     }
 
     protected JDBCConnection getConnection()
@@ -14,6 +14,8 @@ import io.jexxa.common.facade.jdbc.database.DatabaseManager;
 import io.jexxa.common.facade.jdbc.database.IDatabase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -22,7 +24,6 @@ import java.util.Set;
 import java.util.function.Function;
 
 import static io.jexxa.common.facade.jdbc.builder.JDBCTableBuilder.SQLConstraint.PRIMARY_KEY;
-import static io.jexxa.common.facade.jdbc.builder.SQLDataType.JSONB;
 import static io.jexxa.common.facade.jdbc.builder.SQLDataType.NUMERIC;
 import static io.jexxa.common.facade.jdbc.builder.SQLDataType.TEXT;
 import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
@@ -62,61 +63,141 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
     }
 
 
+    /**
+     * Inserts given aggregates including their metadata by using JDBC batches so that
+     * {@link JDBCProperties#jdbcBatchSize()} aggregates are sent to the database in one round trip.
+     */
     @Override
-    public void update(T aggregate)
+    protected void insertAggregates(String table, Collection<T> aggregates)
     {
-        Objects.requireNonNull(aggregate);
-
-        var valueSet = new ArrayList<JDBCObject>();
-        List<String> keySet = new ArrayList<>();
-
-        valueSet.add(valueToJSONB(aggregate));
-
-        jdbcSchema.forEach(element -> valueSet.add( new JDBCObject(
-                element.getTag().getFromAggregate(aggregate),
-                typeToSQL(element.getTag().getTagType())) ));
+        var iterator = aggregates.iterator();
+        var command = getConnection()
+                .command(KeyValueSchema.class)
+                .insertInto(table)
+                .columns(getInsertColumns())
+                .values(toInsertRow(iterator.next()))
+                .createBatch()
+                .batchSize(getBatchSize());
 
-        keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
-        jdbcSchema.forEach(element -> keySet.add(element.name()));
+        iterator.forEachRemaining(aggregate -> command.addBatch(toInsertRow(aggregate)));
 
-        var jdbcKey = primaryKeyToJSONB(keyFunction.apply(aggregate));
+        command.asUpdate();
+    }
 
+    /**
+     * Updates given aggregates including their metadata by using JDBC batches so that
+     * {@link JDBCProperties#jdbcBatchSize()} aggregates are sent to the database in one round trip.
+     */
+    @Override
+    protected void updateAggregates(Collection<T> aggregates)
+    {
+        var iterator = aggregates.iterator();
+        var firstRow = toUpdateRow(iterator.next());
         var command = getConnection()
                 .command(KeyValueSchema.class)
                 .update(aggregateClazz)
-                .set(keySet.toArray(new String[0]), valueSet.toArray(new JDBCObject[0]))
-                .where(KeyValueSchema.REPOSITORY_KEY).isEqual(jdbcKey)
-                .create();
+                .set(getUpdateColumns(), Arrays.copyOf(firstRow, firstRow.length - 1))
+                .where(KeyValueSchema.REPOSITORY_KEY).isEqual(firstRow[firstRow.length - 1])
+                .createBatch()
+                .batchSize(getBatchSize());
+
+        iterator.forEachRemaining(aggregate -> command.addBatch(toUpdateRow(aggregate)));
+
+        command.asUpdate();
+    }
+
+    /**
+     * Saves given aggregates including their metadata by using the upsert statement of the database
+     */
+    @Override
+    protected void saveAggregates(Collection<T> aggregates)
+    {
+        var iterator = aggregates.iterator();
+        var command = database.upsertInto(
+                        getConnection().command(KeyValueSchema.class),
+                        aggregateClazz.getSimpleName(),
+                        getInsertColumns(),
+                        toInsertRow(iterator.next()))
+                .createBatch()
+                .batchSize(getBatchSize());
+
+        iterator.forEachRemaining(aggregate -> command.addBatch(toInsertRow(aggregate)));
 
         command.asUpdate();
     }
 
+    /**
+     * Migrates the table including its metadata, see {@link JDBCKeyValueRepository#migrateKeys()}. The index of the
+     * metadata is created again for the migrated table.
+     */
+    @Override
+    public long migrateKeys()
+    {
+        var result = super.migrateKeys();
+        createIndex();
+        return result;
+    }
 
+    /**
+     * Creates given table including the columns of the metadata if it does not exist
+     */
     @Override
-    public void add(T aggregate)
+    protected void createTable(String table)
     {
-        Objects.requireNonNull(aggregate);
+        var command = getConnection().tableCommand(metaData)
+                .createTableIfNotExists(table)
+                .addColumn(KeyValueSchema.REPOSITORY_KEY, getKeyColumnType())
+                .addConstraint(PRIMARY_KEY)
+                .addColumn(KeyValueSchema.REPOSITORY_VALUE, getValueColumnType());
+
+        jdbcSchema.forEach(element -> command.addColumn(element, typeToSQL(element.getTag().getTagType())) );
+
+        command.create().asIgnore();
+    }
 
+        private String[] getInsertColumns()
+    {
         List<String> keySet = new ArrayList<>();
         keySet.add(KeyValueSchema.REPOSITORY_KEY.name());
         keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
         jdbcSchema.forEach(element -> keySet.add(element.name()));
+        return keySet.toArray(new String[0]);
+    }
 
+    private String[] getUpdateColumns()
+    {
+        List<String> keySet = new ArrayList<>();
+        keySet.add(KeyValueSchema.REPOSITORY_VALUE.name());
+        jdbcSchema.forEach(element -> keySet.add(element.name()));
+        return keySet.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the key, the value and all metadata of given aggregate in the order of {@link #getInsertColumns()}
+     */
+    private JDBCObject[] toInsertRow(T aggregate)
+    {
         var objectList = new ArrayList<JDBCObject>();
-        objectList.add (primaryKeyToJSONB(keyFunction.apply(aggregate)));
-        objectList.add (valueToJSONB(aggregate));
+        objectList.add (primaryKeyToJDBC(keyFunction.apply(aggregate)));
+        objectList.add (valueToJDBC(aggregate));
         jdbcSchema.forEach(metaTag -> objectList.add(
                 new JDBCObject( metaTag.getTag().getFromAggregate(aggregate), typeToSQL(metaTag.getTag().getTagType())))
         );
+        return objectList.toArray(new JDBCObject[0]);
+    }
 
-        var command = getConnection()
-                .command(KeyValueSchema.class)
-                .insertInto(aggregateClazz)
-                .columns(keySet.toArray(new String[0]))
-                .values(objectList.toArray(new JDBCObject[0]))
-                .create();
-
-        command.asUpdate();
+    /**
+     * Returns the value and all metadata of given aggregate in the order of {@link #getUpdateColumns()} followed by its key
+     */
+    private JDBCObject[] toUpdateRow(T aggregate)
+    {
+        var valueSet = new ArrayList<JDBCObject>();
+        valueSet.add(valueToJDBC(aggregate));
+        jdbcSchema.forEach(element -> valueSet.add( new JDBCObject(
+                element.getTag().getFromAggregate(aggregate),
+                typeToSQL(element.getTag().getTagType())) ));
+        valueSet.add(primaryKeyToJDBC(keyFunction.apply(aggregate)));
+        return valueSet.toArray(new JDBCObject[0]);
     }
 
 
@@ -133,7 +214,7 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
             throw new IllegalArgumentException(metaTag.name() + " does not use a numeric value -> Could not create a numeric query");
         }
 
-        return new JDBCNumericQuery<>(this::getConnection, metaTag, aggregateClazz, metaData, queryType );
+        return new JDBCNumericQuery<>(this::getConnection, this::readAggregates, metaTag, aggregateClazz, metaData, queryType );
     }
 
     @Override
@@ -149,7 +230,7 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
             throw new IllegalArgumentException(metaTag.name() + " does not use a numeric value -> Could not create a String query");
         }
 
-        return new JDBCStringQuery<>(this::getConnection, metaTag, aggregateClazz, metaData, queryType );
+        return new JDBCStringQuery<>(this::getConnection, this::readAggregates, metaTag, aggregateClazz, metaData, queryType );
     }
 
     private void initializeObjectStore(Properties properties)
@@ -163,24 +244,8 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
     private void autoCreateDatabase()
     {
         try{
-
-            var command = getConnection().tableCommand(metaData)
-                    .createTableIfNotExists(aggregateClazz)
-                    .addColumn(KeyValueSchema.REPOSITORY_KEY, database.matchingPrimaryKey(JSONB))
-                    .addConstraint(PRIMARY_KEY)
-                    .addColumn(KeyValueSchema.REPOSITORY_VALUE, database.matchingValue(JSONB));
-
-            jdbcSchema.forEach(element -> command.addColumn(element, typeToSQL(element.getTag().getTagType())) );
-
-            command.create().asIgnore();
-
-            var columnName = jdbcSchema.stream().map(Enum::name).toArray(String[]::new);
-
-            getConnection().command(metaData)
-                    .createIndex(aggregateClazz.getSimpleName() + "_object_index" )
-                    .on(aggregateClazz.getSimpleName(), columnName )
-                    .create()
-                    .asIgnore();
+            createTable(aggregateClazz.getSimpleName());
+            createIndex();
         }
         catch (IllegalArgumentException e)
         {
@@ -188,6 +253,17 @@ public class JDBCObjectStore<T,K, M extends Enum<M> & MetadataSchema> extends JD
         }
     }
 
+    private void createIndex()
+    {
+        var columnName = jdbcSchema.stream().map(Enum::name).toArray(String[]::new);
+
+        getConnection().command(metaData)
+                .createIndex(aggregateClazz.getSimpleName() + "_object_index" )
+                .on(aggregateClazz.getSimpleName(), columnName )
+                .create()
+                .asIgnore();
+    }
+
     private static SQLDataType typeToSQL(Class<?> clazz)
     {
         if ( Number.class.isAssignableFrom(clazz) )
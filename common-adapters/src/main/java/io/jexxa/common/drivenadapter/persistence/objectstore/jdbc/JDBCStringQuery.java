@@ -7,11 +7,14 @@ import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRep
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTag;
 
 import io.jexxa.common.facade.jdbc.JDBCConnection;
+import io.jexxa.common.facade.jdbc.JDBCQuery;
 import io.jexxa.common.facade.jdbc.builder.SQLOrder;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends JDBCObjectQuery<T, S, M> implements IStringQuery<T, S>
 {
@@ -23,13 +26,14 @@ public class JDBCStringQuery <T, S, M extends Enum<M> & MetadataSchema> extends
 
     public JDBCStringQuery(
             Supplier<JDBCConnection> jdbcConnection,
+            Function<JDBCQuery, Stream<T>> aggregateReader,
             M metaTag,
             Class<T> aggregateClazz,
             Class<M> metaData,
             Class<S> queryType
     )
     {
-        super(jdbcConnection, metaTag, aggregateClazz, metaData, queryType);
+        super(jdbcConnection, aggregateReader, metaTag, aggregateClazz, metaData, queryType);
 
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.nameOfRow = Objects.requireNonNull(metaTag);
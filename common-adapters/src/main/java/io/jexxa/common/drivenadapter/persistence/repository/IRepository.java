@@ -1,7 +1,12 @@
 package io.jexxa.common.drivenadapter.persistence.repository;
 
+import io.jexxa.common.facade.json.JSONManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interface for all strategies for the implementation of a repository in the terms of DDD
@@ -41,6 +46,16 @@ public interface IRepository<T, K>
      */
     void add(T aggregate);
 
+    /**
+     * Adds the given aggregate, or updates it if an aggregate with the same key already exists.
+     * <p>
+     * Implementations should perform this operation atomically, e.g., by a native upsert of the database. Otherwise,
+     * they must check the existence of the aggregate explicitly by its key.
+     *
+     * @param aggregate that should be added or updated
+     */
+    void save(T aggregate);
+
     /**
      * Returns the aggregate identified by given key.
      * @param key that identifies the aggregate
@@ -53,4 +68,178 @@ public interface IRepository<T, K>
      * @return list of aggregates
      */
     List<T> get();
+
+    /**
+     * Returns the number of aggregates managed by this repository.
+     * <p>
+     * The default implementation counts the elements of {@link #stream()}. Implementations should override this
+     * method if they can count the aggregates without reading them.
+     *
+     * @return number of aggregates
+     */
+    default long count()
+    {
+        try (var aggregates = stream())
+        {
+            return aggregates.count();
+        }
+    }
+
+    /**
+     * Checks if an aggregate with given key exists.
+     * <p>
+     * The default implementation uses {@link #get(Object)}. Implementations should override this method if they can
+     * check the key without reading the aggregate.
+     *
+     * @param key that identifies the aggregate
+     * @return true if an aggregate with given key exists, otherwise false
+     */
+    default boolean exists(K key)
+    {
+        return get(key).isPresent();
+    }
+
+    /**
+     * Returns all aggregates managed by this repository as a lazily evaluated Stream. In contrast to {@link #get()},
+     * implementations should read the aggregates on demand, so that only a few of them must be kept in memory at once.
+     * <p>
+     * Important note: The caller must close the returned Stream, e.g., by using a try-with-resources statement.
+     * <p>
+     * The default implementation returns a Stream of {@link #get()}.
+     *
+     * @return Stream of all aggregates
+     */
+    default Stream<T> stream()
+    {
+        return get().stream();
+    }
+
+    /**
+     * Returns the first page of aggregates managed by this repository. See {@link #page(Object, int)} for more details.
+     * <p>
+     * The default implementation returns the first aggregates of {@link #stream()}.
+     *
+     * @param limit maximal number of returned aggregates
+     * @return list of at most limit aggregates
+     */
+    default List<T> page(int limit)
+    {
+        if (limit < 1)
+        {
+            throw new IllegalArgumentException("Limit of a page must be greater than 0");
+        }
+
+        try (var aggregates = stream())
+        {
+            return aggregates.limit(limit).toList();
+        }
+    }
+
+    /**
+     * Returns the page of aggregates whose keys follow the given key (keyset pagination). The order of the keys is
+     * defined by the implementation, but it is stable, so that all aggregates can be read by requesting the next page
+     * with the key of the last aggregate of the previous page until an empty page is returned.
+     * <p>
+     * The default implementation reads the aggregates in the order of {@link #stream()} and skips all aggregates up to
+     * the aggregate identified by afterKey, which is located by its JSON representation. So reading a page depends on
+     * the number of previous pages, and the aggregate identified by afterKey must still exist. Implementations should
+     * override this method if they can select a page directly.
+     *
+     * @param afterKey key of the last aggregate of the previous page. Unless the default implementation is used, the
+     *                 aggregate does not need to exist anymore.
+     * @param limit maximal number of returned aggregates
+     * @return list of at most limit aggregates
+     * @throws IllegalArgumentException if the default implementation is used and afterKey identifies no aggregate
+     */
+    default List<T> page(K afterKey, int limit)
+    {
+        if (limit < 1)
+        {
+            throw new IllegalArgumentException("Limit of a page must be greater than 0");
+        }
+
+        var jsonConverter = JSONManager.getJSONConverter();
+        var lastAggregate = get(afterKey)
+                .map(jsonConverter::toJson)
+                .orElseThrow(() -> new IllegalArgumentException(getClass().getSimpleName()
+                        + ": An object with given key " + jsonConverter.toJson(afterKey) + " does not exists"));
+
+        try (var aggregates = stream())
+        {
+            var iterator = aggregates.iterator();
+            while (iterator.hasNext())
+            {
+                if (lastAggregate.equals(jsonConverter.toJson(iterator.next())))
+                {
+                    break;
+                }
+            }
+
+            var result = new ArrayList<T>(limit);
+            while (iterator.hasNext() && result.size() < limit)
+            {
+                result.add(iterator.next());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Adds all given aggregates to this repository.
+     * <p>
+     * The default implementation calls {@link #add(Object)} for each aggregate. Implementations should override this
+     * method if they can add multiple aggregates more efficiently.
+     *
+     * @param aggregates that should be added
+     * @pre None of the aggregates must be added before
+     */
+    default void addAll(Collection<T> aggregates)
+    {
+        aggregates.forEach(this::add);
+    }
+
+    /**
+     * Updates all given aggregates inside the repository.
+     * <p>
+     * The default implementation calls {@link #update(Object)} for each aggregate. Implementations should override this
+     * method if they can update multiple aggregates more efficiently.
+     *
+     * @param aggregates that should be updated
+     * @pre All aggregates must be added by using {@link #add(Object)} or {@link #addAll(Collection)}
+     */
+    default void updateAll(Collection<T> aggregates)
+    {
+        aggregates.forEach(this::update);
+    }
+
+    /**
+     * Removes all aggregates identified by given keys.
+     * <p>
+     * The default implementation calls {@link #remove(Object)} for each key. Implementations should override this
+     * method if they can remove multiple aggregates more efficiently.
+     *
+     * @param keys of the aggregates to be removed
+     * @pre All aggregates must be added by using {@link #add(Object)} or {@link #addAll(Collection)}
+     */
+    default void removeAll(Collection<K> keys)
+    {
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * Returns all aggregates identified by given keys. Keys that identify no aggregate are ignored.
+     * <p>
+     * The default implementation calls {@link #get(Object)} for each key. Implementations should override this
+     * method if they can read multiple aggregates more efficiently.
+     *
+     * @param keys that identify the aggregates
+     * @return list of found aggregates. The order of the aggregates is not defined.
+     */
+    default List<T> get(Collection<K> keys)
+    {
+        return keys.stream()
+                .map(this::get)
+                .flatMap(Optional::stream)
+                .toList();
+    }
 }
@@ -0,0 +1,346 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.getLong;
+
+/**
+ * Decorator of an {@link IRepository} that caches aggregates read by their key. The RepositoryFactory decorates the
+ * repositories of all aggregate types listed in {@link RepositoryProperties#repositoryCacheAggregates()}.
+ * <p>
+ * The cache is shared by all CachingRepositories of an aggregate type that decorate the same store, identified by
+ * the repository strategy, the JDBC URL and the table name, and that use the same cache configuration. It is bounded
+ * by {@link RepositoryProperties#repositoryCacheSize()}. Least recently used aggregates are evicted first. Optionally,
+ * cached aggregates expire after {@link RepositoryProperties#repositoryCacheTTL()}. Aggregates are cached in their
+ * serialized form, so that each caller gets its own copy of an aggregate. A change invalidates the caches of all
+ * CachingRepositories of the same store, regardless of their cache configuration.
+ * <p>
+ * Within a transaction managed by the {@link TransactionManager}, all changed aggregates are read from the underlying
+ * repository. The cached aggregates are invalidated when the transaction is committed, and nothing is invalidated if
+ * the transaction is rolled back. Outside a transaction, cached aggregates are invalidated as soon as they are changed.
+ * <p>
+ * Important note: The cache is only invalidated by changes made through a CachingRepository of this application.
+ * So it should be used for aggregates that are rarely changed and only by this application.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
+public class CachingRepository<T, K> implements IRepository<T, K>
+{
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+    public static final long DEFAULT_CACHE_TTL = 0;
+
+    private static final Map<CacheKey, RepositoryCache<?>> CACHE_MAP = new ConcurrentHashMap<>();
+
+    private final IRepository<T, K> repository;
+    private final Class<T> aggregateClazz;
+    private final Function<T, K> keyFunction;
+    private final StoreIdentity storeIdentity;
+    private final RepositoryCache<K> cache;
+
+    public CachingRepository(IRepository<T, K> repository, Class<T> aggregateClazz, Function<T, K> keyFunction, Properties properties)
+    {
+        this.repository = Objects.requireNonNull(repository);
+        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+        this.storeIdentity = StoreIdentity.of(aggregateClazz, repository, properties);
+        this.cache = getCache(storeIdentity, Objects.requireNonNullElseGet(properties, Properties::new));
+    }
+
+    @Override
+    public void update(T aggregate)
+    {
+        repository.update(aggregate);
+        changed(List.of(keyFunction.apply(aggregate)));
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        repository.remove(key);
+        changed(List.of(key));
+    }
+
+    @Override
+    public void removeAll()
+    {
+        repository.removeAll();
+
+        var transactionState = getTransactionState();
+        if (transactionState != null)
+        {
+            transactionState.allRemoved = true;
+        }
+        else
+        {
+            cachesOfStore().forEach(RepositoryCache::invalidateAll);
+        }
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        repository.add(aggregate);
+        changed(List.of(keyFunction.apply(aggregate)));
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        repository.save(aggregate);
+        changed(List.of(keyFunction.apply(aggregate)));
+    }
+
+    @Override
+    public Optional<T> get(K key)
+    {
+        Objects.requireNonNull(key);
+
+        var transactionState = getTransactionState();
+        if (transactionState != null && transactionState.isChanged(key))
+        {
+            return repository.get(key);
+        }
+
+        var cachedAggregate = cache.get(key);
+        if (cachedAggregate.isPresent())
+        {
+            return cachedAggregate.map(this::fromJson);
+        }
+
+        var generation = getGeneration(transactionState);
+        var aggregate = repository.get(key);
+        aggregate.ifPresent(element -> cache.put(key, getJSONConverter().toJson(element), generation));
+        return aggregate;
+    }
+
+    @Override
+    public List<T> get()
+    {
+        return repository.get();
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        repository.addAll(aggregates);
+        changed(aggregates.stream().map(keyFunction).toList());
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        repository.updateAll(aggregates);
+        changed(aggregates.stream().map(keyFunction).toList());
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        repository.removeAll(keys);
+        changed(keys);
+    }
+
+    @Override
+    public List<T> get(Collection<K> keys)
+    {
+        var transactionState = getTransactionState();
+        var generation = getGeneration(transactionState);
+        var result = new ArrayList<T>();
+        var missingKeys = new ArrayList<K>();
+
+        for (var key : keys)
+        {
+            var cachedAggregate = (transactionState != null && transactionState.isChanged(key)) ? Optional.<String>empty() : cache.get(key);
+            cachedAggregate.ifPresentOrElse(
+                    element -> result.add(fromJson(element)),
+                    () -> missingKeys.add(key));
+        }
+
+        if (!missingKeys.isEmpty())
+        {
+            repository.get(missingKeys).forEach(aggregate -> {
+                var key = keyFunction.apply(aggregate);
+                if (transactionState == null || !transactionState.isChanged(key))
+                {
+                    cache.put(key, getJSONConverter().toJson(aggregate), generation);
+                }
+                result.add(aggregate);
+            });
+        }
+
+        return result;
+    }
+
+    @Override
+    public Stream<T> stream()
+    {
+        return repository.stream();
+    }
+
+    @Override
+    public List<T> page(int limit)
+    {
+        return repository.page(limit);
+    }
+
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        return repository.page(afterKey, limit);
+    }
+
+    @Override
+    public long count()
+    {
+        return repository.count();
+    }
+
+    @Override
+    public boolean exists(K key)
+    {
+        Objects.requireNonNull(key);
+
+        var transactionState = getTransactionState();
+        if ((transactionState == null || !transactionState.isChanged(key)) && cache.get(key).isPresent())
+        {
+            return true;
+        }
+        return repository.exists(key);
+    }
+
+    public RepositoryCacheMetrics getCacheMetrics()
+    {
+        return cache.getMetrics();
+    }
+
+    /**
+     * This method invalidates the caches of all CachingRepositories within an application.
+     * <p>
+     * So this method should only be used when writing tests to ensure a clean data setup!
+     */
+    public static void clear()
+    {
+        CACHE_MAP.values().forEach(RepositoryCache::invalidateAll);
+        CACHE_MAP.clear();
+    }
+
+    private void changed(Collection<K> keys)
+    {
+        var transactionState = getTransactionState();
+        if (transactionState != null)
+        {
+            transactionState.changedKeys.addAll(keys);
+        }
+        else
+        {
+            cachesOfStore().forEach(element -> element.invalidate(keys));
+        }
+    }
+
+    private TransactionState getTransactionState()
+    {
+        if (!TransactionManager.isTransactionActive())
+        {
+            return null;
+        }
+
+        // The state is bound to the store, so that all CachingRepositories of the store see the same changes
+        return TransactionManager.getResource(new TransactionKey(storeIdentity), () -> {
+            var transactionState = new TransactionState(cache.generation());
+            TransactionManager.afterCommit(() -> commit(transactionState));
+            return transactionState;
+        });
+    }
+
+    private long getGeneration(TransactionState transactionState)
+    {
+        // Within a transaction, we could read an outdated snapshot of an aggregate that was changed after the transaction
+        // started, so that it is only cached if it was not invalidated since the start of the transaction
+        return transactionState != null ? transactionState.startGeneration : cache.generation();
+    }
+
+    private void commit(TransactionState transactionState)
+    {
+        if (transactionState.allRemoved)
+        {
+            cachesOfStore().forEach(RepositoryCache::invalidateAll);
+        }
+        else if (!transactionState.changedKeys.isEmpty())
+        {
+            cachesOfStore().forEach(element -> element.invalidate(transactionState.changedKeys));
+        }
+    }
+
+    private T fromJson(String element)
+    {
+        return getJSONConverter().fromJson(element, aggregateClazz);
+    }
+
+    /**
+     * Returns the caches of all CachingRepositories of the store, including the own cache
+     */
+    @SuppressWarnings("unchecked")
+    private List<RepositoryCache<K>> cachesOfStore()
+    {
+        var result = new ArrayList<RepositoryCache<K>>();
+        CACHE_MAP.forEach((cacheKey, element) -> {
+            if (cacheKey.storeIdentity().equals(storeIdentity))
+            {
+                result.add((RepositoryCache<K>) element);
+            }
+        });
+        if (!result.contains(cache))
+        {
+            // The own cache was removed by clear()
+            result.add(cache);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> RepositoryCache<K> getCache(StoreIdentity storeIdentity, Properties properties)
+    {
+        var cacheKey = new CacheKey(storeIdentity,
+                (int) getLong(properties, RepositoryProperties.repositoryCacheSize(), DEFAULT_CACHE_SIZE),
+                getLong(properties, RepositoryProperties.repositoryCacheTTL(), DEFAULT_CACHE_TTL));
+        return (RepositoryCache<K>) CACHE_MAP.computeIfAbsent(cacheKey, element -> new RepositoryCache<K>(element.size(), element.timeToLive()));
+    }
+
+    private record CacheKey(StoreIdentity storeIdentity, int size, long timeToLive) {}
+
+    private record TransactionKey(StoreIdentity storeIdentity) {}
+
+    private final class TransactionState
+    {
+        private final long startGeneration;
+        private final Set<K> changedKeys = new HashSet<>();
+        private boolean allRemoved = false;
+
+        private TransactionState(long startGeneration)
+        {
+            this.startGeneration = startGeneration;
+        }
+
+        private boolean isChanged(K key)
+        {
+            return allRemoved || changedKeys.contains(key);
+        }
+    }
+}
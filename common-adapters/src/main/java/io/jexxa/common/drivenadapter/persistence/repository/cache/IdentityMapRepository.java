@@ -0,0 +1,266 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Decorator of an {@link IRepository} that returns the same instance of an aggregate for repeated reads of its key
+ * within a transaction managed by the {@link TransactionManager}.
+ * <p>
+ * The identity map is shared by all IdentityMapRepositories that decorate the same repository instance within the
+ * transaction of the current thread, so that different domain services using this repository work on the same
+ * instance. IdentityMapRepositories of different repositories, which may be backed by different stores, never share
+ * their identity maps. Aggregates are registered when they are read by
+ * their key, added, or updated, and they are removed from the identity map when they are removed from the repository.
+ * Aggregates returned by other queries are replaced by their registered instance, if any.
+ * <p>
+ * The identity map is discarded when the transaction is closed or rolled back. Outside a transaction, all calls are
+ * forwarded to the underlying repository.
+ * <p>
+ * Important note: Since all callers within a transaction share the same instance, changes to an aggregate are visible
+ * to all of them even before the aggregate is updated.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
+public class IdentityMapRepository<T, K> implements IRepository<T, K>
+{
+    private final IRepository<T, K> repository;
+    private final Class<T> aggregateClazz;
+    private final Function<T, K> keyFunction;
+
+    public IdentityMapRepository(IRepository<T, K> repository, Class<T> aggregateClazz, Function<T, K> keyFunction)
+    {
+        this.repository = Objects.requireNonNull(repository);
+        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+    }
+
+    @Override
+    public void update(T aggregate)
+    {
+        repository.update(aggregate);
+        register(aggregate);
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        repository.remove(key);
+
+        var identityMap = getIdentityMap();
+        if (identityMap != null)
+        {
+            identityMap.remove(key);
+        }
+    }
+
+    @Override
+    public void removeAll()
+    {
+        repository.removeAll();
+
+        var identityMap = getIdentityMap();
+        if (identityMap != null)
+        {
+            identityMap.clear();
+        }
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        repository.add(aggregate);
+        register(aggregate);
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        repository.save(aggregate);
+        register(aggregate);
+    }
+
+    @Override
+    public Optional<T> get(K key)
+    {
+        Objects.requireNonNull(key);
+
+        var identityMap = getIdentityMap();
+        if (identityMap == null)
+        {
+            return repository.get(key);
+        }
+
+        var registeredAggregate = identityMap.get(key);
+        if (registeredAggregate != null)
+        {
+            return Optional.of(registeredAggregate);
+        }
+
+        var aggregate = repository.get(key);
+        aggregate.ifPresent(element -> identityMap.put(key, element));
+        return aggregate;
+    }
+
+    @Override
+    public List<T> get()
+    {
+        return toRegisteredAggregates(repository.get());
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        repository.addAll(aggregates);
+        aggregates.forEach(this::register);
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        repository.updateAll(aggregates);
+        aggregates.forEach(this::register);
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        repository.removeAll(keys);
+
+        var identityMap = getIdentityMap();
+        if (identityMap != null)
+        {
+            keys.forEach(identityMap::remove);
+        }
+    }
+
+    @Override
+    public List<T> get(Collection<K> keys)
+    {
+        var identityMap = getIdentityMap();
+        if (identityMap == null)
+        {
+            return repository.get(keys);
+        }
+
+        var result = new ArrayList<T>();
+        var missingKeys = new ArrayList<K>();
+        for (var key : keys)
+        {
+            var registeredAggregate = identityMap.get(key);
+            if (registeredAggregate != null)
+            {
+                result.add(registeredAggregate);
+            }
+            else
+            {
+                missingKeys.add(key);
+            }
+        }
+
+        if (!missingKeys.isEmpty())
+        {
+            repository.get(missingKeys).forEach(aggregate -> {
+                identityMap.put(keyFunction.apply(aggregate), aggregate);
+                result.add(aggregate);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<T> stream()
+    {
+        var identityMap = getIdentityMap();
+        if (identityMap == null)
+        {
+            return repository.stream();
+        }
+
+        return repository.stream().map(aggregate -> identityMap.getOrDefault(keyFunction.apply(aggregate), aggregate));
+    }
+
+    @Override
+    public List<T> page(int limit)
+    {
+        return toRegisteredAggregates(repository.page(limit));
+    }
+
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        return toRegisteredAggregates(repository.page(afterKey, limit));
+    }
+
+    @Override
+    public long count()
+    {
+        return repository.count();
+    }
+
+    @Override
+    public boolean exists(K key)
+    {
+        Objects.requireNonNull(key);
+
+        var identityMap = getIdentityMap();
+        if (identityMap != null && identityMap.containsKey(key))
+        {
+            return true;
+        }
+        return repository.exists(key);
+    }
+
+    private void register(T aggregate)
+    {
+        var identityMap = getIdentityMap();
+        if (identityMap != null)
+        {
+            identityMap.put(keyFunction.apply(aggregate), aggregate);
+        }
+    }
+
+    private List<T> toRegisteredAggregates(List<T> aggregates)
+    {
+        var identityMap = getIdentityMap();
+        if (identityMap == null || identityMap.isEmpty())
+        {
+            return aggregates;
+        }
+
+        return aggregates.stream()
+                .map(aggregate -> identityMap.getOrDefault(keyFunction.apply(aggregate), aggregate))
+                .toList();
+    }
+
+    private Map<K, T> getIdentityMap()
+    {
+        if (!TransactionManager.isTransactionActive())
+        {
+            return null;
+        }
+
+        return TransactionManager.getResource(new IdentityMapKey(aggregateClazz, repository), () -> {
+            var identityMap = new HashMap<K, T>();
+            TransactionManager.afterRollback(identityMap::clear);
+            return identityMap;
+        });
+    }
+
+    /**
+     * Key of the identity map within a transaction. Repositories do not override equals, so that the decorated
+     * repository is compared by its identity.
+     */
+    private record IdentityMapKey(Class<?> aggregateClazz, IRepository<?, ?> repository) {}
+}
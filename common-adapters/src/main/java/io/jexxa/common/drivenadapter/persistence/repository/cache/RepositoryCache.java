@@ -0,0 +1,126 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size bounded LRU cache of serialized aggregates that is shared by all {@link CachingRepository} of an aggregate type.
+ * <p>
+ * Each invalidation increments the generation of the cache and records it as the invalidation generation of the
+ * invalidated keys. A value that was read from the underlying repository is only cached if its key was not invalidated
+ * since the read started, so that a concurrent invalidation cannot be overwritten by an outdated value, while
+ * invalidations of other keys do not prevent caching. The invalidation generations are bounded by the size of the
+ * cache. If they exceed it, they are replaced by a single minimal generation that applies to all keys.
+ */
+final class RepositoryCache<K>
+{
+    private final int maxSize;
+    private final long timeToLive;
+    private final Map<K, CacheEntry> entries;
+    private final Map<K, Long> invalidationGenerations = new HashMap<>();
+    private long generation = 0;
+    // Values read before this generation are not cached, because their invalidation generations are not known anymore
+    private long minGeneration = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    RepositoryCache(int maxSize, long timeToLiveMillis)
+    {
+        if (maxSize < 1 || timeToLiveMillis < 0)
+        {
+            throw new IllegalArgumentException("Invalid repository cache configuration: size = " + maxSize + ", time to live = " + timeToLiveMillis);
+        }
+
+        this.maxSize = maxSize;
+        this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry> eldest) {
+                if (size() > RepositoryCache.this.maxSize)
+                {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized Optional<String> get(K key)
+    {
+        var entry = entries.get(key);
+        if (entry != null && isExpired(entry))
+        {
+            entries.remove(key);
+            ++expirations;
+            entry = null;
+        }
+
+        if (entry == null)
+        {
+            ++misses;
+            return Optional.empty();
+        }
+
+        ++hits;
+        return Optional.of(entry.value());
+    }
+
+    synchronized long generation()
+    {
+        return generation;
+    }
+
+    /**
+     * Caches the given value if its key was not invalidated since given generation
+     */
+    synchronized void put(K key, String value, long readGeneration)
+    {
+        if (readGeneration >= minGeneration && invalidationGenerations.getOrDefault(key, 0L) <= readGeneration)
+        {
+            entries.put(key, new CacheEntry(value, System.nanoTime()));
+        }
+    }
+
+    synchronized void invalidate(Collection<K> keys)
+    {
+        ++generation;
+        if (invalidationGenerations.size() + keys.size() > maxSize)
+        {
+            invalidationGenerations.clear();
+            minGeneration = generation;
+        }
+        else
+        {
+            keys.forEach(key -> invalidationGenerations.put(key, generation));
+        }
+        keys.forEach(entries::remove);
+    }
+
+    synchronized void invalidateAll()
+    {
+        ++generation;
+        invalidationGenerations.clear();
+        minGeneration = generation;
+        entries.clear();
+    }
+
+    synchronized RepositoryCacheMetrics getMetrics()
+    {
+        return new RepositoryCacheMetrics(entries.size(), hits, misses, evictions, expirations);
+    }
+
+    private boolean isExpired(CacheEntry entry)
+    {
+        return timeToLive > 0 && System.nanoTime() - entry.cachedSince() > timeToLive;
+    }
+
+    private record CacheEntry(String value, long cachedSince) {}
+}
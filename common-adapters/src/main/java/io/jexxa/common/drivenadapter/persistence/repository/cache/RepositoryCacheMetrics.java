@@ -0,0 +1,29 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+/**
+ * Provides the metrics of the cache that is shared by all {@link CachingRepository} of an aggregate type.
+ *
+ * @param size number of currently cached aggregates
+ * @param hits total number of reads that were answered by the cache
+ * @param misses total number of reads that were forwarded to the underlying repository
+ * @param evictions total number of aggregates that were removed because the cache reached its maximal size
+ * @param expirations total number of aggregates that were removed because their time to live expired
+ */
+public record RepositoryCacheMetrics(int size,
+                                     long hits,
+                                     long misses,
+                                     long evictions,
+                                     long expirations)
+{
+    /**
+     * @return the ratio of hits to all reads in range [0, 1]
+     */
+    public double hitRatio()
+    {
+        if (hits + misses == 0)
+        {
+            return 0;
+        }
+        return (double) hits / (hits + misses);
+    }
+}
@@ -0,0 +1,60 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCShardedRepository;
+import io.jexxa.common.facade.jdbc.JDBCProperties;
+
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Identifies the store that keeps the aggregates of a repository by the aggregate type, the repository strategy, the
+ * JDBC URL and the table name. State that is shared by the decorators of an aggregate type, such as a cache, is only
+ * shared by repositories of the same store.
+ *
+ * @param aggregateClazz type of the aggregates
+ * @param strategy type of the repository that accesses the store
+ * @param url JDBC URL of the store, or null if the store is not a database
+ * @param tableName name of the table that stores the aggregates
+ */
+record StoreIdentity(Class<?> aggregateClazz, Class<?> strategy, String url, String tableName)
+{
+    StoreIdentity
+    {
+        Objects.requireNonNull(aggregateClazz);
+        Objects.requireNonNull(strategy);
+        Objects.requireNonNull(tableName);
+    }
+
+    static StoreIdentity of(Class<?> aggregateClazz, IRepository<?, ?> repository, Properties properties)
+    {
+        var url = (properties != null) ? properties.getProperty(JDBCProperties.jdbcUrl()) : null;
+        var tableName = aggregateClazz.getSimpleName();
+
+        if (repository instanceof JDBCKeyValueRepository<?, ?> jdbcRepository)
+        {
+            tableName = jdbcRepository.tableName();
+        }
+        else if (repository instanceof JDBCShardedRepository<?, ?> shardedRepository && properties != null)
+        {
+            url = shardUrls(shardedRepository.getShardCount(), url, properties);
+        }
+
+        return new StoreIdentity(aggregateClazz, repository.getClass(), url, tableName);
+    }
+
+    /**
+     * Returns the URLs of all shards, because each shard can override the JDBC URL, see
+     * {@link JDBCProperties#jdbcShardPrefix(int)}
+     */
+    private static String shardUrls(int shardCount, String defaultUrl, Properties properties)
+    {
+        var urlKey = JDBCProperties.jdbcUrl().substring(JDBCProperties.prefix().length());
+        return IntStream.range(0, shardCount)
+                .mapToObj(shard -> properties.getProperty(JDBCProperties.jdbcShardPrefix(shard) + urlKey, defaultUrl))
+                .collect(Collectors.joining(","));
+    }
+}
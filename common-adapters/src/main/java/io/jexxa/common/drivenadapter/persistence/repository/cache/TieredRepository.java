@@ -0,0 +1,356 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
+
+/**
+ * Repository that keeps a complete copy of all aggregates of a type in an {@link IMDBRepository} (memory tier) in
+ * front of a {@link JDBCKeyValueRepository} (database tier).
+ * <p>
+ * Outside a transaction, all reads are served by the memory tier. All changes are first written to the database tier,
+ * which checks the preconditions of the change, and then to the memory tier. The memory tier is shared by all
+ * TieredRepositories of the same store, identified by the aggregate type, the JDBC URL and the table name. When the
+ * first TieredRepository of a store is created, the memory tier is loaded by streaming all aggregates from the
+ * database tier.
+ * <p>
+ * Within a transaction managed by the {@link TransactionManager}, changes are only written to the database tier, and
+ * the keys of the changed aggregates are kept in a transaction-local overlay of the store. Changed aggregates, and all reads of
+ * multiple aggregates after a change, are served by the database tier, so that the transaction sees its own
+ * uncommitted changes while other threads do not. After the transaction is committed, the changed aggregates are
+ * loaded into the memory tier. If the transaction is rolled back or cannot be committed, the memory tier is not
+ * affected at all.
+ * <p>
+ * Important note: The memory tier only reflects changes made through a TieredRepository of this application.
+ * So it should be used for aggregates that are only changed by this application, and that fit into memory.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
+public class TieredRepository<T, K> implements IRepository<T, K>
+{
+    private static final Logger LOGGER = getLogger(TieredRepository.class);
+    private static final int WARM_LOAD_BATCH_SIZE = 1000;
+
+    // The warm state of a store is also used as lock for loading its memory tier
+    private static final Map<StoreIdentity, WarmState> WARM_STATES = new ConcurrentHashMap<>();
+
+    private final Class<T> aggregateClazz;
+    private final Function<T, K> keyFunction;
+    private final StoreIdentity storeIdentity;
+    private final IRepository<T, K> memoryTier;
+    private final IRepository<T, K> databaseTier;
+
+    @SuppressWarnings("unused")
+    public TieredRepository(Class<T> aggregateClazz, Function<T, K> keyFunction, Properties properties)
+    {
+        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+        this.databaseTier = new JDBCKeyValueRepository<>(aggregateClazz, keyFunction, properties);
+        this.storeIdentity = StoreIdentity.of(aggregateClazz, databaseTier, properties);
+        this.memoryTier = new IMDBRepository<>(aggregateClazz, keyFunction, properties,
+                TieredRepository.class.getSimpleName() + ":" + storeIdentity.url() + "/" + storeIdentity.tableName());
+
+        warmLoad();
+    }
+
+    @Override
+    public void update(T aggregate)
+    {
+        databaseTier.update(aggregate);
+        if (!changed(List.of(keyFunction.apply(aggregate))))
+        {
+            memoryTier.save(aggregate);
+        }
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        databaseTier.remove(key);
+        if (!changed(List.of(key)))
+        {
+            removeFromMemoryTier(key);
+        }
+    }
+
+    @Override
+    public void removeAll()
+    {
+        databaseTier.removeAll();
+        var transactionState = getTransactionState();
+        if (transactionState != null)
+        {
+            transactionState.allRemoved = true;
+        }
+        else
+        {
+            memoryTier.removeAll();
+        }
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        databaseTier.add(aggregate);
+        if (!changed(List.of(keyFunction.apply(aggregate))))
+        {
+            memoryTier.save(aggregate);
+        }
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        databaseTier.save(aggregate);
+        if (!changed(List.of(keyFunction.apply(aggregate))))
+        {
+            memoryTier.save(aggregate);
+        }
+    }
+
+    @Override
+    public Optional<T> get(K key)
+    {
+        return isChanged(key) ? databaseTier.get(key) : memoryTier.get(key);
+    }
+
+    @Override
+    public List<T> get()
+    {
+        return readTier().get();
+    }
+
+    @Override
+    public long count()
+    {
+        return readTier().count();
+    }
+
+    @Override
+    public boolean exists(K key)
+    {
+        return isChanged(key) ? databaseTier.exists(key) : memoryTier.exists(key);
+    }
+
+    @Override
+    public Stream<T> stream()
+    {
+        return readTier().stream();
+    }
+
+    @Override
+    public List<T> page(int limit)
+    {
+        return readTier().page(limit);
+    }
+
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        return readTier().page(afterKey, limit);
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        databaseTier.addAll(aggregates);
+        if (!changed(aggregates.stream().map(keyFunction).toList()))
+        {
+            aggregates.forEach(memoryTier::save);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        databaseTier.updateAll(aggregates);
+        if (!changed(aggregates.stream().map(keyFunction).toList()))
+        {
+            aggregates.forEach(memoryTier::save);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        databaseTier.removeAll(keys);
+        if (!changed(keys))
+        {
+            keys.forEach(this::removeFromMemoryTier);
+        }
+    }
+
+    @Override
+    public List<T> get(Collection<K> keys)
+    {
+        return readTier().get(keys);
+    }
+
+    /**
+     * This method resets the memory tier of all TieredRepositories within an application, so that it is loaded again
+     * when the next TieredRepository is created.
+     * <p>
+     * So this method should only be used when writing tests to ensure a clean data setup!
+     */
+    public static void clear()
+    {
+        WARM_STATES.clear();
+    }
+
+    private WarmState getWarmState()
+    {
+        return WARM_STATES.computeIfAbsent(storeIdentity, element -> new WarmState());
+    }
+
+    private void warmLoad()
+    {
+        var warmState = getWarmState();
+        synchronized (warmState)
+        {
+            if (warmState.loaded)
+            {
+                return;
+            }
+
+            memoryTier.removeAll();
+            var batch = new ArrayList<T>(WARM_LOAD_BATCH_SIZE);
+            try (var aggregates = databaseTier.stream())
+            {
+                aggregates.forEach(aggregate -> {
+                    batch.add(aggregate);
+                    if (batch.size() == WARM_LOAD_BATCH_SIZE)
+                    {
+                        memoryTier.addAll(batch);
+                        batch.clear();
+                    }
+                });
+            }
+            memoryTier.addAll(batch);
+
+            warmState.loaded = true;
+            LOGGER.debug("Loaded {} aggregates of type {} from table {} into memory tier", memoryTier.count(), aggregateClazz.getSimpleName(), storeIdentity.tableName());
+        }
+    }
+
+    private void removeFromMemoryTier(K key)
+    {
+        if (memoryTier.exists(key))
+        {
+            memoryTier.remove(key);
+        }
+    }
+
+    /**
+     * Replaces the aggregates changed by a committed transaction in the memory tier by their committed state in the
+     * database tier. Reloading is serialized per store, so that the last reload of an aggregate reads its latest
+     * committed state.
+     */
+    private void reload(TransactionState transactionState)
+    {
+        var warmState = getWarmState();
+        synchronized (warmState)
+        {
+            if (transactionState.allRemoved)
+            {
+                warmState.loaded = false;
+                warmLoad();
+            }
+            else
+            {
+                var keys = List.copyOf(transactionState.changedKeys);
+                keys.forEach(this::removeFromMemoryTier);
+                databaseTier.get(keys).forEach(memoryTier::save);
+            }
+        }
+    }
+
+    /**
+     * Records given keys as changed within the current transaction
+     *
+     * @return true if the keys are recorded in the overlay of the current transaction, or false if no transaction is
+     * active, so that the change must be applied to the memory tier immediately
+     */
+    private boolean changed(Collection<K> keys)
+    {
+        var transactionState = getTransactionState();
+        if (transactionState == null)
+        {
+            return false;
+        }
+        transactionState.changedKeys.addAll(keys);
+        return true;
+    }
+
+    private boolean isChanged(K key)
+    {
+        var transactionState = getTransactionState();
+        return transactionState != null && transactionState.isChanged(key);
+    }
+
+    /**
+     * Returns the tier that serves reads of multiple aggregates. After the current transaction changed an aggregate,
+     * only the database tier includes the uncommitted changes.
+     */
+    private IRepository<T, K> readTier()
+    {
+        var transactionState = getTransactionState();
+        return (transactionState != null && transactionState.hasChanges()) ? databaseTier : memoryTier;
+    }
+
+    private TransactionState getTransactionState()
+    {
+        if (!TransactionManager.isTransactionActive())
+        {
+            return null;
+        }
+
+        // The overlay is bound to the store, so that all TieredRepositories of the store see the same changes
+        return TransactionManager.getResource(new TransactionKey(storeIdentity), () -> {
+            var transactionState = new TransactionState();
+            // The memory tier is only changed after commit, so that nothing must be undone on rollback
+            TransactionManager.afterCommit(() -> reload(transactionState));
+            return transactionState;
+        });
+    }
+
+    private static final class WarmState
+    {
+        private boolean loaded = false;
+    }
+
+    private record TransactionKey(StoreIdentity storeIdentity) {}
+
+    private final class TransactionState
+    {
+        private final Set<K> changedKeys = new HashSet<>();
+        private boolean allRemoved = false;
+
+        private boolean isChanged(K key)
+        {
+            return allRemoved || changedKeys.contains(key);
+        }
+
+        private boolean hasChanges()
+        {
+            return allRemoved || !changedKeys.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import io.jexxa.common.facade.json.JSONManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Aggregates of a single aggregate type, shared by all {@link IMDBRepository} of this type. A value is either the
+ * encoded aggregate or the aggregate itself.
+ * <p>
+ * In addition to a hash map, the keys are kept in a sorted index that is used to read pages of aggregates. Keys are
+ * sorted by their natural order if they are {@link Comparable}, and by their JSON representation otherwise. A change
+ * of a key is applied to the hash map and the index atomically, so that changes of different keys do not block each
+ * other. Since only adding and removing a key changes the index, updates and reads are not affected by the index.
+ *
+ * @param <K> Type of the aggregate ID
+ */
+public final class AggregateMap<K>
+{
+    private final ConcurrentHashMap<K, Object> values = new ConcurrentHashMap<>();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ConcurrentSkipListMap<Object, K> sortedKeys = new ConcurrentSkipListMap<>((a, b) -> ((Comparable) a).compareTo(b));
+
+    public Object get(K key)
+    {
+        return values.get(key);
+    }
+
+    public boolean containsKey(K key)
+    {
+        return values.containsKey(key);
+    }
+
+    public int size()
+    {
+        return values.size();
+    }
+
+    public void forEach(BiConsumer<K, Object> action)
+    {
+        values.forEach(action);
+    }
+
+    /**
+     * @return an unmodifiable view of all values
+     */
+    public Collection<Object> values()
+    {
+        return Collections.unmodifiableCollection(values.values());
+    }
+
+    /**
+     * Returns at most limit values whose keys follow given key in the order of the index.
+     *
+     * @param afterKey key after which the page starts, or null to read the first page
+     * @param limit maximal number of returned values
+     */
+    List<Object> page(K afterKey, int limit)
+    {
+        var keys = (afterKey == null) ? sortedKeys.values() : sortedKeys.tailMap(sortKey(afterKey), false).values();
+        var result = new ArrayList<>(limit);
+        for (var iterator = keys.iterator(); iterator.hasNext() && result.size() < limit; )
+        {
+            // A key can be removed concurrently between reading the index and the value
+            var value = values.get(iterator.next());
+            if (value != null)
+            {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    Object put(K key, Object value)
+    {
+        var previousValue = new Object[1];
+        values.compute(key, (element, currentValue) -> {
+            if (currentValue == null)
+            {
+                sortedKeys.put(sortKey(element), element);
+            }
+            previousValue[0] = currentValue;
+            return value;
+        });
+        return previousValue[0];
+    }
+
+    Object putIfAbsent(K key, Object value)
+    {
+        var previousValue = new Object[1];
+        values.compute(key, (element, currentValue) -> {
+            if (currentValue != null)
+            {
+                previousValue[0] = currentValue;
+                return currentValue;
+            }
+            sortedKeys.put(sortKey(element), element);
+            return value;
+        });
+        return previousValue[0];
+    }
+
+    Object replace(K key, Object value)
+    {
+        // The set of keys does not change, so that the index is not affected
+        return values.replace(key, value);
+    }
+
+    Object remove(K key)
+    {
+        var previousValue = new Object[1];
+        values.computeIfPresent(key, (element, currentValue) -> {
+            sortedKeys.remove(sortKey(element));
+            previousValue[0] = currentValue;
+            return null;
+        });
+        return previousValue[0];
+    }
+
+    /**
+     * Replaces the value of given key by newValue, if its current value is identical to expectedValue. If newValue is
+     * null, the key is removed.
+     */
+    void replaceIfSame(K key, Object expectedValue, Object newValue)
+    {
+        values.computeIfPresent(key, (element, currentValue) -> {
+            if (currentValue != expectedValue)
+            {
+                return currentValue;
+            }
+            if (newValue == null)
+            {
+                sortedKeys.remove(sortKey(element));
+            }
+            return newValue;
+        });
+    }
+
+    void clear()
+    {
+        // Keys are removed one by one, so that the index stays consistent with concurrently added keys
+        values.keySet().forEach(this::remove);
+    }
+
+    private static Object sortKey(Object key)
+    {
+        if (key instanceof Comparable<?>)
+        {
+            return key;
+        }
+        return JSONManager.getJSONConverter().toJson(key);
+    }
+}
@@ -0,0 +1,349 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
+
+/**
+ * Stores the changes of an aggregate type in an append-only journal file and a compacted snapshot file.
+ * <p>
+ * Both files start with a header that contains the generation of the snapshot. Each time a snapshot is written, the
+ * generation is incremented and the journal is truncated. A journal whose generation is older than the snapshot
+ * was already included into the snapshot and is ignored.
+ * <p>
+ * Each record consists of the length of its payload, a CRC32 checksum, its type, and its payload. A journal is replayed
+ * until the first incomplete or corrupted record, which is caused by a crash while the record was written.
+ * <p>
+ * Records are written by {@link #append(Type, Collection)}. To make them durable, {@link #sync(long)} must be called
+ * afterward. Concurrent calls of {@link #sync(long)} are grouped into a single fsync.
+ */
+final class IMDBJournal implements AutoCloseable
+{
+    private static final Logger LOGGER = getLogger(IMDBJournal.class);
+
+    private static final int MAGIC = 0x4A584A31; // "JXJ1"
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES + 1;
+
+    enum Type
+    {
+        /** Payload is the value of an added or updated aggregate */
+        PUT,
+        /** Payload is the JSON representation of the key of a removed aggregate */
+        REMOVE,
+        /** No payload, all aggregates are removed */
+        CLEAR
+    }
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final boolean syncEnabled;
+    private final Object syncLock = new Object();
+
+    private volatile FileChannel journal;
+    private long generation;
+    private long journalRecords;
+    // Number of bytes appended and synced since the journal was opened, which is not reset when a snapshot is written
+    private volatile long appendedBytes;
+    private long syncedBytes;
+
+    IMDBJournal(Path directory, String name, boolean syncEnabled)
+    {
+        this.journalFile = directory.resolve(name + ".journal");
+        this.snapshotFile = directory.resolve(name + ".snapshot");
+        this.syncEnabled = syncEnabled;
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not create directory " + directory, e);
+        }
+    }
+
+    /**
+     * Opens the journal and replays the snapshot and the journal by passing each record to given consumer
+     *
+     * @param recordConsumer that applies a record with its payload
+     */
+    synchronized void open(BiConsumer<Type, byte[]> recordConsumer)
+    {
+        try {
+            generation = 0;
+            if (Files.exists(snapshotFile))
+            {
+                try (var snapshot = FileChannel.open(snapshotFile, StandardOpenOption.READ))
+                {
+                    generation = readHeader(snapshot, snapshotFile);
+                    var records = replay(snapshot, recordConsumer);
+                    if (snapshot.position() != snapshot.size())
+                    {
+                        throw new IllegalStateException("Snapshot " + snapshotFile + " is corrupted after " + records + " records");
+                    }
+                }
+            }
+
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (journal.size() >= HEADER_SIZE && readHeader(journal, journalFile) == generation)
+            {
+                journalRecords = replay(journal, recordConsumer);
+                if (journal.position() != journal.size())
+                {
+                    LOGGER.warn("Journal {} contains an incomplete record at position {} => Discard remaining {} bytes",
+                            journalFile, journal.position(), journal.size() - journal.position());
+                    journal.truncate(journal.position());
+                }
+            }
+            else
+            {
+                // The journal is empty or was already included into the snapshot
+                resetJournal();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read journal " + journalFile, e);
+        }
+    }
+
+    /**
+     * Appends a record for each payload
+     *
+     * @return the position that must be passed to {@link #sync(long)} to make the records durable
+     */
+    synchronized long append(Type type, Collection<byte[]> payloads)
+    {
+        var size = payloads.stream().mapToInt(payload -> RECORD_HEADER_SIZE + payload.length).sum();
+        var buffer = ByteBuffer.allocate(size);
+        payloads.forEach(payload -> writeRecord(buffer, type, payload));
+
+        write(buffer.flip());
+        journalRecords += payloads.size();
+        return appendedBytes;
+    }
+
+    /**
+     * Ensures that all records up to given position are written to disk. If another thread already synced the journal
+     * beyond the position, this method returns without calling fsync.
+     *
+     * @param position as returned by {@link #append(Type, Collection)}
+     */
+    void sync(long position)
+    {
+        if (!syncEnabled)
+        {
+            return;
+        }
+
+        synchronized (syncLock)
+        {
+            if (syncedBytes >= position)
+            {
+                return;
+            }
+
+            var appended = appendedBytes;
+            try {
+                // The journal must not be locked during fsync, so that other threads can append further records
+                currentJournal().force(false);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not sync journal " + journalFile, e);
+            }
+            syncedBytes = appended;
+        }
+    }
+
+    /**
+     * Returns the number of records written to the journal since the last snapshot
+     */
+    synchronized long getJournalRecords()
+    {
+        return journalRecords;
+    }
+
+    /**
+     * Writes a snapshot that contains given values and truncates the journal. The caller must ensure that the journal
+     * is not changed while the snapshot is written.
+     *
+     * @param values of all aggregates
+     */
+    synchronized void writeSnapshot(Collection<byte[]> values)
+    {
+        var temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (var snapshot = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                writeFully(snapshot, header(generation + 1));
+                for (var value : values)
+                {
+                    var buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + value.length);
+                    writeRecord(buffer, Type.PUT, value);
+                    writeFully(snapshot, buffer.flip());
+                }
+                snapshot.force(true);
+            }
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            // If we crash before the journal is reset, its generation is outdated so that it is ignored
+            ++generation;
+            resetJournal();
+            LOGGER.debug("Wrote snapshot {} with {} aggregates", snapshotFile, values.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write snapshot " + snapshotFile, e);
+        }
+    }
+
+    synchronized boolean isOpen()
+    {
+        return journal != null;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (journal == null)
+        {
+            return;
+        }
+
+        try {
+            journal.force(false);
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close journal {}. Reason: {}", journalFile, e.getMessage());
+        }
+        journal = null;
+    }
+
+    private void resetJournal() throws IOException
+    {
+        var currentJournal = currentJournal();
+        currentJournal.truncate(0);
+        currentJournal.position(0);
+        writeFully(currentJournal, header(generation));
+        currentJournal.force(false);
+        journalRecords = 0;
+
+        synchronized (syncLock)
+        {
+            syncedBytes = appendedBytes;
+        }
+    }
+
+    private void write(ByteBuffer buffer)
+    {
+        try {
+            var length = buffer.remaining();
+            writeFully(currentJournal(), buffer);
+            appendedBytes += length;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write journal " + journalFile, e);
+        }
+    }
+
+    private FileChannel currentJournal()
+    {
+        if (journal == null)
+        {
+            throw new IllegalStateException("Journal " + journalFile + " is closed");
+        }
+        return journal;
+    }
+
+    private static long replay(FileChannel channel, BiConsumer<Type, byte[]> recordConsumer) throws IOException
+    {
+        var records = 0L;
+        var recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (true)
+        {
+            var position = channel.position();
+            recordHeader.clear();
+            if (!readFully(channel, recordHeader))
+            {
+                channel.position(position);
+                return records;
+            }
+
+            var length = recordHeader.getInt(0);
+            var checksum = recordHeader.getInt(Integer.BYTES);
+            var type = recordHeader.get(2 * Integer.BYTES);
+            if (length < 0 || length > channel.size() - channel.position() || type < 0 || type >= Type.values().length)
+            {
+                channel.position(position);
+                return records;
+            }
+
+            var payload = ByteBuffer.allocate(length);
+            if (!readFully(channel, payload) || checksum(type, payload.array()) != checksum)
+            {
+                channel.position(position);
+                return records;
+            }
+
+            recordConsumer.accept(Type.values()[type], payload.array());
+            ++records;
+        }
+    }
+
+    private static long readHeader(FileChannel channel, Path file) throws IOException
+    {
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, header) || header.getInt(0) != MAGIC)
+        {
+            throw new IllegalStateException("File " + file + " is not a valid journal or snapshot");
+        }
+        return header.getLong(Integer.BYTES);
+    }
+
+    private static ByteBuffer header(long generation)
+    {
+        return ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putLong(generation)
+                .flip();
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Type type, byte[] payload)
+    {
+        buffer.putInt(payload.length)
+                .putInt(checksum((byte) type.ordinal(), payload))
+                .put((byte) type.ordinal())
+                .put(payload);
+    }
+
+    private static int checksum(byte type, byte[] payload)
+    {
+        var crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+}
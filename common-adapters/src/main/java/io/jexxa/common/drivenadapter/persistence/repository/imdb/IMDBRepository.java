@@ -2,9 +2,17 @@ package io.jexxa.common.drivenadapter.persistence.repository.imdb;
 
 
 
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
 import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.facade.codec.JSONValueCodec;
+import io.jexxa.common.facade.codec.ValueCodec;
+import io.jexxa.common.facade.codec.ValueCodecManager;
+import io.jexxa.common.facade.codec.ValueCopier;
 import io.jexxa.common.facade.json.JSONManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -12,51 +20,80 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
-
+/**
+ * Repository that stores its aggregates in memory. All IMDBRepositories of an aggregate type with the same store name
+ * share their aggregates. By default, all IMDBRepositories of an aggregate type use the same unnamed store.
+ * <p>
+ * By default, an aggregate is stored as bytes encoded by the {@link ValueCodec} configured by
+ * {@link RepositoryProperties#repositoryValueCodec()}, so that each read returns a new copy. If
+ * {@link RepositoryProperties#repositoryIMDBStoreByReference()} is enabled, an immutable aggregate is stored and
+ * returned by reference, and a mutable aggregate is copied field by field on each write and read. See
+ * {@link ValueCopier} for the types that are considered immutable.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
 public class IMDBRepository<T, K>  implements IRepository<T, K>
 {
-    // Each IMDB repository is represented by a map for a specific type.
-    private static final Map< Class<?>, Map<?,String>> REPOSITORY_MAP = new ConcurrentHashMap<>();
-    private static final Map< Class<?>, IMDBRepository<?,?> > IMDB_REPOSITORY_MAP = new ConcurrentHashMap<>();
+    public static final String DEFAULT_STORE_NAME = "";
+
+    // Each IMDB repository is represented by a map for a specific type and store name
+    private static final Map<StoreKey, AggregateMap<?>> REPOSITORY_MAP = new ConcurrentHashMap<>();
 
     private final Function<T,K> keyFunction;
     private final Class<T> aggregateClazz;
+    private final StoreKey storeKey;
+    private final ValueCodec valueCodec;
+    private final ValueCopier valueCopier;
+    private final boolean storeByReference;
+
+    public IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties)
+    {
+        this(aggregateClazz, keyFunction, properties, DEFAULT_STORE_NAME);
+    }
 
-    @SuppressWarnings("java:S1172")
-    public IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties ignoredProperties)
+    /**
+     * Creates an IMDBRepository whose aggregates are only shared with IMDBRepositories of the same aggregate type
+     * and store name, so that, e.g., the aggregates of different databases can be kept in memory separately.
+     *
+     * @param storeName name of the store within the aggregate type
+     */
+    public IMDBRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties, String storeName)
     {
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
+        this.storeKey = new StoreKey(aggregateClazz, Objects.requireNonNull(storeName));
         this.keyFunction = Objects.requireNonNull(keyFunction);
-        IMDB_REPOSITORY_MAP.put(aggregateClazz, this);
+        // An IMDBRepository does not require any properties, so that null is treated like empty properties
+        var repositoryProperties = Objects.requireNonNullElseGet(properties, Properties::new);
+        this.valueCodec = ValueCodecManager.getValueCodec(repositoryProperties.getProperty(RepositoryProperties.repositoryValueCodec(), JSONValueCodec.NAME));
+        this.valueCopier = new ValueCopier(valueCodec);
+        this.storeByReference = Boolean.parseBoolean(repositoryProperties.getProperty(RepositoryProperties.repositoryIMDBStoreByReference(), "false"));
     }
 
     @Override
     public void update(T aggregate)
     {
         Objects.requireNonNull(aggregate);
-        if (! getAggregateMap(aggregateClazz).containsKey( keyFunction.apply(aggregate)))
+        var key = keyFunction.apply(aggregate);
+        if (getAggregateMap().replace(key, toValue(aggregate)) == null)
         {
-            var keyAsString = keyFunction.apply(aggregate).getClass().getSimpleName()
-                    + JSONManager.getJSONConverter().toJson(keyFunction.apply(aggregate));
             throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
                     + ": An object with given key "
-                    + keyAsString
+                    + toString(key)
                     + " does not exists");
-        } else {
-            getAggregateMap(aggregateClazz).put(keyFunction.apply(aggregate), JSONManager.getJSONConverter().toJson(aggregate));
         }
     }
 
     @Override
     public void remove(K key)
     {
-        if ( getAggregateMap(aggregateClazz).remove( key ) == null)
+        if ( getAggregateMap().remove( key ) == null)
         {
-            var keyAsString = key.getClass().getSimpleName() + JSONManager.getJSONConverter().toJson(key);
             throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
                     + ": An object with given "
-                    + keyAsString
+                    + toString(key)
                     + "key does not exists");
         }
     }
@@ -64,60 +101,293 @@ public class IMDBRepository<T, K>  implements IRepository<T, K>
     @Override
     public void removeAll()
     {
-        getAggregateMap(aggregateClazz).clear();
+        getAggregateMap().clear();
     }
 
     @Override
     public void add(T aggregate)
     {
-        if (getAggregateMap(aggregateClazz).containsKey( keyFunction.apply(aggregate)))
+        var key = keyFunction.apply(aggregate);
+        if (getAggregateMap().putIfAbsent(key, toValue(aggregate)) != null)
         {
-            var keyAsString = keyFunction.apply(aggregate).getClass().getSimpleName()
-                    + JSONManager.getJSONConverter().toJson(keyFunction.apply(aggregate));
             throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
                     + ": An object with given key "
-                    + keyAsString
+                    + toString(key)
                     + " already exists");
         }
-        getAggregateMap(aggregateClazz).put(keyFunction.apply(aggregate), JSONManager.getJSONConverter().toJson(aggregate));
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        Objects.requireNonNull(aggregate);
+        getAggregateMap().put(keyFunction.apply(aggregate), toValue(aggregate));
     }
 
     @Override
     public Optional<T> get(K primaryKey)
     {
-        if (getAggregateMap(aggregateClazz).containsKey(primaryKey)) {
-            return Optional.of(JSONManager.getJSONConverter().fromJson(getAggregateMap(aggregateClazz).get(primaryKey), aggregateClazz));
-        }
-        return Optional.empty();
+        return Optional.ofNullable(getAggregateMap().get(primaryKey))
+                .map(this::toAggregate);
+    }
+
+    @Override
+    public long count()
+    {
+        return getAggregateMap().size();
+    }
+
+    @Override
+    public boolean exists(K key)
+    {
+        return getAggregateMap().containsKey(key);
     }
 
 
     @Override
     public List<T> get()
     {
-        return getAggregateMap(aggregateClazz)
+        return stream().toList();
+    }
+
+    /**
+     * Returns all aggregates as a lazily evaluated Stream, so that an aggregate is deserialized not until it is consumed
+     */
+    @Override
+    public Stream<T> stream()
+    {
+        return getAggregateMap()
                 .values()
                 .stream()
-                .map( element -> JSONManager.getJSONConverter().fromJson(element, aggregateClazz))
+                .map(this::toAggregate);
+    }
+
+    /**
+     * Returns the first page of aggregates ordered by their keys. See {@link #page(Object, int)} for the used order.
+     */
+    @Override
+    public List<T> page(int limit)
+    {
+        return readPage(null, limit);
+    }
+
+    /**
+     * Returns the page of aggregates ordered by their keys. Keys are ordered by their natural order if they are
+     * {@link Comparable}, which corresponds to the order of a {@link io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository}
+     * with a native key column. Otherwise, keys are ordered by their JSON representation. Since the keys are kept in a
+     * sorted index, reading a page is independent of the number of previous pages.
+     */
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        Objects.requireNonNull(afterKey);
+        return readPage(afterKey, limit);
+    }
+
+    /**
+     * Adds all given aggregates. If an aggregate cannot be added, all previously added aggregates are removed again,
+     * so that either all or none of the aggregates are added.
+     */
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        var aggregateMap = getAggregateMap();
+        var newAggregates = toValueMap(aggregates);
+        if (newAggregates.size() != aggregates.size())
+        {
+            throw new IllegalArgumentException(IMDBRepository.class.getSimpleName() + ": Given aggregates include duplicate keys");
+        }
+
+        var addedAggregates = new ArrayList<Map.Entry<K, Object>>(newAggregates.size());
+        for (var entry : newAggregates.entrySet())
+        {
+            if (aggregateMap.putIfAbsent(entry.getKey(), entry.getValue()) != null)
+            {
+                addedAggregates.forEach(added -> rollback(aggregateMap, added.getKey(), added.getValue(), null));
+                throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                        + ": An object with given key "
+                        + toString(entry.getKey())
+                        + " already exists");
+            }
+            addedAggregates.add(entry);
+        }
+    }
+
+    /**
+     * Updates all given aggregates. If an aggregate cannot be updated, all previously updated aggregates are restored,
+     * so that either all or none of the aggregates are updated.
+     */
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        var aggregateMap = getAggregateMap();
+        var updatedAggregates = toValueMap(aggregates);
+
+        var previousValues = new LinkedHashMap<K, Object>();
+        for (var entry : updatedAggregates.entrySet())
+        {
+            var previousValue = aggregateMap.replace(entry.getKey(), entry.getValue());
+            if (previousValue == null)
+            {
+                previousValues.forEach((key, value) -> rollback(aggregateMap, key, updatedAggregates.get(key), value));
+                throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                        + ": An object with given key "
+                        + toString(entry.getKey())
+                        + " does not exists");
+            }
+            previousValues.putIfAbsent(entry.getKey(), previousValue);
+        }
+    }
+
+    /**
+     * Removes all aggregates with given keys. If an aggregate cannot be removed, all previously removed aggregates are
+     * added again, so that either all or none of the aggregates are removed.
+     */
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        var aggregateMap = getAggregateMap();
+
+        var removedValues = new LinkedHashMap<K, Object>();
+        for (var key : keys)
+        {
+            var removedValue = aggregateMap.remove(key);
+            if (removedValue == null && !removedValues.containsKey(key))
+            {
+                removedValues.forEach(aggregateMap::putIfAbsent);
+                throw new IllegalArgumentException(IMDBRepository.class.getSimpleName()
+                        + ": An object with given key "
+                        + toString(key)
+                        + " does not exists");
+            }
+            if (removedValue != null)
+            {
+                removedValues.put(key, removedValue);
+            }
+        }
+    }
+
+    @Override
+    public List<T> get(Collection<K> keys)
+    {
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        return keys.stream()
+                .map(aggregateMap::get)
+                .filter(Objects::nonNull)
+                .map(this::toAggregate)
+                .toList();
+    }
+
+    private List<T> readPage(K afterKey, int limit)
+    {
+        if (limit < 1)
+        {
+            throw new IllegalArgumentException("Limit of a page must be greater than 0");
+        }
+
+        return getAggregateMap()
+                .page(afterKey, limit)
+                .stream()
+                .map(this::toAggregate)
                 .toList();
     }
 
+    private Map<K, Object> toValueMap(Collection<T> aggregates)
+    {
+        var result = new LinkedHashMap<K, Object>();
+        aggregates.forEach(aggregate -> result.put(keyFunction.apply(aggregate), toValue(aggregate)));
+        return result;
+    }
+
     /**
      * This method resets all IMDBRepositories instance within an application and removes all stored objects!
      * <p>
+     * The journals of {@link PersistentIMDBRepository} are not affected, see {@link PersistentIMDBRepository#clear()}.
+     * <p>
      * So this method should only be used when writing tests to ensure a clean data setup!
      */
     public static synchronized void clear()
     {
-        IMDB_REPOSITORY_MAP.forEach( (aggregateType, repository) -> repository.removeAll() );
         REPOSITORY_MAP.forEach( (aggregateType, imdbMap) -> imdbMap.clear() );
         REPOSITORY_MAP.clear();
     }
 
     @SuppressWarnings("unchecked")
-    protected static synchronized <T> Map<T, String> getAggregateMap(Class<?> aggregateClazz)
+    protected AggregateMap<K> getAggregateMap()
     {
-        return (Map<T, String>)REPOSITORY_MAP.computeIfAbsent(aggregateClazz, element -> new ConcurrentHashMap<T,String>());
+        // A plain get does not lock, so that concurrent operations on the same store do not contend here
+        var aggregateMap = REPOSITORY_MAP.get(storeKey);
+        if (aggregateMap == null)
+        {
+            aggregateMap = REPOSITORY_MAP.computeIfAbsent(storeKey, element -> new AggregateMap<K>());
+        }
+        return (AggregateMap<K>) aggregateMap;
+    }
+
+    /**
+     * Converts a value of the aggregate map into an aggregate. Encoded values are decoded by using the
+     * {@link ValueCodec} configured by {@link RepositoryProperties#repositoryValueCodec()}, so that values written by
+     * other codecs can be read as well. Stored aggregates are returned by reference if they are immutable and copied
+     * otherwise.
+     *
+     * @param value of the aggregate map
+     * @return the aggregate
+     */
+    protected T toAggregate(Object value)
+    {
+        if (value instanceof byte[] data)
+        {
+            return valueCodec.decode(data, aggregateClazz);
+        }
+        return aggregateClazz.cast(valueCopier.copy(value));
+    }
+
+    /**
+     * Converts a value of the aggregate map into its encoded representation
+     *
+     * @param value of the aggregate map
+     * @return the encoded aggregate
+     */
+    protected byte[] toBytes(Object value)
+    {
+        if (value instanceof byte[] data)
+        {
+            return data;
+        }
+        return valueCodec.encode(value);
+    }
+
+    /**
+     * Returns true if aggregates are stored by reference instead of encoded, see
+     * {@link RepositoryProperties#repositoryIMDBStoreByReference()}
+     */
+    protected boolean isStoreByReference()
+    {
+        return storeByReference;
+    }
+
+    /**
+     * Restores the previous value of given key unless the value was changed concurrently. In contrast to
+     * {@link Map#replace(Object, Object, Object)}, values are compared by identity, because aggregates may define
+     * equals by their key.
+     */
+    private static <K> void rollback(AggregateMap<K> aggregateMap, K key, Object value, Object previousValue)
+    {
+        aggregateMap.replaceIfSame(key, value, previousValue);
+    }
+
+    private static String toString(Object key)
+    {
+        return key.getClass().getSimpleName() + JSONManager.getJSONConverter().toJson(key);
+    }
+
+    private Object toValue(T aggregate)
+    {
+        if (storeByReference)
+        {
+            return valueCopier.copy(aggregate);
+        }
+        return valueCodec.encode(aggregate);
     }
 
     protected Class<T> getAggregateClazz()
@@ -125,5 +395,6 @@ public class IMDBRepository<T, K>  implements IRepository<T, K>
         return aggregateClazz;
     }
 
+    private record StoreKey(Class<?> aggregateClazz, String storeName) {}
 
 }
@@ -0,0 +1,29 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+/**
+ * Memory used by an {@link OffHeapRepository} for an aggregate type.
+ *
+ * @param aggregates number of stored aggregates
+ * @param slabBytes off-heap memory allocated for the entries
+ * @param indexBytes off-heap memory allocated for the index of the keys
+ * @param liveBytes part of slabBytes used by current entries
+ * @param garbageBytes part of slabBytes used by changed or removed entries, which is released by the next compaction
+ * @param heapBytes estimated heap memory used to manage the off-heap memory, which does not depend on the number of aggregates
+ */
+public record OffHeapMemoryMetrics(long aggregates,
+                                   long slabBytes,
+                                   long indexBytes,
+                                   long liveBytes,
+                                   long garbageBytes,
+                                   long heapBytes)
+{
+    /**
+     * Returns the total off-heap memory allocated for the aggregate type
+     *
+     * @return sum of slabBytes and indexBytes
+     */
+    public long offHeapBytes()
+    {
+        return slabBytes + indexBytes;
+    }
+}
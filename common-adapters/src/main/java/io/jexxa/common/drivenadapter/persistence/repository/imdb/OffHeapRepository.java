@@ -0,0 +1,277 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.facade.codec.JSONValueCodec;
+import io.jexxa.common.facade.codec.ValueCodec;
+import io.jexxa.common.facade.codec.ValueCodecManager;
+import io.jexxa.common.facade.json.JSONManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.getInt;
+
+/**
+ * In-memory repository that stores its aggregates outside the Java heap, so that the heap size does not depend on the
+ * number of aggregates.
+ * <p>
+ * Aggregates are encoded by the {@link ValueCodec} configured by {@link RepositoryProperties#repositoryValueCodec()},
+ * and their keys by their JSON representation. Both are stored in direct ByteBuffers of
+ * {@link RepositoryProperties#repositoryOffHeapSlabSize()} bytes, which are located by an open-addressing hash table
+ * that is also stored off-heap. Like an {@link IMDBRepository}, all OffHeapRepositories of an aggregate type share
+ * their aggregates.
+ * <p>
+ * The used memory is provided by {@link #getMemoryMetrics()}. Note that the maximal off-heap memory of the JVM is
+ * limited by -XX:MaxDirectMemorySize, which is the maximal heap size by default.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
+public class OffHeapRepository<T, K> implements IRepository<T, K>
+{
+    public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    private static final Map<Class<?>, OffHeapStore> STORE_MAP = new ConcurrentHashMap<>();
+
+    private final Class<T> aggregateClazz;
+    private final Function<T, K> keyFunction;
+    private final ValueCodec valueCodec;
+    private final int slabSize;
+
+    public OffHeapRepository(Class<T> aggregateClazz, Function<T, K> keyFunction, Properties properties)
+    {
+        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+        // An OffHeapRepository does not require any properties, so that null is treated like empty properties
+        var repositoryProperties = Objects.requireNonNullElseGet(properties, Properties::new);
+        this.valueCodec = ValueCodecManager.getValueCodec(repositoryProperties.getProperty(RepositoryProperties.repositoryValueCodec(), JSONValueCodec.NAME));
+        this.slabSize = getInt(repositoryProperties, RepositoryProperties.repositoryOffHeapSlabSize(), DEFAULT_SLAB_SIZE);
+        getStore();
+    }
+
+    @Override
+    public void update(T aggregate)
+    {
+        updateAll(List.of(aggregate));
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        removeAll(List.of(key));
+    }
+
+    @Override
+    public void removeAll()
+    {
+        getStore().clear();
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        addAll(List.of(aggregate));
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        Objects.requireNonNull(aggregate);
+        getStore().putAll(List.of(toEntry(aggregate)), OffHeapStore.Mode.SAVE);
+    }
+
+    @Override
+    public Optional<T> get(K key)
+    {
+        return Optional.ofNullable(getStore().get(toBytes(key)))
+                .map(this::toAggregate);
+    }
+
+    @Override
+    public long count()
+    {
+        return getStore().size();
+    }
+
+    @Override
+    public boolean exists(K key)
+    {
+        return getStore().contains(toBytes(key));
+    }
+
+    @Override
+    public List<T> get()
+    {
+        try (var aggregates = stream())
+        {
+            return aggregates.toList();
+        }
+    }
+
+    /**
+     * Returns all aggregates as a lazily evaluated Stream, which reads the aggregates in small chunks in the order of
+     * {@link #page(Object, int)}. The Stream is weakly consistent, so that it is not affected by concurrent changes of
+     * the aggregate type.
+     */
+    @Override
+    public Stream<T> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(getStore().iterator(), Spliterator.NONNULL), false)
+                .map(entry -> toAggregate(entry.value()));
+    }
+
+    /**
+     * Returns the first page of aggregates. See {@link #page(Object, int)} for the used order.
+     */
+    @Override
+    public List<T> page(int limit)
+    {
+        return readPage(null, limit);
+    }
+
+    /**
+     * Returns the page of aggregates ordered by the hashes of their keys. This order is not meaningful for the
+     * application, but it allows reading a page from the off-heap index without keeping a sorted copy of all keys on
+     * the heap. Reading a page is independent of the number of previous pages.
+     */
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        return readPage(toBytes(afterKey), limit);
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        var entries = aggregates.stream().map(this::toEntry).toList();
+        var violation = getStore().putAll(entries, OffHeapStore.Mode.ADD);
+        if (violation >= 0)
+        {
+            throw new IllegalArgumentException(OffHeapRepository.class.getSimpleName()
+                    + ": An object with given key "
+                    + toString(entries.get(violation).key())
+                    + " already exists");
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        var entries = aggregates.stream().map(this::toEntry).toList();
+        var violation = getStore().putAll(entries, OffHeapStore.Mode.UPDATE);
+        if (violation >= 0)
+        {
+            throw new IllegalArgumentException(OffHeapRepository.class.getSimpleName()
+                    + ": An object with given key "
+                    + toString(entries.get(violation).key())
+                    + " does not exists");
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        var keyBytes = keys.stream().map(this::toBytes).toList();
+        var violation = getStore().removeAll(keyBytes);
+        if (violation >= 0)
+        {
+            throw new IllegalArgumentException(OffHeapRepository.class.getSimpleName()
+                    + ": An object with given key "
+                    + toString(keyBytes.get(violation))
+                    + " does not exists");
+        }
+    }
+
+    @Override
+    public List<T> get(Collection<K> keys)
+    {
+        var store = getStore();
+        return keys.stream()
+                .map(key -> store.get(toBytes(key)))
+                .filter(Objects::nonNull)
+                .map(this::toAggregate)
+                .toList();
+    }
+
+    /**
+     * Returns the memory used by all OffHeapRepositories of the aggregate type
+     *
+     * @return the used memory
+     */
+    public OffHeapMemoryMetrics getMemoryMetrics()
+    {
+        return getStore().getMetrics();
+    }
+
+    /**
+     * This method removes the aggregates of all OffHeapRepositories within an application.
+     * <p>
+     * So this method should only be used when writing tests to ensure a clean data setup!
+     */
+    public static void clear()
+    {
+        STORE_MAP.values().forEach(OffHeapStore::clear);
+        STORE_MAP.clear();
+    }
+
+    /**
+     * Returns the store of the aggregate type. The store is looked up on each call, so that a store that is removed by
+     * {@link #clear()} is not used anymore.
+     */
+    private OffHeapStore getStore()
+    {
+        // A plain get does not lock, so that concurrent operations on the same aggregate type do not contend here
+        var store = STORE_MAP.get(aggregateClazz);
+        if (store == null)
+        {
+            store = STORE_MAP.computeIfAbsent(aggregateClazz, element -> new OffHeapStore(slabSize));
+        }
+        return store;
+    }
+
+    private List<T> readPage(byte[] afterKey, int limit)
+    {
+        if (limit < 1)
+        {
+            throw new IllegalArgumentException("Limit of a page must be greater than 0");
+        }
+
+        return getStore().page(afterKey, limit)
+                .stream()
+                .map(entry -> toAggregate(entry.value()))
+                .toList();
+    }
+
+    private OffHeapStore.Entry toEntry(T aggregate)
+    {
+        return new OffHeapStore.Entry(toBytes(keyFunction.apply(aggregate)), valueCodec.encode(aggregate));
+    }
+
+    private byte[] toBytes(K key)
+    {
+        Objects.requireNonNull(key);
+        return JSONManager.getJSONConverter().toJson(key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private T toAggregate(byte[] value)
+    {
+        return valueCodec.decode(value, aggregateClazz);
+    }
+
+    private static String toString(byte[] key)
+    {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+}
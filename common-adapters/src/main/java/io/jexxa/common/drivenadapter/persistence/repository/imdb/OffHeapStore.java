@@ -0,0 +1,605 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stores key-value pairs of bytes outside the Java heap.
+ * <p>
+ * Entries are appended to direct ByteBuffers of a fixed size (slabs). Each entry consists of the length of its key,
+ * the length of its value, its key, and its value. An entry is located by an open-addressing hash table with linear
+ * probing (index), which is also stored in a direct ByteBuffer. Each slot of the index holds the hash of a key and the
+ * address of its entry, i.e., the number of the slab and the offset within the slab.
+ * <p>
+ * The home slot of a key is given by the upper bits of its hash, so that the slots are ordered by the hashes of their
+ * keys apart from the displacement by linear probing. This allows reading pages of entries ordered by their hashes
+ * without reading the whole index.
+ * <p>
+ * Changing or removing an entry leaves its previous version as garbage in its slab. If the garbage exceeds the live
+ * data, all live entries are copied into new slabs (compaction).
+ * <p>
+ * All methods are thread-safe. Reads share a read lock, and changes are serialized by a write lock.
+ */
+final class OffHeapStore
+{
+    private static final int SLOT_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int ENTRY_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int MIN_CAPACITY = 1024;
+    // The index must not exceed the maximal size of a ByteBuffer
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final int ITERATION_CHUNK_SIZE = 256;
+
+    // Addresses are stored incremented by one, so that an empty slot is 0
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+
+    // Estimated heap size of a direct ByteBuffer including the reference within the list of slabs
+    private static final long HEAP_BYTES_PER_BUFFER = 80;
+    private static final long HEAP_BYTES_PER_STORE = 256;
+
+    enum Mode
+    {
+        /** None of the keys must exist */
+        ADD,
+        /** All keys must exist */
+        UPDATE,
+        /** Keys are added or updated */
+        SAVE
+    }
+
+    record Entry(byte[] key, byte[] value) { }
+
+    private final int slabSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int writePosition;
+    private ByteBuffer index;
+    private int capacity;
+    // Number of slots that are not empty, including removed ones
+    private int usedSlots;
+    private long size;
+    private long liveBytes;
+    private long garbageBytes;
+
+    OffHeapStore(int slabSize)
+    {
+        if (slabSize < ENTRY_HEADER_SIZE)
+        {
+            throw new IllegalArgumentException("Size of a slab must be at least " + ENTRY_HEADER_SIZE + " bytes but is " + slabSize);
+        }
+        this.slabSize = slabSize;
+        this.index = allocateIndex(MIN_CAPACITY);
+    }
+
+    byte[] get(byte[] key)
+    {
+        lock.readLock().lock();
+        try {
+            var slot = findSlot(key, hash(key));
+            return slot < 0 ? null : readValue(addressOf(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(byte[] key)
+    {
+        lock.readLock().lock();
+        try {
+            return findSlot(key, hash(key)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long size()
+    {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all given entries, if all keys fulfill the precondition of given mode. Otherwise, no entry is written.
+     *
+     * @return the position of the first key that violates the precondition, or -1 if all entries were written
+     */
+    int putAll(List<Entry> entries, Mode mode)
+    {
+        lock.writeLock().lock();
+        try {
+            var violation = checkPrecondition(entries, mode);
+            if (violation >= 0)
+            {
+                return violation;
+            }
+
+            entries.forEach(this::put);
+            compactIfRequired();
+            return -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all given keys, if all of them exist. Otherwise, no key is removed.
+     *
+     * @return the position of the first key that does not exist, or -1 if all keys were removed
+     */
+    int removeAll(List<byte[]> keys)
+    {
+        lock.writeLock().lock();
+        try {
+            for (var i = 0; i < keys.size(); ++i)
+            {
+                if (findSlot(keys.get(i), hash(keys.get(i))) < 0)
+                {
+                    return i;
+                }
+            }
+
+            keys.forEach(this::remove);
+            compactIfRequired();
+            return -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear()
+    {
+        lock.writeLock().lock();
+        try {
+            // The memory of direct ByteBuffers is released when they are garbage collected
+            slabs.clear();
+            writePosition = 0;
+            index = allocateIndex(MIN_CAPACITY);
+            usedSlots = 0;
+            size = 0;
+            liveBytes = 0;
+            garbageBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns at most limit entries whose keys follow given key in the order of {@link #compare(int, byte[], int, byte[])}.
+     * Reading starts at the home slot of given key and stops at the first empty slot after the home slot of the last
+     * entry of the page, because no following slot can contain an entry that belongs to the page.
+     *
+     * @param afterKey key after which the page starts, or null to read the first page. The key does not need to exist.
+     * @param limit maximal number of returned entries
+     */
+    List<Entry> page(byte[] afterKey, int limit)
+    {
+        lock.readLock().lock();
+        try {
+            var afterHash = (afterKey == null) ? 0 : hash(afterKey);
+            var firstSlot = (afterKey == null) ? 0 : homeSlot(afterHash);
+            var page = new TreeMap<PageKey, Long>();
+
+            // Entries whose probing wrapped around the end of the index are located in the first slots
+            for (var slot = 0; slot < firstSlot && index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES) != EMPTY; ++slot)
+            {
+                addToPage(page, slot, afterKey, afterHash, limit);
+            }
+
+            for (var slot = firstSlot; slot < capacity; ++slot)
+            {
+                if (index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES) == EMPTY)
+                {
+                    if (page.size() == limit && slot > homeSlot(page.lastKey().hash()))
+                    {
+                        break;
+                    }
+                    continue;
+                }
+                addToPage(page, slot, afterKey, afterHash, limit);
+            }
+
+            return page.values().stream().map(this::readEntry).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Order of the entries within a page. Entries are ordered by the unsigned value of the hash of their keys, and
+     * entries with the same hash by the unsigned bytes of their keys.
+     */
+    static int compare(int hash, byte[] key, int otherHash, byte[] otherKey)
+    {
+        var result = Integer.compareUnsigned(hash, otherHash);
+        return (result != 0) ? result : Arrays.compareUnsigned(key, otherKey);
+    }
+
+    /**
+     * Returns an iterator over all entries in the order of {@link #page(byte[], int)} that reads the entries in chunks,
+     * so that only a single chunk is kept on the heap. The iterator is weakly consistent: It never throws a
+     * ConcurrentModificationException, returns each entry that exists during the whole iteration exactly once, and may
+     * or may not return entries that are changed concurrently.
+     */
+    Iterator<Entry> iterator()
+    {
+        return new EntryIterator();
+    }
+
+    OffHeapMemoryMetrics getMetrics()
+    {
+        lock.readLock().lock();
+        try {
+            var slabBytes = slabs.stream().mapToLong(ByteBuffer::capacity).sum();
+            return new OffHeapMemoryMetrics(
+                    size,
+                    slabBytes,
+                    (long) capacity * SLOT_SIZE,
+                    liveBytes,
+                    garbageBytes,
+                    HEAP_BYTES_PER_STORE + HEAP_BYTES_PER_BUFFER * (slabs.size() + 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addToPage(TreeMap<PageKey, Long> page, int slot, byte[] afterKey, int afterHash, int limit)
+    {
+        var storedAddress = index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES);
+        if (storedAddress == EMPTY || storedAddress == REMOVED)
+        {
+            return;
+        }
+
+        var hash = index.getInt(slot * SLOT_SIZE);
+        if (afterKey != null && Integer.compareUnsigned(hash, afterHash) < 0
+                || page.size() == limit && Integer.compareUnsigned(hash, page.lastKey().hash()) > 0)
+        {
+            return; // The key is not part of the page, so that it is not read
+        }
+
+        var pageKey = new PageKey(hash, readKey(storedAddress - 1));
+        if ((afterKey == null || compare(hash, pageKey.key(), afterHash, afterKey) > 0) && page.put(pageKey, storedAddress - 1) == null
+                && page.size() > limit)
+        {
+            page.pollLastEntry();
+        }
+    }
+
+    private int checkPrecondition(List<Entry> entries, Mode mode)
+    {
+        var keys = new HashSet<ByteBuffer>();
+        for (var i = 0; i < entries.size(); ++i)
+        {
+            var key = entries.get(i).key();
+            var exists = findSlot(key, hash(key)) >= 0;
+            if ((mode == Mode.ADD && (exists || !keys.add(ByteBuffer.wrap(key))))
+                    || (mode == Mode.UPDATE && !exists))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void put(Entry entry)
+    {
+        var hash = hash(entry.key());
+        var address = append(entry.key(), entry.value());
+        var slot = findSlot(entry.key(), hash);
+
+        if (slot >= 0)
+        {
+            discard(addressOf(slot));
+        }
+        else
+        {
+            slot = -slot - 1;
+            if (index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES) == EMPTY)
+            {
+                ++usedSlots;
+            }
+            ++size;
+        }
+
+        index.putInt(slot * SLOT_SIZE, hash);
+        index.putLong(slot * SLOT_SIZE + 2 * Integer.BYTES, address + 1);
+        liveBytes += entrySize(address);
+
+        if (usedSlots > capacity / 2)
+        {
+            // If many slots are only occupied by removed entries, it is sufficient to rebuild the index
+            resize(size > capacity / 4 ? capacity * 2 : capacity);
+        }
+    }
+
+    private void remove(byte[] key)
+    {
+        var slot = findSlot(key, hash(key));
+        if (slot < 0)
+        {
+            return; // Given keys contain the key more than once
+        }
+        discard(addressOf(slot));
+        index.putLong(slot * SLOT_SIZE + 2 * Integer.BYTES, REMOVED);
+        --size;
+    }
+
+    private void discard(long address)
+    {
+        var entrySize = entrySize(address);
+        liveBytes -= entrySize;
+        garbageBytes += entrySize;
+    }
+
+    /**
+     * Returns the slot of given key, or -(slot + 1) of the slot in which the key should be inserted
+     */
+    private int findSlot(byte[] key, int hash)
+    {
+        var mask = capacity - 1;
+        var firstRemoved = -1;
+        for (var slot = homeSlot(hash); ; slot = (slot + 1) & mask)
+        {
+            var storedAddress = index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES);
+            if (storedAddress == EMPTY)
+            {
+                return -(firstRemoved >= 0 ? firstRemoved : slot) - 1;
+            }
+
+            if (storedAddress == REMOVED)
+            {
+                if (firstRemoved < 0)
+                {
+                    firstRemoved = slot;
+                }
+            }
+            else if (index.getInt(slot * SLOT_SIZE) == hash && keyEquals(storedAddress - 1, key))
+            {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot at which the search for a key with given hash starts, given by the upper bits of the hash
+     */
+    private int homeSlot(int hash)
+    {
+        return hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(capacity));
+    }
+
+    private long addressOf(int slot)
+    {
+        return index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES) - 1;
+    }
+
+    private void resize(int newCapacity)
+    {
+        if (newCapacity > MAX_CAPACITY)
+        {
+            throw new IllegalStateException("Index of off-heap store exceeds its maximal capacity of " + MAX_CAPACITY / 2 + " entries");
+        }
+
+        var oldIndex = index;
+        var oldCapacity = capacity;
+        index = allocateIndex(newCapacity);
+        usedSlots = 0;
+
+        var mask = capacity - 1;
+        for (var oldSlot = 0; oldSlot < oldCapacity; ++oldSlot)
+        {
+            var storedAddress = oldIndex.getLong(oldSlot * SLOT_SIZE + 2 * Integer.BYTES);
+            if (storedAddress == EMPTY || storedAddress == REMOVED)
+            {
+                continue;
+            }
+
+            var hash = oldIndex.getInt(oldSlot * SLOT_SIZE);
+            var slot = homeSlot(hash);
+            while (index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES) != EMPTY)
+            {
+                slot = (slot + 1) & mask;
+            }
+            index.putInt(slot * SLOT_SIZE, hash);
+            index.putLong(slot * SLOT_SIZE + 2 * Integer.BYTES, storedAddress);
+            ++usedSlots;
+        }
+    }
+
+    /**
+     * Copies all live entries into new slabs if the garbage exceeds the live data. The slots of the index do not change.
+     */
+    private void compactIfRequired()
+    {
+        if (garbageBytes <= liveBytes || garbageBytes < slabSize)
+        {
+            return;
+        }
+
+        var oldSlabs = List.copyOf(slabs);
+        slabs.clear();
+        writePosition = 0;
+
+        for (var slot = 0; slot < capacity; ++slot)
+        {
+            var storedAddress = index.getLong(slot * SLOT_SIZE + 2 * Integer.BYTES);
+            if (storedAddress == EMPTY || storedAddress == REMOVED)
+            {
+                continue;
+            }
+
+            var oldAddress = storedAddress - 1;
+            var oldSlab = oldSlabs.get((int) (oldAddress >>> 32));
+            var offset = (int) oldAddress;
+            var key = new byte[oldSlab.getInt(offset)];
+            var value = new byte[oldSlab.getInt(offset + Integer.BYTES)];
+            oldSlab.get(offset + ENTRY_HEADER_SIZE, key);
+            oldSlab.get(offset + ENTRY_HEADER_SIZE + key.length, value);
+
+            index.putLong(slot * SLOT_SIZE + 2 * Integer.BYTES, append(key, value) + 1);
+        }
+        garbageBytes = 0;
+    }
+
+    private long append(byte[] key, byte[] value)
+    {
+        var entrySize = ENTRY_HEADER_SIZE + key.length + value.length;
+        if (slabs.isEmpty() || writePosition + entrySize > slabs.get(slabs.size() - 1).capacity())
+        {
+            // An entry that exceeds the size of a slab gets its own slab
+            slabs.add(ByteBuffer.allocateDirect(Math.max(slabSize, entrySize)));
+            writePosition = 0;
+        }
+
+        var slab = slabs.get(slabs.size() - 1);
+        slab.putInt(writePosition, key.length);
+        slab.putInt(writePosition + Integer.BYTES, value.length);
+        slab.put(writePosition + ENTRY_HEADER_SIZE, key);
+        slab.put(writePosition + ENTRY_HEADER_SIZE + key.length, value);
+
+        var address = ((long) (slabs.size() - 1) << 32) | writePosition;
+        writePosition += entrySize;
+        return address;
+    }
+
+    private boolean keyEquals(long address, byte[] key)
+    {
+        var slab = slabs.get((int) (address >>> 32));
+        var offset = (int) address;
+        return slab.getInt(offset) == key.length
+                && slab.slice(offset + ENTRY_HEADER_SIZE, key.length).equals(ByteBuffer.wrap(key));
+    }
+
+    private Entry readEntry(long address)
+    {
+        var slab = slabs.get((int) (address >>> 32));
+        var offset = (int) address;
+        var key = new byte[slab.getInt(offset)];
+        var value = new byte[slab.getInt(offset + Integer.BYTES)];
+        slab.get(offset + ENTRY_HEADER_SIZE, key);
+        slab.get(offset + ENTRY_HEADER_SIZE + key.length, value);
+        return new Entry(key, value);
+    }
+
+    private byte[] readKey(long address)
+    {
+        var slab = slabs.get((int) (address >>> 32));
+        var offset = (int) address;
+        var key = new byte[slab.getInt(offset)];
+        slab.get(offset + ENTRY_HEADER_SIZE, key);
+        return key;
+    }
+
+    private byte[] readValue(long address)
+    {
+        var slab = slabs.get((int) (address >>> 32));
+        var offset = (int) address;
+        var value = new byte[slab.getInt(offset + Integer.BYTES)];
+        slab.get(offset + ENTRY_HEADER_SIZE + slab.getInt(offset), value);
+        return value;
+    }
+
+    private int entrySize(long address)
+    {
+        var slab = slabs.get((int) (address >>> 32));
+        var offset = (int) address;
+        return ENTRY_HEADER_SIZE + slab.getInt(offset) + slab.getInt(offset + Integer.BYTES);
+    }
+
+    private ByteBuffer allocateIndex(int newCapacity)
+    {
+        capacity = newCapacity;
+        return ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+    }
+
+    private static int hash(byte[] key)
+    {
+        // Finalization step of MurmurHash3, so that the upper bits used by the index are well distributed
+        var hash = Arrays.hashCode(key);
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private record PageKey(int hash, byte[] key) implements Comparable<PageKey>
+    {
+        @Override
+        public int compareTo(PageKey other)
+        {
+            return compare(hash, key, other.hash, other.key);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof PageKey other && compareTo(other) == 0;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * hash + Arrays.hashCode(key);
+        }
+    }
+
+    /**
+     * Reads the entries by successive pages, so that resizing or clearing the index during the iteration does not
+     * affect the entries that are read next.
+     */
+    private final class EntryIterator implements Iterator<Entry>
+    {
+        private final ArrayDeque<Entry> chunk = new ArrayDeque<>(ITERATION_CHUNK_SIZE);
+        private byte[] lastKey;
+        private boolean finished;
+
+        @Override
+        public boolean hasNext()
+        {
+            if (chunk.isEmpty() && !finished)
+            {
+                readChunk();
+            }
+            return !chunk.isEmpty();
+        }
+
+        @Override
+        public Entry next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return chunk.poll();
+        }
+
+        private void readChunk()
+        {
+            var entries = page(lastKey, ITERATION_CHUNK_SIZE);
+            if (entries.size() < ITERATION_CHUNK_SIZE)
+            {
+                finished = true;
+            }
+            if (!entries.isEmpty())
+            {
+                lastKey = entries.get(entries.size() - 1).key();
+                chunk.addAll(entries);
+            }
+        }
+    }
+}
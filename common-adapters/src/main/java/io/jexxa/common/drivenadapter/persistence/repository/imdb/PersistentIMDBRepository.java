@@ -0,0 +1,292 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.facade.json.JSONManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.getLong;
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.requirePositive;
+
+/**
+ * IMDBRepository that stores all changes on local disk, so that the aggregates survive a restart of the application.
+ * <p>
+ * Each change is appended to a journal file in the directory configured by
+ * {@link RepositoryProperties#repositoryIMDBDirectory()}. By default, a change is synced to disk before the changing
+ * method returns. Changes of concurrent threads are synced by a single fsync. After
+ * {@link RepositoryProperties#repositoryIMDBSnapshotThreshold()} changes, all aggregates are written to a compacted
+ * snapshot file and the journal is truncated.
+ * <p>
+ * When the first PersistentIMDBRepository of an aggregate type is created, the snapshot and the journal are replayed.
+ * <p>
+ * Important note: The files of an aggregate type must only be used by a single application at a time.
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
+public class PersistentIMDBRepository<T, K> extends IMDBRepository<T, K>
+{
+    public static final long DEFAULT_SNAPSHOT_THRESHOLD = 10000;
+
+    private static final Map<Class<?>, IMDBJournal> JOURNAL_MAP = new ConcurrentHashMap<>();
+
+    static {
+        JexxaContext.registerCleanupHandler(PersistentIMDBRepository::closeAll);
+    }
+
+    private final Function<T, K> keyFunction;
+    private final IMDBJournal journal;
+    private final long snapshotThreshold;
+
+    public PersistentIMDBRepository(Class<T> aggregateClazz, Function<T, K> keyFunction, Properties properties)
+    {
+        // Properties are validated before the repository is registered by its super class
+        super(aggregateClazz, keyFunction, validateProperties(properties));
+        this.keyFunction = keyFunction;
+        this.snapshotThreshold = getSnapshotThreshold(properties);
+        this.journal = JOURNAL_MAP.computeIfAbsent(aggregateClazz, element -> openJournal(properties));
+    }
+
+    @Override
+    public void update(T aggregate)
+    {
+        change(IMDBJournal.Type.PUT, List.of(keyFunction.apply(aggregate)), () -> super.update(aggregate));
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        change(IMDBJournal.Type.REMOVE, List.of(key), () -> super.remove(key));
+    }
+
+    @Override
+    public void removeAll()
+    {
+        change(IMDBJournal.Type.CLEAR, List.of(), super::removeAll);
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        change(IMDBJournal.Type.PUT, List.of(keyFunction.apply(aggregate)), () -> super.add(aggregate));
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        change(IMDBJournal.Type.PUT, List.of(keyFunction.apply(aggregate)), () -> super.save(aggregate));
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        change(IMDBJournal.Type.PUT, aggregates.stream().map(keyFunction).toList(), () -> super.addAll(aggregates));
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        change(IMDBJournal.Type.PUT, aggregates.stream().map(keyFunction).toList(), () -> super.updateAll(aggregates));
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        change(IMDBJournal.Type.REMOVE, keys, () -> super.removeAll(keys));
+    }
+
+    /**
+     * Writes a compacted snapshot of all aggregates and truncates the journal
+     */
+    public void snapshot()
+    {
+        synchronized (journal)
+        {
+            AggregateMap<K> aggregateMap = getAggregateMap();
+            journal.writeSnapshot(aggregateMap.values().stream().map(this::toBytes).toList());
+        }
+    }
+
+    /**
+     * This method resets all IMDBRepositories within an application, see {@link IMDBRepository#clear()}, and closes
+     * the journals of all PersistentIMDBRepositories. The files are not changed, so that a new PersistentIMDBRepository
+     * replays its files again.
+     * <p>
+     * So this method should only be used when writing tests to ensure a clean data setup!
+     */
+    public static synchronized void clear()
+    {
+        closeAll();
+        IMDBRepository.clear();
+    }
+
+    /**
+     * Closes the journals of all PersistentIMDBRepositories within an application. This method is called when the
+     * {@link JexxaContext} is cleaned up. Afterward, a new PersistentIMDBRepository replays its journal again.
+     */
+    public static synchronized void closeAll()
+    {
+        JOURNAL_MAP.values().forEach(IMDBJournal::close);
+        JOURNAL_MAP.clear();
+    }
+
+    private IMDBJournal openJournal(Properties properties)
+    {
+        var result = new IMDBJournal(
+                Path.of(properties.getProperty(RepositoryProperties.repositoryIMDBDirectory())),
+                getAggregateClazz().getSimpleName(),
+                Boolean.parseBoolean(properties.getProperty(RepositoryProperties.repositoryIMDBSync(), "true")));
+
+        // The aggregate map is shared by all IMDBRepositories of an aggregate type, so that its content is replaced by the replayed state
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        aggregateMap.clear();
+        // A REMOVE record contains only the JSON representation of a key, which is mapped to the key of a replayed PUT record
+        var replayedKeys = new HashMap<String, K>();
+        result.open((type, payload) -> {
+            switch (type)
+            {
+                case PUT -> {
+                    // A decoded aggregate is not shared with anyone else, so that it can be stored by reference without a copy
+                    var aggregate = toAggregate(payload);
+                    var key = keyFunction.apply(aggregate);
+                    replayedKeys.put(toJSONKey(key), key);
+                    aggregateMap.put(key, isStoreByReference() ? aggregate : payload);
+                }
+                case REMOVE -> {
+                    var key = replayedKeys.remove(new String(payload, StandardCharsets.UTF_8));
+                    if (key != null)
+                    {
+                        aggregateMap.remove(key);
+                    }
+                }
+                case CLEAR -> {
+                    replayedKeys.clear();
+                    aggregateMap.clear();
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies given change to the aggregate map and appends it to the journal. The journal is locked during the change,
+     * so that the order of the records matches the order of the changes. If the change or appending its records fails,
+     * the previous values of the changed keys are restored, so that the aggregate map does not contain changes that are
+     * not journaled. Only the fsync is done without the lock, so that the records of concurrent changes can be synced
+     * together.
+     */
+    private void change(IMDBJournal.Type type, Collection<K> keys, Runnable change)
+    {
+        long position;
+        synchronized (journal)
+        {
+            if (!journal.isOpen())
+            {
+                throw new IllegalStateException("Journal of " + getAggregateClazz().getSimpleName() + " is already closed");
+            }
+
+            var previousValues = previousValues(type, keys);
+            try {
+                change.run();
+                var payloads = switch (type)
+                {
+                    case PUT -> values(keys);
+                    // Only the key of a removed aggregate is journaled
+                    case REMOVE -> previousValues.entrySet().stream()
+                            .filter(entry -> entry.getValue() != null)
+                            .map(entry -> toJSONKey(entry.getKey()).getBytes(StandardCharsets.UTF_8))
+                            .toList();
+                    case CLEAR -> List.of(new byte[0]);
+                };
+                position = journal.append(type, payloads);
+            } catch (RuntimeException e) {
+                restore(previousValues);
+                throw e;
+            }
+
+            if (journal.getJournalRecords() >= snapshotThreshold)
+            {
+                snapshot();
+            }
+        }
+        journal.sync(position);
+    }
+
+    /**
+     * Returns the current values of all keys that are changed by a change of given type. A null value denotes a key
+     * that does not exist.
+     */
+    private Map<K, Object> previousValues(IMDBJournal.Type type, Collection<K> keys)
+    {
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        var result = new HashMap<K, Object>();
+        if (type == IMDBJournal.Type.CLEAR)
+        {
+            aggregateMap.forEach(result::put);
+        }
+        else
+        {
+            keys.forEach(key -> result.put(key, aggregateMap.get(key)));
+        }
+        return result;
+    }
+
+    private void restore(Map<K, Object> previousValues)
+    {
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        previousValues.forEach((key, value) -> {
+            if (value == null)
+            {
+                aggregateMap.remove(key);
+            }
+            else
+            {
+                aggregateMap.put(key, value);
+            }
+        });
+    }
+
+    private List<byte[]> values(Collection<K> keys)
+    {
+        AggregateMap<K> aggregateMap = getAggregateMap();
+        var result = new ArrayList<byte[]>(keys.size());
+        keys.stream()
+                .map(aggregateMap::get)
+                .filter(Objects::nonNull)
+                .map(this::toBytes)
+                .forEach(result::add);
+        return result;
+    }
+
+    private static String toJSONKey(Object key)
+    {
+        return JSONManager.getJSONConverter().toJson(key);
+    }
+
+    private static Properties validateProperties(Properties properties)
+    {
+        if (!properties.containsKey(RepositoryProperties.repositoryIMDBDirectory()))
+        {
+            throw new IllegalArgumentException("Parameter " + RepositoryProperties.repositoryIMDBDirectory() + " is missing");
+        }
+        getSnapshotThreshold(properties);
+        return properties;
+    }
+
+    private static long getSnapshotThreshold(Properties properties)
+    {
+        return requirePositive(RepositoryProperties.repositoryIMDBSnapshotThreshold(),
+                getLong(properties, RepositoryProperties.repositoryIMDBSnapshotThreshold(), DEFAULT_SNAPSHOT_THRESHOLD));
+    }
+}
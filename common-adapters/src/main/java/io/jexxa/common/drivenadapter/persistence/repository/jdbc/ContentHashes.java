@@ -0,0 +1,81 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Stores the content hashes of all aggregates of a {@link JDBCKeyValueRepository} that were read or written within
+ * a single transaction, so that updating an unchanged aggregate can be skipped.
+ * <p>
+ * Aggregates are identified by the JSON representation of the key, which is also used as primary key in the database.
+ * A content hash is the SHA-256 hash of the JSON representation of the aggregate. The content hash of a read aggregate
+ * is only computed when the aggregate is updated, so that reading aggregates does not pay for dirty checking.
+ */
+final class ContentHashes
+{
+    private final Map<String, ContentHash> hashes = new HashMap<>();
+
+    static byte[] hash(String json)
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    void put(String jsonKey, byte[] hash)
+    {
+        hashes.put(jsonKey, new ContentHash(hash, null));
+    }
+
+    /**
+     * Remembers a content hash that is computed by given function when it is required for the first time
+     */
+    void putLazy(String jsonKey, Supplier<byte[]> hashFunction)
+    {
+        hashes.put(jsonKey, new ContentHash(null, hashFunction));
+    }
+
+    boolean isUnchanged(String jsonKey, byte[] hash)
+    {
+        var knownHash = hashes.get(jsonKey);
+        return knownHash != null && MessageDigest.isEqual(knownHash.get(), hash);
+    }
+
+    void remove(String jsonKey)
+    {
+        hashes.remove(jsonKey);
+    }
+
+    void clear()
+    {
+        hashes.clear();
+    }
+
+    private static final class ContentHash
+    {
+        private byte[] hash;
+        private Supplier<byte[]> hashFunction;
+
+        private ContentHash(byte[] hash, Supplier<byte[]> hashFunction)
+        {
+            this.hash = hash;
+            this.hashFunction = hashFunction;
+        }
+
+        private byte[] get()
+        {
+            if (hash == null)
+            {
+                hash = hashFunction.get();
+                hashFunction = null;
+            }
+            return hash;
+        }
+    }
+}
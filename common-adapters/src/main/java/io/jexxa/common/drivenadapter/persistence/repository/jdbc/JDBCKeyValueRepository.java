@@ -1,23 +1,46 @@
 package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
 
 
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
 import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.facade.codec.JSONValueCodec;
+import io.jexxa.common.facade.codec.ValueCodec;
+import io.jexxa.common.facade.codec.ValueCodecManager;
+import io.jexxa.common.facade.codec.ValueCompression;
+import io.jexxa.common.facade.jdbc.JDBCBatchCommand;
+import io.jexxa.common.facade.jdbc.JDBCConnection;
 import io.jexxa.common.facade.jdbc.JDBCProperties;
+import io.jexxa.common.facade.jdbc.JDBCQuery;
 import io.jexxa.common.facade.jdbc.builder.JDBCObject;
+import io.jexxa.common.facade.jdbc.builder.JDBCQueryBuilder;
+import io.jexxa.common.facade.jdbc.builder.SQLDataType;
 import io.jexxa.common.facade.jdbc.database.DatabaseManager;
 import io.jexxa.common.facade.jdbc.database.IDatabase;
 import org.slf4j.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static io.jexxa.common.facade.jdbc.builder.JDBCTableBuilder.SQLConstraint.PRIMARY_KEY;
 import static io.jexxa.common.facade.jdbc.builder.SQLDataType.JSONB;
+import static io.jexxa.common.facade.jdbc.builder.SQLDataType.VARBINARY;
 import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
 import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.getInt;
 
 
 public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRepository<T, K>
@@ -27,36 +50,73 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     private final Function<T,K> keyFunction;
     private final Class<T> aggregateClazz;
     private final IDatabase database;
+    private final int fetchSize;
+    private final int batchSize;
+    private final String jdbcUrl;
+    private final boolean writeBehind;
+    private final boolean dirtyChecking;
+    private final LongAdder skippedWrites = new LongAdder();
+    private final KeyCodec<?> keyCodec;
+    private final SQLDataType keyColumnType;
+    private final ValueCodec valueCodec;
+    private final SQLDataType valueColumnType;
+    private final int compressionThreshold;
+    private final ValueCompression.Algorithm compressionAlgorithm;
 
     private String tableName;
 
     public enum KeyValueSchema
     {
         REPOSITORY_KEY,
-        REPOSITORY_VALUE
+        REPOSITORY_VALUE,
+        /** Only available if compression is enabled, see {@link JDBCProperties#jdbcCompressionThreshold()} */
+        REPOSITORY_COMPRESSED_VALUE
     }
 
     @SuppressWarnings("unused")
     public JDBCKeyValueRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties)
     {
-        super(properties);
-
-        this.keyFunction = Objects.requireNonNull( keyFunction );
-        this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
-        this.database = DatabaseManager.getDatabase(properties.getProperty(JDBCProperties.jdbcUrl()));
-        this.tableName = aggregateClazz.getSimpleName();
+        this(aggregateClazz, keyFunction, properties, Objects.requireNonNull(aggregateClazz).getSimpleName());
+    }
 
-        manageDBTable(properties);
+    /**
+     * Creates a repository that stores the aggregates in given table instead of the table named by the aggregate type
+     *
+     * @param aggregateClazz type of the aggregates
+     * @param keyFunction returns the key of an aggregate
+     * @param properties configuring the repository
+     * @param tableName of the table that stores the aggregates
+     */
+    public JDBCKeyValueRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties, String tableName)
+    {
+        this(aggregateClazz, keyFunction, properties, tableName, true);
     }
 
     protected JDBCKeyValueRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties, boolean manageTable)
+    {
+        this(aggregateClazz, keyFunction, properties, Objects.requireNonNull(aggregateClazz).getSimpleName(), manageTable);
+    }
+
+    private JDBCKeyValueRepository(Class<T> aggregateClazz, Function<T,K> keyFunction, Properties properties, String tableName, boolean manageTable)
     {
         super(properties);
 
         this.keyFunction = Objects.requireNonNull( keyFunction );
         this.aggregateClazz = Objects.requireNonNull(aggregateClazz);
         this.database = DatabaseManager.getDatabase(properties.getProperty(JDBCProperties.jdbcUrl()));
-        this.tableName = aggregateClazz.getSimpleName();
+        this.tableName = Objects.requireNonNull(tableName);
+        this.fetchSize = getInt(properties, JDBCProperties.jdbcFetchSize(), JDBCQuery.DEFAULT_FETCH_SIZE);
+        this.batchSize = getInt(properties, JDBCProperties.jdbcBatchSize(), JDBCBatchCommand.DEFAULT_BATCH_SIZE);
+        this.jdbcUrl = properties.getProperty(JDBCProperties.jdbcUrl());
+        this.writeBehind = Boolean.parseBoolean(properties.getProperty(JDBCProperties.jdbcWriteBehind(), "false"));
+        this.dirtyChecking = Boolean.parseBoolean(properties.getProperty(JDBCProperties.jdbcDirtyChecking(), "false"));
+        this.keyCodec = KeyCodecs.getKeyCodec(aggregateClazz);
+        this.keyColumnType = database.matchingPrimaryKey(keyCodec.keyType());
+        this.valueCodec = ValueCodecManager.getValueCodec(properties.getProperty(RepositoryProperties.repositoryValueCodec(), JSONValueCodec.NAME));
+        this.valueColumnType = database.matchingValue(isJSONValue() ? JSONB : VARBINARY);
+        // Subclasses that manage their own table do not provide the column for compressed values
+        this.compressionThreshold = manageTable ? getCompressionThreshold(properties) : 0;
+        this.compressionAlgorithm = ValueCompression.Algorithm.of(properties.getProperty(JDBCProperties.jdbcCompressionAlgorithm(), "lz4"));
 
         if ( manageTable )
         {
@@ -69,20 +129,46 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     public void remove(K key)
     {
         Objects.requireNonNull(key);
-        var jdbcKey = new JDBCObject(getJSONConverter().toJson(key), database.matchingValue(JSONB));
 
-        var command = getConnection().command(KeyValueSchema.class)
-                .deleteFrom(tableName())
-                .where(KeyValueSchema.REPOSITORY_KEY)
-                .isEqual(jdbcKey)
-                .create();
+        var jsonKey = getJSONConverter().toJson(key);
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            writeBehindBuffer.remove(jsonKey, key);
+        }
+        else
+        {
+            var command = getConnection().command(KeyValueSchema.class)
+                    .deleteFrom(tableName())
+                    .where(KeyValueSchema.REPOSITORY_KEY)
+                    .isEqual(primaryKeyToJDBC(key))
+                    .create();
 
-        command.asUpdate();
+            command.asUpdate();
+        }
+
+        var contentHashes = getContentHashes();
+        if (contentHashes != null)
+        {
+            contentHashes.remove(jsonKey);
+        }
     }
 
     @Override
     public void removeAll()
     {
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            writeBehindBuffer.clear();
+        }
+
+        var contentHashes = getContentHashes();
+        if (contentHashes != null)
+        {
+            contentHashes.clear();
+        }
+
         var command = getConnection().command(KeyValueSchema.class)
                 .deleteFrom(tableName())
                 .create();
@@ -95,66 +181,479 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     {
         Objects.requireNonNull(aggregate);
 
-        var command = getConnection().command(KeyValueSchema.class)
-                .insertInto(tableName())
-                .values(new JDBCObject[]{
-                        primaryKeyToJSONB(keyFunction.apply(aggregate)),
-                        valueToJSONB(aggregate)}
-                )
-                .create();
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            var key = keyFunction.apply(aggregate);
+            writeBehindBuffer.add(getJSONConverter().toJson(key), key, aggregate);
+        }
+        else
+        {
+            insertAggregates(List.of(aggregate));
+        }
 
-        command.asUpdate();
+        rememberContentHashes(List.of(aggregate));
     }
 
-    @SuppressWarnings({"unused"})
+    /**
+     * Updates given aggregate. If {@link JDBCProperties#jdbcDirtyChecking()} is enabled, the update is skipped if the
+     * aggregate was read or written within the current transaction and has not changed since then.
+     */
     @Override
     public void update(T aggregate)
     {
         Objects.requireNonNull(aggregate);
 
+        var key = keyFunction.apply(aggregate);
+        var jsonKey = getJSONConverter().toJson(key);
+        var contentHashes = getContentHashes();
+        var contentHash = (contentHashes != null) ? contentHash(aggregate) : null;
+        if (contentHashes != null && contentHashes.isUnchanged(jsonKey, contentHash))
+        {
+            skippedWrites.increment();
+            return;
+        }
+
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            writeBehindBuffer.update(jsonKey, key, aggregate);
+        }
+        else
+        {
+            updateAggregates(List.of(aggregate));
+        }
+
+        if (contentHashes != null)
+        {
+            contentHashes.put(jsonKey, contentHash);
+        }
+    }
+
+    /**
+     * Adds or updates given aggregate by using a single upsert statement of the database, see
+     * {@link IDatabase#upsertInto}. Pending changes of write behind are written before. If
+     * {@link JDBCProperties#jdbcDirtyChecking()} is enabled, unchanged aggregates are skipped as described in
+     * {@link #update(Object)}.
+     */
+    @Override
+    public void save(T aggregate)
+    {
+        Objects.requireNonNull(aggregate);
+
+        var jsonKey = getJSONConverter().toJson(keyFunction.apply(aggregate));
+        var contentHashes = getContentHashes();
+        var contentHash = (contentHashes != null) ? contentHash(aggregate) : null;
+        if (contentHashes != null && contentHashes.isUnchanged(jsonKey, contentHash))
+        {
+            skippedWrites.increment();
+            return;
+        }
+
+        // An upsert is written immediately, so that all previous changes must be written before
+        flushWriteBehindBuffer();
+        saveAggregates(List.of(aggregate));
+
+        if (contentHashes != null)
+        {
+            contentHashes.put(jsonKey, contentHash);
+        }
+    }
+
+    @Override
+    public Optional<T> get(K primaryKey)
+    {
+        Objects.requireNonNull(primaryKey);
+
+        var writeBehindBuffer = getWriteBehindBuffer();
+        var pendingWrite = writeBehindBuffer != null
+                ? writeBehindBuffer.get(getJSONConverter().toJson(primaryKey))
+                : Optional.<WriteBehindBuffer.PendingWrite<T, K>>empty();
+        if (pendingWrite.isPresent())
+        {
+            // Return a copy as if the aggregate was read from the database
+            return Optional.ofNullable(pendingWrite.get().aggregate())
+                    .map( element -> getJSONConverter().fromJson(getJSONConverter().toJson(element), aggregateClazz));
+        }
+
+        var query = selectValue()
+                .from(tableName())
+                .where(KeyValueSchema.REPOSITORY_KEY)
+                .isEqual(primaryKeyToJDBC(primaryKey))
+                .create();
+
+        return readAndRememberContentHashes(query).stream().findFirst();
+    }
+
+    /**
+     * Adds all given aggregates by using JDBC batches so that {@link JDBCProperties#jdbcBatchSize()} aggregates are
+     * sent to the database in one round trip.
+     */
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            aggregates.forEach(this::add);
+        }
+        else if (!aggregates.isEmpty())
+        {
+            insertAggregates(aggregates);
+            rememberContentHashes(aggregates);
+        }
+    }
+
+    /**
+     * Updates all given aggregates by using JDBC batches so that {@link JDBCProperties#jdbcBatchSize()} aggregates are
+     * sent to the database in one round trip. If {@link JDBCProperties#jdbcDirtyChecking()} is enabled, unchanged
+     * aggregates are skipped as described in {@link #update(Object)}.
+     */
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        var writeBehindBuffer = getWriteBehindBuffer();
+        var contentHashes = getContentHashes();
+        if (writeBehindBuffer != null)
+        {
+            aggregates.forEach(this::update);
+        }
+        else if (contentHashes != null)
+        {
+            updateChangedAggregates(aggregates, contentHashes);
+        }
+        else if (!aggregates.isEmpty())
+        {
+            updateAggregates(aggregates);
+        }
+    }
+
+    /**
+     * Removes all aggregates identified by given keys by using a single DELETE statement for
+     * {@link JDBCProperties#jdbcBatchSize()} keys. Duplicate keys are removed only once. If more than one DELETE
+     * statement is required outside a transaction, all statements are executed within a single transaction, so that
+     * either all or none of the aggregates are removed.
+     */
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            keys.forEach(this::remove);
+        }
+        else
+        {
+            deleteAggregates(keys);
+
+            var contentHashes = getContentHashes();
+            if (contentHashes != null)
+            {
+                keys.forEach(key -> contentHashes.remove(getJSONConverter().toJson(key)));
+            }
+        }
+    }
+
+    /**
+     * Inserts given aggregates into the database. This method is called with at least one aggregate.
+     *
+     * @param aggregates to be inserted
+     */
+    protected void insertAggregates(Collection<T> aggregates)
+    {
+        insertAggregates(tableName(), aggregates);
+    }
+
+    /**
+     * Inserts given aggregates into given table. This method is called with at least one aggregate.
+     * Subclasses that store additional columns must override this method together with
+     * {@link #updateAggregates(Collection)} and {@link #createTable(String)}.
+     *
+     * @param table into which the aggregates are inserted
+     * @param aggregates to be inserted
+     */
+    protected void insertAggregates(String table, Collection<T> aggregates)
+    {
+        var iterator = aggregates.iterator();
+        var command = getConnection().command(KeyValueSchema.class)
+                .insertInto(table)
+                .values(toInsertRow(iterator.next()))
+                .createBatch()
+                .batchSize(batchSize);
+
+        iterator.forEachRemaining(aggregate -> command.addBatch(toInsertRow(aggregate)));
+
+        command.asUpdate();
+    }
+
+    /**
+     * Updates given aggregates in the database. This method is called with at least one aggregate.
+     *
+     * @param aggregates to be updated
+     */
+    protected void updateAggregates(Collection<T> aggregates)
+    {
+        var iterator = aggregates.iterator();
+        var firstRow = toUpdateRow(iterator.next());
+        var valueColumns = getValueColumns();
         var command = getConnection().command(KeyValueSchema.class)
                 .update(tableName())
-                .set(KeyValueSchema.REPOSITORY_VALUE, valueToJSONB(aggregate))
+                .set(valueColumns, Arrays.copyOf(firstRow, valueColumns.length))
                 .where(KeyValueSchema.REPOSITORY_KEY)
-                .isEqual(primaryKeyToJSONB(keyFunction.apply(aggregate)))
-                .create();
+                .isEqual(firstRow[valueColumns.length])
+                .createBatch()
+                .batchSize(batchSize);
+
+        iterator.forEachRemaining(aggregate -> command.addBatch(toUpdateRow(aggregate)));
+
+        command.asUpdate();
+    }
+
+    /**
+     * Inserts given aggregates or updates them if they already exist by using the upsert statement of the database.
+     * This method is called with at least one aggregate.
+     * Subclasses that store additional columns must override this method together with {@link #insertAggregates(Collection)}.
+     *
+     * @param aggregates to be saved
+     */
+    protected void saveAggregates(Collection<T> aggregates)
+    {
+        var iterator = aggregates.iterator();
+        var command = database.upsertInto(
+                        getConnection().command(KeyValueSchema.class),
+                        tableName(),
+                        getInsertColumns(),
+                        toInsertRow(iterator.next()))
+                .createBatch()
+                .batchSize(batchSize);
+
+        iterator.forEachRemaining(aggregate -> command.addBatch(toInsertRow(aggregate)));
 
         command.asUpdate();
     }
 
+    private void deleteAggregates(Collection<K> keys)
+    {
+        var chunks = toJDBCKeys(keys);
+        if (chunks.size() > 1 && !TransactionManager.isTransactionActive())
+        {
+            inTransaction(() -> deleteAggregates(chunks));
+        }
+        else
+        {
+            deleteAggregates(chunks);
+        }
+    }
+
+    private void deleteAggregates(List<JDBCObject[]> chunks)
+    {
+        for (var jdbcKeys : chunks)
+        {
+            var command = getConnection().command(KeyValueSchema.class)
+                    .deleteFrom(tableName())
+                    .where(KeyValueSchema.REPOSITORY_KEY)
+                    .isIn(jdbcKeys)
+                    .create();
+
+            if (command.execute() != jdbcKeys.length)
+            {
+                throw new IllegalArgumentException("At least one of the given keys does not identify an aggregate in table " + tableName());
+            }
+        }
+    }
+
+    /**
+     * Returns all aggregates identified by given keys by using a single SELECT statement for
+     * {@link JDBCProperties#jdbcBatchSize()} keys.
+     */
     @Override
-    public Optional<T> get(K primaryKey)
+    public List<T> get(Collection<K> keys)
     {
-        Objects.requireNonNull(primaryKey);
+        flushWriteBehindBuffer();
+
+        var result = new ArrayList<T>();
+        for (var jdbcKeys : toJDBCKeys(keys))
+        {
+            var query = selectValue()
+                    .from(tableName())
+                    .where(KeyValueSchema.REPOSITORY_KEY)
+                    .isIn(jdbcKeys)
+                    .create();
+
+            result.addAll(readAndRememberContentHashes(query));
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts the aggregates by using SELECT COUNT, so that no aggregate is read
+     */
+    @Override
+    public long count()
+    {
+        flushWriteBehindBuffer();
 
         var query = getConnection().query(KeyValueSchema.class)
-                .select(KeyValueSchema.REPOSITORY_VALUE)
+                .selectCount()
                 .from(tableName())
-                .where(KeyValueSchema.REPOSITORY_KEY)
-                .isEqual(primaryKeyToJSONB(primaryKey))
                 .create();
 
-        return  query
-                .asString()
-                .flatMap(Optional::stream)
+        return query
+                .asLong()
                 .findFirst()
-                .map( element -> getJSONConverter().fromJson(element, aggregateClazz))
-                .or(Optional::empty);
+                .orElse(0L);
     }
 
+    /**
+     * Checks the primary key only, so that the aggregate is not read
+     */
     @Override
-    public List<T> get()
+    public boolean exists(K key)
     {
+        Objects.requireNonNull(key);
+
+        var writeBehindBuffer = getWriteBehindBuffer();
+        var pendingWrite = writeBehindBuffer != null
+                ? writeBehindBuffer.get(getJSONConverter().toJson(key))
+                : Optional.<WriteBehindBuffer.PendingWrite<T, K>>empty();
+        if (pendingWrite.isPresent())
+        {
+            return pendingWrite.get().operation() != WriteBehindBuffer.Operation.DELETE;
+        }
+
         var query = getConnection().query(KeyValueSchema.class)
-                .select(KeyValueSchema.REPOSITORY_VALUE)
+                .select(KeyValueSchema.REPOSITORY_KEY)
                 .from(tableName())
+                .where(KeyValueSchema.REPOSITORY_KEY)
+                .isEqual(primaryKeyToJDBC(key))
+                .limit(1)
                 .create();
 
-        return query
-                .asString()
-                .flatMap(Optional::stream)
-                .map( element -> getJSONConverter().fromJson(element, aggregateClazz))
-                .toList();
+        return query.isPresent();
+    }
+
+    @Override
+    public List<T> get()
+    {
+        try (var aggregates = stream())
+        {
+            return aggregates.toList();
+        }
+    }
+
+    /**
+     * Returns all aggregates as a lazily evaluated Stream. In contrast to {@link #get()}, the aggregates are read from the
+     * database on demand, so that only a few of them must be kept in memory at once. The number of rows read in one
+     * round trip is configured by {@link JDBCProperties#jdbcFetchSize()}. Outside a transaction, the Stream uses its own
+     * connection from the connection pool until it is closed, see {@link #streamQuery(Function)}.
+     * <p>
+     * Important note: The caller must close the returned Stream, e.g., by using a try-with-resources statement.
+     *
+     * @return Stream of all aggregates
+     */
+    @Override
+    public Stream<T> stream()
+    {
+        flushWriteBehindBuffer();
+
+        return streamQuery(connection -> readAggregates(selectValue(connection)
+                .from(tableName())
+                .create()
+                .streaming(fetchSize)));
+    }
+
+    /**
+     * Returns the first page of aggregates ordered by their primary key in the database
+     */
+    @Override
+    public List<T> page(int limit)
+    {
+        validateLimit(limit);
+        flushWriteBehindBuffer();
+
+        var query = selectValue()
+                .from(tableName())
+                .orderBy(KeyValueSchema.REPOSITORY_KEY)
+                .limit(limit)
+                .create();
+
+        return toAggregates(query);
+    }
+
+    /**
+     * Returns the page of aggregates ordered by their primary key in the database. Since the page is selected by
+     * using the index of the primary key, reading a page is independent of the number of previous pages.
+     */
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        Objects.requireNonNull(afterKey);
+        validateLimit(limit);
+        flushWriteBehindBuffer();
+
+        var query = selectValue()
+                .from(tableName())
+                .where(KeyValueSchema.REPOSITORY_KEY)
+                .isGreaterThan(primaryKeyToJDBC(afterKey))
+                .orderBy(KeyValueSchema.REPOSITORY_KEY)
+                .limit(limit)
+                .create();
+
+        return toAggregates(query);
+    }
+
+    /**
+     * Migrates the table of this repository to the {@link KeyCodec} of this repository, e.g., from JSON keys to native
+     * keys as configured by {@link KeyCodecs#useNativeKey(Class, Class)}. The key of each aggregate is encoded again,
+     * so that the previous encoding of the keys is irrelevant. In the same way, the values are migrated to the
+     * {@link ValueCodec} configured by {@link RepositoryProperties#repositoryValueCodec()}.
+     * <p>
+     * All aggregates are copied into a new table that replaces the existing table. So this method should be called
+     * once during startup of the application before the repository is used by other threads. The existing table is
+     * renamed to a backup table before the new table is renamed, and the backup table is only dropped after the new
+     * table replaced it. If the migration fails, the exception is propagated and the existing table is kept.
+     *
+     * @return number of migrated aggregates
+     */
+    public long migrateKeys()
+    {
+        flushWriteBehindBuffer();
+        addCompressedValueColumn(tableName());
+
+        var migrationTable = tableName() + "_MIGRATION";
+        getConnection().tableCommand(KeyValueSchema.class).dropTableIfExists(migrationTable).asIgnore();
+        createTable(migrationTable);
+
+        var migratedAggregates = 0L;
+        try (var aggregates = stream())
+        {
+            var iterator = aggregates.iterator();
+            var chunk = new ArrayList<T>(batchSize);
+            while (iterator.hasNext())
+            {
+                chunk.add(iterator.next());
+                if (chunk.size() == batchSize || !iterator.hasNext())
+                {
+                    insertAggregates(migrationTable, chunk);
+                    migratedAggregates += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+
+        var backupTable = tableName() + "_BACKUP";
+        getConnection().tableCommand(KeyValueSchema.class).renameTable(tableName(), backupTable).asIgnore();
+        try {
+            getConnection().tableCommand(KeyValueSchema.class).renameTable(migrationTable, tableName()).asIgnore();
+        } catch (RuntimeException e) {
+            getConnection().tableCommand(KeyValueSchema.class).renameTable(backupTable, tableName()).asIgnore();
+            throw e;
+        }
+        getConnection().tableCommand(KeyValueSchema.class).dropTable(backupTable).asIgnore();
+        LOGGER.info("Migrated {} aggregates of table {} to key column type {} and value column type {}", migratedAggregates, tableName(), keyColumnType, valueColumnType);
+
+        return migratedAggregates;
     }
 
     public void tableName(String tableName)
@@ -169,6 +668,225 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
         return tableName;
     }
 
+    /**
+     * Returns the maximal number of rows that are sent to the database in one round trip by bulk operations
+     * as configured by {@link JDBCProperties#jdbcBatchSize()}
+     *
+     * @return maximal number of rows per round trip
+     */
+    protected int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of updates that were skipped because the aggregate was unchanged,
+     * see {@link JDBCProperties#jdbcDirtyChecking()}
+     *
+     * @return number of skipped updates
+     */
+    public long getSkippedWrites()
+    {
+        return skippedWrites.sum();
+    }
+
+    /**
+     * Returns the write behind buffer of the current transaction, or null if write behind is disabled or
+     * the current thread does not run within a transaction. The buffer is shared by all repositories that use the same
+     * table, and it is written before the transaction is committed.
+     */
+    private WriteBehindBuffer<T, K> getWriteBehindBuffer()
+    {
+        if (!writeBehind || !TransactionManager.isTransactionActive())
+        {
+            return null;
+        }
+
+        return TransactionManager.getResource(new WriteBehindKey(getClass(), jdbcUrl, tableName()), () -> {
+            var writeBehindBuffer = new WriteBehindBuffer<T, K>();
+            TransactionManager.beforeCommit(() -> flush(writeBehindBuffer));
+            return writeBehindBuffer;
+        });
+    }
+
+    /**
+     * Writes all pending changes of the current transaction, so that they are visible to a query
+     */
+    private void flushWriteBehindBuffer()
+    {
+        var writeBehindBuffer = getWriteBehindBuffer();
+        if (writeBehindBuffer != null)
+        {
+            flush(writeBehindBuffer);
+        }
+    }
+
+    private void flush(WriteBehindBuffer<T, K> writeBehindBuffer)
+    {
+        if (writeBehindBuffer.isEmpty())
+        {
+            return;
+        }
+
+        var deletes = writeBehindBuffer.getDeletes();
+        var inserts = writeBehindBuffer.getInserts();
+        var updates = writeBehindBuffer.getUpdates();
+        writeBehindBuffer.clear();
+
+        if (!deletes.isEmpty())
+        {
+            deleteAggregates(deletes);
+        }
+        if (!inserts.isEmpty())
+        {
+            insertAggregates(inserts);
+        }
+        if (!updates.isEmpty())
+        {
+            updateAggregates(updates);
+        }
+    }
+
+    /**
+     * Returns the content hashes of the current transaction, or null if dirty checking is disabled or the current
+     * thread does not run within a transaction. The content hashes are shared by all repositories that use the same table.
+     */
+    private ContentHashes getContentHashes()
+    {
+        if (!dirtyChecking || !TransactionManager.isTransactionActive())
+        {
+            return null;
+        }
+
+        return TransactionManager.getResource(new ContentHashesKey(getClass(), jdbcUrl, tableName()), ContentHashes::new);
+    }
+
+    private void rememberContentHashes(Collection<T> aggregates)
+    {
+        var contentHashes = getContentHashes();
+        if (contentHashes != null)
+        {
+            aggregates.forEach(aggregate -> contentHashes.put(
+                    getJSONConverter().toJson(keyFunction.apply(aggregate)),
+                    contentHash(aggregate)));
+        }
+    }
+
+    private void updateChangedAggregates(Collection<T> aggregates, ContentHashes contentHashes)
+    {
+        var changedAggregates = new ArrayList<T>();
+        var changedHashes = new HashMap<String, byte[]>();
+
+        for (var aggregate : aggregates)
+        {
+            var jsonKey = getJSONConverter().toJson(keyFunction.apply(aggregate));
+            var contentHash = contentHash(aggregate);
+            if (contentHashes.isUnchanged(jsonKey, contentHash))
+            {
+                skippedWrites.increment();
+            }
+            else
+            {
+                changedAggregates.add(aggregate);
+                changedHashes.put(jsonKey, contentHash);
+            }
+        }
+
+        if (!changedAggregates.isEmpty())
+        {
+            updateAggregates(changedAggregates);
+            changedHashes.forEach(contentHashes::put);
+        }
+    }
+
+    /**
+     * Reads the aggregates of given query. If dirty checking is enabled, the read values are remembered, so that their
+     * content hashes can be computed when the aggregates are updated.
+     */
+    private List<T> readAndRememberContentHashes(JDBCQuery query)
+    {
+        var contentHashes = getContentHashes();
+        if (contentHashes == null)
+        {
+            return toAggregates(query);
+        }
+
+        var values = query.as(this::readValue).filter(Objects::nonNull).toList();
+        var result = new ArrayList<T>(values.size());
+        for (var value : values)
+        {
+            var aggregate = toAggregate(value);
+            // The read value is decoded again, because the returned aggregate can be changed before it is updated
+            contentHashes.putLazy(getJSONConverter().toJson(keyFunction.apply(aggregate)), () -> contentHash(toAggregate(value)));
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    private static byte[] contentHash(Object aggregate)
+    {
+        // The aggregate is serialized again, so that the hash does not depend on how the database formats JSON
+        return ContentHashes.hash(getJSONConverter().toJson(aggregate));
+    }
+
+    private List<T> toAggregates(JDBCQuery query)
+    {
+        return readAggregates(query).toList();
+    }
+
+    private boolean isJSONValue()
+    {
+        return valueCodec instanceof JSONValueCodec;
+    }
+
+    private static void validateLimit(int limit)
+    {
+        if (limit < 1)
+        {
+            throw new IllegalArgumentException("Limit of a page must be greater than 0");
+        }
+    }
+
+    private <E> List<List<E>> chunked(List<E> elements)
+    {
+        var result = new ArrayList<List<E>>();
+        for (var i = 0; i < elements.size(); i += batchSize)
+        {
+            result.add(elements.subList(i, Math.min(i + batchSize, elements.size())));
+        }
+        return result;
+    }
+
+    private static void inTransaction(Runnable operation)
+    {
+        TransactionManager.initTransaction();
+        var succeeded = false;
+        try {
+            operation.run();
+            succeeded = true;
+        } finally {
+            if (!succeeded)
+            {
+                TransactionManager.rollback();
+            }
+            TransactionManager.closeTransaction();
+        }
+    }
+
+    private List<JDBCObject[]> toJDBCKeys(Collection<K> keys)
+    {
+        // Keys are compared by their JSON representation, because a key type does not need to implement equals
+        var distinctKeys = new LinkedHashMap<String, K>();
+        keys.forEach(key -> distinctKeys.putIfAbsent(getJSONConverter().toJson(Objects.requireNonNull(key)), key));
+
+        return chunked(distinctKeys.values().stream()
+                .map(this::primaryKeyToJDBC)
+                .toList())
+                .stream()
+                .map(chunk -> chunk.toArray(new JDBCObject[0]))
+                .toList();
+    }
+
     private void manageDBTable(Properties properties)
     {
         if (properties.containsKey(JDBCProperties.jdbcAutocreateTable()))
@@ -180,22 +898,259 @@ public class JDBCKeyValueRepository<T, K> extends JDBCRepository implements IRep
     private void autocreateTableKeyValue()
     {
         try{
-
-            var command = getConnection().tableCommand(KeyValueSchema.class)
-                    .createTableIfNotExists(tableName())
-                    .addColumn(KeyValueSchema.REPOSITORY_KEY, database.matchingPrimaryKey(JSONB))
-                    .addConstraint(PRIMARY_KEY)
-                    .addColumn(KeyValueSchema.REPOSITORY_VALUE, database.matchingValue(JSONB))
-                    .create();
-
-            command.asIgnore();
+            createTable(tableName());
         }
         catch (IllegalArgumentException e)
         {
             LOGGER.debug("Could not create table {} => Assume that table already exists", tableName());
         }
+
+        // A table created without compression does not provide the column for compressed values
+        addCompressedValueColumn(tableName());
     }
 
+    private void addCompressedValueColumn(String table)
+    {
+        if (!isCompressionEnabled())
+        {
+            return;
+        }
+
+        var command = getConnection().tableCommand(KeyValueSchema.class)
+                .alterTable(table)
+                .addColumnIfNotExists(KeyValueSchema.REPOSITORY_COMPRESSED_VALUE, database.matchingValue(VARBINARY))
+                .create();
+
+        command.asIgnore();
+    }
+
+    /**
+     * Creates given table with the columns of this repository if it does not exist.
+     *
+     * @param table to be created
+     */
+    protected void createTable(String table)
+    {
+        var command = getConnection().tableCommand(KeyValueSchema.class)
+                .createTableIfNotExists(table)
+                .addColumn(KeyValueSchema.REPOSITORY_KEY, keyColumnType)
+                .addConstraint(PRIMARY_KEY)
+                .addColumn(KeyValueSchema.REPOSITORY_VALUE, valueColumnType);
+
+        if (isCompressionEnabled())
+        {
+            command.addColumn(KeyValueSchema.REPOSITORY_COMPRESSED_VALUE, database.matchingValue(VARBINARY));
+        }
+
+        command.create().asIgnore();
+    }
+
+    private String[] getInsertColumns()
+    {
+        var valueColumns = getValueColumns();
+        var result = new String[valueColumns.length + 1];
+        result[0] = KeyValueSchema.REPOSITORY_KEY.name();
+        System.arraycopy(valueColumns, 0, result, 1, valueColumns.length);
+        return result;
+    }
+
+    private String[] getValueColumns()
+    {
+        if (isCompressionEnabled())
+        {
+            return new String[]{KeyValueSchema.REPOSITORY_VALUE.name(), KeyValueSchema.REPOSITORY_COMPRESSED_VALUE.name()};
+        }
+        return new String[]{KeyValueSchema.REPOSITORY_VALUE.name()};
+    }
+
+    private JDBCObject[] toInsertRow(T aggregate)
+    {
+        var valueColumns = toValueColumns(aggregate);
+        var result = new JDBCObject[valueColumns.length + 1];
+        result[0] = primaryKeyToJDBC(keyFunction.apply(aggregate));
+        System.arraycopy(valueColumns, 0, result, 1, valueColumns.length);
+        return result;
+    }
+
+    private JDBCObject[] toUpdateRow(T aggregate)
+    {
+        var valueColumns = toValueColumns(aggregate);
+        var result = Arrays.copyOf(valueColumns, valueColumns.length + 1);
+        result[valueColumns.length] = primaryKeyToJDBC(keyFunction.apply(aggregate));
+        return result;
+    }
+
+    /**
+     * Returns the values of {@link #getValueColumns()}. If compression is enabled, an aggregate whose serialized size
+     * reaches the threshold is stored in the column of compressed values, and its value column is null. Smaller
+     * aggregates remain in the value column, so that they can still be queried by the database, e.g., as JSONB.
+     */
+    private JDBCObject[] toValueColumns(T aggregate)
+    {
+        if (!isCompressionEnabled())
+        {
+            return new JDBCObject[]{ valueToJDBC(aggregate) };
+        }
+
+        var compressedValueColumnType = database.matchingValue(VARBINARY);
+        var jsonValue = isJSONValue() ? getJSONConverter().toJson(aggregate) : null;
+        // A character requires at most 3 bytes in UTF-8, so that shorter JSON strings are not converted to check the threshold
+        if (jsonValue != null && jsonValue.length() * 3L < compressionThreshold)
+        {
+            return new JDBCObject[]{ new JDBCObject(jsonValue, valueColumnType), new JDBCObject(null, compressedValueColumnType) };
+        }
+
+        var encodedValue = jsonValue != null ? jsonValue.getBytes(StandardCharsets.UTF_8) : valueCodec.encode(aggregate);
+        if (encodedValue.length >= compressionThreshold)
+        {
+            var compressedValue = ValueCompression.compress(encodedValue, compressionAlgorithm);
+            if (compressedValue.length < encodedValue.length)
+            {
+                return new JDBCObject[]{ new JDBCObject(null, valueColumnType), new JDBCObject(compressedValue, compressedValueColumnType) };
+            }
+        }
+
+        return new JDBCObject[]{
+                new JDBCObject(jsonValue != null ? jsonValue : encodedValue, valueColumnType),
+                new JDBCObject(null, compressedValueColumnType) };
+    }
+
+    private boolean isCompressionEnabled()
+    {
+        return compressionThreshold > 0;
+    }
+
+    private int getCompressionThreshold(Properties properties)
+    {
+        var threshold = getInt(properties, JDBCProperties.jdbcCompressionThreshold(), 0);
+        if (threshold < 0)
+        {
+            throw new IllegalArgumentException("Parameter " + JDBCProperties.jdbcCompressionThreshold() + " must not be negative but is " + threshold);
+        }
+        return threshold;
+    }
+
+    private JDBCQueryBuilder<KeyValueSchema> selectValue()
+    {
+        return selectValue(getConnection());
+    }
+
+    private JDBCQueryBuilder<KeyValueSchema> selectValue(JDBCConnection connection)
+    {
+        var query = connection.query(KeyValueSchema.class);
+        if (isCompressionEnabled())
+        {
+            return query.select(KeyValueSchema.REPOSITORY_VALUE, KeyValueSchema.REPOSITORY_COMPRESSED_VALUE);
+        }
+        return query.select(KeyValueSchema.REPOSITORY_VALUE);
+    }
+
+    private record WriteBehindKey(Class<?> repositoryType, String jdbcUrl, String tableName) {}
+
+    private record ContentHashesKey(Class<?> repositoryType, String jdbcUrl, String tableName) {}
+
+    /**
+     * Converts given key into the value of the key column by using the {@link KeyCodec} of this repository
+     *
+     * @param key of an aggregate
+     * @return value of the key column
+     */
+    @SuppressWarnings("unchecked")
+    protected JDBCObject primaryKeyToJDBC(Object key)
+    {
+        return new JDBCObject(((KeyCodec<Object>) keyCodec).encode(key, keyColumnType), keyColumnType);
+    }
+
+    /**
+     * Returns the data type of the key column as defined by the {@link KeyCodec} of this repository
+     *
+     * @return data type of the key column
+     */
+    protected SQLDataType getKeyColumnType()
+    {
+        return keyColumnType;
+    }
+
+    /**
+     * Converts given aggregate into the value of the value column by using the {@link ValueCodec} configured by
+     * {@link RepositoryProperties#repositoryValueCodec()}
+     *
+     * @param value aggregate to be converted
+     * @return value of the value column
+     */
+    protected JDBCObject valueToJDBC(Object value)
+    {
+        if (isJSONValue())
+        {
+            return valueToJSONB(value);
+        }
+        return new JDBCObject(valueCodec.encode(value), valueColumnType);
+    }
+
+    /**
+     * Returns the data type of the value column, which is JSONB for {@link JSONValueCodec} and a binary type otherwise
+     *
+     * @return data type of the value column
+     */
+    protected SQLDataType getValueColumnType()
+    {
+        return valueColumnType;
+    }
+
+    /**
+     * Converts the value column of given query into aggregates. Binary values that do not start with the header of
+     * {@link io.jexxa.common.facade.codec.BinaryValueCodec} are read as JSON.
+     * <p>
+     * Important note: The caller must close the returned Stream if the query runs in streaming mode.
+     *
+     * @param query selecting the value column
+     * @return Stream of aggregates
+     */
+    protected Stream<T> readAggregates(JDBCQuery query)
+    {
+        return query
+                .as(this::readAggregate)
+                .filter(Objects::nonNull);
+    }
+
+    private T readAggregate(ResultSet resultSet) throws SQLException
+    {
+        return toAggregate(readValue(resultSet));
+    }
+
+    /**
+     * Returns the stored value of an aggregate, which is either its JSON text or its encoded bytes
+     */
+    private Object readValue(ResultSet resultSet) throws SQLException
+    {
+        if (isCompressionEnabled())
+        {
+            var compressedValue = resultSet.getBytes(2);
+            if (compressedValue != null)
+            {
+                return ValueCompression.decompress(compressedValue);
+            }
+        }
+
+        if (isJSONValue())
+        {
+            return resultSet.getString(1);
+        }
+
+        return resultSet.getBytes(1);
+    }
+
+    private T toAggregate(Object value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        return value instanceof String jsonValue
+                ? getJSONConverter().fromJson(jsonValue, aggregateClazz)
+                : valueCodec.decode((byte[]) value, aggregateClazz);
+    }
 
     protected JDBCObject primaryKeyToJSONB(Object value)
     {
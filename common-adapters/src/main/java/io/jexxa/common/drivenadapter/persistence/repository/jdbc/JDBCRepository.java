@@ -6,8 +6,12 @@ import io.jexxa.common.facade.jdbc.JDBCConnection;
 
 import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static io.jexxa.common.facade.jdbc.JDBCConnectionPool.getJDBCConnection;
+import static io.jexxa.common.facade.jdbc.JDBCConnectionPool.leaseConnection;
+import static io.jexxa.common.facade.jdbc.JDBCConnectionPool.releaseConnection;
 import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
 
 public abstract class JDBCRepository implements TransactionHandler {
@@ -17,19 +21,51 @@ public abstract class JDBCRepository implements TransactionHandler {
     {
         this.properties = Objects.requireNonNull(properties);
         getConnection(); // To ensure that connection is valid
-        TransactionManager.registerTransactionHandler(this);
     }
 
     /**
      * Returns a JDBCConnection that is in a valid state. If the connection cannot be changed into a valid state, an IllegalStateException is thrown.
+     * <p>
+     * If this method is called within a transaction, this repository is enlisted in the transaction of the current thread.
+     * So only repositories that are actually used within a transaction are committed or rolled back.
      *
      * @throws IllegalStateException if JDBCConnection cannot be reset
      * @return JDBCConnection that is in a valid state.
      */
     public JDBCConnection getConnection()
     {
-        return getJDBCConnection(properties, this);
+        var connection = getJDBCConnection(properties, this);
+        TransactionManager.enlist(this);
+        return connection;
     }
+    /**
+     * Runs a query that returns a lazily evaluated Stream, such as a streaming query.
+     * <p>
+     * Within a transaction, the query uses the connection of the transaction, so that it sees uncommitted changes.
+     * Outside a transaction, the query uses a connection leased from the connection pool with auto commit disabled
+     * until the returned Stream is closed. So databases such as Postgres use the configured fetch size, and the shared
+     * connection of all other threads is not blocked by the open ResultSet.
+     *
+     * @param query creating the Stream by using given connection
+     * @return the Stream of the query, which must be closed by the caller
+     */
+    protected <R> Stream<R> streamQuery(Function<JDBCConnection, Stream<R>> query)
+    {
+        if (TransactionManager.isTransactionActive())
+        {
+            return query.apply(getConnection());
+        }
+
+        var connection = leaseConnection(properties);
+        try {
+            connection.disableAutoCommit();
+            return query.apply(connection).onClose(() -> releaseConnection(properties, connection));
+        } catch (RuntimeException e) {
+            releaseConnection(properties, connection);
+            throw e;
+        }
+    }
+
     @Override
     public void initTransaction()
     {
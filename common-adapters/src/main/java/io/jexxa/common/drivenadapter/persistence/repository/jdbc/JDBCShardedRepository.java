@@ -0,0 +1,348 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.facade.jdbc.JDBCProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.getInt;
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.requirePositive;
+
+/**
+ * Repository that spreads the aggregates of a type over a fixed number of {@link JDBCKeyValueRepository}s (shards),
+ * which is configured by {@link JDBCProperties#jdbcShardCount()}.
+ * <p>
+ * Each shard stores its aggregates in a table named by the aggregate type followed by the number of the shard,
+ * e.g. {@code TestAggregate_0}. By default, all shards use the same database. The properties of a shard can be
+ * overridden by properties starting with {@link JDBCProperties#jdbcShardPrefix(int)}, so that the shards can be
+ * spread over several databases.
+ * <p>
+ * The shard of an aggregate is selected by a hash of its key. So operations on a single aggregate are routed to
+ * its shard. Reading all aggregates fans out to all shards. Outside a transaction, all shards are read in parallel,
+ * each within its own transaction so that it leases its own connection from the connection pool. The number of
+ * parallel reads is limited by the number of shards and by {@link JDBCProperties#jdbcPoolMaxSize()}. Within a
+ * transaction, all shards are read by the calling thread, because only its connections see the uncommitted changes
+ * of the transaction. {@link #stream()} always reads the shards one after another.
+ * <p>
+ * Important notes:
+ * <ul>
+ *     <li>Changing the number of shards requires migrating all aggregates, because the shard of most keys changes.</li>
+ *     <li>A transaction that changes shards in different databases is committed per database, so it is not atomic.</li>
+ * </ul>
+ *
+ * @param <T> Type of the aggregate
+ * @param <K> Type of the aggregate ID
+ */
+public class JDBCShardedRepository<T, K> implements IRepository<T, K>
+{
+    private static final long IDLE_THREAD_TIMEOUT = 60;
+    private static final Set<ExecutorService> FAN_OUT_EXECUTORS = ConcurrentHashMap.newKeySet();
+
+    static {
+        JexxaContext.registerCleanupHandler(JDBCShardedRepository::shutdownExecutors);
+    }
+
+    private final Function<T, K> keyFunction;
+    private final List<JDBCKeyValueRepository<T, K>> shards = new ArrayList<>();
+    private final int fanOutThreads;
+    private ExecutorService fanOutExecutor;
+
+    @SuppressWarnings("unused")
+    public JDBCShardedRepository(Class<T> aggregateClazz, Function<T, K> keyFunction, Properties properties)
+    {
+        Objects.requireNonNull(aggregateClazz);
+        this.keyFunction = Objects.requireNonNull(keyFunction);
+
+        var shardCount = getShardCount(properties);
+        for (var shard = 0; shard < shardCount; ++shard)
+        {
+            shards.add(new JDBCKeyValueRepository<>(aggregateClazz, keyFunction, getShardProperties(properties, shard), aggregateClazz.getSimpleName() + "_" + shard));
+        }
+
+        // Each parallel read leases a connection, so that more threads than connections would only wait for the pool
+        this.fanOutThreads = Math.min(shardCount, requirePositive(JDBCProperties.jdbcPoolMaxSize(), getInt(properties, JDBCProperties.jdbcPoolMaxSize(), shardCount)));
+    }
+
+    @Override
+    public void update(T aggregate)
+    {
+        shardOf(keyFunction.apply(aggregate)).update(aggregate);
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        shardOf(key).remove(key);
+    }
+
+    @Override
+    public void removeAll()
+    {
+        shards.forEach(JDBCKeyValueRepository::removeAll);
+    }
+
+    @Override
+    public void add(T aggregate)
+    {
+        shardOf(keyFunction.apply(aggregate)).add(aggregate);
+    }
+
+    @Override
+    public void save(T aggregate)
+    {
+        shardOf(keyFunction.apply(aggregate)).save(aggregate);
+    }
+
+    @Override
+    public Optional<T> get(K key)
+    {
+        return shardOf(key).get(key);
+    }
+
+    @Override
+    public boolean exists(K key)
+    {
+        return shardOf(key).exists(key);
+    }
+
+    @Override
+    public List<T> get()
+    {
+        return fanOut(shard -> shards.get(shard).get())
+                .stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public long count()
+    {
+        return fanOut(shard -> shards.get(shard).count())
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Returns all aggregates by streaming the shards one after another, so that only a single shard is read at once.
+     * <p>
+     * In contrast to {@link #get()}, the shards are not read in parallel. A Stream is consumed in order by a single
+     * thread, so that reading ahead would keep the aggregates of all other shards in memory and a connection leased per
+     * shard for the lifetime of the Stream.
+     */
+    @Override
+    public Stream<T> stream()
+    {
+        return shards.stream().flatMap(JDBCKeyValueRepository::stream);
+    }
+
+    @Override
+    public List<T> page(int limit)
+    {
+        return page(0, shards.get(0).page(limit), limit);
+    }
+
+    /**
+     * Returns the page of aggregates ordered by their shard and within a shard by the order of
+     * {@link JDBCKeyValueRepository#page(Object, int)}.
+     */
+    @Override
+    public List<T> page(K afterKey, int limit)
+    {
+        var shard = shardIndexOf(afterKey);
+        return page(shard, shards.get(shard).page(afterKey, limit), limit);
+    }
+
+    @Override
+    public void addAll(Collection<T> aggregates)
+    {
+        groupByShard(aggregates, keyFunction).forEach((shard, shardAggregates) -> shards.get(shard).addAll(shardAggregates));
+    }
+
+    @Override
+    public void updateAll(Collection<T> aggregates)
+    {
+        groupByShard(aggregates, keyFunction).forEach((shard, shardAggregates) -> shards.get(shard).updateAll(shardAggregates));
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys)
+    {
+        groupByShard(keys, Function.identity()).forEach((shard, shardKeys) -> shards.get(shard).removeAll(shardKeys));
+    }
+
+    @Override
+    public List<T> get(Collection<K> keys)
+    {
+        var keysByShard = groupByShard(keys, Function.identity());
+
+        return fanOut(shard -> keysByShard.containsKey(shard) ? shards.get(shard).get(keysByShard.get(shard)) : List.<T>of())
+                .stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * Returns the number of shards
+     *
+     * @return the number of shards
+     */
+    public int getShardCount()
+    {
+        return shards.size();
+    }
+
+    private List<T> page(int firstShard, List<T> firstPage, int limit)
+    {
+        var result = new ArrayList<>(firstPage);
+        for (var shard = firstShard + 1; shard < shards.size() && result.size() < limit; ++shard)
+        {
+            result.addAll(shards.get(shard).page(limit - result.size()));
+        }
+        return result;
+    }
+
+    /**
+     * Applies given operation to all shards and returns the results in the order of the shards
+     */
+    private <R> List<R> fanOut(IntFunction<R> operation)
+    {
+        // Within a transaction, each thread uses its own connection, so that other threads would not see uncommitted changes
+        if (TransactionManager.isTransactionActive() || shards.size() == 1)
+        {
+            return IntStream.range(0, shards.size())
+                    .mapToObj(operation)
+                    .toList();
+        }
+
+        var futures = IntStream.range(0, shards.size())
+                .mapToObj(shard -> CompletableFuture.supplyAsync(() -> inTransaction(operation, shard), getFanOutExecutor()))
+                .toList();
+
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Could not read shards of repository", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the executor for parallel reads, which is created on first use and after the {@link JexxaContext} was
+     * cleaned up. Its threads terminate when they are idle, so that an unused repository does not keep any thread.
+     */
+    private synchronized ExecutorService getFanOutExecutor()
+    {
+        if (fanOutExecutor == null || fanOutExecutor.isShutdown())
+        {
+            var executor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads,
+                    IDLE_THREAD_TIMEOUT, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        var thread = new Thread(runnable, JDBCShardedRepository.class.getSimpleName());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            FAN_OUT_EXECUTORS.add(executor);
+            fanOutExecutor = executor;
+        }
+        return fanOutExecutor;
+    }
+
+    /**
+     * Shuts down the executors of all JDBCShardedRepositories within an application. This method is called when the
+     * {@link JexxaContext} is cleaned up.
+     */
+    private static void shutdownExecutors()
+    {
+        FAN_OUT_EXECUTORS.forEach(ExecutorService::shutdown);
+        FAN_OUT_EXECUTORS.clear();
+    }
+
+    /**
+     * Applies given operation to given shard within a transaction of the current thread, so that the shard leases its
+     * own connection instead of sharing the connection of its database with other shards
+     */
+    private static <R> R inTransaction(IntFunction<R> operation, int shard)
+    {
+        TransactionManager.initTransaction();
+        var succeeded = false;
+        try {
+            var result = operation.apply(shard);
+            succeeded = true;
+            return result;
+        } finally {
+            if (!succeeded)
+            {
+                TransactionManager.rollback();
+            }
+            TransactionManager.closeTransaction();
+        }
+    }
+
+    private <E> Map<Integer, List<E>> groupByShard(Collection<E> elements, Function<E, K> keyFunction)
+    {
+        return elements.stream().collect(Collectors.groupingBy(element -> shardIndexOf(keyFunction.apply(element))));
+    }
+
+    private JDBCKeyValueRepository<T, K> shardOf(K key)
+    {
+        return shards.get(shardIndexOf(key));
+    }
+
+    private int shardIndexOf(K key)
+    {
+        Objects.requireNonNull(key);
+
+        // The hash of the JSON representation does not change when the application is restarted, in contrast to Object.hashCode
+        var hash = getJSONConverter().toJson(key).hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    private static int getShardCount(Properties properties)
+    {
+        return requirePositive(JDBCProperties.jdbcShardCount(), getInt(properties, JDBCProperties.jdbcShardCount()));
+    }
+
+    private static Properties getShardProperties(Properties properties, int shard)
+    {
+        var shardPrefix = JDBCProperties.jdbcShardPrefix(shard);
+        var result = new Properties();
+        result.putAll(properties);
+
+        properties.stringPropertyNames()
+                .stream()
+                .filter(name -> name.startsWith(shardPrefix))
+                .forEach(name -> result.setProperty(JDBCProperties.prefix() + name.substring(shardPrefix.length()), properties.getProperty(name)));
+
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import io.jexxa.common.facade.jdbc.builder.SQLDataType;
+import io.jexxa.common.facade.jdbc.database.IDatabase;
+
+/**
+ * Defines how the key of an aggregate is stored in the key column of a {@link JDBCKeyValueRepository}.
+ * <p>
+ * Keys are only encoded but never decoded, because the key of an aggregate is always derived from the aggregate itself.
+ * An encoding must be unique, so that different keys result in different values in the key column.
+ * See {@link KeyCodecs} for available codecs.
+ *
+ * @param <K> Type of the aggregate ID
+ */
+public interface KeyCodec<K>
+{
+    /**
+     * Returns the data type of the key column that is requested from {@link IDatabase#matchingPrimaryKey(SQLDataType)}
+     *
+     * @return requested data type of the key column
+     */
+    SQLDataType keyType();
+
+    /**
+     * Converts given key into the value that is stored in the key column
+     *
+     * @param key to be converted
+     * @param columnType data type of the key column as returned by {@link IDatabase#matchingPrimaryKey(SQLDataType)}
+     * @return the value of the key column
+     */
+    Object encode(K key, SQLDataType columnType);
+}
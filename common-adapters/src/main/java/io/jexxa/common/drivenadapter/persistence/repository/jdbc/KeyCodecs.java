@@ -0,0 +1,224 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import io.jexxa.common.facade.jdbc.builder.SQLDataType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+
+/**
+ * Provides the {@link KeyCodec}s used by {@link JDBCKeyValueRepository}.
+ * <p>
+ * By default, keys are stored as JSON, which works for all key types. Native keys are enabled per aggregate type via
+ * {@link #useNativeKey(Class, Class)}, which must be called before the repository of the aggregate is created.
+ * Native keys require a new table or a migration of an existing table, see {@link JDBCKeyValueRepository#migrateKeys()}.
+ */
+public final class KeyCodecs
+{
+    private static final Map<Class<?>, KeyCodec<?>> KEY_CODEC_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * Stores keys as JSON, as JSONB on PostgreSQL and as VARCHAR on other databases
+     */
+    public static KeyCodec<Object> json()
+    {
+        return StandardKeyCodec.JSON;
+    }
+
+    /**
+     * Stores the 32 bytes of the SHA-256 hash of the JSON representation of a key, which is used for composite keys
+     */
+    public static KeyCodec<Object> hash()
+    {
+        return StandardKeyCodec.HASH;
+    }
+
+    /**
+     * Returns the most compact codec for given key type:
+     * <ul>
+     *     <li>{@link UUID} is stored as UUID, or VARCHAR(36) if the database does not support UUIDs</li>
+     *     <li>{@link Long}, {@link Integer}, {@link Short} and {@link Byte} are stored as BIGINT</li>
+     *     <li>{@link String} is stored as VARCHAR</li>
+     *     <li>A record with a single component of one of these types is stored like its component</li>
+     *     <li>All other keys are stored as {@link #hash()}</li>
+     * </ul>
+     *
+     * @param keyType type of the key
+     * @return codec for the key type
+     */
+    @SuppressWarnings("unchecked")
+    public static <K> KeyCodec<K> nativeKey(Class<K> keyType)
+    {
+        var standardKeyCodec = standardKeyCodec(keyType);
+        if (standardKeyCodec != null)
+        {
+            return (KeyCodec<K>) standardKeyCodec;
+        }
+
+        if (keyType.isRecord() && keyType.getRecordComponents().length == 1)
+        {
+            var component = keyType.getRecordComponents()[0];
+            var componentCodec = standardKeyCodec(component.getType());
+            if (componentCodec != null)
+            {
+                return new RecordKeyCodec<>(component.getAccessor(), componentCodec);
+            }
+        }
+
+        return (KeyCodec<K>) StandardKeyCodec.HASH;
+    }
+
+    /**
+     * Uses {@link #nativeKey(Class)} for the repositories of given aggregate type
+     *
+     * @param aggregateType type of the aggregate
+     * @param keyType type of the key of the aggregate
+     */
+    public static void useNativeKey(Class<?> aggregateType, Class<?> keyType)
+    {
+        useKeyCodec(aggregateType, nativeKey(keyType));
+    }
+
+    /**
+     * Uses given codec for the repositories of given aggregate type
+     *
+     * @param aggregateType type of the aggregate
+     * @param keyCodec codec for the key of the aggregate
+     */
+    public static void useKeyCodec(Class<?> aggregateType, KeyCodec<?> keyCodec)
+    {
+        KEY_CODEC_MAP.put(Objects.requireNonNull(aggregateType), Objects.requireNonNull(keyCodec));
+    }
+
+    public static KeyCodec<?> getKeyCodec(Class<?> aggregateType)
+    {
+        return KEY_CODEC_MAP.getOrDefault(aggregateType, StandardKeyCodec.JSON);
+    }
+
+    /**
+     * Resets all aggregate types to {@link #json()}.
+     * <p>
+     * So this method should only be used when writing tests to ensure a clean setup!
+     */
+    public static void clear()
+    {
+        KEY_CODEC_MAP.clear();
+    }
+
+    private static StandardKeyCodec standardKeyCodec(Class<?> keyType)
+    {
+        if (keyType == UUID.class)
+        {
+            return StandardKeyCodec.UUID;
+        }
+        if (keyType == Long.class || keyType == Integer.class || keyType == Short.class || keyType == Byte.class
+                || keyType == long.class || keyType == int.class || keyType == short.class || keyType == byte.class)
+        {
+            return StandardKeyCodec.LONG;
+        }
+        if (keyType == String.class)
+        {
+            return StandardKeyCodec.STRING;
+        }
+        return null;
+    }
+
+    private enum StandardKeyCodec implements KeyCodec<Object>
+    {
+        JSON(SQLDataType.JSONB)
+        {
+            @Override
+            public Object encode(Object key, SQLDataType columnType)
+            {
+                return getJSONConverter().toJson(key);
+            }
+        },
+        HASH(SQLDataType.VARBINARY)
+        {
+            @Override
+            public Object encode(Object key, SQLDataType columnType)
+            {
+                try {
+                    return MessageDigest.getInstance("SHA-256").digest(getJSONConverter().toJson(key).getBytes(StandardCharsets.UTF_8));
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+                }
+            }
+        },
+        UUID(SQLDataType.UUID)
+        {
+            @Override
+            public Object encode(Object key, SQLDataType columnType)
+            {
+                return columnType == SQLDataType.UUID ? key : key.toString();
+            }
+        },
+        LONG(SQLDataType.BIGINT)
+        {
+            @Override
+            public Object encode(Object key, SQLDataType columnType)
+            {
+                return ((Number) key).longValue();
+            }
+        },
+        STRING(SQLDataType.VARCHAR)
+        {
+            @Override
+            public Object encode(Object key, SQLDataType columnType)
+            {
+                return key;
+            }
+        };
+
+        private final SQLDataType keyType;
+
+        StandardKeyCodec(SQLDataType keyType)
+        {
+            this.keyType = keyType;
+        }
+
+        @Override
+        public SQLDataType keyType()
+        {
+            return keyType;
+        }
+    }
+
+    private record RecordKeyCodec<K>(Method accessor, KeyCodec<Object> componentCodec) implements KeyCodec<K>
+    {
+        private RecordKeyCodec
+        {
+            // Key types are often nested in non-public classes
+            accessor.setAccessible(true);
+        }
+
+        @Override
+        public SQLDataType keyType()
+        {
+            return componentCodec.keyType();
+        }
+
+        @Override
+        public Object encode(K key, SQLDataType columnType)
+        {
+            try {
+                return componentCodec.encode(accessor.invoke(key), columnType);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Could not read component " + accessor.getName() + " of key " + key, e);
+            }
+        }
+    }
+
+    private KeyCodecs()
+    {
+        //private constructor
+    }
+}
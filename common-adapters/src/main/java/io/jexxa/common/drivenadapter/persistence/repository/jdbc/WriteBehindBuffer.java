@@ -0,0 +1,118 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Buffers the changes of a {@link JDBCKeyValueRepository} within a single transaction so that they can be written
+ * at the end of the transaction.
+ * <p>
+ * Changes of the same aggregate are coalesced, so that only the last state of an aggregate is written. Pending changes are
+ * identified by the JSON representation of the key, which is also used as primary key in the database.
+ * Violations of preconditions that can be detected from the pending changes, such as adding an aggregate twice, are
+ * reported immediately. All other violations are reported when the changes are written.
+ */
+final class WriteBehindBuffer<T, K>
+{
+    enum Operation { INSERT, UPDATE, DELETE }
+
+    record PendingWrite<T, K>(Operation operation, K key, T aggregate) {}
+
+    private final Map<String, PendingWrite<T, K>> pendingWrites = new LinkedHashMap<>();
+
+    void add(String jsonKey, K key, T aggregate)
+    {
+        var pendingWrite = pendingWrites.get(jsonKey);
+        if (pendingWrite == null)
+        {
+            pendingWrites.put(jsonKey, new PendingWrite<>(Operation.INSERT, key, aggregate));
+        }
+        else if (pendingWrite.operation() == Operation.DELETE)
+        {
+            // The aggregate existed before it was removed within this transaction
+            pendingWrites.put(jsonKey, new PendingWrite<>(Operation.UPDATE, key, aggregate));
+        }
+        else
+        {
+            throw new IllegalArgumentException("An object with given key " + jsonKey + " already exists");
+        }
+    }
+
+    void update(String jsonKey, K key, T aggregate)
+    {
+        var pendingWrite = pendingWrites.get(jsonKey);
+        if (pendingWrite == null)
+        {
+            pendingWrites.put(jsonKey, new PendingWrite<>(Operation.UPDATE, key, aggregate));
+        }
+        else if (pendingWrite.operation() == Operation.DELETE)
+        {
+            throw new IllegalArgumentException("An object with given key " + jsonKey + " does not exist");
+        }
+        else
+        {
+            pendingWrites.put(jsonKey, new PendingWrite<>(pendingWrite.operation(), key, aggregate));
+        }
+    }
+
+    void remove(String jsonKey, K key)
+    {
+        var pendingWrite = pendingWrites.get(jsonKey);
+        if (pendingWrite == null || pendingWrite.operation() == Operation.UPDATE)
+        {
+            pendingWrites.put(jsonKey, new PendingWrite<>(Operation.DELETE, key, null));
+        }
+        else if (pendingWrite.operation() == Operation.INSERT)
+        {
+            // The aggregate was added within this transaction, so that it was never written
+            pendingWrites.remove(jsonKey);
+        }
+        else
+        {
+            throw new IllegalArgumentException("An object with given key " + jsonKey + " does not exist");
+        }
+    }
+
+    Optional<PendingWrite<T, K>> get(String jsonKey)
+    {
+        return Optional.ofNullable(pendingWrites.get(jsonKey));
+    }
+
+    List<K> getDeletes()
+    {
+        return pendingWrites.values().stream()
+                .filter(pendingWrite -> pendingWrite.operation() == Operation.DELETE)
+                .map(PendingWrite::key)
+                .toList();
+    }
+
+    List<T> getInserts()
+    {
+        return getAggregates(Operation.INSERT);
+    }
+
+    List<T> getUpdates()
+    {
+        return getAggregates(Operation.UPDATE);
+    }
+
+    boolean isEmpty()
+    {
+        return pendingWrites.isEmpty();
+    }
+
+    void clear()
+    {
+        pendingWrites.clear();
+    }
+
+    private List<T> getAggregates(Operation operation)
+    {
+        return pendingWrites.values().stream()
+                .filter(pendingWrite -> pendingWrite.operation() == operation)
+                .map(PendingWrite::aggregate)
+                .toList();
+    }
+}
@@ -6,6 +6,7 @@ import io.jexxa.common.drivingadapter.messaging.jms.listener.JSONMessageListener
 import javax.jms.JMSException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -46,7 +47,7 @@ public abstract class IdempotentListener<T> extends JSONMessageListener
 
         // If we already processed the ID, we show an info message and return
         var receivingID = new ReceivingID(getMessageHeaderValue(uniqueID), this.getClass().getName());
-        if (messageRepository.get(receivingID).isPresent()) {
+        if (messageRepository.exists(receivingID)) {
             getLogger(getClass()).info("Message with key {} already processed by {} -> Ignore it", receivingID.uuid, receivingID.className);
             ++duplicateMessageCounter;
             return;
@@ -107,16 +108,27 @@ public abstract class IdempotentListener<T> extends JSONMessageListener
             return;
         }
 
-        messageRepository.get().stream()
-                .filter(this::toBeRemoved)
-                .forEach(this::removeMessage);
+        // Expired messages are collected first, so that they are not removed while the repository is read
+        var expiredMessages = new ArrayList<InboundMessage>();
+        Instant oldestRemainingMessage = null;
+        try (var inboundMessages = messageRepository.stream())
+        {
+            for (var iterator = inboundMessages.iterator(); iterator.hasNext(); )
+            {
+                var inboundMessage = iterator.next();
+                if (toBeRemoved(inboundMessage))
+                {
+                    expiredMessages.add(inboundMessage);
+                }
+                else if (oldestRemainingMessage == null || inboundMessage.processingTime.isBefore(oldestRemainingMessage))
+                {
+                    oldestRemainingMessage = inboundMessage.processingTime;
+                }
+            }
+        }
 
-        oldestMessage = messageRepository.get()
-                .stream()
-                .map(InboundMessage::processingTime)
-                .sorted()
-                .findFirst()
-                .orElse(null);
+        expiredMessages.forEach(this::removeMessage);
+        oldestMessage = oldestRemainingMessage;
     }
 
     private boolean expiredMessageAvailable(Instant oldestMessage)
@@ -0,0 +1,122 @@
+package io.jexxa.common.facade.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the primitives of the format of {@link BinaryValueCodec} that are written by {@link BinaryWriter}
+ */
+class BinaryReader
+{
+    private final byte[] buffer;
+    private int position;
+    private final List<String> names = new ArrayList<>();
+
+    BinaryReader(byte[] buffer, int position)
+    {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    int readByte()
+    {
+        ensureAvailable(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    long readVarLong()
+    {
+        var result = 0L;
+        for (var shift = 0; shift < 64; shift += 7)
+        {
+            var value = readByte();
+            result |= (long) (value & 0x7F) << shift;
+            if ((value & 0x80) == 0)
+            {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Invalid binary value: Malformed variable length number at position " + position);
+    }
+
+    long readSignedVarLong()
+    {
+        var value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readFixedLong(int numberOfBytes)
+    {
+        ensureAvailable(numberOfBytes);
+        var result = 0L;
+        for (var i = 0; i < numberOfBytes; ++i)
+        {
+            result = (result << 8) | (buffer[position++] & 0xFF);
+        }
+        return result;
+    }
+
+    int readLength()
+    {
+        var length = readVarLong();
+        if (length < 0 || length > buffer.length - position)
+        {
+            throw new IllegalArgumentException("Invalid binary value: Length " + length + " exceeds the available data");
+        }
+        return (int) length;
+    }
+
+    byte[] readBytes()
+    {
+        var length = readLength();
+        var result = new byte[length];
+        System.arraycopy(buffer, position, result, 0, length);
+        position += length;
+        return result;
+    }
+
+    String readString()
+    {
+        var length = readLength();
+        var result = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return result;
+    }
+
+    void skip(int numberOfBytes)
+    {
+        ensureAvailable(numberOfBytes);
+        position += numberOfBytes;
+    }
+
+    String readName()
+    {
+        var index = readVarLong();
+        if (index == 0)
+        {
+            var name = readString();
+            names.add(name);
+            return name;
+        }
+
+        if (index > names.size())
+        {
+            throw new IllegalArgumentException("Invalid binary value: Unknown field name reference " + index);
+        }
+        return names.get((int) index - 1);
+    }
+
+    boolean isAtEnd()
+    {
+        return position == buffer.length;
+    }
+
+    private void ensureAvailable(int numberOfBytes)
+    {
+        if (position + numberOfBytes > buffer.length)
+        {
+            throw new IllegalArgumentException("Invalid binary value: Unexpected end of data at position " + position);
+        }
+    }
+}
@@ -0,0 +1,691 @@
+package io.jexxa.common.facade.codec;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+
+/**
+ * Stores values in a compact binary format, which is considerably smaller than JSON and faster to parse.
+ * <p>
+ * Records and POJOs are written field by field, similar to the JSON representation of Gson: Fields of a POJO include
+ * the fields of its super classes, static and transient fields are ignored, and a record is created by its canonical
+ * constructor. Each field is written as a tag followed by its value, and its name is written only at its first
+ * occurrence in a value. Therefore, fields can be added, removed, and reordered without breaking existing data.
+ * <p>
+ * Primitives, their wrappers, {@link String}, enums, {@link UUID}, {@link BigDecimal}, {@link BigInteger},
+ * {@code byte[]}, and collections and maps of these types are written natively. All other types, such as java.time
+ * types or fields declared as interface, are embedded as JSON by using the
+ * {@link io.jexxa.common.facade.json.JSONConverter} of the {@link io.jexxa.common.facade.json.JSONManager}.
+ * <p>
+ * Each value starts with the byte {@code 0x00}, which is not valid at the beginning of a JSON document, followed by
+ * the version of the format. Values without this header are read as JSON, so that existing JSON data can still be read
+ * after switching to this codec.
+ */
+public final class BinaryValueCodec implements ValueCodec
+{
+    public static final String NAME = "binary";
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x00;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int FLOAT = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int BYTES = 7;
+    private static final int OBJECT = 8;
+    private static final int ARRAY = 9;
+    private static final int MAP = 10;
+    private static final int JSON = 11;
+    private static final int UUID_VALUE = 12;
+
+    private final Map<Class<?>, Optional<ObjectLayout>> objectLayouts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns true if given data starts with the header of this format. Otherwise, the data is expected to be JSON.
+     *
+     * @param data as returned by a {@link ValueCodec}
+     * @return true if given data is encoded by this codec
+     */
+    public static boolean isBinaryFormat(byte[] data)
+    {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    @Override
+    public String name()
+    {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value)
+    {
+        Objects.requireNonNull(value);
+
+        var writer = new BinaryWriter();
+        writer.writeByte(MAGIC);
+        writer.writeByte(FORMAT_VERSION);
+        write(writer, value.getClass(), value);
+        return writer.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] data, Class<T> clazz)
+    {
+        Objects.requireNonNull(data);
+        Objects.requireNonNull(clazz);
+
+        if (!isBinaryFormat(data))
+        {
+            return getJSONConverter().fromJson(new String(data, StandardCharsets.UTF_8), clazz);
+        }
+
+        if (data.length < 2 || (data[1] & 0xFF) != FORMAT_VERSION)
+        {
+            throw new IllegalArgumentException("Unsupported version of binary format. Expected version " + FORMAT_VERSION
+                    + " but data has version " + (data.length < 2 ? "none" : String.valueOf(data[1] & 0xFF)));
+        }
+
+        return (T) read(new BinaryReader(data, 2), clazz);
+    }
+
+    private void write(BinaryWriter writer, Type type, Object value)
+    {
+        if (value == null)
+        {
+            writer.writeByte(NULL);
+            return;
+        }
+
+        var rawType = rawType(type);
+        if (rawType == null)
+        {
+            writeJSON(writer, value);
+        }
+        else if (rawType == boolean.class || rawType == Boolean.class)
+        {
+            writer.writeByte(Boolean.TRUE.equals(value) ? TRUE : FALSE);
+        }
+        else if (isIntegral(rawType))
+        {
+            writer.writeByte(INT);
+            writer.writeSignedVarLong(((Number) value).longValue());
+        }
+        else if (rawType == char.class || rawType == Character.class)
+        {
+            writer.writeByte(INT);
+            writer.writeSignedVarLong((Character) value);
+        }
+        else if (rawType == float.class || rawType == Float.class)
+        {
+            writer.writeByte(FLOAT);
+            writer.writeFixedLong(Float.floatToIntBits((Float) value), 4);
+        }
+        else if (rawType == double.class || rawType == Double.class)
+        {
+            writer.writeByte(DOUBLE);
+            writer.writeFixedLong(Double.doubleToLongBits((Double) value), 8);
+        }
+        else if (rawType == String.class)
+        {
+            writer.writeByte(STRING);
+            writer.writeString((String) value);
+        }
+        else if (Enum.class.isAssignableFrom(rawType))
+        {
+            writer.writeByte(STRING);
+            writer.writeString(((Enum<?>) value).name());
+        }
+        else if (rawType == BigDecimal.class || rawType == BigInteger.class)
+        {
+            writer.writeByte(STRING);
+            writer.writeString(value.toString());
+        }
+        else if (rawType == UUID.class)
+        {
+            writer.writeByte(UUID_VALUE);
+            writer.writeFixedLong(((UUID) value).getMostSignificantBits(), 8);
+            writer.writeFixedLong(((UUID) value).getLeastSignificantBits(), 8);
+        }
+        else if (rawType == byte[].class)
+        {
+            writer.writeByte(BYTES);
+            writer.writeBytes((byte[]) value);
+        }
+        else if (isSupportedCollection(type))
+        {
+            var elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            var collection = (Collection<?>) value;
+            writer.writeByte(ARRAY);
+            writer.writeVarLong(collection.size());
+            collection.forEach(element -> write(writer, elementType, element));
+        }
+        else if (isSupportedMap(type))
+        {
+            var keyType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            var valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+            var map = (Map<?, ?>) value;
+            writer.writeByte(MAP);
+            writer.writeVarLong(map.size());
+            map.forEach((key, element) -> {
+                write(writer, keyType, key);
+                write(writer, valueType, element);
+            });
+        }
+        else
+        {
+            getObjectLayout(rawType).ifPresentOrElse(
+                    objectLayout -> writeObject(writer, objectLayout, value),
+                    () -> writeJSON(writer, value));
+        }
+    }
+
+    private void writeObject(BinaryWriter writer, ObjectLayout objectLayout, Object value)
+    {
+        // Like Gson, fields with value null are omitted
+        var fieldValues = new Object[objectLayout.fields().size()];
+        var numberOfFields = 0;
+        for (var i = 0; i < fieldValues.length; ++i)
+        {
+            fieldValues[i] = objectLayout.fields().get(i).get(value);
+            if (fieldValues[i] != null)
+            {
+                ++numberOfFields;
+            }
+        }
+
+        writer.writeByte(OBJECT);
+        writer.writeVarLong(numberOfFields);
+        for (var i = 0; i < fieldValues.length; ++i)
+        {
+            if (fieldValues[i] != null)
+            {
+                var field = objectLayout.fields().get(i);
+                writer.writeName(field.name());
+                write(writer, field.type(), fieldValues[i]);
+            }
+        }
+    }
+
+    private static void writeJSON(BinaryWriter writer, Object value)
+    {
+        writer.writeByte(JSON);
+        writer.writeString(getJSONConverter().toJson(value));
+    }
+
+    private Object read(BinaryReader reader, Type type)
+    {
+        var tag = reader.readByte();
+        if (tag == NULL)
+        {
+            return null;
+        }
+        if (tag == JSON)
+        {
+            return getJSONConverter().fromJson(reader.readString(), type);
+        }
+
+        var rawType = rawType(type);
+        if (rawType == null)
+        {
+            throw unexpectedTag(tag, type);
+        }
+        if (rawType == boolean.class || rawType == Boolean.class)
+        {
+            return switch (tag)
+            {
+                case TRUE -> true;
+                case FALSE -> false;
+                default -> throw unexpectedTag(tag, type);
+            };
+        }
+        if (isIntegral(rawType) || rawType == float.class || rawType == Float.class
+                || rawType == double.class || rawType == Double.class)
+        {
+            return toNumber(readNumber(reader, tag, type), rawType);
+        }
+        if (rawType == char.class || rawType == Character.class)
+        {
+            return (char) readNumber(reader, tag, type).intValue();
+        }
+        if (rawType == String.class)
+        {
+            expectTag(tag, STRING, type);
+            return reader.readString();
+        }
+        if (Enum.class.isAssignableFrom(rawType))
+        {
+            expectTag(tag, STRING, type);
+            return toEnum(rawType, reader.readString());
+        }
+        if (rawType == BigDecimal.class || rawType == BigInteger.class)
+        {
+            var value = tag == STRING ? reader.readString() : readNumber(reader, tag, type).toString();
+            return rawType == BigDecimal.class ? new BigDecimal(value) : new BigInteger(value);
+        }
+        if (rawType == UUID.class)
+        {
+            expectTag(tag, UUID_VALUE, type);
+            return new UUID(reader.readFixedLong(8), reader.readFixedLong(8));
+        }
+        if (rawType == byte[].class)
+        {
+            expectTag(tag, BYTES, type);
+            return reader.readBytes();
+        }
+        if (isSupportedCollection(type))
+        {
+            expectTag(tag, ARRAY, type);
+            return readCollection(reader, (ParameterizedType) type);
+        }
+        if (isSupportedMap(type))
+        {
+            expectTag(tag, MAP, type);
+            return readMap(reader, (ParameterizedType) type);
+        }
+
+        var objectLayout = getObjectLayout(rawType).orElseThrow(() -> unexpectedTag(tag, type));
+        expectTag(tag, OBJECT, type);
+        return readObject(reader, objectLayout);
+    }
+
+    private Collection<Object> readCollection(BinaryReader reader, ParameterizedType type)
+    {
+        var elementType = type.getActualTypeArguments()[0];
+        var size = reader.readLength();
+        var result = newCollection(rawType(type));
+        for (var i = 0; i < size; ++i)
+        {
+            result.add(read(reader, elementType));
+        }
+        return result;
+    }
+
+    private Map<Object, Object> readMap(BinaryReader reader, ParameterizedType type)
+    {
+        var keyType = type.getActualTypeArguments()[0];
+        var valueType = type.getActualTypeArguments()[1];
+        var size = reader.readLength();
+        var result = newMap(rawType(type));
+        for (var i = 0; i < size; ++i)
+        {
+            var key = read(reader, keyType);
+            result.put(key, read(reader, valueType));
+        }
+        return result;
+    }
+
+    private Object readObject(BinaryReader reader, ObjectLayout objectLayout)
+    {
+        var fieldValues = new Object[objectLayout.fields().size()];
+        var numberOfFields = reader.readLength();
+        for (var i = 0; i < numberOfFields; ++i)
+        {
+            var field = objectLayout.fieldsByName().get(reader.readName());
+            if (field == null)
+            {
+                // The field was removed from the class after the value was written
+                skipValue(reader, reader.readByte());
+            }
+            else
+            {
+                fieldValues[field.index()] = read(reader, field.type());
+            }
+        }
+
+        return objectLayout.newInstance(fieldValues);
+    }
+
+    private static void skipValue(BinaryReader reader, int tag)
+    {
+        switch (tag)
+        {
+            case NULL, FALSE, TRUE -> { /* Tag includes the value */ }
+            case INT -> reader.readVarLong();
+            case FLOAT -> reader.skip(4);
+            case DOUBLE -> reader.skip(8);
+            case UUID_VALUE -> reader.skip(16);
+            case STRING, BYTES, JSON -> reader.skip(reader.readLength());
+            case ARRAY -> {
+                var size = reader.readLength();
+                for (var i = 0; i < size; ++i)
+                {
+                    skipValue(reader, reader.readByte());
+                }
+            }
+            case MAP -> {
+                var size = reader.readLength();
+                for (var i = 0; i < 2 * size; ++i)
+                {
+                    skipValue(reader, reader.readByte());
+                }
+            }
+            case OBJECT -> {
+                var size = reader.readLength();
+                for (var i = 0; i < size; ++i)
+                {
+                    reader.readName();
+                    skipValue(reader, reader.readByte());
+                }
+            }
+            default -> throw new IllegalArgumentException("Invalid binary value: Unknown tag " + tag);
+        }
+    }
+
+    private static Number readNumber(BinaryReader reader, int tag, Type type)
+    {
+        return switch (tag)
+        {
+            case INT -> reader.readSignedVarLong();
+            case FLOAT -> Float.intBitsToFloat((int) reader.readFixedLong(4));
+            case DOUBLE -> Double.longBitsToDouble(reader.readFixedLong(8));
+            default -> throw unexpectedTag(tag, type);
+        };
+    }
+
+    private static Object toNumber(Number value, Class<?> rawType)
+    {
+        if (rawType == int.class || rawType == Integer.class)
+        {
+            return Math.toIntExact(value.longValue());
+        }
+        if (rawType == long.class || rawType == Long.class)
+        {
+            return value.longValue();
+        }
+        if (rawType == short.class || rawType == Short.class)
+        {
+            return value.shortValue();
+        }
+        if (rawType == byte.class || rawType == Byte.class)
+        {
+            return value.byteValue();
+        }
+        if (rawType == float.class || rawType == Float.class)
+        {
+            return value.floatValue();
+        }
+        return value.doubleValue();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> rawType, String name)
+    {
+        var enumType = rawType.isEnum() ? rawType : rawType.getSuperclass();
+        return Enum.valueOf((Class<? extends Enum>) enumType, name);
+    }
+
+    private static void expectTag(int tag, int expectedTag, Type type)
+    {
+        if (tag != expectedTag)
+        {
+            throw unexpectedTag(tag, type);
+        }
+    }
+
+    private static IllegalArgumentException unexpectedTag(int tag, Type type)
+    {
+        return new IllegalArgumentException("Invalid binary value: Tag " + tag + " cannot be read as " + type.getTypeName());
+    }
+
+    private static Class<?> rawType(Type type)
+    {
+        if (type instanceof Class<?> clazz)
+        {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() instanceof Class<?> clazz)
+        {
+            return clazz;
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(Class<?> rawType)
+    {
+        return rawType == int.class || rawType == Integer.class
+                || rawType == long.class || rawType == Long.class
+                || rawType == short.class || rawType == Short.class
+                || rawType == byte.class || rawType == Byte.class;
+    }
+
+    private static boolean isSupportedCollection(Type type)
+    {
+        return type instanceof ParameterizedType parameterizedType
+                && Collection.class.isAssignableFrom(rawType(type))
+                && hasRawTypeArguments(parameterizedType)
+                && newCollection(rawType(type)) != null;
+    }
+
+    private static boolean isSupportedMap(Type type)
+    {
+        return type instanceof ParameterizedType parameterizedType
+                && Map.class.isAssignableFrom(rawType(type))
+                && hasRawTypeArguments(parameterizedType)
+                && newMap(rawType(type)) != null;
+    }
+
+    private static boolean hasRawTypeArguments(ParameterizedType type)
+    {
+        for (var typeArgument : type.getActualTypeArguments())
+        {
+            if (rawType(typeArgument) == null)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Collection<Object> newCollection(Class<?> rawType)
+    {
+        if (rawType.isAssignableFrom(ArrayList.class))
+        {
+            return new ArrayList<>();
+        }
+        if (rawType.isAssignableFrom(LinkedHashSet.class))
+        {
+            return new LinkedHashSet<>();
+        }
+        if (rawType.isAssignableFrom(TreeSet.class))
+        {
+            return new TreeSet<>();
+        }
+        if (rawType.isAssignableFrom(LinkedList.class))
+        {
+            return new LinkedList<>();
+        }
+        return null;
+    }
+
+    private static Map<Object, Object> newMap(Class<?> rawType)
+    {
+        if (rawType.isAssignableFrom(LinkedHashMap.class))
+        {
+            return new LinkedHashMap<>();
+        }
+        if (rawType.isAssignableFrom(TreeMap.class))
+        {
+            return new TreeMap<>();
+        }
+        return null;
+    }
+
+    private Optional<ObjectLayout> getObjectLayout(Class<?> rawType)
+    {
+        return objectLayouts.computeIfAbsent(rawType, ObjectLayout::of);
+    }
+
+    private record FieldLayout(String name, Type type, Field field, int index)
+    {
+        Object get(Object value)
+        {
+            try {
+                return field.get(value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Could not read field " + name + " of " + value.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Describes how a record or POJO is written and created
+     */
+    private record ObjectLayout(Class<?> rawType, List<FieldLayout> fields, Map<String, FieldLayout> fieldsByName,
+                                Constructor<?> constructor)
+    {
+        /**
+         * Returns the layout of given type, or an empty Optional if the type must be written as JSON
+         */
+        static Optional<ObjectLayout> of(Class<?> rawType)
+        {
+            if (rawType.isInterface() || rawType.isArray() || rawType.isPrimitive()
+                    || Modifier.isAbstract(rawType.getModifiers())
+                    || rawType.isAnonymousClass()
+                    || rawType.getName().startsWith("java.")
+                    || rawType.getName().startsWith("javax.")
+                    || rawType.getName().startsWith("jdk."))
+            {
+                return Optional.empty();
+            }
+
+            try {
+                return Optional.of(rawType.isRecord() ? ofRecord(rawType) : ofPojo(rawType));
+            } catch (NoSuchFieldException | NoSuchMethodException | RuntimeException e) {
+                // e.g., the type is part of a module that does not allow reflective access
+                return Optional.empty();
+            }
+        }
+
+        private static ObjectLayout ofRecord(Class<?> rawType) throws NoSuchFieldException, NoSuchMethodException
+        {
+            var fields = new ArrayList<FieldLayout>();
+            var components = rawType.getRecordComponents();
+            var componentTypes = new Class<?>[components.length];
+            for (var i = 0; i < components.length; ++i)
+            {
+                var field = rawType.getDeclaredField(components[i].getName());
+                field.setAccessible(true);
+                fields.add(new FieldLayout(components[i].getName(), components[i].getGenericType(), field, i));
+                componentTypes[i] = components[i].getType();
+            }
+
+            var constructor = rawType.getDeclaredConstructor(componentTypes);
+            constructor.setAccessible(true);
+            return new ObjectLayout(rawType, fields, toFieldsByName(fields), constructor);
+        }
+
+        private static ObjectLayout ofPojo(Class<?> rawType)
+        {
+            var hierarchy = new ArrayList<Class<?>>();
+            for (var clazz = rawType; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass())
+            {
+                hierarchy.add(0, clazz);
+            }
+
+            var fields = new ArrayList<FieldLayout>();
+            var names = new HashMap<String, Field>();
+            for (var clazz : hierarchy)
+            {
+                for (var field : clazz.getDeclaredFields())
+                {
+                    var modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                            || names.putIfAbsent(field.getName(), field) != null)
+                    {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(new FieldLayout(field.getName(), field.getGenericType(), field, fields.size()));
+                }
+            }
+
+            Constructor<?> constructor;
+            try {
+                constructor = rawType.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                // Like Gson, the instance is created without calling a constructor
+                constructor = null;
+            }
+            return new ObjectLayout(rawType, fields, toFieldsByName(fields), constructor);
+        }
+
+        private static Map<String, FieldLayout> toFieldsByName(List<FieldLayout> fields)
+        {
+            var result = new HashMap<String, FieldLayout>();
+            fields.forEach(field -> result.put(field.name(), field));
+            return result;
+        }
+
+        Object newInstance(Object[] fieldValues)
+        {
+            try {
+                if (rawType.isRecord())
+                {
+                    for (var field : fields)
+                    {
+                        if (fieldValues[field.index()] == null && field.field().getType().isPrimitive())
+                        {
+                            fieldValues[field.index()] = defaultValue(field.field().getType());
+                        }
+                    }
+                    return constructor.newInstance(fieldValues);
+                }
+
+                var instance = constructor != null ? constructor.newInstance() : InstanceAllocator.allocateInstance(rawType);
+                for (var field : fields)
+                {
+                    // Missing fields keep the value assigned by the constructor
+                    if (fieldValues[field.index()] != null)
+                    {
+                        field.field().set(instance, fieldValues[field.index()]);
+                    }
+                }
+                return instance;
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Could not create an instance of " + rawType.getName(), e);
+            }
+        }
+
+        private static Object defaultValue(Class<?> primitiveType)
+        {
+            if (primitiveType == boolean.class)
+            {
+                return false;
+            }
+            if (primitiveType == char.class)
+            {
+                return (char) 0;
+            }
+            return toNumber(0, primitiveType);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.jexxa.common.facade.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the primitives of the format of {@link BinaryValueCodec} into a growing buffer
+ */
+class BinaryWriter
+{
+    private byte[] buffer = new byte[256];
+    private int position;
+    private final Map<String, Integer> names = new HashMap<>();
+
+    void writeByte(int value)
+    {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarLong(long value)
+    {
+        ensureCapacity(10);
+        var remaining = value;
+        while ((remaining & ~0x7FL) != 0)
+        {
+            buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[position++] = (byte) remaining;
+    }
+
+    /**
+     * Writes a signed value by using zigzag encoding, so that small negative values also require only a few bytes
+     */
+    void writeSignedVarLong(long value)
+    {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeFixedLong(long value, int numberOfBytes)
+    {
+        ensureCapacity(numberOfBytes);
+        for (var i = numberOfBytes - 1; i >= 0; --i)
+        {
+            buffer[position++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    void writeBytes(byte[] value)
+    {
+        writeVarLong(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    void writeString(String value)
+    {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a field name only once per value. Further occurrences are written as the index of the first occurrence.
+     */
+    void writeName(String name)
+    {
+        var index = names.get(name);
+        if (index != null)
+        {
+            writeVarLong(index + 1L);
+            return;
+        }
+
+        writeVarLong(0);
+        writeString(name);
+        names.put(name, names.size());
+    }
+
+    byte[] toByteArray()
+    {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int numberOfBytes)
+    {
+        if (position + numberOfBytes > buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + numberOfBytes));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.jexxa.common.facade.codec;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Creates instances without calling a constructor, as Gson does for classes without a default constructor
+ */
+final class InstanceAllocator
+{
+    private static final Object UNSAFE;
+    private static final Method ALLOCATE_INSTANCE;
+
+    static
+    {
+        Object unsafe = null;
+        Method allocateInstance = null;
+        try {
+            var unsafeClass = Class.forName("sun.misc.Unsafe");
+            var unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            unsafe = unsafeField.get(null);
+            allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Then, only classes with a default constructor are supported
+        }
+        UNSAFE = unsafe;
+        ALLOCATE_INSTANCE = allocateInstance;
+    }
+
+    static Object allocateInstance(Class<?> rawType) throws InvocationTargetException, IllegalAccessException
+    {
+        if (ALLOCATE_INSTANCE == null)
+        {
+            throw new IllegalArgumentException("Could not create an instance of " + rawType.getName()
+                    + " because it does not provide a default constructor");
+        }
+        return ALLOCATE_INSTANCE.invoke(UNSAFE, rawType);
+    }
+
+    private InstanceAllocator()
+    {
+        //Private constructor
+    }
+}
@@ -0,0 +1,37 @@
+package io.jexxa.common.facade.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+
+/**
+ * Stores values as UTF-8 encoded JSON by using the {@link io.jexxa.common.facade.json.JSONConverter} of the
+ * {@link io.jexxa.common.facade.json.JSONManager}. This is the default codec of all repositories.
+ */
+public final class JSONValueCodec implements ValueCodec
+{
+    public static final String NAME = "json";
+
+    @Override
+    public String name()
+    {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value)
+    {
+        return getJSONConverter().toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> clazz)
+    {
+        if (BinaryValueCodec.isBinaryFormat(data))
+        {
+            return ValueCodecManager.binary().decode(data, clazz);
+        }
+
+        return getJSONConverter().fromJson(new String(data, StandardCharsets.UTF_8), clazz);
+    }
+}
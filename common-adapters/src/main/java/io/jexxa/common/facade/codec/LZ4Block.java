@@ -0,0 +1,185 @@
+package io.jexxa.common.facade.codec;
+
+import java.util.Arrays;
+
+/**
+ * Pure Java implementation of the LZ4 block format, which favors speed over compression ratio.
+ * <p>
+ * The compressor uses a greedy search with a single hash table of 4-byte sequences, like the fast mode of the
+ * reference implementation. Since a block does not include its uncompressed length, it must be stored by the caller.
+ */
+final class LZ4Block
+{
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 14;
+    private static final int RUN_MASK = 15;
+
+    static byte[] compress(byte[] source)
+    {
+        var length = source.length;
+        var target = new byte[length + length / 255 + 16];
+        var hashTable = new int[1 << HASH_LOG];
+        Arrays.fill(hashTable, -1);
+
+        var anchor = 0;
+        var position = 0;
+        var targetPosition = 0;
+        var matchLimit = length - LAST_LITERALS;
+
+        while (position < length - MATCH_FIND_LIMIT)
+        {
+            var sequence = readInt(source, position);
+            var hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+            var reference = hashTable[hash];
+            hashTable[hash] = position;
+
+            if (reference < 0 || position - reference > MAX_OFFSET || readInt(source, reference) != sequence)
+            {
+                ++position;
+                continue;
+            }
+
+            while (position > anchor && reference > 0 && source[position - 1] == source[reference - 1])
+            {
+                --position;
+                --reference;
+            }
+
+            var matchLength = MIN_MATCH;
+            while (position + matchLength < matchLimit && source[position + matchLength] == source[reference + matchLength])
+            {
+                ++matchLength;
+            }
+
+            targetPosition = writeSequence(target, targetPosition, source, anchor, position - anchor, position - reference, matchLength);
+            position += matchLength;
+            anchor = position;
+        }
+
+        targetPosition = writeSequence(target, targetPosition, source, anchor, length - anchor, 0, 0);
+        return Arrays.copyOf(target, targetPosition);
+    }
+
+    static byte[] decompress(byte[] source, int length)
+    {
+        var target = new byte[length];
+        var position = 0;
+        var targetPosition = 0;
+
+        try {
+            while (position < source.length)
+            {
+                var token = source[position++] & 0xFF;
+
+                var literalLength = token >>> 4;
+                if (literalLength == RUN_MASK)
+                {
+                    int value;
+                    do {
+                        value = source[position++] & 0xFF;
+                        literalLength += value;
+                    } while (value == 255);
+                }
+                System.arraycopy(source, position, target, targetPosition, literalLength);
+                position += literalLength;
+                targetPosition += literalLength;
+
+                if (position == source.length)
+                {
+                    break; // The last sequence only contains literals
+                }
+
+                var offset = (source[position++] & 0xFF) | ((source[position++] & 0xFF) << 8);
+                if (offset == 0 || offset > targetPosition)
+                {
+                    throw new IllegalArgumentException("Invalid LZ4 block: Offset " + offset + " at position " + position);
+                }
+
+                var matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK)
+                {
+                    int value;
+                    do {
+                        value = source[position++] & 0xFF;
+                        matchLength += value;
+                    } while (value == 255);
+                }
+                matchLength += MIN_MATCH;
+
+                // A match may overlap with the bytes it writes, so that it must be copied byte by byte
+                for (var i = 0; i < matchLength; ++i)
+                {
+                    target[targetPosition] = target[targetPosition - offset];
+                    ++targetPosition;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid LZ4 block: Data does not match the uncompressed length " + length, e);
+        }
+
+        if (targetPosition != length)
+        {
+            throw new IllegalArgumentException("Invalid LZ4 block: Expected " + length + " bytes but got " + targetPosition);
+        }
+        return target;
+    }
+
+    private static int writeSequence(byte[] target, int targetPosition, byte[] source, int anchor, int literalLength, int offset, int matchLength)
+    {
+        var position = targetPosition;
+        var tokenPosition = position++;
+
+        var token = Math.min(literalLength, RUN_MASK) << 4;
+        position = writeLength(target, position, literalLength);
+        System.arraycopy(source, anchor, target, position, literalLength);
+        position += literalLength;
+
+        if (matchLength > 0)
+        {
+            target[position++] = (byte) offset;
+            target[position++] = (byte) (offset >>> 8);
+            token |= Math.min(matchLength - MIN_MATCH, RUN_MASK);
+            position = writeLength(target, position, matchLength - MIN_MATCH);
+        }
+
+        target[tokenPosition] = (byte) token;
+        return position;
+    }
+
+    /**
+     * Writes the remainder of a length that does not fit into the 4 bits of the token
+     */
+    private static int writeLength(byte[] target, int targetPosition, int length)
+    {
+        if (length < RUN_MASK)
+        {
+            return targetPosition;
+        }
+
+        var position = targetPosition;
+        var remaining = length - RUN_MASK;
+        while (remaining >= 255)
+        {
+            target[position++] = (byte) 255;
+            remaining -= 255;
+        }
+        target[position++] = (byte) remaining;
+        return position;
+    }
+
+    private static int readInt(byte[] source, int position)
+    {
+        return (source[position] & 0xFF)
+                | (source[position + 1] & 0xFF) << 8
+                | (source[position + 2] & 0xFF) << 16
+                | (source[position + 3] & 0xFF) << 24;
+    }
+
+    private LZ4Block()
+    {
+        //Private constructor
+    }
+}
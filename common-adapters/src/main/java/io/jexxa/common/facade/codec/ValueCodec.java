@@ -0,0 +1,36 @@
+package io.jexxa.common.facade.codec;
+
+/**
+ * Converts the value of an aggregate into the bytes that are stored by a repository and vice versa.
+ * <p>
+ * An implementation must be able to decode all formats written by {@link JSONValueCodec} and {@link BinaryValueCodec},
+ * so that a repository can switch its codec without losing access to existing data. Both codecs distinguish their
+ * formats by the header written by {@link BinaryValueCodec}.
+ * See {@link ValueCodecManager} for available codecs.
+ */
+public interface ValueCodec
+{
+    /**
+     * Returns the name of this codec that is used to select it via {@link ValueCodecManager#getValueCodec(String)}
+     *
+     * @return name of this codec
+     */
+    String name();
+
+    /**
+     * Converts given value into bytes
+     *
+     * @param value to be converted. Must not be null
+     * @return encoded value
+     */
+    byte[] encode(Object value);
+
+    /**
+     * Converts given bytes into a value of given type
+     *
+     * @param data as returned by {@link #encode(Object)} of this or another codec
+     * @param clazz type of the value
+     * @return decoded value
+     */
+    <T> T decode(byte[] data, Class<T> clazz);
+}
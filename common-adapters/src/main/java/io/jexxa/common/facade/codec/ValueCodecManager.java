@@ -0,0 +1,75 @@
+package io.jexxa.common.facade.codec;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the {@link ValueCodec}s that can be selected by their name, e.g., in the properties of a repository.
+ * <p>
+ * The codecs {@link JSONValueCodec#NAME} and {@link BinaryValueCodec#NAME} are always available. Additional codecs
+ * can be registered via {@link #registerValueCodec(ValueCodec)}.
+ */
+public final class ValueCodecManager
+{
+    private static final ValueCodec JSON_VALUE_CODEC = new JSONValueCodec();
+    private static final ValueCodec BINARY_VALUE_CODEC = new BinaryValueCodec();
+    private static final Map<String, ValueCodec> VALUE_CODEC_MAP = new ConcurrentHashMap<>();
+
+    static
+    {
+        defaultSettings();
+    }
+
+    public static ValueCodec json()
+    {
+        return JSON_VALUE_CODEC;
+    }
+
+    public static ValueCodec binary()
+    {
+        return BINARY_VALUE_CODEC;
+    }
+
+    /**
+     * Returns the codec registered with given name
+     *
+     * @param name of the codec
+     * @return the codec registered with given name
+     * @throws IllegalArgumentException if no codec is registered with given name
+     */
+    public static ValueCodec getValueCodec(String name)
+    {
+        Objects.requireNonNull(name);
+
+        var valueCodec = VALUE_CODEC_MAP.get(name.trim());
+        if (valueCodec == null)
+        {
+            throw new IllegalArgumentException("Unknown value codec " + name + ". Available value codecs are " + VALUE_CODEC_MAP.keySet());
+        }
+        return valueCodec;
+    }
+
+    public static void registerValueCodec(ValueCodec valueCodec)
+    {
+        Objects.requireNonNull(valueCodec);
+        VALUE_CODEC_MAP.put(Objects.requireNonNull(valueCodec.name()), valueCodec);
+    }
+
+    /**
+     * Removes all registered codecs except {@link #json()} and {@link #binary()}.
+     * <p>
+     * So this method should only be used when writing tests to ensure a clean setup!
+     */
+    public static void defaultSettings()
+    {
+        VALUE_CODEC_MAP.clear();
+        registerValueCodec(JSON_VALUE_CODEC);
+        registerValueCodec(BINARY_VALUE_CODEC);
+    }
+
+    private ValueCodecManager()
+    {
+        //Private constructor
+    }
+}
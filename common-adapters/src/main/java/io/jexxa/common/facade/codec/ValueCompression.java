@@ -0,0 +1,150 @@
+package io.jexxa.common.facade.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses values as returned by a {@link ValueCodec}.
+ * <p>
+ * A compressed value starts with a header that contains the id of the {@link Algorithm} and the length of the
+ * uncompressed value. Therefore, a compressed value can be decompressed independently of the configured algorithm.
+ */
+public final class ValueCompression
+{
+    public enum Algorithm
+    {
+        /** Pure Java implementation of the LZ4 block format, which is fast but compresses less than {@link #DEFLATE} */
+        LZ4(1),
+        /** Deflate as provided by the JDK, which compresses better but is considerably slower than {@link #LZ4} */
+        DEFLATE(2);
+
+        private final int id;
+
+        Algorithm(int id)
+        {
+            this.id = id;
+        }
+
+        /**
+         * Returns the algorithm with given name, ignoring case
+         *
+         * @param name of the algorithm
+         * @return the algorithm with given name
+         * @throws IllegalArgumentException if no algorithm with given name exists
+         */
+        public static Algorithm of(String name)
+        {
+            return valueOf(Objects.requireNonNull(name).trim().toUpperCase(Locale.ENGLISH));
+        }
+
+        private static Algorithm of(int id)
+        {
+            for (var algorithm : values())
+            {
+                if (algorithm.id == id)
+                {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("Invalid compressed value: Unknown compression algorithm " + id);
+        }
+    }
+
+    /**
+     * Compresses given value by using given algorithm
+     *
+     * @param value to be compressed
+     * @param algorithm used to compress the value
+     * @return the compressed value including its header
+     */
+    public static byte[] compress(byte[] value, Algorithm algorithm)
+    {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(algorithm);
+
+        var writer = new BinaryWriter();
+        writer.writeByte(algorithm.id);
+        writer.writeVarLong(value.length);
+        writer.writeBytes(algorithm == Algorithm.LZ4 ? LZ4Block.compress(value) : deflate(value));
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decompresses given value
+     *
+     * @param compressedValue as returned by {@link #compress(byte[], Algorithm)}
+     * @return the uncompressed value
+     */
+    public static byte[] decompress(byte[] compressedValue)
+    {
+        Objects.requireNonNull(compressedValue);
+
+        var reader = new BinaryReader(compressedValue, 0);
+        var algorithm = Algorithm.of(reader.readByte());
+        var length = reader.readVarLong();
+        if (length < 0 || length > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Invalid compressed value: Length " + length);
+        }
+
+        var data = reader.readBytes();
+        return algorithm == Algorithm.LZ4 ? LZ4Block.decompress(data, (int) length) : inflate(data, (int) length);
+    }
+
+    private static byte[] deflate(byte[] value)
+    {
+        var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(value);
+            deflater.finish();
+
+            var output = new ByteArrayOutputStream(value.length / 2 + 64);
+            var buffer = new byte[8192];
+            while (!deflater.finished())
+            {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int length)
+    {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            var result = new byte[length];
+            var position = 0;
+            while (position < length && !inflater.finished())
+            {
+                var inflated = inflater.inflate(result, position, length - position);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+                position += inflated;
+            }
+
+            if (position != length)
+            {
+                throw new IllegalArgumentException("Invalid compressed value: Expected " + length + " bytes but got " + position);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed value: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private ValueCompression()
+    {
+        //Private constructor
+    }
+}
@@ -0,0 +1,418 @@
+package io.jexxa.common.facade.codec;
+
+import io.jexxa.common.facade.utils.annotation.Immutable;
+
+import java.io.Serial;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates copies of values without converting them into another representation, which is considerably faster than
+ * encoding and decoding them by a {@link ValueCodec}.
+ * <p>
+ * Values of an immutable type are not copied at all. A type is immutable if it is
+ * <ul>
+ *     <li>a primitive, its wrapper, {@link String}, an enum, {@link UUID}, {@link BigDecimal}, {@link BigInteger}, or
+ *     a type of package java.time</li>
+ *     <li>a record whose components are all declared by an immutable type</li>
+ *     <li>annotated by {@link Immutable} or registered by {@link #registerImmutableType(Class)}</li>
+ * </ul>
+ * All other records and POJOs are copied field by field, including the fields of their super classes. Arrays and
+ * the common collections and maps of java.util are copied element by element. The identity of values that are
+ * referenced multiple times within a value is preserved.
+ * <p>
+ * If a value includes a type that cannot be copied, e.g., a view on another collection, the value is copied by
+ * encoding and decoding it with the {@link ValueCodec} passed to the constructor. Afterward, all values of the same
+ * type are copied this way.
+ */
+public final class ValueCopier
+{
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigDecimal.class, BigInteger.class, UUID.class);
+    private static final String IMMUTABLE_COLLECTIONS = "java.util.ImmutableCollections$";
+
+    private static final Set<Class<?>> REGISTERED_IMMUTABLE_TYPES = ConcurrentHashMap.newKeySet();
+    private static final Map<Class<?>, Boolean> IMMUTABLE_TYPE_CACHE = new ConcurrentHashMap<>();
+
+    private final ValueCodec fallbackCodec;
+    private final Map<Class<?>, Optional<CopyLayout>> copyLayouts = new ConcurrentHashMap<>();
+    private final Set<Class<?>> fallbackTypes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a ValueCopier
+     *
+     * @param fallbackCodec is used to copy values that include types which cannot be copied field by field
+     */
+    public ValueCopier(ValueCodec fallbackCodec)
+    {
+        this.fallbackCodec = Objects.requireNonNull(fallbackCodec);
+    }
+
+    /**
+     * Declares given type as immutable, which is useful for types that cannot be annotated by {@link Immutable}.
+     *
+     * @param clazz whose instances cannot be changed after their creation
+     */
+    public static void registerImmutableType(Class<?> clazz)
+    {
+        REGISTERED_IMMUTABLE_TYPES.add(Objects.requireNonNull(clazz));
+        // Records that were classified as mutable because of given type must be classified again
+        IMMUTABLE_TYPE_CACHE.clear();
+    }
+
+    /**
+     * Returns true if the values of given type are not copied. See {@link ValueCopier} for the rules.
+     *
+     * @param clazz to be checked
+     * @return true if values of given type are immutable
+     */
+    public static boolean isImmutable(Class<?> clazz)
+    {
+        Objects.requireNonNull(clazz);
+        var result = IMMUTABLE_TYPE_CACHE.get(clazz);
+        if (result == null)
+        {
+            // Only the requested type is cached, because the result of a component may depend on the assumption made for a cyclic record
+            result = isImmutable(clazz, new HashSet<>());
+            IMMUTABLE_TYPE_CACHE.put(clazz, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of given value that does not share any mutable state with given value
+     *
+     * @param value to be copied. Must not be null
+     * @return given value if it is immutable, otherwise a deep copy of given value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T copy(T value)
+    {
+        Objects.requireNonNull(value);
+        if (isImmutable(value.getClass()))
+        {
+            return value;
+        }
+
+        if (!fallbackTypes.contains(value.getClass()))
+        {
+            try {
+                return (T) copy(value, new IdentityHashMap<>());
+            } catch (UnsupportedTypeException e) {
+                fallbackTypes.add(value.getClass());
+            }
+        }
+
+        return (T) fallbackCodec.decode(fallbackCodec.encode(value), value.getClass());
+    }
+
+    private static boolean isImmutable(Class<?> clazz, Set<Class<?>> visitedRecords)
+    {
+        if (clazz.isPrimitive()
+                || IMMUTABLE_TYPES.contains(clazz)
+                || clazz.isEnum()
+                || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum())
+                || clazz.getPackageName().equals("java.time")
+                || clazz.isAnnotationPresent(Immutable.class)
+                || REGISTERED_IMMUTABLE_TYPES.contains(clazz))
+        {
+            return true;
+        }
+
+        if (!clazz.isRecord())
+        {
+            return false;
+        }
+
+        // A record that refers to itself is immutable if all its other components are immutable
+        if (!visitedRecords.add(clazz))
+        {
+            return true;
+        }
+
+        for (var component : clazz.getRecordComponents())
+        {
+            if (!isImmutable(component.getType(), visitedRecords))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object copy(Object value, Map<Object, Object> copies)
+    {
+        if (value == null || isImmutable(value.getClass()))
+        {
+            return value;
+        }
+
+        var existingCopy = copies.get(value);
+        if (existingCopy != null)
+        {
+            return existingCopy;
+        }
+
+        if (value.getClass().isArray())
+        {
+            return copyArray(value, copies);
+        }
+        if (value instanceof Collection<?> collection)
+        {
+            return copyCollection(collection, copies);
+        }
+        if (value instanceof Map<?, ?> map)
+        {
+            return copyMap(map, copies);
+        }
+
+        var copyLayout = copyLayouts.computeIfAbsent(value.getClass(), CopyLayout::of)
+                .orElseThrow(UnsupportedTypeException::new);
+        return copyLayout.copy(value, copies, this);
+    }
+
+    private Object copyArray(Object value, Map<Object, Object> copies)
+    {
+        var length = Array.getLength(value);
+        var result = Array.newInstance(value.getClass().getComponentType(), length);
+        copies.put(value, result);
+
+        if (value.getClass().getComponentType().isPrimitive())
+        {
+            System.arraycopy(value, 0, result, 0, length);
+        }
+        else
+        {
+            var source = (Object[]) value;
+            var target = (Object[]) result;
+            for (var i = 0; i < length; ++i)
+            {
+                target[i] = copy(source[i], copies);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object copyCollection(Collection<?> value, Map<Object, Object> copies)
+    {
+        var clazz = value.getClass();
+        if (clazz.getName().startsWith(IMMUTABLE_COLLECTIONS))
+        {
+            // Elements of an immutable collection can be mutable anyway
+            var elements = new ArrayList<>(value.size());
+            value.forEach(element -> elements.add(copy(element, copies)));
+            return value instanceof Set<?> ? Set.copyOf(elements) : List.copyOf(elements);
+        }
+
+        Collection<Object> result;
+        if (clazz == ArrayList.class)
+        {
+            result = new ArrayList<>(value.size());
+        }
+        else if (clazz == LinkedList.class)
+        {
+            result = new LinkedList<>();
+        }
+        else if (clazz == ArrayDeque.class)
+        {
+            result = new ArrayDeque<>(value.size());
+        }
+        else if (clazz == HashSet.class)
+        {
+            result = new HashSet<>();
+        }
+        else if (clazz == LinkedHashSet.class)
+        {
+            result = new LinkedHashSet<>();
+        }
+        else if (clazz == TreeSet.class)
+        {
+            result = new TreeSet<>(((TreeSet<Object>) value).comparator());
+        }
+        else
+        {
+            throw new UnsupportedTypeException();
+        }
+
+        copies.put(value, result);
+        value.forEach(element -> result.add(copy(element, copies)));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object copyMap(Map<?, ?> value, Map<Object, Object> copies)
+    {
+        var clazz = value.getClass();
+        if (clazz.getName().startsWith(IMMUTABLE_COLLECTIONS))
+        {
+            var entries = new LinkedHashMap<>();
+            value.forEach((key, element) -> entries.put(copy(key, copies), copy(element, copies)));
+            return Map.copyOf(entries);
+        }
+
+        Map<Object, Object> result;
+        if (clazz == HashMap.class)
+        {
+            result = new HashMap<>();
+        }
+        else if (clazz == LinkedHashMap.class)
+        {
+            result = new LinkedHashMap<>();
+        }
+        else if (clazz == TreeMap.class)
+        {
+            result = new TreeMap<>(((TreeMap<Object, Object>) value).comparator());
+        }
+        else if (clazz == ConcurrentHashMap.class)
+        {
+            result = new ConcurrentHashMap<>();
+        }
+        else
+        {
+            throw new UnsupportedTypeException();
+        }
+
+        copies.put(value, result);
+        value.forEach((key, element) -> result.put(copy(key, copies), copy(element, copies)));
+        return result;
+    }
+
+    /**
+     * Describes how a record or POJO is copied
+     */
+    private record CopyLayout(Class<?> rawType, List<Field> fields, Constructor<?> constructor)
+    {
+        /**
+         * Returns the layout of given type, or an empty Optional if the type cannot be copied field by field
+         */
+        static Optional<CopyLayout> of(Class<?> rawType)
+        {
+            if (rawType.isAnonymousClass()
+                    || rawType.isHidden()
+                    || rawType.getName().startsWith("java.")
+                    || rawType.getName().startsWith("javax.")
+                    || rawType.getName().startsWith("jdk."))
+            {
+                return Optional.empty();
+            }
+
+            try {
+                return Optional.of(rawType.isRecord() ? ofRecord(rawType) : ofPojo(rawType));
+            } catch (NoSuchFieldException | NoSuchMethodException | RuntimeException e) {
+                // e.g., the type is part of a module that does not allow reflective access
+                return Optional.empty();
+            }
+        }
+
+        private static CopyLayout ofRecord(Class<?> rawType) throws NoSuchFieldException, NoSuchMethodException
+        {
+            var fields = new ArrayList<Field>();
+            var components = rawType.getRecordComponents();
+            var componentTypes = new Class<?>[components.length];
+            for (var i = 0; i < components.length; ++i)
+            {
+                var field = rawType.getDeclaredField(components[i].getName());
+                field.setAccessible(true);
+                fields.add(field);
+                componentTypes[i] = components[i].getType();
+            }
+
+            var constructor = rawType.getDeclaredConstructor(componentTypes);
+            constructor.setAccessible(true);
+            return new CopyLayout(rawType, fields, constructor);
+        }
+
+        private static CopyLayout ofPojo(Class<?> rawType)
+        {
+            // In contrast to a ValueCodec, transient fields are copied as well, so that a copy equals its original
+            var fields = new ArrayList<Field>();
+            for (var clazz = rawType; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass())
+            {
+                for (var field : clazz.getDeclaredFields())
+                {
+                    if (!Modifier.isStatic(field.getModifiers()))
+                    {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+
+            Constructor<?> constructor;
+            try {
+                constructor = rawType.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                constructor = null;
+            }
+            return new CopyLayout(rawType, fields, constructor);
+        }
+
+        Object copy(Object value, Map<Object, Object> copies, ValueCopier valueCopier)
+        {
+            try {
+                if (rawType.isRecord())
+                {
+                    var components = new Object[fields.size()];
+                    for (var i = 0; i < components.length; ++i)
+                    {
+                        components[i] = valueCopier.copy(fields.get(i).get(value), copies);
+                    }
+                    var result = constructor.newInstance(components);
+                    copies.put(value, result);
+                    return result;
+                }
+
+                var result = constructor != null ? constructor.newInstance() : InstanceAllocator.allocateInstance(rawType);
+                // Registered before its fields are copied, so that cyclic references are preserved
+                copies.put(value, result);
+                for (var field : fields)
+                {
+                    field.set(result, valueCopier.copy(field.get(value), copies));
+                }
+                return result;
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
+                throw new UnsupportedTypeException();
+            }
+        }
+    }
+
+    /**
+     * Signals that a value cannot be copied field by field, so that the fallback codec is used
+     */
+    private static final class UnsupportedTypeException extends RuntimeException
+    {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedTypeException()
+        {
+            super(null, null, false, false);
+        }
+    }
+}
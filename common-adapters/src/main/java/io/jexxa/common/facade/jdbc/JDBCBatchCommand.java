@@ -0,0 +1,153 @@
+package io.jexxa.common.facade.jdbc;
+
+import io.jexxa.common.facade.jdbc.builder.JDBCObject;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Executes a single SQL command with multiple argument lists (rows) by using JDBC batches, so that the rows are sent
+ * to the database in {@link #batchSize(int)} rows per round trip.
+ */
+@SuppressWarnings("unused")
+public class JDBCBatchCommand extends JDBCPreparedStatement
+{
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    private static final String SQL_STATEMENT_FAILED = "Could not execute SQL Statement : ";
+
+    private final List<List<Object>> rows = new ArrayList<>();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Creates a JDBCBatchCommand
+     *
+     * @param jdbcConnection used connection to execute command
+     * @param sqlCommand must include the complete command with all attributes included. Note: The sqlCommand can include a
+     *                   '?' as placeholder for arguments
+     * @param arguments includes all arguments of the first row
+     */
+    public JDBCBatchCommand(Supplier<JDBCConnection> jdbcConnection, String sqlCommand, List<Object> arguments)
+    {
+        super(jdbcConnection, sqlCommand, arguments);
+        rows.add(arguments);
+    }
+
+    /**
+     * Adds a row to this batch
+     *
+     * @param arguments of the row in the same order as the arguments of the first row
+     * @return this batch command
+     */
+    public JDBCBatchCommand addBatch(Object[] arguments)
+    {
+        rows.add(validateRow(Arrays.asList(arguments)));
+        return this;
+    }
+
+    /**
+     * Adds a row to this batch. Only the jdbc values are used because the bind parameters are defined by the first row
+     *
+     * @param arguments of the row in the same order as the arguments of the first row
+     * @return this batch command
+     */
+    public JDBCBatchCommand addBatch(JDBCObject[] arguments)
+    {
+        rows.add(validateRow(Arrays.stream(arguments).map(JDBCObject::getJdbcValue).toList()));
+        return this;
+    }
+
+    /**
+     * Defines the maximal number of rows that are sent to the database in one round trip
+     *
+     * @param batchSize maximal number of rows per round trip
+     * @return this batch command
+     */
+    public JDBCBatchCommand batchSize(int batchSize)
+    {
+        if (batchSize < 1)
+        {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int size()
+    {
+        return rows.size();
+    }
+
+    /**
+     * Executes the command for all rows.
+     *
+     * @return the update count of each row in the order the rows were added. A value of {@link Statement#SUCCESS_NO_INFO}
+     * indicates that the row was executed successfully but the database does not provide the number of changed rows.
+     */
+    public int[] execute()
+    {
+        var updateCounts = new int[rows.size()];
+
+        try (var preparedStatement = createPreparedStatement())
+        {
+            var offset = 0;
+            for (var i = 0; i < rows.size(); ++i)
+            {
+                if (i > 0) // Arguments of the first row are already set by createPreparedStatement
+                {
+                    setArguments(preparedStatement, rows.get(i));
+                }
+                preparedStatement.addBatch();
+
+                if ((i + 1) % batchSize == 0 || i == rows.size() - 1)
+                {
+                    var batchResult = preparedStatement.executeBatch();
+                    System.arraycopy(batchResult, 0, updateCounts, offset, batchResult.length);
+                    offset += batchResult.length;
+                }
+            }
+        }
+        catch (SQLException e)
+        {
+            markConnectionSuspect();
+            throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
+        }
+
+        return updateCounts;
+    }
+
+    /**
+     * Execute command as 'update' so that each row must change the database
+     */
+    public void asUpdate()
+    {
+        var updateCounts = execute();
+        for (var i = 0; i < updateCounts.length; ++i)
+        {
+            if (updateCounts[i] == 0)
+            {
+                throw new IllegalArgumentException("Command was executed but returned that nothing changed for row " + i + "! ");
+            }
+        }
+    }
+
+    /**
+     * Execute command. Return value of command is not processed
+     */
+    public void asIgnore()
+    {
+        execute();
+    }
+
+    private List<Object> validateRow(List<Object> arguments)
+    {
+        if (arguments.size() != rows.get(0).size())
+        {
+            throw new IllegalArgumentException("Invalid number of arguments. Expected " + rows.get(0).size() + " but got " + arguments.size());
+        }
+        return arguments;
+    }
+}
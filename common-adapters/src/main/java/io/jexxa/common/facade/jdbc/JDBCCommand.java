@@ -37,6 +37,7 @@ public class JDBCCommand extends JDBCPreparedStatement
         }
         catch (SQLException e)
         {
+            markConnectionSuspect();
             throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
         }
     }
@@ -56,6 +57,25 @@ public class JDBCCommand extends JDBCPreparedStatement
 
         catch (SQLException e)
         {
+            markConnectionSuspect();
+            throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
+        }
+    }
+
+    /**
+     * Execute command and return the number of changed rows
+     *
+     * @return number of changed rows
+     */
+    public int execute()
+    {
+        try (var preparedStatement = createPreparedStatement())
+        {
+            return preparedStatement.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            markConnectionSuspect();
             throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
         }
     }
@@ -71,6 +91,7 @@ public class JDBCCommand extends JDBCPreparedStatement
         }
         catch (SQLException e)
         {
+            markConnectionSuspect();
             throw new IllegalArgumentException(SQL_STATEMENT_FAILED + getSQLStatement(), e);
         }
     }
@@ -15,6 +15,8 @@ import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
 
@@ -40,13 +42,32 @@ public class JDBCConnection implements AutoCloseable
     }
 
 
+    /**
+     * Defines when a connection is validated by {@link #validateConnection()}
+     */
+    public enum ValidationStrategy {
+        /** Connection is validated each time before it is used */
+        ALWAYS,
+        /** Connection is only validated if it was not used for a configured idle threshold or if a previous statement failed */
+        IDLE
+    }
+
     public static final int NO_TIMEOUT = 0;
+    public static final long DEFAULT_VALIDATION_IDLE_THRESHOLD = 5000; // in ms
 
     private Connection connection;
     private final Properties properties;
     private IsolationLevel isolationLevel;
     private boolean autoCommit = true;
 
+    private final ValidationStrategy validationStrategy;
+    private final long validationIdleThreshold;
+    private volatile long lastUsage;
+    private volatile boolean suspect = false;
+    private final LongAdder executedValidations = new LongAdder();
+    private final LongAdder skippedValidations = new LongAdder();
+    private final PreparedStatementCache statementCache;
+
     private static final Logger LOGGER = getLogger(JDBCConnection.class);
 
     public JDBCConnection(Properties properties)
@@ -59,6 +80,10 @@ public class JDBCConnection implements AutoCloseable
 
         this.connection = initJDBCConnection(properties, autoCommit);
         this.properties = properties;
+        this.validationStrategy = getValidationStrategy(properties);
+        this.validationIdleThreshold = getValidationIdleThreshold(properties);
+        this.lastUsage = System.nanoTime();
+        this.statementCache = new PreparedStatementCache(getStatementCacheSize(properties));
         setIsolationLevel();
     }
 
@@ -128,28 +153,69 @@ public class JDBCConnection implements AutoCloseable
         }
     }
 
+    /**
+     * Validates the connection according to the configured {@link ValidationStrategy} and resets it if it is invalid.
+     *
+     * @return this connection
+     * @throws IllegalStateException if the connection is invalid and cannot be reset
+     */
     @SuppressWarnings("java:S2139") // Here we log and rethrow an exception to document that we tried to handle a connection failure without success and must give up
     public final JDBCConnection validateConnection()
     {
-        try
+        if (requiresValidation())
         {
-            if (!isValid())
+            executedValidations.increment();
+            try
             {
-                var jdbcURL =  properties.getProperty(JDBCProperties.jdbcUrl());
-                LOGGER.warn("JDBC connection for connection {} is invalid. ", jdbcURL);
-                LOGGER.warn("Try to reset JDBC connection for connection {}", jdbcURL);
-                reset();
-                LOGGER.warn("JDBC connection for connection {} successfully restarted.", jdbcURL);
+                if (!isValid())
+                {
+                    var jdbcURL =  properties.getProperty(JDBCProperties.jdbcUrl());
+                    LOGGER.warn("JDBC connection for connection {} is invalid. ", jdbcURL);
+                    LOGGER.warn("Try to reset JDBC connection for connection {}", jdbcURL);
+                    reset();
+                    LOGGER.warn("JDBC connection for connection {} successfully restarted.", jdbcURL);
+                }
+                suspect = false;
+            } catch (RuntimeException e)
+            {
+                LOGGER.error("Could not reset JDBC connection for connection {}. Reason: {}", properties.getProperty(JDBCProperties.jdbcUrl()), e.getMessage());
+                throw e;
             }
-        } catch (RuntimeException e)
+        }
+        else
         {
-            LOGGER.error("Could not reset JDBC connection for connection {}. Reason: {}", properties.getProperty(JDBCProperties.jdbcUrl()), e.getMessage());
-            throw e;
+            skippedValidations.increment();
         }
 
+        lastUsage = System.nanoTime();
         return this;
     }
 
+    /**
+     * Marks this connection as suspect so that it is validated before it is used the next time. This method should be
+     * called if a statement on this connection failed.
+     */
+    public void markSuspect()
+    {
+        suspect = true;
+    }
+
+    /**
+     * @return the number of validations that were executed by {@link #validateConnection()}
+     */
+    public long getExecutedValidations()
+    {
+        return executedValidations.sum();
+    }
+
+    /**
+     * @return the number of validations that were skipped by {@link #validateConnection()} due to the configured {@link ValidationStrategy}
+     */
+    public long getSkippedValidations()
+    {
+        return skippedValidations.sum();
+    }
+
     public void enableAutoCommit()
     {
         autoCommit = true;
@@ -221,10 +287,26 @@ public class JDBCConnection implements AutoCloseable
     }
 
 
+    /**
+     * @return the number of PreparedStatements that were taken from the statement cache
+     */
+    public long getStatementCacheHits()
+    {
+        return statementCache.getHits();
+    }
+
+    /**
+     * @return the number of PreparedStatements that had to be created because they were not available in the statement cache
+     */
+    public long getStatementCacheMisses()
+    {
+        return statementCache.getMisses();
+    }
+
     /**
      * This method resets the internal JDBC connection in the following way:
      * <ol>
-     *  <li>The existing JDBC connection is closed.</li>
+     *  <li>The existing JDBC connection and all cached PreparedStatements are closed.</li>
      *  <li>A new JDBC connection is established based on the given properties in constructor.</li>
      *  <li>The new JDBC connection is validated using {@link Connection#isValid(int) }.</li>
      * </ol>
@@ -245,6 +327,37 @@ public class JDBCConnection implements AutoCloseable
         }
     }
 
+    /**
+     * Prepares this connection to be reused by another transaction, i.e., uncommitted changes are rolled back and auto
+     * commit is enabled.
+     *
+     * @return true if this connection can be reused, false if it is suspect, closed, or could not be prepared
+     */
+    boolean prepareForReuse()
+    {
+        if (suspect || connection == null)
+        {
+            return false;
+        }
+
+        try {
+            if (connection.isClosed())
+            {
+                return false;
+            }
+            if (!connection.getAutoCommit())
+            {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            autoCommit = true;
+            return true;
+        } catch (SQLException e) {
+            LOGGER.warn("Could not prepare JDBC connection for reuse. Reason: {}", e.getMessage());
+            return false;
+        }
+    }
+
     public boolean isValid()
     {
         return isValid(NO_TIMEOUT);
@@ -266,7 +379,8 @@ public class JDBCConnection implements AutoCloseable
     }
 
     /**
-     * Creates a PreparedStatement
+     * Creates a PreparedStatement. If the statement cache is enabled via {@link JDBCProperties#jdbcStatementCacheSize()},
+     * a cached PreparedStatement is returned if available. In any case, the caller must close the returned PreparedStatement.
      *
      * @param sqlStatement describes the template of the command
      * @return PreparedStatement
@@ -274,12 +388,13 @@ public class JDBCConnection implements AutoCloseable
      */
     PreparedStatement prepareStatement(String sqlStatement) throws SQLException
     {
-        return getConnection().prepareStatement(sqlStatement);
+        return statementCache.prepareStatement(getConnection(), sqlStatement);
     }
 
     @Override
     public void close()
     {
+        statementCache.clear();
         Optional.ofNullable(connection)
                 .ifPresent(ThrowingConsumer.exceptionLogger(Connection::close, getLogger(JDBCConnection.class)));
         connection = null;
@@ -317,6 +432,44 @@ public class JDBCConnection implements AutoCloseable
     }
 
 
+    private boolean requiresValidation()
+    {
+        return validationStrategy == ValidationStrategy.ALWAYS
+                || suspect
+                || connection == null
+                || System.nanoTime() - lastUsage > validationIdleThreshold;
+    }
+
+    private static ValidationStrategy getValidationStrategy(Properties properties)
+    {
+        var strategy = properties.getProperty(JDBCProperties.jdbcValidationStrategy(), ValidationStrategy.ALWAYS.name());
+        try {
+            return ValidationStrategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown value for " + JDBCProperties.jdbcValidationStrategy() + " : " + strategy, e);
+        }
+    }
+
+    private static int getStatementCacheSize(Properties properties)
+    {
+        var cacheSize = properties.getProperty(JDBCProperties.jdbcStatementCacheSize(), "0");
+        try {
+            return Integer.parseInt(cacheSize.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + JDBCProperties.jdbcStatementCacheSize() + " must be a number but is " + cacheSize, e);
+        }
+    }
+
+    private static long getValidationIdleThreshold(Properties properties)
+    {
+        var threshold = properties.getProperty(JDBCProperties.jdbcValidationIdleThreshold(), String.valueOf(DEFAULT_VALIDATION_IDLE_THRESHOLD));
+        try {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(threshold.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + JDBCProperties.jdbcValidationIdleThreshold() + " must be a number but is " + threshold, e);
+        }
+    }
+
     private static void initDBDriver(Properties properties)
     {
         try
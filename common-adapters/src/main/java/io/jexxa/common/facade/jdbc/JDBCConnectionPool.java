@@ -1,11 +1,27 @@
 package io.jexxa.common.facade.jdbc;
 
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static io.jexxa.adapterapi.JexxaContext.registerCleanupHandler;
 
+/**
+ * Provides the JDBC connections for all JDBC based driven adapters.
+ * <ul>
+ *     <li>Within a transaction, each thread leases its own connection per jdbc url from a bounded pool, which is
+ *     configured by {@link JDBCProperties#jdbcPoolMinSize()}, {@link JDBCProperties#jdbcPoolMaxSize()},
+ *     {@link JDBCProperties#jdbcPoolIdleTimeout()} and {@link JDBCProperties#jdbcPoolLeaseTimeout()}. The connection
+ *     is returned to the pool as soon as the transaction is closed.</li>
+ *     <li>Outside a transaction, all driven adapters share a single connection per jdbc url in auto-commit mode.</li>
+ *     <li>Managing objects that are configured via {@link #configureExclusiveConnection(Object, JDBCConnection.IsolationLevel)}
+ *     always get their own exclusive connection.</li>
+ * </ul>
+ */
 @SuppressWarnings("java:S6548")
 public final class JDBCConnectionPool implements AutoCloseable {
 
@@ -17,23 +33,72 @@ public final class JDBCConnectionPool implements AutoCloseable {
     private final Map<Object, JDBCConnection> exclusiveConnectionMap = new ConcurrentHashMap<>();
     private final Map<Object, JDBCConnection.IsolationLevel> connectionConfiguration = new ConcurrentHashMap<>();
 
-    public static synchronized JDBCConnection getJDBCConnection(Properties properties, Object managingObject)
+    private final Map<String, TransactionalConnectionPool> transactionalPoolMap = new ConcurrentHashMap<>();
+    // Ensures that a thread uses the same connection per jdbc url within a transaction
+    private final ThreadLocal<Map<String, Lease>> leaseMap = ThreadLocal.withInitial(HashMap::new);
+
+    public static JDBCConnection getJDBCConnection(Properties properties, Object managingObject)
     {
-        var connectionName = properties.getProperty(JDBCProperties.jdbcUrl());
+        var connectionName = getConnectionName(properties);
 
-        if ( connectionName == null )
+        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
         {
-            throw new IllegalArgumentException("Parameter " + JDBCProperties.jdbcUrl() + " is missing");
+            return JDBC_CONNECTION_POOL.getExclusiveConnection(properties, managingObject);
         }
 
-        if (JDBC_CONNECTION_POOL.requiresExclusiveConnection(managingObject))
+        if (TransactionManager.isTransactionActive())
         {
-            return JDBC_CONNECTION_POOL.getExclusiveConnection(properties, managingObject);
+            return JDBC_CONNECTION_POOL.getTransactionalConnection(properties, connectionName);
         }
         return JDBC_CONNECTION_POOL.getSharedConnection(properties, connectionName);
     }
 
 
+    /**
+     * Leases a connection for the jdbc url of given properties from the bounded pool of connections that is used by
+     * transactions, independent of a transaction of the current thread. This allows a driven adapter to keep a
+     * connection with auto commit disabled beyond a single call, e.g., for a streaming query, without blocking the
+     * shared connection of all other threads.
+     *
+     * @param properties including the jdbc url of the connection
+     * @return a connection that must be returned via {@link #releaseConnection(Properties, JDBCConnection)}
+     */
+    public static JDBCConnection leaseConnection(Properties properties)
+    {
+        var pool = JDBC_CONNECTION_POOL.getTransactionalPool(properties, getConnectionName(properties));
+        var jdbcConnection = pool.lease();
+        try {
+            return jdbcConnection.validateConnection();
+        } catch (IllegalStateException e) {
+            pool.release(jdbcConnection);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a connection leased by {@link #leaseConnection(Properties)} to its pool. Uncommitted changes are rolled
+     * back and auto commit is enabled again.
+     *
+     * @param properties including the jdbc url of the connection
+     * @param jdbcConnection leased connection
+     */
+    public static void releaseConnection(Properties properties, JDBCConnection jdbcConnection)
+    {
+        JDBC_CONNECTION_POOL.getTransactionalPool(properties, getConnectionName(properties)).release(jdbcConnection);
+    }
+
+    /**
+     * Returns the metrics of the connections that are leased by transactions for the given jdbc url.
+     *
+     * @param jdbcUrl of the connection
+     * @return the metrics of the connection pool or an empty Optional if no connection was leased for given jdbc url so far
+     */
+    public static Optional<JDBCConnectionPoolMetrics> getPoolMetrics(String jdbcUrl)
+    {
+        return Optional.ofNullable(JDBC_CONNECTION_POOL.transactionalPoolMap.get(jdbcUrl))
+                .map(TransactionalConnectionPool::getMetrics);
+    }
+
     public static void configureExclusiveConnection(Object managingObject, JDBCConnection.IsolationLevel isolationLevel)
     {
         JDBC_CONNECTION_POOL.connectionConfiguration.put(managingObject, isolationLevel);
@@ -59,6 +124,42 @@ public final class JDBCConnectionPool implements AutoCloseable {
                 .validateConnection();
     }
 
+    private JDBCConnection getTransactionalConnection(Properties properties, String connectionName)
+    {
+        var leases = leaseMap.get();
+        var lease = leases.get(connectionName);
+        if (lease == null)
+        {
+            var pool = getTransactionalPool(properties, connectionName);
+            lease = new Lease(pool, pool.lease());
+            leases.put(connectionName, lease);
+            TransactionManager.afterCompletion(() -> releaseLeases(leases));
+        }
+        return lease.jdbcConnection().validateConnection();
+    }
+
+    private TransactionalConnectionPool getTransactionalPool(Properties properties, String connectionName)
+    {
+        return transactionalPoolMap.computeIfAbsent(connectionName, key -> new TransactionalConnectionPool(properties));
+    }
+
+    private static String getConnectionName(Properties properties)
+    {
+        var connectionName = properties.getProperty(JDBCProperties.jdbcUrl());
+
+        if ( connectionName == null )
+        {
+            throw new IllegalArgumentException("Parameter " + JDBCProperties.jdbcUrl() + " is missing");
+        }
+        return connectionName;
+    }
+
+    private static void releaseLeases(Map<String, Lease> leases)
+    {
+        leases.forEach((connectionName, lease) -> lease.pool().release(lease.jdbcConnection()));
+        leases.clear();
+    }
+
     private JDBCConnection getExclusiveConnection(Properties properties, Object managingObject)
     {
         return exclusiveConnectionMap
@@ -77,5 +178,10 @@ public final class JDBCConnectionPool implements AutoCloseable {
 
         exclusiveConnectionMap.forEach( ((s, jdbcConnection) -> jdbcConnection.close()));
         exclusiveConnectionMap.clear();
+
+        transactionalPoolMap.forEach( ((s, pool) -> pool.close()));
+        transactionalPoolMap.clear();
     }
+
+    private record Lease(TransactionalConnectionPool pool, JDBCConnection jdbcConnection) {}
 }
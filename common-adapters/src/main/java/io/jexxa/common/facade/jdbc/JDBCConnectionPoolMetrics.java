@@ -0,0 +1,40 @@
+package io.jexxa.common.facade.jdbc;
+
+import java.time.Duration;
+
+/**
+ * Provides the metrics of the connections that are leased by transactions for a single jdbc url.
+ *
+ * @param maxSize maximal number of connections that can be leased in parallel
+ * @param leasedConnections number of currently leased connections
+ * @param idleConnections number of open connections that are currently not leased
+ * @param leaseCount total number of successful leases
+ * @param leaseTimeouts total number of leases that failed because no connection became available in time
+ * @param totalLeaseWait accumulated time that transactions waited for a connection
+ * @param maxLeaseWait maximal time a single transaction waited for a connection
+ */
+public record JDBCConnectionPoolMetrics(int maxSize,
+                                        int leasedConnections,
+                                        int idleConnections,
+                                        long leaseCount,
+                                        long leaseTimeouts,
+                                        Duration totalLeaseWait,
+                                        Duration maxLeaseWait)
+{
+    /**
+     * @return the ratio of leased connections to the maximal number of connections in range [0, 1]
+     */
+    public double utilization()
+    {
+        return (double) leasedConnections / maxSize;
+    }
+
+    public Duration averageLeaseWait()
+    {
+        if (leaseCount == 0)
+        {
+            return Duration.ZERO;
+        }
+        return totalLeaseWait.dividedBy(leaseCount);
+    }
+}
@@ -14,6 +14,7 @@ class JDBCPreparedStatement
     private final Supplier<JDBCConnection> jdbcConnection;
     private final String sqlStatement;
     private final List<Object> arguments;
+    private JDBCConnection usedConnection;
 
     JDBCPreparedStatement(Supplier<JDBCConnection> jdbcConnection, String sqlStatement, List<Object> arguments)
     {
@@ -35,23 +36,41 @@ class JDBCPreparedStatement
     {
         try
         {
-            var preparedStatement = jdbcConnection.get().prepareStatement(sqlStatement);
-
-            for (var i = 0; i < arguments.size(); ++i)
-            {
-                preparedStatement.setObject(i+1, arguments.get(i));
-            }
+            usedConnection = jdbcConnection.get();
+            var preparedStatement = usedConnection.prepareStatement(sqlStatement);
+            setArguments(preparedStatement, arguments);
 
             return preparedStatement;
         } catch (SQLException e)
         {
+            markConnectionSuspect();
             throw new IllegalArgumentException("Invalid Query " + sqlStatement + " " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Marks the connection used by the last created PreparedStatement as suspect, so that it is validated before its next usage.
+     * This method must be called if the execution of a PreparedStatement failed with an SQLException.
+     */
+    protected void markConnectionSuspect()
+    {
+        if (usedConnection != null)
+        {
+            usedConnection.markSuspect();
+        }
+    }
+
     protected String getSQLStatement()
     {
         return sqlStatement;
     }
 
+    protected static void setArguments(PreparedStatement preparedStatement, List<Object> arguments) throws SQLException
+    {
+        for (var i = 0; i < arguments.size(); ++i)
+        {
+            preparedStatement.setObject(i+1, arguments.get(i));
+        }
+    }
+
 }
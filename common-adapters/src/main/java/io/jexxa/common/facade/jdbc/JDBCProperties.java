@@ -16,6 +16,41 @@ public class JDBCProperties
     /** Defines the jdbc transaction level. This must be one of the following values "read-uncommitted", "read-committed", "repeatable-read", "serializable"*/
     public static String jdbcTransactionIsolationLevel() { return  prefix() + "jdbc.transaction.isolation.level";}
 
+    /** Defines the minimal number of connections per jdbc url that are kept open for transactions. Default is 0 */
+    public static String jdbcPoolMinSize() { return prefix() + "jdbc.pool.min.size";}
+    /** Defines the maximal number of connections per jdbc url that can be leased by transactions in parallel. Default is 10 */
+    public static String jdbcPoolMaxSize() { return prefix() + "jdbc.pool.max.size";}
+    /** Defines the time in milliseconds after which an idle connection is closed, as long as more than min size connections are open. Default is 600000 */
+    public static String jdbcPoolIdleTimeout() { return prefix() + "jdbc.pool.idle.timeout";}
+    /** Defines the maximal time in milliseconds a transaction waits for a free connection. Default is 30000 */
+    public static String jdbcPoolLeaseTimeout() { return prefix() + "jdbc.pool.lease.timeout";}
+
+    /** Defines when a connection is validated before it is used. This must be one of the following values "always" (default), "idle" */
+    public static String jdbcValidationStrategy() { return prefix() + "jdbc.validation.strategy";}
+    /** Defines the time in milliseconds after which an unused connection is validated again, if validation strategy is "idle". Default is 5000 */
+    public static String jdbcValidationIdleThreshold() { return prefix() + "jdbc.validation.idle.threshold";}
+
+    /** Defines the maximal number of PreparedStatements cached per connection. Default is 0, which disables the cache */
+    public static String jdbcStatementCacheSize() { return prefix() + "jdbc.statement.cache.size";}
+
+    /** Defines the number of rows that are fetched in one round trip when a repository streams its content. Default is 100 */
+    public static String jdbcFetchSize() { return prefix() + "jdbc.fetch.size";}
+    /** Defines the number of rows that are sent in one round trip by bulk operations of a repository. Default is 100 */
+    public static String jdbcBatchSize() { return prefix() + "jdbc.batch.size";}
+    /** If "true", changes of a repository within a transaction are buffered and written before the transaction is committed. Default is "false" */
+    public static String jdbcWriteBehind() { return prefix() + "jdbc.write.behind";}
+    /** If "true", a repository skips updating an aggregate that is unchanged since it was read or written within the current transaction. Default is "false" */
+    public static String jdbcDirtyChecking() { return prefix() + "jdbc.dirty.checking";}
+    /** Defines the minimal size in bytes of a serialized aggregate that is stored compressed in a separate binary column. Default is 0, which disables compression */
+    public static String jdbcCompressionThreshold() { return prefix() + "jdbc.compression.threshold";}
+    /** Defines the algorithm used to compress aggregates. This must be one of the following values "lz4" (default), "deflate" */
+    public static String jdbcCompressionAlgorithm() { return prefix() + "jdbc.compression.algorithm";}
+
+    /** Defines the number of shards used by a JDBCShardedRepository. This property is mandatory for a JDBCShardedRepository */
+    public static String jdbcShardCount() { return prefix() + "jdbc.shard.count";}
+    /** Defines the prefix of properties that override the jdbc properties of the given shard, e.g. "jdbc.shard.1.jdbc.url" overrides "jdbc.url" for shard 1 */
+    public static String jdbcShardPrefix(int shard) { return prefix() + "jdbc.shard." + shard + ".";}
+
     public static String repositoryStrategy() { return  prefix() + "repository.strategy";}
 
     public static String objectstoreStrategy() { return prefix() +  "objectstore.strategy";}
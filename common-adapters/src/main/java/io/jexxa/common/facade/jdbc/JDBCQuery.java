@@ -1,19 +1,29 @@
 package io.jexxa.common.facade.jdbc;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @SuppressWarnings("unused")
 public class JDBCQuery extends JDBCPreparedStatement
 {
     private static final String INVALID_QUERY = "Invalid query or type conversion: ";
+    public static final int DEFAULT_FETCH_SIZE = 100;
+
+    private boolean streaming = false;
+    private int fetchSize = 0;
+
     @FunctionalInterface
     public interface CheckedFunction<T, R> {
         R apply(T t) throws SQLException;
@@ -38,6 +48,41 @@ public class JDBCQuery extends JDBCPreparedStatement
         super(jdbcConnection, sqlQuery, arguments);
     }
 
+    /**
+     * Switches this query into streaming mode with {@link #DEFAULT_FETCH_SIZE}.
+     *
+     * @return this query
+     * @see #streaming(int)
+     */
+    public JDBCQuery streaming()
+    {
+        return streaming(DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Switches this query into streaming mode. In streaming mode, all methods returning a Stream, such as {@link #as(CheckedFunction)},
+     * return a lazily evaluated Stream that reads the rows from an open, forward-only ResultSet instead of reading all rows into
+     * memory first.
+     * <p>
+     * Important note: The returned Stream holds the underlying ResultSet open until all rows are consumed or the Stream is closed.
+     * So the caller must close the Stream, e.g., by using a try-with-resources statement, if it is not completely consumed.
+     * <p>
+     * Note: Some databases such as Postgres only use the fetch size within a transaction, i.e., if auto commit is disabled.
+     *
+     * @param fetchSize number of rows that are fetched from the database in one round trip. 0 uses the default of the JDBC driver.
+     * @return this query
+     */
+    public JDBCQuery streaming(int fetchSize)
+    {
+        if (fetchSize < 0)
+        {
+            throw new IllegalArgumentException("Fetch size must not be negative");
+        }
+        this.streaming = true;
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
     public Stream<Optional<String>> asString()
     {
         return as( resultSet -> resultSet.getString(1) ).map(Optional::ofNullable);
@@ -88,12 +133,18 @@ public class JDBCQuery extends JDBCPreparedStatement
         }
         catch (SQLException e)
         {
+            markConnectionSuspect();
             throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
         }
     }
 
     public <R> Stream<R> as(CheckedFunction<ResultSet, R> function)
     {
+        if (streaming)
+        {
+            return asLazyStream(function);
+        }
+
         try (   var preparedStatement = createPreparedStatement();
                 var resultSet = preparedStatement.executeQuery() )
         {
@@ -106,6 +157,7 @@ public class JDBCQuery extends JDBCPreparedStatement
         }
         catch (SQLException e)
         {
+            markConnectionSuspect();
             throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
         }
     }
@@ -122,7 +174,91 @@ public class JDBCQuery extends JDBCPreparedStatement
         }
         catch (SQLException e)
         {
+            markConnectionSuspect();
+            throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
+        }
+    }
+
+    private <R> Stream<R> asLazyStream(CheckedFunction<ResultSet, R> function)
+    {
+        var preparedStatement = createPreparedStatement();
+        try
+        {
+            preparedStatement.setFetchSize(fetchSize);
+            var resultSet = preparedStatement.executeQuery();
+            var spliterator = new ResultSetSpliterator<>(preparedStatement, resultSet, function);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        }
+        catch (SQLException e)
+        {
+            markConnectionSuspect();
+            closeQuietly(preparedStatement);
             throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
         }
     }
+
+    private static void closeQuietly(AutoCloseable resource)
+    {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            // Nothing to do because the resource is no longer used
+        }
+    }
+
+    /**
+     * Reads the rows of an open ResultSet on demand and closes the ResultSet and its PreparedStatement as soon as all
+     * rows are read or the Stream is closed.
+     */
+    private final class ResultSetSpliterator<R> extends Spliterators.AbstractSpliterator<R>
+    {
+        private final PreparedStatement preparedStatement;
+        private final ResultSet resultSet;
+        private final CheckedFunction<ResultSet, R> function;
+        private boolean closed = false;
+
+        private ResultSetSpliterator(PreparedStatement preparedStatement, ResultSet resultSet, CheckedFunction<ResultSet, R> function)
+        {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.preparedStatement = preparedStatement;
+            this.resultSet = resultSet;
+            this.function = function;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action)
+        {
+            if (closed)
+            {
+                return false;
+            }
+
+            try
+            {
+                if (!resultSet.next())
+                {
+                    close();
+                    return false;
+                }
+                action.accept(function.apply(resultSet));
+                return true;
+            }
+            catch (SQLException e)
+            {
+                markConnectionSuspect();
+                close();
+                throw new IllegalStateException(INVALID_QUERY + getSQLStatement(), e);
+            }
+        }
+
+        private void close()
+        {
+            if (!closed)
+            {
+                closed = true;
+                closeQuietly(resultSet);
+                closeQuietly(preparedStatement);
+            }
+        }
+    }
 }
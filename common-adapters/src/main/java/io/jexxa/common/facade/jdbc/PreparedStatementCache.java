@@ -0,0 +1,261 @@
+package io.jexxa.common.facade.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
+
+/**
+ * LRU cache of PreparedStatements of a single connection, keyed by their SQL text.
+ * <p>
+ * A cached PreparedStatement is removed from the cache while it is in use, so that it is never shared between
+ * two callers. When the caller closes the returned PreparedStatement, its parameters are cleared, a changed fetch size,
+ * max rows and query timeout are reset, and it is returned to the cache instead of being closed. PreparedStatements that failed with an SQLException are closed and not cached again.
+ * <p>
+ * Only DML and query statements are cached. Any other statement, such as creating or dropping a table, invalidates the
+ * whole cache because it might change the schema that cached statements refer to.
+ */
+final class PreparedStatementCache
+{
+    private static final List<String> CACHEABLE_STATEMENTS = List.of("SELECT", "INSERT", "UPDATE", "DELETE", "MERGE", "WITH");
+
+    private final int maxSize;
+    private final Map<String, PreparedStatement> cachedStatements;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation = 0;
+
+    PreparedStatementCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+        this.cachedStatements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > PreparedStatementCache.this.maxSize)
+                {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    PreparedStatement prepareStatement(Connection connection, String sqlStatement) throws SQLException
+    {
+        if (maxSize <= 0)
+        {
+            return connection.prepareStatement(sqlStatement);
+        }
+
+        if (!isCacheable(sqlStatement))
+        {
+            clear();
+            return connection.prepareStatement(sqlStatement);
+        }
+
+        PreparedStatement preparedStatement;
+        long currentGeneration;
+        synchronized (this)
+        {
+            preparedStatement = cachedStatements.remove(sqlStatement);
+            currentGeneration = generation;
+        }
+
+        if (preparedStatement != null)
+        {
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+            preparedStatement = connection.prepareStatement(sqlStatement);
+        }
+
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedStatement(sqlStatement, preparedStatement, currentGeneration));
+    }
+
+    /**
+     * Closes all cached statements. Statements that are currently in use are closed as soon as they are returned.
+     */
+    void clear()
+    {
+        List<PreparedStatement> removedStatements;
+        synchronized (this)
+        {
+            ++generation;
+            removedStatements = new ArrayList<>(cachedStatements.values());
+            cachedStatements.clear();
+        }
+        removedStatements.forEach(PreparedStatementCache::closeQuietly);
+    }
+
+    long getHits()
+    {
+        return hits.sum();
+    }
+
+    long getMisses()
+    {
+        return misses.sum();
+    }
+
+    private void release(CachedStatement cachedStatement)
+    {
+        if (!cachedStatement.failed)
+        {
+            try {
+                cachedStatement.reset();
+                synchronized (this)
+                {
+                    if (cachedStatement.generation == generation)
+                    {
+                        var previousStatement = cachedStatements.put(cachedStatement.sqlStatement, cachedStatement.preparedStatement);
+                        if (previousStatement != null && previousStatement != cachedStatement.preparedStatement)
+                        {
+                            closeQuietly(previousStatement);
+                        }
+                        return;
+                    }
+                }
+            } catch (SQLException e) {
+                // Statement cannot be reused and is closed below
+            }
+        }
+        closeQuietly(cachedStatement.preparedStatement);
+    }
+
+    private static boolean isCacheable(String sqlStatement)
+    {
+        var statement = sqlStatement.stripLeading().toUpperCase(Locale.ROOT);
+        return CACHEABLE_STATEMENTS.stream().anyMatch(statement::startsWith);
+    }
+
+    private static void closeQuietly(PreparedStatement preparedStatement)
+    {
+        try {
+            preparedStatement.close();
+        } catch (SQLException e) {
+            getLogger(PreparedStatementCache.class).debug("Could not close cached PreparedStatement. Reason: {}", e.getMessage());
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler
+    {
+        private final String sqlStatement;
+        private final PreparedStatement preparedStatement;
+        private final long generation;
+        private boolean failed = false;
+        private boolean closed = false;
+        // Initial settings of the statement, which are only read when a setting is changed for the first time
+        private Integer initialFetchSize;
+        private Integer initialMaxRows;
+        private Integer initialQueryTimeout;
+
+        private CachedStatement(String sqlStatement, PreparedStatement preparedStatement, long generation)
+        {
+            this.sqlStatement = sqlStatement;
+            this.preparedStatement = preparedStatement;
+            this.generation = generation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName())
+            {
+                case "close":
+                    if (!closed)
+                    {
+                        closed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || preparedStatement.isClosed();
+                default:
+                    break;
+            }
+
+            if (closed)
+            {
+                throw new SQLException("PreparedStatement is already closed");
+            }
+
+            try {
+                rememberInitialSetting(method.getName());
+                return method.invoke(preparedStatement, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException)
+                {
+                    failed = true;
+                }
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Clears the parameters and resets all settings that were changed by the caller, so that the next caller gets
+         * a statement that behaves like a newly prepared one.
+         */
+        private void reset() throws SQLException
+        {
+            preparedStatement.clearParameters();
+            if (initialQueryTimeout != null)
+            {
+                preparedStatement.setQueryTimeout(initialQueryTimeout);
+            }
+            // Max rows is reset first, because some drivers reject a fetch size that is greater than max rows
+            if (initialMaxRows != null)
+            {
+                preparedStatement.setMaxRows(initialMaxRows);
+            }
+            if (initialFetchSize != null)
+            {
+                preparedStatement.setFetchSize(initialFetchSize);
+            }
+        }
+
+        private void rememberInitialSetting(String methodName) throws SQLException
+        {
+            switch (methodName)
+            {
+                case "setFetchSize" -> {
+                    if (initialFetchSize == null)
+                    {
+                        initialFetchSize = preparedStatement.getFetchSize();
+                    }
+                }
+                case "setMaxRows", "setLargeMaxRows" -> {
+                    if (initialMaxRows == null)
+                    {
+                        initialMaxRows = preparedStatement.getMaxRows();
+                    }
+                }
+                case "setQueryTimeout" -> {
+                    if (initialQueryTimeout == null)
+                    {
+                        initialQueryTimeout = preparedStatement.getQueryTimeout();
+                    }
+                }
+                default -> {
+                    // Other methods do not change a setting that must be reset
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package io.jexxa.common.facade.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.jexxa.common.facade.logger.SLF4jLogger.getLogger;
+import static io.jexxa.common.facade.utils.properties.PropertiesUtils.getInt;
+
+/**
+ * Bounded pool of JDBC connections for a single jdbc url that are leased by transactions.
+ * <p>
+ * Idle connections are evicted passively, i.e., each time a connection is leased or released, connections that were
+ * idle for longer than the configured idle timeout are closed as long as more than min size connections are open.
+ */
+final class TransactionalConnectionPool implements AutoCloseable
+{
+    static final int DEFAULT_MIN_SIZE = 0;
+    static final int DEFAULT_MAX_SIZE = 10;
+    static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+    static final Duration DEFAULT_LEASE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Properties properties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long leaseTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition connectionReleased = lock.newCondition();
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+    private int openConnections = 0;
+    private boolean closed = false;
+
+    private long leaseCount = 0;
+    private long leaseTimeouts = 0;
+    private long totalLeaseWait = 0;
+    private long maxLeaseWait = 0;
+
+    TransactionalConnectionPool(Properties properties)
+    {
+        this.properties = properties;
+        this.minSize = getInt(properties, JDBCProperties.jdbcPoolMinSize(), DEFAULT_MIN_SIZE);
+        this.maxSize = getInt(properties, JDBCProperties.jdbcPoolMaxSize(), DEFAULT_MAX_SIZE);
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(getInt(properties, JDBCProperties.jdbcPoolIdleTimeout(), (int) DEFAULT_IDLE_TIMEOUT.toMillis()));
+        this.leaseTimeout = TimeUnit.MILLISECONDS.toNanos(getInt(properties, JDBCProperties.jdbcPoolLeaseTimeout(), (int) DEFAULT_LEASE_TIMEOUT.toMillis()));
+
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+        {
+            throw new IllegalArgumentException("Invalid connection pool size: " + JDBCProperties.jdbcPoolMinSize() + " = " + minSize
+                    + ", " + JDBCProperties.jdbcPoolMaxSize() + " = " + maxSize);
+        }
+
+        for (int i = 0; i < minSize; ++i)
+        {
+            idleConnections.add(new IdleConnection(new JDBCConnection(properties), System.nanoTime()));
+            ++openConnections;
+        }
+    }
+
+    /**
+     * Leases a connection of this pool. If all connections are leased, the calling thread waits until a connection
+     * is released.
+     *
+     * @return a leased connection that must be returned via {@link #release(JDBCConnection)}
+     * @throws IllegalStateException if no connection becomes available within the configured lease timeout
+     */
+    JDBCConnection lease()
+    {
+        long start = System.nanoTime();
+        IdleConnection idleConnection;
+        List<JDBCConnection> evictedConnections;
+        lock.lock();
+        try {
+            long remainingTime = leaseTimeout;
+            while (!closed && idleConnections.isEmpty() && openConnections >= maxSize)
+            {
+                if (remainingTime <= 0)
+                {
+                    ++leaseTimeouts;
+                    throw new IllegalStateException("Could not lease a JDBC connection for connection "
+                            + properties.getProperty(JDBCProperties.jdbcUrl()) + " within "
+                            + TimeUnit.NANOSECONDS.toMillis(leaseTimeout) + " ms");
+                }
+                remainingTime = connectionReleased.awaitNanos(remainingTime);
+            }
+
+            if (closed)
+            {
+                throw new IllegalStateException("Connection pool for connection " + properties.getProperty(JDBCProperties.jdbcUrl()) + " is closed");
+            }
+
+            idleConnection = idleConnections.pollFirst();
+            evictedConnections = evictIdleConnections();
+            if (idleConnection == null)
+            {
+                ++openConnections; // Reserve the connection so that it can be created without holding the lock
+            }
+
+            long leaseWait = System.nanoTime() - start;
+            ++leaseCount;
+            totalLeaseWait += leaseWait;
+            maxLeaseWait = Math.max(maxLeaseWait, leaseWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a JDBC connection", e);
+        } finally {
+            lock.unlock();
+        }
+
+        closeConnections(evictedConnections);
+        if (idleConnection != null)
+        {
+            return idleConnection.jdbcConnection();
+        }
+        return createConnection();
+    }
+
+    /**
+     * Returns a leased connection to this pool. Before the connection is reused, uncommitted changes are rolled back and
+     * auto commit is enabled. Connections that are suspect or invalid are closed instead of being reused.
+     */
+    void release(JDBCConnection jdbcConnection)
+    {
+        var reusable = jdbcConnection.prepareForReuse();
+        List<JDBCConnection> closedConnections;
+        lock.lock();
+        try {
+            if (closed || !reusable)
+            {
+                --openConnections;
+                closedConnections = new ArrayList<>(evictIdleConnections());
+                closedConnections.add(jdbcConnection);
+            }
+            else
+            {
+                // Most recently used connections are reused first so that rarely used connections become idle and can be evicted
+                idleConnections.offerFirst(new IdleConnection(jdbcConnection, System.nanoTime()));
+                closedConnections = evictIdleConnections();
+            }
+            connectionReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        closeConnections(closedConnections);
+    }
+
+    JDBCConnectionPoolMetrics getMetrics()
+    {
+        lock.lock();
+        try {
+            return new JDBCConnectionPoolMetrics(
+                    maxSize,
+                    openConnections - idleConnections.size(),
+                    idleConnections.size(),
+                    leaseCount,
+                    leaseTimeouts,
+                    Duration.ofNanos(totalLeaseWait),
+                    Duration.ofNanos(maxLeaseWait)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        List<JDBCConnection> closedConnections;
+        lock.lock();
+        try {
+            closed = true;
+            closedConnections = idleConnections.stream().map(IdleConnection::jdbcConnection).toList();
+            openConnections -= idleConnections.size();
+            idleConnections.clear();
+            connectionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        closeConnections(closedConnections);
+    }
+
+    private JDBCConnection createConnection()
+    {
+        try {
+            return new JDBCConnection(properties);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                --openConnections;
+                connectionReleased.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes connections that were idle for longer than the idle timeout. Must be called while holding the lock.
+     *
+     * @return the evicted connections, which must be closed after releasing the lock
+     */
+    private List<JDBCConnection> evictIdleConnections()
+    {
+        long now = System.nanoTime();
+        List<JDBCConnection> evictedConnections = new ArrayList<>();
+        while (openConnections > minSize
+                && !idleConnections.isEmpty()
+                && now - idleConnections.peekLast().idleSince() > idleTimeout)
+        {
+            evictedConnections.add(idleConnections.pollLast().jdbcConnection());
+            --openConnections;
+        }
+
+        if (!evictedConnections.isEmpty())
+        {
+            getLogger(TransactionalConnectionPool.class).debug("Evict {} idle connection(s) for connection {}",
+                    evictedConnections.size(), properties.getProperty(JDBCProperties.jdbcUrl()));
+        }
+        return evictedConnections;
+    }
+
+    private static void closeConnections(List<JDBCConnection> connections)
+    {
+        connections.forEach(JDBCConnection::close);
+    }
+
+    private record IdleConnection(JDBCConnection jdbcConnection, long idleSince) {}
+}
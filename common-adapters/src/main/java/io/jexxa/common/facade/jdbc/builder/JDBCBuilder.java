@@ -81,6 +81,11 @@ public class  JDBCBuilder <T extends Enum<T>>
             return is(SQLSyntax.SQLOperation.GREATER_THAN, value);
         }
 
+        public T isGreaterThan(JDBCObject value)
+        {
+            return is(SQLSyntax.SQLOperation.GREATER_THAN, value.getJdbcValue(), value.getBindParameter());
+        }
+
         public T isGreaterOrEqual(Object value)
         {
             return is(SQLSyntax.SQLOperation.GREATER_THAN_OR_EQUAL, value);
@@ -102,6 +107,37 @@ public class  JDBCBuilder <T extends Enum<T>>
         }
 
 
+        /**
+         * Checks if the attribute is equal to one of the given values
+         *
+         * @param values must include at least one value
+         * @return the builder to continue the statement
+         */
+        public T isIn(JDBCObject[] values)
+        {
+            if (values.length == 0)
+            {
+                throw new IllegalArgumentException("Operation IN requires at least one value");
+            }
+
+            queryBuilder.getStatementBuilder()
+                    .append(SQLSyntax.SQLOperation.IN)
+                    .append("( ")
+                    .append(values[0].getBindParameter()); // Handle first entry (without COMMA)
+            queryBuilder.addArgument(values[0].getJdbcValue());
+
+            for (var i = 1; i < values.length; ++i) // Handle remaining entries(with leading COMMA)
+            {
+                queryBuilder.getStatementBuilder()
+                        .append(SQLSyntax.COMMA)
+                        .append(values[i].getBindParameter());
+                queryBuilder.addArgument(values[i].getJdbcValue());
+            }
+            queryBuilder.getStatementBuilder().append(") ");
+
+            return queryBuilder;
+        }
+
         public T is(SQLSyntax.SQLOperation operation, Object attribute)
         {
             return is(operation, attribute, SQLSyntax.ARGUMENT_PLACEHOLDER);
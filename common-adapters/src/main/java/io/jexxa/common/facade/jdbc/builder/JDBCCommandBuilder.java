@@ -1,5 +1,6 @@
 package io.jexxa.common.facade.jdbc.builder;
 
+import io.jexxa.common.facade.jdbc.JDBCBatchCommand;
 import io.jexxa.common.facade.jdbc.JDBCCommand;
 import io.jexxa.common.facade.jdbc.JDBCConnection;
 
@@ -124,6 +125,121 @@ public class JDBCCommandBuilder<T extends Enum<T>> extends JDBCBuilder<T>
         return this;
     }
 
+    /**
+     * Starts an upsert in PostgreSQL syntax after {@link #values(JDBCObject[])}:
+     * {@code INSERT INTO table ( columns ) values ( ... ) ON CONFLICT ( keyColumns ) DO UPDATE SET ...}
+     *
+     * @param keyColumns columns of the unique constraint that detects the conflict
+     * @return this builder
+     */
+    public JDBCCommandBuilder<T> onConflict(String... keyColumns)
+    {
+        getStatementBuilder()
+                .append(SQLSyntax.BLANK)
+                .append(SQLSyntax.ON_CONFLICT);
+        return columns(keyColumns);
+    }
+
+    /**
+     * Sets given columns to the values of the row that caused the conflict, see {@link #onConflict(String...)}
+     *
+     * @param columns that are updated
+     * @return this builder
+     */
+    public JDBCCommandBuilder<T> doUpdateSet(String... columns)
+    {
+        getStatementBuilder().append(SQLSyntax.DO_UPDATE_SET);
+        appendAssignments(columns, SQLSyntax.EXCLUDED);
+        return this;
+    }
+
+    /**
+     * Starts a SQL:2003 MERGE statement. The merged table is available as {@code TARGET}. The statement must be continued
+     * with {@link #using(String[], JDBCObject[])}, {@link #onMatching(String)}, {@link #whenMatchedUpdate(String...)}
+     * and {@link #whenNotMatchedInsert(String...)}.
+     *
+     * @param table that is merged
+     * @return this builder
+     */
+    public JDBCCommandBuilder<T> mergeInto(String table)
+    {
+        getStatementBuilder()
+                .append(SQLSyntax.MERGE_INTO)
+                .append(table)
+                .append(" AS ")
+                .append(SQLSyntax.MERGE_TARGET)
+                .append(SQLSyntax.BLANK);
+
+        return this;
+    }
+
+    /**
+     * Defines the row that is merged. The row is available as {@code SOURCE}.
+     *
+     * @param columns names of the given values
+     * @param values of the row in the same order as columns
+     * @return this builder
+     */
+    public JDBCCommandBuilder<T> using(String[] columns, JDBCObject[] values)
+    {
+        getStatementBuilder()
+                .append(SQLSyntax.USING_VALUES)
+                .append(values[0].getBindParameter()); // Handle first entry (without COMMA)
+        addArgument(values[0].getJdbcValue());
+
+        for(var i = 1;  i < values.length; ++i ) // Handle remaining entries(with leading COMMA)
+        {
+            getStatementBuilder().append( SQLSyntax.COMMA );
+            getStatementBuilder().append( values[i].getBindParameter() );
+            addArgument(values[i].getJdbcValue());
+        }
+        getStatementBuilder()
+                .append(") ) AS ")
+                .append(SQLSyntax.MERGE_SOURCE)
+                .append(SQLSyntax.BLANK);
+
+        return columns(columns);
+    }
+
+    public JDBCCommandBuilder<T> onMatching(String keyColumn)
+    {
+        getStatementBuilder()
+                .append("ON ( ")
+                .append(SQLSyntax.MERGE_TARGET).append('.').append(keyColumn)
+                .append(SQLSyntax.BLANK)
+                .append(SQLSyntax.SQLOperation.EQUAL)
+                .append(SQLSyntax.MERGE_SOURCE).append('.').append(keyColumn)
+                .append(" ) ");
+
+        return this;
+    }
+
+    public JDBCCommandBuilder<T> whenMatchedUpdate(String... columns)
+    {
+        getStatementBuilder().append(SQLSyntax.WHEN_MATCHED_UPDATE_SET);
+        appendAssignments(columns, SQLSyntax.MERGE_SOURCE + ".");
+        return this;
+    }
+
+    public JDBCCommandBuilder<T> whenNotMatchedInsert(String... columns)
+    {
+        getStatementBuilder().append(SQLSyntax.WHEN_NOT_MATCHED_INSERT);
+        columns(columns);
+
+        getStatementBuilder().append("VALUES ( ");
+        for(var i = 0;  i < columns.length; ++i )
+        {
+            if (i > 0)
+            {
+                getStatementBuilder().append( SQLSyntax.COMMA );
+            }
+            getStatementBuilder().append(SQLSyntax.MERGE_SOURCE).append('.').append(columns[i]);
+        }
+        getStatementBuilder().append(" ) ");
+
+        return this;
+    }
+
     //CREATE UNIQUE INDEX JexxaInboundMessage_repository_key ON JexxaInboundMessage (repository_key)
     public JDBCCommandBuilder<T> createUniqueIndex(String indexName)
     {
@@ -254,8 +370,37 @@ public class JDBCCommandBuilder<T extends Enum<T>> extends JDBCBuilder<T>
     }
 
 
+    private void appendAssignments(String[] columns, String sourcePrefix)
+    {
+        for (var i = 0; i < columns.length; ++i)
+        {
+            if (i > 0)
+            {
+                getStatementBuilder().append(SQLSyntax.COMMA);
+            }
+            getStatementBuilder()
+                    .append(columns[i])
+                    .append(SQLSyntax.BLANK)
+                    .append(SQLSyntax.SQLOperation.EQUAL)
+                    .append(sourcePrefix)
+                    .append(columns[i]);
+        }
+        getStatementBuilder().append(SQLSyntax.BLANK);
+    }
+
     public JDBCCommand create()
     {
         return new JDBCCommand(jdbcConnection, getStatementBuilder().toString(), getArguments() );
     }
+
+    /**
+     * Creates a batch command. The arguments of the built statement are used as first row of the batch. Further rows
+     * can be added via {@link JDBCBatchCommand#addBatch(Object[])} or {@link JDBCBatchCommand#addBatch(JDBCObject[])}.
+     *
+     * @return JDBCBatchCommand using the built statement as template
+     */
+    public JDBCBatchCommand createBatch()
+    {
+        return new JDBCBatchCommand(jdbcConnection, getStatementBuilder().toString(), getArguments() );
+    }
 }
@@ -87,7 +87,7 @@ public final <S extends Enum<S>> JDBCQueryBuilder<T> select(Class<S> clazz, S el
                 .append(SQLSyntax.SELECT_COUNT)
                 .append("( ")
                 .append(element)
-                .append(" )");
+                .append(" ) ");
         return this;
     }
 
@@ -95,7 +95,7 @@ public final <S extends Enum<S>> JDBCQueryBuilder<T> select(Class<S> clazz, S el
     {
         getStatementBuilder()
                 .append(SQLSyntax.SELECT_COUNT)
-                .append("( * )");
+                .append("( * ) ");
         return this;
     }
 
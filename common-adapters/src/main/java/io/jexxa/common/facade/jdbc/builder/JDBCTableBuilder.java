@@ -36,10 +36,15 @@ public class JDBCTableBuilder<T extends Enum<T>> extends JDBCBuilder<T>
     }
 
     public JDBCColumnBuilder<T> alterTable(Class<?> clazz)
+    {
+        return alterTable(clazz.getSimpleName());
+    }
+
+    public JDBCColumnBuilder<T> alterTable(String tableName)
     {
         getStatementBuilder()
                 .append(SQLSyntax.ALTER_TABLE)
-                .append(clazz.getSimpleName())
+                .append(tableName)
                 .append(SQLSyntax.BLANK);
         return new JDBCColumnBuilder<>(this);
     }
@@ -102,6 +107,17 @@ public class JDBCTableBuilder<T extends Enum<T>> extends JDBCBuilder<T>
         return dropTable(clazz.getSimpleName());
     }
 
+    public JDBCCommand renameTable(String tableName, String newTableName)
+    {
+        getStatementBuilder()
+                .append(SQLSyntax.ALTER_TABLE)
+                .append(tableName)
+                .append(SQLSyntax.RENAME_TO)
+                .append(newTableName);
+
+        return create();
+    }
+
     public JDBCCommand create()
     {
         return new JDBCCommand(jdbcConnection, getStatementBuilder().toString(), getArguments() );
@@ -164,6 +180,20 @@ public class JDBCTableBuilder<T extends Enum<T>> extends JDBCBuilder<T>
         }
 
 
+        public <S extends Enum<S>> JDBCTableBuilder<T> addColumnIfNotExists(S element, SQLDataType dataType)
+        {
+            addCommaSeparatorIfRequired();
+
+            commandBuilder
+                    .getStatementBuilder()
+                    .append(SQLSyntax.ADD_COLUMN_IF_NOT_EXISTS)
+                    .append(element.name())
+                    .append(SQLSyntax.BLANK)
+                    .append(dataType.toString());
+
+            return commandBuilder;
+        }
+
         public JDBCColumnBuilder<T> addConstraint( SQLConstraint sqlConstraint)
         {
             commandBuilder
@@ -5,6 +5,7 @@ public class SQLDataType
     private final String string;
 
     public static final SQLDataType INTEGER = new SQLDataType("INTEGER ");
+    public static final SQLDataType BIGINT = new SQLDataType("BIGINT ");
     public static final SQLDataType NUMERIC = new SQLDataType("NUMERIC ");
     public static final SQLDataType FLOAT = new SQLDataType("FLOAT ");
     public static final SQLDataType DOUBLE = new SQLDataType("DOUBLE PRECISION ");
@@ -12,6 +13,10 @@ public class SQLDataType
     public static final SQLDataType TEXT = new SQLDataType("TEXT ");
     public static final SQLDataType VARCHAR = new SQLDataType("VARCHAR ");
     public static final SQLDataType JSONB = new SQLDataType("JSONB ");
+    public static final SQLDataType UUID = new SQLDataType("UUID ");
+    public static final SQLDataType VARBINARY = new SQLDataType("VARBINARY ");
+    public static final SQLDataType BYTEA = new SQLDataType("BYTEA ");
+    public static final SQLDataType BLOB = new SQLDataType("BLOB ");
 
     public SQLDataType(String name){string = name;}
 
@@ -6,6 +6,7 @@ public class SQLSyntax
     static final String UPDATE = "UPDATE ";
     static final String DELETE = "DELETE ";
     static final String INSERT_INTO = "INSERT INTO ";
+    static final String MERGE_INTO = "MERGE INTO ";
     static final String SELECT_COUNT = "SELECT COUNT";
     static final String SELECT_MAX = "SELECT MAX";
     static final String SELECT_MIN = "SELECT MIN";
@@ -16,6 +17,8 @@ public class SQLSyntax
     static final String CREATE_TABLE = "CREATE TABLE ";
     static final String ALTER_TABLE = "ALTER TABLE ";
     static final String ALTER_COLUMN = "ALTER COLUMN ";
+    static final String ADD_COLUMN_IF_NOT_EXISTS = "ADD COLUMN IF NOT EXISTS ";
+    static final String RENAME_TO = " RENAME TO ";
     static final String IF_NOT_EXISTS = "IF NOT EXISTS ";
 
     static final String SET = "SET ";
@@ -25,6 +28,15 @@ public class SQLSyntax
     static final String OR = "OR ";
     static final String TYPE = "TYPE ";
 
+    static final String ON_CONFLICT = "ON CONFLICT ";
+    static final String DO_UPDATE_SET = "DO UPDATE SET ";
+    static final String EXCLUDED = "EXCLUDED.";
+    static final String USING_VALUES = "USING ( VALUES ( ";
+    static final String MERGE_TARGET = "TARGET";
+    static final String MERGE_SOURCE = "SOURCE";
+    static final String WHEN_MATCHED_UPDATE_SET = "WHEN MATCHED THEN UPDATE SET ";
+    static final String WHEN_NOT_MATCHED_INSERT = "WHEN NOT MATCHED THEN INSERT ";
+
     static final String ORDER_BY = "ORDER BY ";
     static final String LIMIT = "LIMIT ";
 
@@ -42,6 +54,7 @@ public class SQLSyntax
         NOT_EQUAL("<> "),
         LIKE("LIKE "),
         NOT_LIKE("NOT LIKE "),
+        IN("IN "),
         IS_NULL("IS NULL "),
         IS_NOT_NULL("IS NOT NULL ");
 
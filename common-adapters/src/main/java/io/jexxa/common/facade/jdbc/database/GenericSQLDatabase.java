@@ -3,8 +3,11 @@ package io.jexxa.common.facade.jdbc.database;
 import io.jexxa.common.facade.jdbc.JDBCCommand;
 import io.jexxa.common.facade.jdbc.JDBCConnection;
 import io.jexxa.common.facade.jdbc.JDBCQuery;
+import io.jexxa.common.facade.jdbc.builder.JDBCCommandBuilder;
+import io.jexxa.common.facade.jdbc.builder.JDBCObject;
 import io.jexxa.common.facade.jdbc.builder.SQLDataType;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -24,7 +27,7 @@ public class GenericSQLDatabase implements IDatabase
             return maxVarChar(4000);
         }
 
-        if ( connectionURL.toLowerCase(Locale.ENGLISH).contains("h2") )
+        if ( isH2() )
         {
             return SQLDataType.VARCHAR;
         }
@@ -37,6 +40,11 @@ public class GenericSQLDatabase implements IDatabase
         return maxVarChar(255);
     }
 
+    private boolean isH2()
+    {
+        return connectionURL.toLowerCase(Locale.ENGLISH).startsWith("jdbc:h2:");
+    }
+
     @Override
     public SQLDataType matchingPrimaryKey(SQLDataType requestedDataType)
     {
@@ -45,6 +53,16 @@ public class GenericSQLDatabase implements IDatabase
             return getMaxVarChar();
         }
 
+        if (requestedDataType.equals(SQLDataType.UUID) && !isH2())
+        {
+            return maxVarChar(36);
+        }
+
+        if (requestedDataType.equals(SQLDataType.VARBINARY))
+        {
+            return new SQLDataType("VARBINARY(255) ");
+        }
+
         return requestedDataType;
     }
 
@@ -56,6 +74,11 @@ public class GenericSQLDatabase implements IDatabase
             return SQLDataType.TEXT;
         }
 
+        if (requestedDataType.equals(SQLDataType.VARBINARY))
+        {
+            return SQLDataType.BLOB;
+        }
+
         return requestedDataType;
     }
 
@@ -104,6 +127,20 @@ public class GenericSQLDatabase implements IDatabase
                 .findAny().isPresent();
     }
 
+    /**
+     * Uses a SQL:2003 MERGE statement, which is supported by H2 and most other databases
+     */
+    @Override
+    public <T extends Enum<T>> JDBCCommandBuilder<T> upsertInto(JDBCCommandBuilder<T> commandBuilder, String tableName, String[] columns, JDBCObject[] values)
+    {
+        return commandBuilder
+                .mergeInto(tableName)
+                .using(columns, values)
+                .onMatching(columns[0])
+                .whenMatchedUpdate(Arrays.copyOfRange(columns, 1, columns.length))
+                .whenNotMatchedInsert(columns);
+    }
+
     private static SQLDataType maxVarChar(int maxSize)
     {
         return new SQLDataType("VARCHAR("+maxSize +") ");
@@ -2,6 +2,8 @@ package io.jexxa.common.facade.jdbc.database;
 
 
 import io.jexxa.common.facade.jdbc.JDBCConnection;
+import io.jexxa.common.facade.jdbc.builder.JDBCCommandBuilder;
+import io.jexxa.common.facade.jdbc.builder.JDBCObject;
 import io.jexxa.common.facade.jdbc.builder.SQLDataType;
 
 /**
@@ -37,4 +39,18 @@ public interface IDatabase
     void renameColumn(JDBCConnection jdbcConnection, String tableName, String oldColumnName, String newColumnName);
 
     boolean columnExist(JDBCConnection jdbcConnection, String tableName, String columnName);
+
+    /**
+     * Builds a single statement that inserts a row into given table, or updates all other columns of the row if a row
+     * with the same key already exists.
+     *
+     * @param commandBuilder empty builder that is used to build the statement
+     * @param tableName name of the table
+     * @param columns all columns of the row. The first column must be the primary key of the table
+     * @param values of the row in the same order as columns
+     * @param <T> type of the schema used by the builder
+     * @return given builder including the complete statement, so that either {@link JDBCCommandBuilder#create()} or
+     * {@link JDBCCommandBuilder#createBatch()} can be called
+     */
+    <T extends Enum<T>> JDBCCommandBuilder<T> upsertInto(JDBCCommandBuilder<T> commandBuilder, String tableName, String[] columns, JDBCObject[] values);
 }
@@ -2,8 +2,12 @@ package io.jexxa.common.facade.jdbc.database;
 
 
 import io.jexxa.common.facade.jdbc.JDBCConnection;
+import io.jexxa.common.facade.jdbc.builder.JDBCCommandBuilder;
+import io.jexxa.common.facade.jdbc.builder.JDBCObject;
 import io.jexxa.common.facade.jdbc.builder.SQLDataType;
 
+import java.util.Arrays;
+
 public class PostgresDatabase extends GenericSQLDatabase
 {
     PostgresDatabase(String connectionURL) {
@@ -13,12 +17,22 @@ public class PostgresDatabase extends GenericSQLDatabase
     @Override
     public SQLDataType matchingPrimaryKey(SQLDataType requestedDataType)
     {
+        if (requestedDataType.equals(SQLDataType.VARBINARY))
+        {
+            return SQLDataType.BYTEA;
+        }
+
         return requestedDataType;
     }
 
     @Override
     public SQLDataType matchingValue(SQLDataType requestedDataType)
     {
+        if (requestedDataType.equals(SQLDataType.VARBINARY))
+        {
+            return SQLDataType.BYTEA;
+        }
+
         return requestedDataType;
     }
 
@@ -34,4 +48,18 @@ public class PostgresDatabase extends GenericSQLDatabase
         keyRow.asIgnore();
     }
 
+    /**
+     * Uses INSERT ... ON CONFLICT DO UPDATE, which is the native upsert of PostgreSQL
+     */
+    @Override
+    public <T extends Enum<T>> JDBCCommandBuilder<T> upsertInto(JDBCCommandBuilder<T> commandBuilder, String tableName, String[] columns, JDBCObject[] values)
+    {
+        return commandBuilder
+                .insertInto(tableName)
+                .columns(columns)
+                .values(values)
+                .onConflict(columns[0])
+                .doUpdateSet(Arrays.copyOfRange(columns, 1, columns.length));
+    }
+
 }
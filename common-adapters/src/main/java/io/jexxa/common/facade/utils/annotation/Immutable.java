@@ -0,0 +1,20 @@
+package io.jexxa.common.facade.utils.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a type whose instances cannot be changed after their creation, so that they can be shared instead of copied.
+ * See {@link io.jexxa.common.facade.codec.ValueCopier}.
+ */
+@Target(TYPE)
+@Retention(RUNTIME)
+@Documented
+public @interface Immutable
+{
+   //Annotation to mark immutable types
+}
@@ -2,6 +2,7 @@ package io.jexxa.common.facade.utils.properties;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.function.ToLongFunction;
 
 public class PropertiesUtils {
 
@@ -20,6 +21,77 @@ public class PropertiesUtils {
         return subset;
     }
 
+    /**
+     * Returns the value of given key as int
+     *
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public static int getInt(Properties properties, String key, int defaultValue)
+    {
+        return (int) parse(properties, key, String.valueOf(defaultValue), Integer::parseInt);
+    }
+
+    /**
+     * Returns the value of given key as int
+     *
+     * @throws IllegalArgumentException if the key is missing or its value is not a number
+     */
+    public static int getInt(Properties properties, String key)
+    {
+        return (int) parse(properties, key, null, Integer::parseInt);
+    }
+
+    /**
+     * Returns the value of given key as long
+     *
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public static long getLong(Properties properties, String key, long defaultValue)
+    {
+        return parse(properties, key, String.valueOf(defaultValue), Long::parseLong);
+    }
+
+    /**
+     * Ensures that the value of given key is greater than 0
+     *
+     * @return the value
+     * @throws IllegalArgumentException if the value is less than 1
+     */
+    public static int requirePositive(String key, int value)
+    {
+        return (int) requirePositive(key, (long) value);
+    }
+
+    /**
+     * Ensures that the value of given key is greater than 0
+     *
+     * @return the value
+     * @throws IllegalArgumentException if the value is less than 1
+     */
+    public static long requirePositive(String key, long value)
+    {
+        if (value < 1)
+        {
+            throw new IllegalArgumentException("Parameter " + key + " must be greater than 0 but is " + value);
+        }
+        return value;
+    }
+
+    private static long parse(Properties properties, String key, String defaultValue, ToLongFunction<String> parser)
+    {
+        var value = properties.getProperty(key, defaultValue);
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Parameter " + key + " is missing");
+        }
+
+        try {
+            return parser.applyAsLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + key + " must be a number but is " + value, e);
+        }
+    }
+
     private PropertiesUtils()
     {
         //Private constructor because class provides only static methods
@@ -2,9 +2,11 @@ package io.jexxa.common.drivenadapter.persistence.objectstore;
 
 
 import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.common.drivenadapter.persistence.objectstore.jdbc.JDBCObjectStore;
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTag;
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTags;
 import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetadataSchema;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.KeyCodecs;
 import io.jexxa.common.facade.TestConstants;
 import io.jexxa.common.facade.jdbc.JDBCConnection;
 import io.jexxa.common.facade.testapplication.TestValueObject;
@@ -49,6 +51,7 @@ class IObjectStoreIT
     void deInit()
     {
         JexxaContext.cleanup();
+        KeyCodecs.clear();
     }
 
     /**
@@ -177,6 +180,92 @@ class IObjectStoreIT
         assertTrue(result.stream().allMatch(element -> element.getInternalValue() == TEST_DATA_SIZE));
     }
 
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testAddAll(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        objectUnderTest.removeAll();
+
+        //Act
+        objectUnderTest.addAll(testData);
+
+        //Assert
+        assertEquals(TEST_DATA_SIZE, objectUnderTest.get().size());
+        assertEquals(TEST_DATA_SIZE / 2, objectUnderTest
+                .getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class)
+                .isGreaterOrEqualThan(TEST_DATA_SIZE / 2)
+                .size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testUpdateAll(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+
+        //Act
+        testData.forEach(element -> element.setInternalValue(TEST_DATA_SIZE));
+        objectUnderTest.updateAll(testData);
+
+        //Assert
+        assertTrue(objectUnderTest.get().stream().allMatch(element -> element.getInternalValue() == TEST_DATA_SIZE));
+        assertEquals(TEST_DATA_SIZE, objectUnderTest
+                .getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class)
+                .isEqualTo(TEST_DATA_SIZE)
+                .size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testSave(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        var existingObject = testData.get(0);
+        var newObject = TestObject.create(new TestValueObject(TEST_DATA_SIZE));
+        existingObject.setInternalValue(TEST_DATA_SIZE);
+        newObject.setInternalValue(TEST_DATA_SIZE);
+
+        //Act
+        objectUnderTest.save(existingObject);
+        objectUnderTest.save(newObject);
+
+        //Assert
+        assertEquals(TEST_DATA_SIZE + 1, objectUnderTest.count());
+        assertEquals(2, objectUnderTest
+                .getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class)
+                .isEqualTo(TEST_DATA_SIZE)
+                .size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(ObjectStoreTestDatabase.REPOSITORY_CONFIG)
+    void testMigrateKeys(Properties properties)
+    {
+        //Arrange
+        initObjectStore(properties);
+        if (!(objectUnderTest instanceof JDBCObjectStore<TestObject, TestValueObject, TestObjectSchema>))
+        {
+            return; // Only JDBCObjectStore stores its keys in a table
+        }
+        KeyCodecs.useNativeKey(TestObject.class, TestValueObject.class);
+        var migratedObjectStore = new JDBCObjectStore<>(TestObject.class, TestObject::getKey, TestObjectSchema.class, properties);
+
+        //Act
+        var result = migratedObjectStore.migrateKeys();
+
+        //Assert
+        assertEquals(TEST_DATA_SIZE, result);
+        assertEquals(TEST_DATA_SIZE, migratedObjectStore.count());
+        assertTrue(migratedObjectStore.get(testData.get(0).getKey()).isPresent());
+        assertEquals(List.of(testData.get(1)), migratedObjectStore
+                .getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class)
+                .isEqualTo(1));
+    }
+
     void initObjectStore(Properties properties)
     {
         if (!properties.isEmpty())
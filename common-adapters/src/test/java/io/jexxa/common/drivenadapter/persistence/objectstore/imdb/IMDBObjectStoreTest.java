@@ -0,0 +1,186 @@
+package io.jexxa.common.drivenadapter.persistence.objectstore.imdb;
+
+import io.jexxa.common.drivenadapter.persistence.objectstore.TestObject;
+import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTag;
+import io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetadataSchema;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTags.numericTag;
+import static io.jexxa.common.drivenadapter.persistence.objectstore.metadata.MetaTags.stringTag;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class IMDBObjectStoreTest
+{
+    private static final int TEST_DATA_SIZE = 1000;
+    // Values of the internal value that are mapped to non-finite doubles by DOUBLE_VALUE
+    private static final int NAN_VALUE = -1;
+    private static final int NEGATIVE_INFINITY_VALUE = -2;
+    private static final int POSITIVE_INFINITY_VALUE = -3;
+
+    private List<TestObject> testData;
+    private IMDBObjectStore<TestObject, TestValueObject, TestObjectSchema> objectUnderTest;
+
+    private enum TestObjectSchema implements MetadataSchema
+    {
+        INT_VALUE(numericTag(TestObject::getInternalValue)),
+
+        DOUBLE_VALUE(numericTag(TestObject::getInternalValue, IMDBObjectStoreTest::toDouble)),
+
+        STRING_VALUE(stringTag(TestObject::getOptionalString));
+
+        private final MetaTag<TestObject, ?, ? > metaTag;
+
+        TestObjectSchema(MetaTag<TestObject,?, ?> metaTag)
+        {
+            this.metaTag = metaTag;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public MetaTag<TestObject, ?, ?> getTag()
+        {
+            return metaTag;
+        }
+    }
+
+    @BeforeEach
+    void initTest()
+    {
+        testData = IntStream.range(0, TEST_DATA_SIZE)
+                .mapToObj(element -> TestObject.create(new TestValueObject(element)))
+                .toList();
+        testData.forEach(element -> element.setInternalValue(element.getKey().getValue()));
+        objectUnderTest = new IMDBObjectStore<>(TestObject.class, TestObject::getKey, TestObjectSchema.class, new Properties());
+        objectUnderTest.addAll(testData);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        IMDBRepository.clear();
+    }
+
+    @Test
+    void queryUpdatedValues()
+    {
+        //Arrange
+        var numericQuery = objectUnderTest.getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class);
+        var stringQuery = objectUnderTest.getStringQuery(TestObjectSchema.STRING_VALUE, String.class);
+        var updatedObject = testData.get(10);
+
+        //Act
+        updatedObject.setInternalValue(5000);
+        updatedObject.setOptionalString("updated");
+        objectUnderTest.update(updatedObject);
+
+        //Assert
+        assertEquals(List.of(updatedObject), numericQuery.isGreaterOrEqualThan(TEST_DATA_SIZE));
+        assertTrue(numericQuery.isEqualTo(10).isEmpty());
+        assertEquals(updatedObject, numericQuery.getDescending(1).get(0));
+        assertEquals(List.of(updatedObject), stringQuery.beginsWith("up"));
+        assertEquals(TEST_DATA_SIZE - 1, stringQuery.isNull().size());
+        assertEquals(updatedObject, stringQuery.getAscending().get(0));
+    }
+
+    @Test
+    void queryRemovedValues()
+    {
+        //Arrange
+        var numericQuery = objectUnderTest.getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class);
+
+        //Act
+        objectUnderTest.remove(testData.get(20).getKey());
+        objectUnderTest.removeAll(List.of(testData.get(21).getKey(), testData.get(22).getKey()));
+
+        //Assert
+        assertEquals(List.of(testData.get(19), testData.get(23)), numericQuery.getRangeClosed(19, 23));
+        assertEquals(TEST_DATA_SIZE - 3, numericQuery.isNotNull().size());
+    }
+
+    @Test
+    void rebuildIndexesAfterClear()
+    {
+        //Arrange
+        var numericQuery = objectUnderTest.getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class);
+
+        //Act
+        IMDBRepository.clear();
+        objectUnderTest.add(testData.get(0));
+        var newObjectStore = new IMDBObjectStore<>(TestObject.class, TestObject::getKey, TestObjectSchema.class, new Properties());
+
+        //Assert
+        assertEquals(List.of(testData.get(0)), numericQuery.getAscending());
+        assertEquals(List.of(testData.get(0)), newObjectStore.getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class).getAscending());
+    }
+
+    @Test
+    void rollbackFailedChanges()
+    {
+        //Arrange
+        var numericQuery = objectUnderTest.getNumericQuery(TestObjectSchema.INT_VALUE, Integer.class);
+        var newObject = TestObject.create(new TestValueObject(TEST_DATA_SIZE));
+        newObject.setInternalValue(TEST_DATA_SIZE);
+        var aggregates = List.of(newObject, testData.get(0));
+
+        //Act
+        try {
+            objectUnderTest.addAll(aggregates);
+        } catch (IllegalArgumentException e) {
+            // expected exception because testData.get(0) already exists
+        }
+
+        //Assert
+        assertTrue(numericQuery.isGreaterOrEqualThan(TEST_DATA_SIZE).isEmpty());
+        assertEquals(TEST_DATA_SIZE, numericQuery.getAscending().size());
+    }
+
+    @Test
+    void queryNonFiniteValues()
+    {
+        //Arrange
+        var numericQuery = objectUnderTest.getNumericQuery(TestObjectSchema.DOUBLE_VALUE, Integer.class);
+        var nanObject = testData.get(0);
+        var negativeInfinityObject = testData.get(1);
+        var positiveInfinityObject = testData.get(2);
+        nanObject.setInternalValue(NAN_VALUE);
+        negativeInfinityObject.setInternalValue(NEGATIVE_INFINITY_VALUE);
+        positiveInfinityObject.setInternalValue(POSITIVE_INFINITY_VALUE);
+
+        //Act
+        objectUnderTest.updateAll(List.of(nanObject, negativeInfinityObject, positiveInfinityObject));
+
+        //Assert - Non-finite values are ordered like Double.compare
+        assertEquals(List.of(negativeInfinityObject), numericQuery.getAscending(1));
+        assertEquals(List.of(nanObject, positiveInfinityObject), numericQuery.getDescending(2));
+        assertEquals(List.of(nanObject), numericQuery.isEqualTo(NAN_VALUE));
+        assertEquals(List.of(positiveInfinityObject, nanObject), numericQuery.isGreaterThan(TEST_DATA_SIZE));
+        assertEquals(List.of(negativeInfinityObject), numericQuery.isLessThan(0));
+        assertEquals(TEST_DATA_SIZE - 1, numericQuery.isNotEqualTo(NAN_VALUE).size());
+    }
+
+    private static Double toDouble(Integer value)
+    {
+        return switch (value)
+        {
+            case NAN_VALUE -> Double.NaN;
+            case NEGATIVE_INFINITY_VALUE -> Double.NEGATIVE_INFINITY;
+            case POSITIVE_INFINITY_VALUE -> Double.POSITIVE_INFINITY;
+            default -> value.doubleValue();
+        };
+    }
+}
@@ -2,8 +2,11 @@ package io.jexxa.common.drivenadapter.persistence.repository;
 
 
 import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
 import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.KeyCodecs;
 import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.codec.BinaryValueCodec;
 import io.jexxa.common.facade.jdbc.JDBCConnection;
 import io.jexxa.common.facade.jdbc.JDBCTestDatabase;
 import io.jexxa.common.facade.testapplication.TestAggregate;
@@ -16,12 +19,21 @@ import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.stream.IntStream;
 
 import static io.jexxa.common.drivenadapter.persistence.RepositoryFactory.createRepository;
+import static io.jexxa.common.drivenadapter.persistence.RepositoryProperties.repositoryValueCodec;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcBatchSize;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcCompressionAlgorithm;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcCompressionThreshold;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcDirtyChecking;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcWriteBehind;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -45,6 +57,7 @@ class TestAggregateRepositoryImplIT
     void deInit()
     {
         JexxaContext.cleanup();
+        KeyCodecs.clear();
     }
     @ParameterizedTest
     @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
@@ -123,13 +136,490 @@ class TestAggregateRepositoryImplIT
         objectUnderTest.get().forEach( element -> assertEquals(aggregateValue, element.getInternalValue()) );
     }
 
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void addAllAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcBatchSize(), "10");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+
+        //Act
+        objectUnderTest.addAll(aggregateList);
+
+        //Assert
+        assertEquals(aggregateList.size(), objectUnderTest.get().size());
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.addAll(aggregateList));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void getAggregatesByID(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcBatchSize(), "10");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+
+        var keys = new ArrayList<>(aggregateList.stream().map(TestAggregate::getKey).toList());
+        keys.add(new TestValueObject(-1)); // Unknown key
+
+        //Act
+        var result = objectUnderTest.get(keys);
+
+        //Assert
+        assertEquals(aggregateList.size(), result.size());
+        assertTrue(result.containsAll(aggregateList));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void removeAggregatesByID(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcBatchSize(), "10");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+
+        //Act
+        objectUnderTest.removeAll(aggregateList.stream().map(TestAggregate::getKey).toList());
+
+        //Assert
+        assertTrue(objectUnderTest.get().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.removeAll(List.of(new TestValueObject(1))));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void removeDuplicateKeysAllOrNothing(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcBatchSize(), "10");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+        var keys = new ArrayList<>(aggregateList.stream().map(TestAggregate::getKey).toList());
+        keys.add(aggregateList.get(0).getKey());
+        var invalidKeys = new ArrayList<>(keys);
+        invalidKeys.add(new TestValueObject(1000));
+
+        //Act
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.removeAll(invalidKeys));
+        var countAfterInvalidRemove = objectUnderTest.count();
+        objectUnderTest.removeAll(keys);
+
+        //Assert
+        assertEquals(aggregateList.size(), countAfterInvalidRemove);
+        assertEquals(0, objectUnderTest.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void updateAllAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcBatchSize(), "10");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+
+        int aggregateValue = 42;
+
+        //Act
+        aggregateList.forEach(element -> element.setInternalValue(aggregateValue));
+        objectUnderTest.updateAll(aggregateList);
+
+        //Assert internal value is correctly set
+        objectUnderTest.get().forEach( element -> assertEquals(aggregateValue, element.getInternalValue()) );
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void streamAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+
+        //Act
+        List<TestAggregate> result;
+        try (var aggregates = objectUnderTest.stream())
+        {
+            result = aggregates.toList();
+        }
+
+        //Assert
+        assertEquals(aggregateList.size(), result.size());
+        assertTrue(result.containsAll(aggregateList));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void pageAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+        var pageSize = 10;
+        var result = new ArrayList<TestAggregate>();
+
+        //Act
+        var page = objectUnderTest.page(pageSize);
+        while (!page.isEmpty())
+        {
+            assertTrue(page.size() <= pageSize);
+            result.addAll(page);
+            page = objectUnderTest.page(page.get(page.size() - 1).getKey(), pageSize);
+        }
+
+        //Assert
+        assertEquals(aggregateList.size(), result.size());
+        assertTrue(result.containsAll(aggregateList));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void countAndExists(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        var emptyCount = objectUnderTest.count();
+
+        //Act
+        objectUnderTest.addAll(aggregateList);
+
+        //Assert
+        assertEquals(0, emptyCount);
+        assertEquals(aggregateList.size(), objectUnderTest.count());
+        assertTrue(objectUnderTest.exists(aggregateList.get(0).getKey()));
+        assertFalse(objectUnderTest.exists(new TestValueObject(-1)));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void saveAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        var existingAggregate = aggregateList.get(0);
+        var newAggregate = aggregateList.get(1);
+        objectUnderTest.add(existingAggregate);
+        existingAggregate.setInternalValue(42);
+
+        //Act
+        objectUnderTest.save(existingAggregate);
+        objectUnderTest.save(newAggregate);
+
+        //Assert
+        assertEquals(2, objectUnderTest.count());
+        assertEquals(42, objectUnderTest.get(existingAggregate.getKey()).orElseThrow().getInternalValue());
+        assertEquals(newAggregate.getInternalValue(), objectUnderTest.get(newAggregate.getKey()).orElseThrow().getInternalValue());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void writeBehindCoalescesChanges(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcWriteBehind(), "true");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        var aggregate = aggregateList.get(0);
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.add(aggregate);
+        IntStream.rangeClosed(1, 3).forEach(value -> {
+            aggregate.setInternalValue(value);
+            objectUnderTest.update(aggregate);
+        });
+        var resultInTransaction = objectUnderTest.get(aggregate.getKey());
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(3, resultInTransaction.orElseThrow().getInternalValue());
+        assertEquals(3, objectUnderTest.get(aggregate.getKey()).orElseThrow().getInternalValue());
+        assertEquals(1, objectUnderTest.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void writeBehindDiscardedOnRollback(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcWriteBehind(), "true");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.addAll(aggregateList);
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(0, objectUnderTest.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void writeBehindFailsOnCommit(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcWriteBehind(), "true");
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.add(aggregateList.get(0));
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.add(aggregateList.get(1));
+        objectUnderTest.add(aggregateList.get(0)); // Violation of precondition is detected when changes are written
+        assertThrows(IllegalArgumentException.class, TransactionManager::closeTransaction);
+
+        //Assert
+        assertEquals(1, objectUnderTest.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void dirtyCheckingSkipsUnchangedAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcDirtyChecking(), "true");
+        var objectUnderTest = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.addAll(aggregateList);
+
+        //Act
+        TransactionManager.initTransaction();
+        var unchangedAggregate = objectUnderTest.get(aggregateList.get(0).getKey()).orElseThrow();
+        objectUnderTest.update(unchangedAggregate);
+
+        var changedAggregates = objectUnderTest.get(List.of(aggregateList.get(1).getKey(), aggregateList.get(2).getKey()));
+        changedAggregates.get(0).setInternalValue(42);
+        objectUnderTest.updateAll(changedAggregates);
+        objectUnderTest.update(changedAggregates.get(0));
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(3, objectUnderTest.getSkippedWrites());
+        assertEquals(42, objectUnderTest.get(changedAggregates.get(0).getKey()).orElseThrow().getInternalValue());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void dirtyCheckingWithoutTransaction(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcDirtyChecking(), "true");
+        var objectUnderTest = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.removeAll();
+        objectUnderTest.add(aggregateList.get(0));
+
+        //Act
+        var result = objectUnderTest.get(aggregateList.get(0).getKey()).orElseThrow();
+        objectUnderTest.update(result);
+        objectUnderTest.remove(result.getKey());
+
+        //Assert
+        assertEquals(0, objectUnderTest.getSkippedWrites());
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.update(result));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void nativeKeys(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        KeyCodecs.useNativeKey(TestAggregate.class, TestValueObject.class);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList);
+        var aggregate = aggregateList.get(0);
+
+        //Act
+        aggregate.setInternalValue(42);
+        objectUnderTest.update(aggregate);
+        objectUnderTest.remove(aggregateList.get(1).getKey());
+        var result = objectUnderTest.get(aggregate.getKey());
+        var resultList = objectUnderTest.get(List.of(aggregateList.get(2).getKey(), aggregateList.get(3).getKey()));
+        var firstPage = objectUnderTest.page(10);
+        var secondPage = objectUnderTest.page(firstPage.get(firstPage.size() - 1).getKey(), 10);
+
+        //Assert
+        assertEquals(42, result.orElseThrow().getInternalValue());
+        assertEquals(2, resultList.size());
+        assertTrue(objectUnderTest.exists(aggregate.getKey()));
+        assertFalse(objectUnderTest.exists(aggregateList.get(1).getKey()));
+        assertEquals(aggregateList.size() - 1, objectUnderTest.count());
+        assertEquals(10, secondPage.size());
+        assertTrue(secondPage.stream().noneMatch(firstPage::contains));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void migrateKeys(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(jdbcBatchSize(), "10");
+        createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties).addAll(aggregateList);
+        KeyCodecs.useNativeKey(TestAggregate.class, TestValueObject.class);
+        var objectUnderTest = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+
+        //Act
+        var result = objectUnderTest.migrateKeys();
+
+        //Assert
+        assertEquals(aggregateList.size(), result);
+        assertEquals(aggregateList.size(), objectUnderTest.count());
+        assertTrue(objectUnderTest.get(aggregateList.get(0).getKey()).isPresent());
+        objectUnderTest.remove(aggregateList.get(0).getKey());
+        assertEquals(aggregateList.size() - 1, objectUnderTest.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void binaryValueCodec(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        repositoryProperties.put(repositoryValueCodec(), BinaryValueCodec.NAME);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList);
+        var aggregate = aggregateList.get(0);
+
+        //Act
+        aggregate.setInternalValue(42);
+        objectUnderTest.update(aggregate);
+        var result = objectUnderTest.get(aggregate.getKey());
+        var resultList = objectUnderTest.get();
+        var firstPage = objectUnderTest.page(10);
+
+        //Assert
+        assertEquals(42, result.orElseThrow().getInternalValue());
+        assertEquals(aggregateList.size(), resultList.size());
+        assertEquals(10, firstPage.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void migrateValues(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties).addAll(aggregateList);
+        repositoryProperties.put(repositoryValueCodec(), BinaryValueCodec.NAME);
+        var objectUnderTest = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+
+        //Act
+        var result = objectUnderTest.migrateKeys();
+        var aggregate = aggregateList.get(0);
+        aggregate.setInternalValue(42);
+        objectUnderTest.update(aggregate);
+
+        //Assert
+        assertEquals(aggregateList.size(), result);
+        assertEquals(aggregateList.size(), objectUnderTest.get().size());
+        assertEquals(42, objectUnderTest.get(aggregate.getKey()).orElseThrow().getInternalValue());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void compressLargeAggregates(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties, LargeAggregate.class);
+        repositoryProperties.put(jdbcCompressionThreshold(), "1000");
+        var objectUnderTest = createRepository(LargeAggregate.class, LargeAggregate::key, repositoryProperties);
+        var largeAggregates = IntStream.range(0, 20)
+                .mapToObj(element -> new LargeAggregate(new TestValueObject(element), element % 2 == 0 ? "payload".repeat(1000) : "payload"))
+                .toList();
+        var updatedAggregate = new LargeAggregate(new TestValueObject(0), "updated");
+
+        //Act
+        objectUnderTest.addAll(largeAggregates);
+        objectUnderTest.update(updatedAggregate);
+        var result = objectUnderTest.get();
+
+        //Assert
+        assertEquals(largeAggregates.size(), result.size());
+        assertTrue(result.contains(updatedAggregate));
+        assertTrue(result.containsAll(largeAggregates.subList(1, largeAggregates.size())));
+        assertEquals(largeAggregates.size() / 2 - 1, countCompressedValues(repositoryProperties));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void enableCompressionForExistingTable(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties, LargeAggregate.class);
+        var uncompressedAggregate = new LargeAggregate(new TestValueObject(1), "payload".repeat(1000));
+        createRepository(LargeAggregate.class, LargeAggregate::key, repositoryProperties).add(uncompressedAggregate);
+        repositoryProperties.put(jdbcCompressionThreshold(), "1000");
+        repositoryProperties.put(jdbcCompressionAlgorithm(), "deflate");
+        var objectUnderTest = createRepository(LargeAggregate.class, LargeAggregate::key, repositoryProperties);
+        var compressedAggregate = new LargeAggregate(new TestValueObject(2), "payload".repeat(1000));
+
+        //Act
+        objectUnderTest.add(compressedAggregate);
+        var result = objectUnderTest.get(List.of(uncompressedAggregate.key(), compressedAggregate.key()));
+
+        //Assert
+        assertEquals(List.of(uncompressedAggregate, compressedAggregate), result);
+        assertEquals(1, countCompressedValues(repositoryProperties));
+    }
+
+    private long countCompressedValues(Properties properties)
+    {
+        try (JDBCConnection connection = new JDBCConnection(properties) ) {
+            return connection.query(JDBCKeyValueRepository.KeyValueSchema.class)
+                    .selectCount(JDBCKeyValueRepository.KeyValueSchema.REPOSITORY_COMPRESSED_VALUE)
+                    .from(LargeAggregate.class)
+                    .create()
+                    .asLong()
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
     private void dropTable(Properties properties)
+    {
+        dropTable(properties, TestAggregate.class);
+    }
+
+    private void dropTable(Properties properties, Class<?> aggregateType)
     {
         try (JDBCConnection connection = new JDBCConnection(properties) ) {
             connection.tableCommand(JDBCKeyValueRepository.KeyValueSchema.class)
-                    .dropTableIfExists(TestAggregate.class)
+                    .dropTableIfExists(aggregateType)
                     .asIgnore();
         }
     }
+
+    record LargeAggregate(TestValueObject key, String payload) { }
 }
 
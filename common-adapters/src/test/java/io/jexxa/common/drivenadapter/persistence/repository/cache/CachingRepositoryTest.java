@@ -0,0 +1,267 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.RepositoryFactory;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.OffHeapRepository;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.testapplication.TestAggregate;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static io.jexxa.common.drivenadapter.persistence.RepositoryFactory.createRepository;
+import static io.jexxa.common.drivenadapter.persistence.RepositoryProperties.repositoryCacheAggregates;
+import static io.jexxa.common.drivenadapter.persistence.RepositoryProperties.repositoryCacheSize;
+import static io.jexxa.common.drivenadapter.persistence.RepositoryProperties.repositoryCacheTTL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class CachingRepositoryTest
+{
+    private TestAggregate aggregate;
+    private Properties properties;
+
+    @BeforeEach
+    void initTest()
+    {
+        aggregate = TestAggregate.create(new TestValueObject(42));
+        properties = new Properties();
+        IMDBRepository.clear();
+        OffHeapRepository.clear();
+        CachingRepository.clear();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        if (TransactionManager.isTransactionActive())
+        {
+            TransactionManager.closeTransaction();
+        }
+        RepositoryFactory.defaultSettings();
+    }
+
+    @Test
+    void cachedGet()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        objectUnderTest.add(aggregate);
+
+        //Act
+        objectUnderTest.get(aggregate.getKey());
+        var result = objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(aggregate, result.orElseThrow());
+        assertEquals(1, objectUnderTest.getCacheMetrics().hits());
+        assertEquals(1, objectUnderTest.getCacheMetrics().misses());
+        assertEquals(0.5, objectUnderTest.getCacheMetrics().hitRatio());
+    }
+
+    @Test
+    void invalidateOnUpdate()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        objectUnderTest.add(aggregate);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Act
+        aggregate.setInternalValue(42);
+        objectUnderTest.update(aggregate);
+        var result = objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(42, result.orElseThrow().getInternalValue());
+        assertEquals(2, objectUnderTest.getCacheMetrics().misses());
+    }
+
+    @Test
+    void invalidateOnCommit()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        objectUnderTest.add(aggregate);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Act
+        TransactionManager.initTransaction();
+        aggregate.setInternalValue(42);
+        objectUnderTest.update(aggregate);
+        var resultInTransaction = objectUnderTest.get(aggregate.getKey());
+        TransactionManager.closeTransaction();
+        var result = objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(42, resultInTransaction.orElseThrow().getInternalValue());
+        assertEquals(42, result.orElseThrow().getInternalValue());
+        assertEquals(0, objectUnderTest.getCacheMetrics().hits());
+        assertEquals(2, objectUnderTest.getCacheMetrics().misses());
+    }
+
+    @Test
+    void cacheWithinTransactionIfOtherKeyIsInvalidated()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        var otherAggregate = TestAggregate.create(new TestValueObject(43));
+        objectUnderTest.addAll(List.of(aggregate, otherAggregate));
+        TransactionManager.initTransaction();
+        objectUnderTest.get(otherAggregate.getKey());
+
+        //Act - The other aggregate is changed outside the transaction after it started
+        CompletableFuture.runAsync(() -> objectUnderTest.update(otherAggregate)).join();
+        objectUnderTest.get(aggregate.getKey());
+        objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(1, objectUnderTest.getCacheMetrics().hits());
+        assertEquals(1, objectUnderTest.getCacheMetrics().size());
+    }
+
+    @Test
+    void keepCacheOnRollback()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        objectUnderTest.add(aggregate);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Act
+        TransactionManager.initTransaction();
+        aggregate.setInternalValue(42);
+        objectUnderTest.update(aggregate); // Note: IMDBRepository does not support rollback
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+        objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(1, objectUnderTest.getCacheMetrics().hits());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed()
+    {
+        //Arrange
+        properties.put(repositoryCacheSize(), "1");
+        var objectUnderTest = createCachingRepository();
+        var otherAggregate = TestAggregate.create(new TestValueObject(43));
+        objectUnderTest.addAll(List.of(aggregate, otherAggregate));
+
+        //Act
+        objectUnderTest.get(aggregate.getKey());
+        objectUnderTest.get(otherAggregate.getKey());
+        objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(1, objectUnderTest.getCacheMetrics().size());
+        assertEquals(2, objectUnderTest.getCacheMetrics().evictions());
+        assertEquals(0, objectUnderTest.getCacheMetrics().hits());
+    }
+
+    @Test
+    void expireCachedAggregate() throws InterruptedException
+    {
+        //Arrange
+        properties.put(repositoryCacheTTL(), "50");
+        var objectUnderTest = createCachingRepository();
+        objectUnderTest.add(aggregate);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Act
+        Thread.sleep(100);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(1, objectUnderTest.getCacheMetrics().expirations());
+        assertEquals(2, objectUnderTest.getCacheMetrics().misses());
+    }
+
+    @Test
+    void separateCachesOfDifferentStores()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        var offHeapRepository = new CachingRepository<>(
+                new OffHeapRepository<>(TestAggregate.class, TestAggregate::getKey, properties),
+                TestAggregate.class,
+                TestAggregate::getKey,
+                properties);
+        var offHeapAggregate = TestAggregate.create(new TestValueObject(42));
+        offHeapAggregate.setInternalValue(43);
+        objectUnderTest.add(aggregate);
+        offHeapRepository.add(offHeapAggregate);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Act
+        var result = offHeapRepository.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(43, result.orElseThrow().getInternalValue());
+        assertEquals(0, offHeapRepository.getCacheMetrics().hits());
+        assertEquals(1, offHeapRepository.getCacheMetrics().misses());
+    }
+
+    @Test
+    void invalidateCachesOfSameStore()
+    {
+        //Arrange
+        var objectUnderTest = createCachingRepository();
+        var otherProperties = new Properties();
+        otherProperties.put(repositoryCacheSize(), "10");
+        var otherRepository = new CachingRepository<>(
+                new IMDBRepository<>(TestAggregate.class, TestAggregate::getKey, otherProperties),
+                TestAggregate.class,
+                TestAggregate::getKey,
+                otherProperties);
+        objectUnderTest.add(aggregate);
+        objectUnderTest.get(aggregate.getKey());
+
+        //Act
+        aggregate.setInternalValue(42);
+        otherRepository.update(aggregate);
+        var result = objectUnderTest.get(aggregate.getKey());
+
+        //Assert
+        assertEquals(42, result.orElseThrow().getInternalValue());
+        assertEquals(2, objectUnderTest.getCacheMetrics().misses());
+        assertEquals(0, otherRepository.getCacheMetrics().size());
+    }
+
+    @Test
+    void enableCacheInRepositoryFactory()
+    {
+        //Arrange
+        var cachedProperties = new Properties();
+        cachedProperties.put(repositoryCacheAggregates(), "OtherAggregate, " + TestAggregate.class.getSimpleName());
+
+        //Act
+        var result = createRepository(TestAggregate.class, TestAggregate::getKey, cachedProperties);
+        var uncachedResult = createRepository(TestAggregate.class, TestAggregate::getKey, properties);
+
+        //Assert
+        assertInstanceOf(CachingRepository.class, result);
+        assertInstanceOf(IMDBRepository.class, uncachedResult);
+    }
+
+    private CachingRepository<TestAggregate, TestValueObject> createCachingRepository()
+    {
+        return new CachingRepository<>(
+                new IMDBRepository<>(TestAggregate.class, TestAggregate::getKey, properties),
+                TestAggregate.class,
+                TestAggregate::getKey,
+                properties);
+    }
+}
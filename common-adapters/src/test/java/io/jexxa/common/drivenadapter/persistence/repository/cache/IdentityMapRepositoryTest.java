@@ -0,0 +1,191 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.RepositoryFactory;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.testapplication.TestAggregate;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.List;
+import java.util.Properties;
+
+import static io.jexxa.common.drivenadapter.persistence.RepositoryFactory.createRepository;
+import static io.jexxa.common.drivenadapter.persistence.RepositoryProperties.repositoryIdentityMapAggregates;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class IdentityMapRepositoryTest
+{
+    private TestAggregate aggregate;
+    private Properties properties;
+
+    @BeforeEach
+    void initTest()
+    {
+        aggregate = TestAggregate.create(new TestValueObject(42));
+        properties = new Properties();
+        IMDBRepository.clear();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        if (TransactionManager.isTransactionActive())
+        {
+            TransactionManager.closeTransaction();
+        }
+        RepositoryFactory.defaultSettings();
+    }
+
+    @Test
+    void sameInstanceWithinTransaction()
+    {
+        //Arrange
+        var repository = new IMDBRepository<>(TestAggregate.class, TestAggregate::getKey, properties);
+        repository.add(aggregate);
+        var firstRepository = new IdentityMapRepository<>(repository, TestAggregate.class, TestAggregate::getKey);
+        var secondRepository = new IdentityMapRepository<>(repository, TestAggregate.class, TestAggregate::getKey);
+
+        //Act
+        TransactionManager.initTransaction();
+        var result = firstRepository.get(aggregate.getKey()).orElseThrow();
+        var sameResult = secondRepository.get(aggregate.getKey()).orElseThrow();
+        var resultFromList = secondRepository.get(List.of(aggregate.getKey())).get(0);
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertSame(result, sameResult);
+        assertSame(result, resultFromList);
+    }
+
+    @Test
+    void separateIdentityMapsOfDifferentRepositories()
+    {
+        //Arrange
+        var firstRepository = createIdentityMapRepository();
+        var secondRepository = createIdentityMapRepository();
+        firstRepository.add(aggregate);
+
+        //Act
+        TransactionManager.initTransaction();
+        var result = firstRepository.get(aggregate.getKey()).orElseThrow();
+        var otherResult = secondRepository.get(aggregate.getKey()).orElseThrow();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertNotSame(result, otherResult);
+        assertEquals(result, otherResult);
+    }
+
+    @Test
+    void newInstanceOutsideTransaction()
+    {
+        //Arrange
+        var objectUnderTest = createIdentityMapRepository();
+        objectUnderTest.add(aggregate);
+
+        //Act
+        TransactionManager.initTransaction();
+        var resultInTransaction = objectUnderTest.get(aggregate.getKey()).orElseThrow();
+        TransactionManager.closeTransaction();
+        var result = objectUnderTest.get(aggregate.getKey()).orElseThrow();
+
+        //Assert
+        assertNotSame(resultInTransaction, result);
+    }
+
+    @Test
+    void removeFromIdentityMap()
+    {
+        //Arrange
+        var objectUnderTest = createIdentityMapRepository();
+        objectUnderTest.add(aggregate);
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.get(aggregate.getKey());
+        objectUnderTest.remove(aggregate.getKey());
+        var result = objectUnderTest.get(aggregate.getKey());
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void registerUpdatedAggregate()
+    {
+        //Arrange
+        var objectUnderTest = createIdentityMapRepository();
+        objectUnderTest.add(aggregate);
+        var updatedAggregate = TestAggregate.create(aggregate.getKey());
+        updatedAggregate.setInternalValue(43);
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.get(aggregate.getKey());
+        objectUnderTest.update(updatedAggregate);
+        var result = objectUnderTest.get(aggregate.getKey()).orElseThrow();
+        var resultFromStream = objectUnderTest.stream().toList().get(0);
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertSame(updatedAggregate, result);
+        assertSame(updatedAggregate, resultFromStream);
+    }
+
+    @Test
+    void clearOnRollback()
+    {
+        //Arrange
+        var objectUnderTest = createIdentityMapRepository();
+        objectUnderTest.add(aggregate);
+
+        //Act
+        TransactionManager.initTransaction();
+        var resultBeforeRollback = objectUnderTest.get(aggregate.getKey()).orElseThrow();
+        TransactionManager.rollback();
+        var resultAfterRollback = objectUnderTest.get(aggregate.getKey()).orElseThrow();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertNotSame(resultBeforeRollback, resultAfterRollback);
+        assertEquals(resultBeforeRollback, resultAfterRollback);
+    }
+
+    @Test
+    void enableIdentityMapInRepositoryFactory()
+    {
+        //Arrange
+        var identityMapProperties = new Properties();
+        identityMapProperties.put(repositoryIdentityMapAggregates(), "OtherAggregate, " + TestAggregate.class.getSimpleName());
+
+        //Act
+        var result = createRepository(TestAggregate.class, TestAggregate::getKey, identityMapProperties);
+        var unmappedResult = createRepository(TestAggregate.class, TestAggregate::getKey, properties);
+
+        //Assert
+        assertInstanceOf(IdentityMapRepository.class, result);
+        assertInstanceOf(IMDBRepository.class, unmappedResult);
+    }
+
+    private IdentityMapRepository<TestAggregate, TestValueObject> createIdentityMapRepository()
+    {
+        return new IdentityMapRepository<>(
+                new IMDBRepository<>(TestAggregate.class, TestAggregate::getKey, properties),
+                TestAggregate.class,
+                TestAggregate::getKey);
+    }
+}
@@ -0,0 +1,191 @@
+package io.jexxa.common.drivenadapter.persistence.repository.cache;
+
+import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.RepositoryFactory;
+import io.jexxa.common.drivenadapter.persistence.repository.imdb.IMDBRepository;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.jdbc.JDBCConnection;
+import io.jexxa.common.facade.jdbc.JDBCTestDatabase;
+import io.jexxa.common.facade.testapplication.TestAggregate;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static io.jexxa.common.drivenadapter.persistence.RepositoryFactory.createRepository;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcUrl;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.INTEGRATION_TEST)
+class TieredRepositoryIT
+{
+    private List<TestAggregate> aggregateList;
+
+    @BeforeEach
+    void initTests()
+    {
+        aggregateList = IntStream.range(1, 100)
+                .mapToObj(element -> TestAggregate.create(new TestValueObject(element)))
+                .toList();
+
+        JexxaContext.init();
+        IMDBRepository.clear();
+        TieredRepository.clear();
+        RepositoryFactory.setRepository(TieredRepository.class, TestAggregate.class);
+    }
+
+    @AfterEach
+    void deInit()
+    {
+        RepositoryFactory.defaultSettings();
+        JexxaContext.cleanup();
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void warmLoadMemoryTier(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var databaseTier = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        databaseTier.addAll(aggregateList);
+
+        //Act
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        databaseTier.removeAll();
+
+        //Assert - All aggregates are read from the memory tier
+        assertInstanceOf(TieredRepository.class, objectUnderTest);
+        assertEquals(aggregateList.size(), objectUnderTest.count());
+        assertEquals(aggregateList.size(), objectUnderTest.get().size());
+        assertTrue(objectUnderTest.get(aggregateList.get(0).getKey()).isPresent());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void writeThrough(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var databaseTier = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        var updatedAggregate = aggregateList.get(0);
+        updatedAggregate.setInternalValue(42);
+
+        //Act
+        objectUnderTest.addAll(aggregateList);
+        objectUnderTest.update(updatedAggregate);
+        objectUnderTest.remove(aggregateList.get(1).getKey());
+
+        //Assert
+        assertEquals(aggregateList.size() - 1, objectUnderTest.count());
+        assertEquals(aggregateList.size() - 1, databaseTier.count());
+        assertEquals(42, objectUnderTest.get(updatedAggregate.getKey()).orElseThrow().getInternalValue());
+        assertEquals(42, databaseTier.get(updatedAggregate.getKey()).orElseThrow().getInternalValue());
+        assertFalse(objectUnderTest.exists(aggregateList.get(1).getKey()));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.add(updatedAggregate));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void keepMemoryTierOnRollback(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var databaseTier = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList.subList(0, 10));
+        var updatedAggregate = aggregateList.get(0);
+        updatedAggregate.setInternalValue(42);
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.update(updatedAggregate);
+        objectUnderTest.remove(aggregateList.get(1).getKey());
+        objectUnderTest.add(aggregateList.get(10));
+        var resultInTransaction = objectUnderTest.get(updatedAggregate.getKey());
+        var resultInOtherThread = CompletableFuture.supplyAsync(() -> objectUnderTest.get(updatedAggregate.getKey())).join();
+        TransactionManager.rollback();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(42, resultInTransaction.orElseThrow().getInternalValue());
+        assertEquals(0, resultInOtherThread.orElseThrow().getInternalValue());
+        assertEquals(0, objectUnderTest.get(updatedAggregate.getKey()).orElseThrow().getInternalValue());
+        assertTrue(objectUnderTest.exists(aggregateList.get(1).getKey()));
+        assertFalse(objectUnderTest.exists(aggregateList.get(10).getKey()));
+        assertEquals(10, objectUnderTest.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void keepChangesOnCommit(Properties repositoryProperties)
+    {
+        //Arrange
+        dropTable(repositoryProperties);
+        var databaseTier = new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+
+        //Act
+        TransactionManager.initTransaction();
+        objectUnderTest.addAll(aggregateList);
+        objectUnderTest.removeAll(List.of(aggregateList.get(0).getKey()));
+        var countInTransaction = objectUnderTest.count();
+        var countInOtherThread = CompletableFuture.supplyAsync(objectUnderTest::count).join();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(aggregateList.size() - 1, countInTransaction);
+        assertEquals(0, countInOtherThread);
+        assertEquals(aggregateList.size() - 1, objectUnderTest.count());
+        assertEquals(aggregateList.size() - 1, databaseTier.count());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void separateMemoryTiersOfDifferentStores(Properties repositoryProperties)
+    {
+        //Arrange
+        var otherProperties = new Properties();
+        otherProperties.putAll(repositoryProperties);
+        otherProperties.put(jdbcUrl(), repositoryProperties.getProperty(jdbcUrl()).replace("jexxa", "jexxa_other"));
+        dropTable(repositoryProperties);
+        dropTable(otherProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList);
+
+        //Act
+        var otherRepository = createRepository(TestAggregate.class, TestAggregate::getKey, otherProperties);
+        otherRepository.add(aggregateList.get(0));
+
+        //Assert
+        assertEquals(aggregateList.size(), objectUnderTest.count());
+        assertEquals(1, otherRepository.count());
+        assertEquals(1, new JDBCKeyValueRepository<>(TestAggregate.class, TestAggregate::getKey, otherProperties).count());
+    }
+
+    private static void dropTable(Properties properties)
+    {
+        try (JDBCConnection connection = new JDBCConnection(properties) ) {
+            connection.tableCommand(JDBCKeyValueRepository.KeyValueSchema.class)
+                    .dropTableIfExists(TestAggregate.class)
+                    .asIgnore();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.logger.SLF4jLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class ConcurrentIMDBRepositoryTest
+{
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final int AGGREGATES_PER_THREAD = 1000;
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+
+    private IMDBRepository<Counter, Integer> objectUnderTest;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void initTest()
+    {
+        var properties = new Properties();
+        properties.put(RepositoryProperties.repositoryIMDBStoreByReference(), "true");
+        objectUnderTest = new IMDBRepository<>(Counter.class, Counter::id, properties);
+        executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        executorService.shutdownNow();
+        IMDBRepository.clear();
+    }
+
+    @Test
+    void addSameAggregateInParallel()
+    {
+        //Arrange
+        var addedAggregates = new AtomicInteger();
+
+        //Act
+        runInParallel(threadID -> IntStream.range(0, AGGREGATES_PER_THREAD).forEach(id -> {
+            try {
+                objectUnderTest.add(new Counter(id, threadID));
+                addedAggregates.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                // expected exception if another thread added the aggregate first
+            }
+        }));
+
+        //Assert
+        assertEquals(AGGREGATES_PER_THREAD, addedAggregates.get());
+        assertEquals(AGGREGATES_PER_THREAD, objectUnderTest.count());
+    }
+
+    @Test
+    void addAllInParallel()
+    {
+        //Arrange
+        var failedAddAll = new AtomicInteger();
+
+        //Act - All threads try to add overlapping ranges of aggregates
+        runInParallel(threadID -> {
+            try {
+                objectUnderTest.addAll(IntStream.range(threadID * 10, threadID * 10 + AGGREGATES_PER_THREAD)
+                        .mapToObj(id -> new Counter(id, threadID))
+                        .toList());
+            } catch (IllegalArgumentException e) {
+                failedAddAll.incrementAndGet();
+            }
+        });
+
+        //Assert - Each addAll was either completely applied or completely rolled back
+        var numberOfAggregates = objectUnderTest.count();
+        assertEquals(0, numberOfAggregates % AGGREGATES_PER_THREAD);
+        assertEquals(NUMBER_OF_THREADS - failedAddAll.get(), numberOfAggregates / AGGREGATES_PER_THREAD);
+    }
+
+    @Test
+    void updateInParallel()
+    {
+        //Arrange
+        objectUnderTest.addAll(IntStream.range(0, NUMBER_OF_THREADS * AGGREGATES_PER_THREAD)
+                .mapToObj(id -> new Counter(id, 0))
+                .toList());
+
+        //Act
+        runInParallel(threadID -> runOperations(objectUnderTest, threadID, AGGREGATES_PER_THREAD));
+
+        //Assert
+        assertEquals(NUMBER_OF_THREADS * AGGREGATES_PER_THREAD, objectUnderTest.count());
+        assertTrue(objectUnderTest.get().stream().allMatch(counter -> counter.value() == 1));
+    }
+
+    /**
+     * Compares the throughput of an IMDBRepository with the same repository whose operations are serialized by a
+     * global lock, as it was done by the static synchronized lookup of the aggregate map
+     */
+    @Test
+    void higherThroughputThanGlobalLock()
+    {
+        //Arrange
+        var globalLockRepository = new GlobalLockRepository(objectUnderTest);
+        objectUnderTest.addAll(IntStream.range(0, NUMBER_OF_THREADS * AGGREGATES_PER_THREAD)
+                .mapToObj(id -> new Counter(id, 0))
+                .toList());
+        // Warm up
+        runInParallel(threadID -> runOperations(objectUnderTest, threadID, OPERATIONS_PER_THREAD));
+        runInParallel(threadID -> runOperations(globalLockRepository, threadID, OPERATIONS_PER_THREAD));
+
+        //Act
+        long globalLockDuration = runInParallel(threadID -> runOperations(globalLockRepository, threadID, OPERATIONS_PER_THREAD));
+        long lockFreeDuration = runInParallel(threadID -> runOperations(objectUnderTest, threadID, OPERATIONS_PER_THREAD));
+
+        //Assert
+        SLF4jLogger.getLogger(ConcurrentIMDBRepositoryTest.class).info(
+                "{} threads: {} operations/ms with global lock, {} operations/ms lock free",
+                NUMBER_OF_THREADS,
+                throughput(globalLockDuration),
+                throughput(lockFreeDuration));
+        assertEquals(NUMBER_OF_THREADS * AGGREGATES_PER_THREAD, objectUnderTest.count());
+        // Operations can only run in parallel on multiple CPUs
+        if (Runtime.getRuntime().availableProcessors() > 1)
+        {
+            assertTrue(lockFreeDuration < globalLockDuration);
+        }
+    }
+
+    /**
+     * Reads, checks, and updates the aggregates owned by given thread
+     */
+    private static void runOperations(IRepository<Counter, Integer> repository, int threadID, int operations)
+    {
+        for (var i = 0; i < operations; ++i)
+        {
+            var id = threadID * AGGREGATES_PER_THREAD + i % AGGREGATES_PER_THREAD;
+            if (repository.exists(id))
+            {
+                var counter = repository.get(id).orElseThrow();
+                repository.update(new Counter(id, counter.value() + 1));
+            }
+        }
+    }
+
+    private static long throughput(long durationInNanos)
+    {
+        return (long) NUMBER_OF_THREADS * OPERATIONS_PER_THREAD * 1_000_000 / Math.max(1, durationInNanos);
+    }
+
+    private long runInParallel(IntConsumer invocation)
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_THREADS; ++i)
+        {
+            int threadID = i;
+            tasks.add(() -> invocation.accept(threadID));
+        }
+
+        long start = System.nanoTime();
+        var futures = tasks.stream().map(executorService::submit).toList();
+        for (var future : futures)
+        {
+            try {
+                future.get(60, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    record Counter(int id, int value) { }
+
+    /**
+     * Serializes all operations on a single lock
+     */
+    private record GlobalLockRepository(IRepository<Counter, Integer> repository) implements IRepository<Counter, Integer>
+    {
+        @Override
+        public synchronized void update(Counter aggregate)
+        {
+            repository.update(aggregate);
+        }
+
+        @Override
+        public synchronized void remove(Integer key)
+        {
+            repository.remove(key);
+        }
+
+        @Override
+        public synchronized void removeAll()
+        {
+            repository.removeAll();
+        }
+
+        @Override
+        public synchronized void add(Counter aggregate)
+        {
+            repository.add(aggregate);
+        }
+
+        @Override
+        public synchronized void save(Counter aggregate)
+        {
+            repository.save(aggregate);
+        }
+
+        @Override
+        public synchronized Optional<Counter> get(Integer primaryKey)
+        {
+            return repository.get(primaryKey);
+        }
+
+        @Override
+        public synchronized boolean exists(Integer key)
+        {
+            return repository.exists(key);
+        }
+
+        @Override
+        public synchronized List<Counter> get()
+        {
+            return repository.get();
+        }
+    }
+}
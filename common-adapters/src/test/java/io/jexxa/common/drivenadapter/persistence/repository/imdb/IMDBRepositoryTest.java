@@ -1,7 +1,10 @@
 package io.jexxa.common.drivenadapter.persistence.repository.imdb;
 
 
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.drivenadapter.persistence.repository.IRepository;
 import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.codec.BinaryValueCodec;
 import io.jexxa.common.facade.jdbc.TestEntity;
 import io.jexxa.common.facade.testapplication.TestValueObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,11 +13,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,6 +69,151 @@ class IMDBRepositoryTest
     }
 
 
+    @Test
+    void addAllAggregates()
+    {
+        //Arrange
+        var aggregates = List.of(aggregate, TestEntity.create(new TestValueObject(43)));
+
+        //act
+        objectUnderTest.addAll(aggregates);
+
+        //Assert
+        assertEquals(aggregates, objectUnderTest.get(List.of(aggregate.getKey(), new TestValueObject(43), new TestValueObject(44))));
+    }
+
+    @Test
+    void addAllAggregatesTwice()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+        var aggregates = List.of(TestEntity.create(new TestValueObject(43)), aggregate);
+
+        //act
+        assertThrows(IllegalArgumentException.class, () ->objectUnderTest.addAll(aggregates));
+
+        //Assert that no aggregate was added
+        assertEquals(1, objectUnderTest.get().size());
+    }
+
+    @Test
+    void removeAggregates()
+    {
+        //Arrange
+        objectUnderTest.addAll(List.of(aggregate, TestEntity.create(new TestValueObject(43))));
+
+        //act
+        objectUnderTest.removeAll( List.of(aggregate.getKey(), new TestValueObject(43)) );
+
+        //Assert
+        assertTrue(objectUnderTest.get().isEmpty());
+        assertThrows(IllegalArgumentException.class, () ->objectUnderTest.removeAll(List.of(aggregate.getKey())));
+    }
+
+    @Test
+    void pageAggregates()
+    {
+        //Arrange
+        var aggregates = IntStream.range(0, 25)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+        objectUnderTest.addAll(aggregates);
+
+        //act
+        var firstPage = objectUnderTest.page(10);
+        var secondPage = objectUnderTest.page(firstPage.get(9).getKey(), 10);
+        var thirdPage = objectUnderTest.page(secondPage.get(9).getKey(), 10);
+        var lastPage = objectUnderTest.page(thirdPage.get(4).getKey(), 10);
+
+        //Assert
+        var result = new ArrayList<>(firstPage);
+        result.addAll(secondPage);
+        result.addAll(thirdPage);
+        assertEquals(5, thirdPage.size());
+        assertTrue(lastPage.isEmpty());
+        assertEquals(aggregates.size(), Set.copyOf(result).size());
+    }
+
+    @Test
+    void pageAndRemoveAggregates()
+    {
+        //Arrange
+        var aggregates = IntStream.range(0, 25)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+        objectUnderTest.addAll(aggregates);
+        var result = new ArrayList<TestEntity>();
+
+        //act
+        var page = objectUnderTest.page(10);
+        while (!page.isEmpty())
+        {
+            result.addAll(page);
+            objectUnderTest.removeAll(page.stream().map(TestEntity::getKey).toList());
+            page = objectUnderTest.page(page.get(page.size() - 1).getKey(), 10);
+        }
+
+        //Assert
+        assertEquals(aggregates.size(), Set.copyOf(result).size());
+        assertEquals(0, objectUnderTest.count());
+    }
+
+    @Test
+    void defaultPageImplementation()
+    {
+        //Arrange
+        var aggregates = IntStream.range(0, 25)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+        objectUnderTest.addAll(aggregates);
+        IRepository<TestEntity, TestValueObject> repositoryWithoutPaging = new StreamOnlyRepository(objectUnderTest);
+        var result = new ArrayList<TestEntity>();
+
+        //act
+        var page = repositoryWithoutPaging.page(10);
+        while (!page.isEmpty())
+        {
+            result.addAll(page);
+            page = repositoryWithoutPaging.page(page.get(page.size() - 1).getKey(), 10);
+        }
+
+        //Assert
+        assertEquals(aggregates.size(), result.size());
+        assertEquals(Set.copyOf(aggregates), Set.copyOf(result));
+        assertThrows(IllegalArgumentException.class, () -> repositoryWithoutPaging.page(new TestValueObject(100), 10));
+    }
+
+    @Test
+    void countAndExists()
+    {
+        //Arrange
+        var emptyCount = objectUnderTest.count();
+
+        //act
+        objectUnderTest.add(aggregate);
+
+        //Assert
+        assertEquals(0, emptyCount);
+        assertEquals(1, objectUnderTest.count());
+        assertTrue(objectUnderTest.exists(aggregate.getKey()));
+        assertFalse(objectUnderTest.exists(new TestValueObject(43)));
+    }
+
+    @Test
+    void saveAggregate()
+    {
+        //Arrange
+        objectUnderTest.save(aggregate);
+        aggregate.setInternalValue(43);
+
+        //act
+        objectUnderTest.save(aggregate);
+
+        //Assert
+        assertEquals(1, objectUnderTest.count());
+        assertEquals(43, objectUnderTest.get(aggregate.getKey()).orElseThrow().getInternalValue());
+    }
+
     @Test
     void removeAggregate()
     {
@@ -91,6 +246,23 @@ class IMDBRepositoryTest
         assertFalse(newConnection.get().isEmpty());
     }
 
+    @Test
+    void connectionWithoutProperties()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+
+        //act
+        var newConnection = new IMDBRepository<>(
+                TestEntity.class,
+                TestEntity::getKey,
+                null
+        );
+
+        //Assert that a connection without properties refers to the same repository
+        assertEquals(aggregate, newConnection.get(aggregate.getKey()).orElse(null));
+    }
+
     @Test
     void differentRepositories()
     {
@@ -146,5 +318,91 @@ class IMDBRepositoryTest
         assertEquals(1, newConnection.get().size());
     }
 
+    @Test
+    void binaryValueCodec()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+        var properties = new Properties();
+        properties.put(RepositoryProperties.repositoryValueCodec(), BinaryValueCodec.NAME);
+        var binaryRepository = new IMDBRepository<>(TestEntity.class, TestEntity::getKey, properties);
+        var binaryAggregate = TestEntity.create(new TestValueObject(43));
+
+        //Act
+        binaryRepository.add(binaryAggregate);
+
+        //Assert - Aggregates written by both codecs can be read by both repositories
+        assertEquals(aggregate.getKey(), binaryRepository.get(aggregate.getKey()).orElseThrow().getKey());
+        assertEquals(binaryAggregate.getKey(), objectUnderTest.get(binaryAggregate.getKey()).orElseThrow().getKey());
+        assertEquals(2, binaryRepository.get().size());
+    }
+
+    @Test
+    void storeImmutableAggregateByReference()
+    {
+        //Arrange
+        var properties = new Properties();
+        properties.put(RepositoryProperties.repositoryIMDBStoreByReference(), "true");
+        var repository = new IMDBRepository<>(ImmutableAggregate.class, ImmutableAggregate::key, properties);
+        var immutableAggregate = new ImmutableAggregate(new ImmutableKey(1), "value");
+
+        //Act
+        repository.add(immutableAggregate);
+
+        //Assert
+        assertSame(immutableAggregate, repository.get(immutableAggregate.key()).orElseThrow());
+        assertSame(immutableAggregate, repository.get().get(0));
+    }
+
+    @Test
+    void copyMutableAggregateByReference()
+    {
+        //Arrange
+        var properties = new Properties();
+        properties.put(RepositoryProperties.repositoryIMDBStoreByReference(), "true");
+        var repository = new IMDBRepository<>(TestEntity.class, TestEntity::getKey, properties);
+        aggregate.setInternalValue(1);
+        repository.add(aggregate);
+
+        //Act
+        aggregate.setInternalValue(2);
+        var result = repository.get(aggregate.getKey()).orElseThrow();
+        result.setInternalValue(3);
+
+        //Assert - Changes of the aggregate outside the repository are not visible
+        assertNotSame(aggregate, result);
+        assertEquals(1, repository.get(aggregate.getKey()).orElseThrow().getInternalValue());
+        assertEquals(1, objectUnderTest.get(aggregate.getKey()).orElseThrow().getInternalValue());
+    }
+
+    record ImmutableKey(int value) { }
 
+    record ImmutableAggregate(ImmutableKey key, String value) { }
+
+    /**
+     * Repository that only implements the mandatory methods of IRepository, so that the default implementations are used
+     */
+    private record StreamOnlyRepository(IRepository<TestEntity, TestValueObject> repository) implements IRepository<TestEntity, TestValueObject>
+    {
+        @Override
+        public void update(TestEntity aggregate) { repository.update(aggregate); }
+
+        @Override
+        public void remove(TestValueObject key) { repository.remove(key); }
+
+        @Override
+        public void removeAll() { repository.removeAll(); }
+
+        @Override
+        public void add(TestEntity aggregate) { repository.add(aggregate); }
+
+        @Override
+        public void save(TestEntity aggregate) { repository.save(aggregate); }
+
+        @Override
+        public Optional<TestEntity> get(TestValueObject key) { return repository.get(key); }
+
+        @Override
+        public List<TestEntity> get() { return repository.get(); }
+    }
 }
@@ -0,0 +1,237 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.codec.BinaryValueCodec;
+import io.jexxa.common.facade.jdbc.TestEntity;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class OffHeapRepositoryTest
+{
+    @AfterEach
+    void cleanup()
+    {
+        OffHeapRepository.clear();
+    }
+
+    @Test
+    void manageAggregates()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregate = TestEntity.create(new TestValueObject(42));
+
+        //Act
+        objectUnderTest.add(aggregate);
+        objectUnderTest.update(aggregate);
+        var result = objectUnderTest.get(aggregate.getKey());
+        objectUnderTest.remove(aggregate.getKey());
+
+        //Assert
+        assertEquals(aggregate, result.orElseThrow());
+        assertFalse(objectUnderTest.exists(aggregate.getKey()));
+        assertEquals(0, objectUnderTest.count());
+    }
+
+    @Test
+    void repositoryWithoutProperties()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregate = TestEntity.create(new TestValueObject(42));
+        objectUnderTest.add(aggregate);
+
+        //Act
+        var result = createRepository(null);
+
+        //Assert that a repository without properties refers to the same aggregates
+        assertEquals(aggregate, result.get(aggregate.getKey()).orElseThrow());
+    }
+
+    @Test
+    void invalidChanges()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregate = TestEntity.create(new TestValueObject(1));
+        var unknownAggregate = TestEntity.create(new TestValueObject(2));
+        objectUnderTest.add(aggregate);
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.add(aggregate));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.addAll(List.of(unknownAggregate, unknownAggregate)));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.update(unknownAggregate));
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.removeAll(List.of(aggregate.getKey(), unknownAggregate.getKey())));
+        assertEquals(List.of(aggregate), objectUnderTest.get());
+    }
+
+    @Test
+    void growIndexAndCompactSlabs()
+    {
+        //Arrange
+        var properties = new Properties();
+        properties.put(RepositoryProperties.repositoryOffHeapSlabSize(), "4096");
+        properties.put(RepositoryProperties.repositoryValueCodec(), BinaryValueCodec.NAME);
+        var objectUnderTest = createRepository(properties);
+        var aggregates = IntStream.range(0, 5000)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+
+        //Act
+        objectUnderTest.addAll(aggregates);
+        for (var i = 0; i < 3; ++i)
+        {
+            objectUnderTest.updateAll(aggregates);
+        }
+        objectUnderTest.removeAll(aggregates.subList(0, 2500).stream().map(TestEntity::getKey).toList());
+        var metrics = objectUnderTest.getMemoryMetrics();
+
+        //Assert
+        assertEquals(2500, objectUnderTest.count());
+        assertEquals(aggregates.subList(2500, 5000), objectUnderTest.get(aggregates.subList(2500, 5000).stream().map(TestEntity::getKey).toList()));
+        assertEquals(2500, objectUnderTest.get().size());
+        assertTrue(metrics.garbageBytes() <= Math.max(metrics.liveBytes(), 4096));
+        assertTrue(metrics.slabBytes() >= metrics.liveBytes() + metrics.garbageBytes());
+        assertTrue(metrics.indexBytes() >= 2 * 2500 * Long.BYTES);
+    }
+
+    @Test
+    void heapIsIndependentOfAggregates()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var heapBytesOfEmptyRepository = objectUnderTest.getMemoryMetrics().heapBytes();
+
+        //Act
+        objectUnderTest.addAll(IntStream.range(0, 10000)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList());
+        var result = objectUnderTest.getMemoryMetrics();
+
+        //Assert
+        assertEquals(10000, result.aggregates());
+        assertTrue(result.heapBytes() <= heapBytesOfEmptyRepository + 1000);
+        assertTrue(result.offHeapBytes() > result.liveBytes());
+        assertTrue(result.liveBytes() > 10000 * 10);
+    }
+
+    @Test
+    void readPages()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregates = IntStream.range(0, 100)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+        objectUnderTest.addAll(aggregates);
+        var result = new ArrayList<TestEntity>();
+
+        //Act
+        var page = objectUnderTest.page(7);
+        while (!page.isEmpty())
+        {
+            result.addAll(page);
+            page = objectUnderTest.page(page.get(page.size() - 1).getKey(), 7);
+        }
+
+        //Assert
+        assertEquals(aggregates.size(), result.size());
+        assertEquals(aggregates, result.stream().sorted(Comparator.comparing(element -> element.getKey().getValue())).toList());
+    }
+
+    @Test
+    void readAndRemovePages()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregates = IntStream.range(0, 5000)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+        objectUnderTest.addAll(aggregates);
+        var result = new ArrayList<TestEntity>();
+
+        //Act - Removing the aggregates of a page and adding new aggregates resizes the index during reading the pages
+        var page = objectUnderTest.page(100);
+        while (!page.isEmpty())
+        {
+            result.addAll(page);
+            objectUnderTest.removeAll(page.stream().map(TestEntity::getKey).toList());
+            page = objectUnderTest.page(page.get(page.size() - 1).getKey(), 100);
+        }
+
+        //Assert
+        assertEquals(aggregates.size(), result.size());
+        assertEquals(aggregates, result.stream().sorted(Comparator.comparing(element -> element.getKey().getValue())).toList());
+        assertEquals(0, objectUnderTest.count());
+    }
+
+    @Test
+    void streamWhileResizingIndex()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregates = IntStream.range(0, 1000)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+        objectUnderTest.addAll(aggregates);
+        var result = new ArrayList<TestEntity>();
+
+        //Act - Adding aggregates during the iteration resizes the index several times
+        try (var stream = objectUnderTest.stream())
+        {
+            stream.forEach(element -> {
+                result.add(element);
+                if (element.getKey().getValue() < 100000)
+                {
+                    objectUnderTest.add(TestEntity.create(new TestValueObject(element.getKey().getValue() + 100000)));
+                }
+            });
+        }
+
+        //Assert - All aggregates that exist during the whole iteration are returned exactly once
+        assertEquals(aggregates, result.stream()
+                .filter(element -> element.getKey().getValue() < 100000)
+                .sorted(Comparator.comparing(element -> element.getKey().getValue()))
+                .toList());
+        assertEquals(2000, objectUnderTest.count());
+    }
+
+    @Test
+    void useRepositoryAfterClear()
+    {
+        //Arrange
+        var objectUnderTest = createRepository(new Properties());
+        var aggregate = TestEntity.create(new TestValueObject(42));
+        objectUnderTest.add(aggregate);
+
+        //Act
+        OffHeapRepository.clear();
+        objectUnderTest.add(aggregate);
+
+        //Assert
+        assertEquals(List.of(aggregate), createRepository(new Properties()).get());
+    }
+
+    private static OffHeapRepository<TestEntity, TestValueObject> createRepository(Properties properties)
+    {
+        return new OffHeapRepository<>(TestEntity.class, TestEntity::getKey, properties);
+    }
+}
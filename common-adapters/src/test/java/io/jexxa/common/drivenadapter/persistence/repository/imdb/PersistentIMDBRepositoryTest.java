@@ -0,0 +1,183 @@
+package io.jexxa.common.drivenadapter.persistence.repository.imdb;
+
+import io.jexxa.common.drivenadapter.persistence.RepositoryProperties;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.jdbc.TestEntity;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class PersistentIMDBRepositoryTest
+{
+    @TempDir
+    private Path directory;
+
+    private Properties properties;
+    private List<TestEntity> aggregateList;
+
+    @BeforeEach
+    void initTest()
+    {
+        properties = new Properties();
+        properties.put(RepositoryProperties.repositoryIMDBDirectory(), directory.toString());
+        aggregateList = IntStream.range(0, 25)
+                .mapToObj(element -> TestEntity.create(new TestValueObject(element)))
+                .toList();
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        PersistentIMDBRepository.clear();
+    }
+
+    @Test
+    void replayJournalAfterRestart()
+    {
+        //Arrange
+        var objectUnderTest = createRepository();
+        objectUnderTest.addAll(aggregateList);
+        objectUnderTest.remove(aggregateList.get(0).getKey());
+        objectUnderTest.update(aggregateList.get(1));
+
+        //Act
+        var result = restart();
+
+        //Assert
+        assertEquals(aggregateList.size() - 1, result.count());
+        assertFalse(result.exists(aggregateList.get(0).getKey()));
+        assertEquals(aggregateList.get(1), result.get(aggregateList.get(1).getKey()).orElseThrow());
+    }
+
+    @Test
+    void replaySnapshotAfterRestart()
+    {
+        //Arrange
+        properties.put(RepositoryProperties.repositoryIMDBSnapshotThreshold(), "10");
+        var objectUnderTest = createRepository();
+        aggregateList.forEach(objectUnderTest::add);
+        objectUnderTest.removeAll(List.of(aggregateList.get(0).getKey(), aggregateList.get(1).getKey()));
+
+        //Act
+        var result = restart();
+
+        //Assert
+        assertTrue(Files.exists(directory.resolve(TestEntity.class.getSimpleName() + ".snapshot")));
+        assertEquals(aggregateList.size() - 2, result.count());
+        assertEquals(aggregateList.subList(2, aggregateList.size()), result.get(aggregateList.stream().map(TestEntity::getKey).toList()));
+    }
+
+    @Test
+    void replayRemoveAllAfterRestart()
+    {
+        //Arrange
+        var objectUnderTest = createRepository();
+        objectUnderTest.addAll(aggregateList);
+        objectUnderTest.removeAll();
+        objectUnderTest.save(aggregateList.get(0));
+
+        //Act
+        var result = restart();
+
+        //Assert
+        assertEquals(List.of(aggregateList.get(0)), result.get());
+    }
+
+    @Test
+    void discardIncompleteRecord() throws IOException
+    {
+        //Arrange
+        var objectUnderTest = createRepository();
+        objectUnderTest.addAll(aggregateList);
+        PersistentIMDBRepository.closeAll();
+        // Simulates a crash while a record was written
+        Files.write(directory.resolve(TestEntity.class.getSimpleName() + ".journal"), new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        //Act
+        var result = createRepository();
+        result.remove(aggregateList.get(0).getKey());
+
+        //Assert
+        assertEquals(aggregateList.size() - 1, result.count());
+        assertEquals(aggregateList.size() - 1, restart().count());
+    }
+
+    @Test
+    void clearKeepsFiles()
+    {
+        //Arrange
+        var objectUnderTest = createRepository();
+        objectUnderTest.addAll(aggregateList);
+
+        //Act
+        PersistentIMDBRepository.clear();
+
+        //Assert
+        assertThrows(IllegalStateException.class, () -> objectUnderTest.remove(aggregateList.get(0).getKey()));
+        assertEquals(aggregateList.size(), createRepository().count());
+    }
+
+    @Test
+    void journalOnlySuccessfulChanges()
+    {
+        //Arrange
+        var objectUnderTest = createRepository();
+        var newAggregate = TestEntity.create(new TestValueObject(aggregateList.size()));
+        objectUnderTest.addAll(aggregateList);
+        var invalidChange = List.of(newAggregate, aggregateList.get(0));
+
+        //Act
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.addAll(invalidChange));
+        var result = restart();
+
+        //Assert
+        assertFalse(objectUnderTest.exists(newAggregate.getKey()));
+        assertFalse(result.exists(newAggregate.getKey()));
+        assertEquals(aggregateList.size(), result.count());
+    }
+
+    @Test
+    void invalidProperties()
+    {
+        //Arrange
+        var missingDirectory = new Properties();
+        var invalidThreshold = new Properties();
+        invalidThreshold.putAll(properties);
+        invalidThreshold.put(RepositoryProperties.repositoryIMDBSnapshotThreshold(), "0");
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> new PersistentIMDBRepository<>(TestEntity.class, TestEntity::getKey, missingDirectory));
+        assertThrows(IllegalArgumentException.class, () -> new PersistentIMDBRepository<>(TestEntity.class, TestEntity::getKey, invalidThreshold));
+    }
+
+    private PersistentIMDBRepository<TestEntity, TestValueObject> createRepository()
+    {
+        return new PersistentIMDBRepository<>(TestEntity.class, TestEntity::getKey, properties);
+    }
+
+    private PersistentIMDBRepository<TestEntity, TestValueObject> restart()
+    {
+        PersistentIMDBRepository.closeAll();
+        return createRepository();
+    }
+}
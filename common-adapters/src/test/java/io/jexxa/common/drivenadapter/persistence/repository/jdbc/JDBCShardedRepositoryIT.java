@@ -0,0 +1,219 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import io.jexxa.adapterapi.JexxaContext;
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.jdbc.JDBCConnection;
+import io.jexxa.common.facade.jdbc.JDBCTestDatabase;
+import io.jexxa.common.facade.testapplication.TestAggregate;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static io.jexxa.common.drivenadapter.persistence.RepositoryFactory.createRepository;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcPoolMaxSize;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcShardCount;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcShardPrefix;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcUrl;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.repositoryStrategy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.INTEGRATION_TEST)
+class JDBCShardedRepositoryIT
+{
+    private static final int SHARD_COUNT = 4;
+
+    private List<TestAggregate> aggregateList;
+
+    @BeforeEach
+    void initTests()
+    {
+        aggregateList = IntStream.range(1, 100)
+                .mapToObj(element -> TestAggregate.create(new TestValueObject(element)))
+                .toList();
+
+        JexxaContext.init();
+    }
+
+    @AfterEach
+    void deInit()
+    {
+        JexxaContext.cleanup();
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void shardOverTables(Properties repositoryProperties)
+    {
+        //Arrange
+        repositoryProperties.put(repositoryStrategy(), JDBCShardedRepository.class.getName());
+        repositoryProperties.put(jdbcShardCount(), String.valueOf(SHARD_COUNT));
+        dropTables(repositoryProperties);
+        var objectUnderTest = createRepository(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        aggregateList.forEach(element -> element.setInternalValue(42));
+
+        //Act
+        objectUnderTest.addAll(aggregateList);
+        objectUnderTest.update(aggregateList.get(0));
+        objectUnderTest.remove(aggregateList.get(1).getKey());
+
+        //Assert
+        assertInstanceOf(JDBCShardedRepository.class, objectUnderTest);
+        assertEquals(aggregateList.size() - 1, objectUnderTest.count());
+        assertEquals(aggregateList.size() - 1, objectUnderTest.get().size());
+        assertEquals(42, objectUnderTest.get(aggregateList.get(0).getKey()).orElseThrow().getInternalValue());
+        assertFalse(objectUnderTest.exists(aggregateList.get(1).getKey()));
+        assertEquals(aggregateList.size() - 1, IntStream.range(0, SHARD_COUNT).mapToLong(shard -> countRows(repositoryProperties, shard)).sum());
+        IntStream.range(0, SHARD_COUNT).forEach(shard -> assertTrue(countRows(repositoryProperties, shard) > 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void shardOverDatabases(Properties repositoryProperties)
+    {
+        //Arrange
+        repositoryProperties.put(jdbcShardCount(), String.valueOf(SHARD_COUNT));
+        repositoryProperties.put(jdbcShardPrefix(1) + "jdbc.url", repositoryProperties.getProperty(jdbcUrl()).replace("jexxa", "jexxa_shard"));
+        repositoryProperties.put(jdbcShardPrefix(3) + "jdbc.url", repositoryProperties.getProperty(jdbcUrl()).replace("jexxa", "jexxa_shard"));
+        dropTables(repositoryProperties);
+        var objectUnderTest = new JDBCShardedRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList);
+        var keys = aggregateList.stream().map(TestAggregate::getKey).toList();
+
+        //Act
+        var result = objectUnderTest.get();
+        var resultByKeys = objectUnderTest.get(keys);
+
+        TransactionManager.initTransaction();
+        objectUnderTest.removeAll(keys.subList(0, 10));
+        var resultInTransaction = objectUnderTest.get();
+        TransactionManager.closeTransaction();
+
+        //Assert
+        assertEquals(aggregateList.size(), result.size());
+        assertEquals(aggregateList.size(), resultByKeys.size());
+        assertEquals(aggregateList.size() - 10, resultInTransaction.size());
+        assertEquals(aggregateList.size() - 10, objectUnderTest.count());
+        assertTrue(countRows(getShardProperties(repositoryProperties, 1), 1) > 0);
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void pageOverShards(Properties repositoryProperties)
+    {
+        //Arrange
+        repositoryProperties.put(jdbcShardCount(), String.valueOf(SHARD_COUNT));
+        dropTables(repositoryProperties);
+        var objectUnderTest = new JDBCShardedRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList);
+        var result = new ArrayList<TestAggregate>();
+
+        //Act
+        var page = objectUnderTest.page(7);
+        while (!page.isEmpty())
+        {
+            result.addAll(page);
+            page = objectUnderTest.page(page.get(page.size() - 1).getKey(), 7);
+        }
+
+        //Assert
+        assertEquals(aggregateList.size(), result.size());
+        assertEquals(
+                aggregateList.stream().map(TestAggregate::getKey).sorted(Comparator.comparing(TestValueObject::getValue)).toList(),
+                result.stream().map(TestAggregate::getKey).sorted(Comparator.comparing(TestValueObject::getValue)).toList());
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void fanOutAfterCleanup(Properties repositoryProperties)
+    {
+        //Arrange
+        repositoryProperties.put(jdbcShardCount(), String.valueOf(SHARD_COUNT));
+        repositoryProperties.put(jdbcPoolMaxSize(), "2");
+        dropTables(repositoryProperties);
+        var objectUnderTest = new JDBCShardedRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties);
+        objectUnderTest.addAll(aggregateList);
+        var countBeforeCleanup = objectUnderTest.count();
+
+        //Act
+        JexxaContext.cleanup();
+        JexxaContext.init();
+        var countAfterCleanup = objectUnderTest.count();
+
+        //Assert
+        assertEquals(aggregateList.size(), countBeforeCleanup);
+        assertEquals(aggregateList.size(), countAfterCleanup);
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void invalidShardCount(Properties repositoryProperties)
+    {
+        //Arrange
+        var invalidProperties = new Properties();
+        invalidProperties.putAll(repositoryProperties);
+        invalidProperties.put(jdbcShardCount(), "0");
+        var nonNumericProperties = new Properties();
+        nonNumericProperties.putAll(repositoryProperties);
+        nonNumericProperties.put(jdbcShardCount(), "four");
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> new JDBCShardedRepository<>(TestAggregate.class, TestAggregate::getKey, repositoryProperties));
+        assertThrows(IllegalArgumentException.class, () -> new JDBCShardedRepository<>(TestAggregate.class, TestAggregate::getKey, invalidProperties));
+        var exception = assertThrows(IllegalArgumentException.class, () -> new JDBCShardedRepository<>(TestAggregate.class, TestAggregate::getKey, nonNumericProperties));
+        assertTrue(exception.getMessage().contains(jdbcShardCount()));
+    }
+
+    private static long countRows(Properties properties, int shard)
+    {
+        try (JDBCConnection connection = new JDBCConnection(properties) ) {
+            return connection.query(JDBCKeyValueRepository.KeyValueSchema.class)
+                    .selectCount()
+                    .from(TestAggregate.class.getSimpleName() + "_" + shard)
+                    .create()
+                    .asLong()
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    private static void dropTables(Properties properties)
+    {
+        for (var shard = 0; shard < SHARD_COUNT; ++shard)
+        {
+            try (JDBCConnection connection = new JDBCConnection(getShardProperties(properties, shard)) ) {
+                connection.tableCommand(JDBCKeyValueRepository.KeyValueSchema.class)
+                        .dropTableIfExists(TestAggregate.class.getSimpleName() + "_" + shard)
+                        .asIgnore();
+            }
+        }
+    }
+
+    private static Properties getShardProperties(Properties properties, int shard)
+    {
+        var result = new Properties();
+        result.putAll(properties);
+        var shardURL = properties.getProperty(jdbcShardPrefix(shard) + "jdbc.url");
+        if (shardURL != null)
+        {
+            result.put(jdbcUrl(), shardURL);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package io.jexxa.common.drivenadapter.persistence.repository.jdbc;
+
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.jdbc.builder.SQLDataType;
+import io.jexxa.common.facade.testapplication.TestAggregate;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class KeyCodecsTest
+{
+    private record OrderID(UUID value) {}
+
+    @AfterEach
+    void cleanup()
+    {
+        KeyCodecs.clear();
+    }
+
+    @Test
+    void nativeKeyOfSimpleTypes()
+    {
+        //Arrange
+        var uuid = UUID.randomUUID();
+
+        //Act
+        var uuidCodec = KeyCodecs.nativeKey(UUID.class);
+        var longCodec = KeyCodecs.nativeKey(Integer.class);
+        var stringCodec = KeyCodecs.nativeKey(String.class);
+
+        //Assert
+        assertSame(SQLDataType.UUID, uuidCodec.keyType());
+        assertEquals(uuid, uuidCodec.encode(uuid, SQLDataType.UUID));
+        assertEquals(uuid.toString(), uuidCodec.encode(uuid, SQLDataType.VARCHAR));
+        assertSame(SQLDataType.BIGINT, longCodec.keyType());
+        assertEquals(42L, longCodec.encode(42, SQLDataType.BIGINT));
+        assertSame(SQLDataType.VARCHAR, stringCodec.keyType());
+        assertEquals("key", stringCodec.encode("key", SQLDataType.VARCHAR));
+    }
+
+    @Test
+    void nativeKeyOfRecord()
+    {
+        //Arrange
+        var orderID = new OrderID(UUID.randomUUID());
+
+        //Act
+        var objectUnderTest = KeyCodecs.nativeKey(OrderID.class);
+
+        //Assert
+        assertSame(SQLDataType.UUID, objectUnderTest.keyType());
+        assertEquals(orderID.value(), objectUnderTest.encode(orderID, SQLDataType.UUID));
+    }
+
+    @Test
+    void nativeKeyOfCompositeType()
+    {
+        //Arrange
+        var key = new TestValueObject(42);
+
+        //Act
+        var objectUnderTest = KeyCodecs.nativeKey(TestValueObject.class);
+        var result = objectUnderTest.encode(key, SQLDataType.VARBINARY);
+
+        //Assert
+        assertSame(SQLDataType.VARBINARY, objectUnderTest.keyType());
+        var hash = assertInstanceOf(byte[].class, result);
+        assertEquals(32, hash.length);
+        assertArrayEquals(hash, (byte[]) objectUnderTest.encode(new TestValueObject(42), SQLDataType.VARBINARY));
+    }
+
+    @Test
+    void jsonIsDefault()
+    {
+        //Arrange
+        KeyCodecs.useNativeKey(TestAggregate.class, TestValueObject.class);
+
+        //Act
+        KeyCodecs.clear();
+
+        //Assert
+        assertSame(KeyCodecs.json(), KeyCodecs.getKeyCodec(TestAggregate.class));
+    }
+}
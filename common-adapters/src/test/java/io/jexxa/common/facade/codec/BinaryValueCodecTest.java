@@ -0,0 +1,183 @@
+package io.jexxa.common.facade.codec;
+
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.testapplication.SpecialCasesValueObject;
+import io.jexxa.common.facade.testapplication.TestAggregate;
+import io.jexxa.common.facade.testapplication.TestEnum;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static io.jexxa.common.facade.json.JSONManager.getJSONConverter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class BinaryValueCodecTest
+{
+    private final BinaryValueCodec objectUnderTest = new BinaryValueCodec();
+
+    @Test
+    void encodeRecord()
+    {
+        //Arrange
+        var value = new ComplexRecord(
+                42,
+                -1234567890123L,
+                3.5,
+                true,
+                "äöü",
+                TestEnum.ENUM_VALUE1,
+                UUID.randomUUID(),
+                new BigDecimal("12.345"),
+                List.of(new SimpleRecord("first"), new SimpleRecord("second")),
+                Map.of("key", 1L),
+                Set.of(TestEnum.ENUM_VALUE2),
+                LocalDateTime.now().withNano(0),
+                null);
+
+        //Act
+        var result = objectUnderTest.decode(objectUnderTest.encode(value), ComplexRecord.class);
+
+        //Assert
+        assertEquals(value, result);
+    }
+
+    @Test
+    void encodePOJO()
+    {
+        //Arrange
+        var value = TestAggregate.create(new TestValueObject(42));
+        value.setInternalValue(43);
+
+        //Act
+        var result = objectUnderTest.decode(objectUnderTest.encode(value), TestAggregate.class);
+
+        //Assert
+        assertEquals(value.getKey(), result.getKey());
+        assertEquals(43, result.getInternalValue());
+    }
+
+    @Test
+    void encodePOJOWithoutDefaultConstructor()
+    {
+        //Arrange
+        var value = SpecialCasesValueObject.SPECIAL_CASES_VALUE_OBJECT;
+
+        //Act
+        var result = objectUnderTest.decode(objectUnderTest.encode(value), SpecialCasesValueObject.class);
+
+        //Assert
+        assertEquals(value, result);
+        assertNull(result.getNullValue());
+    }
+
+    @Test
+    void encodingIsSmallerThanJSON()
+    {
+        //Arrange
+        var value = TestAggregate.create(new TestValueObject(42));
+
+        //Act
+        var result = objectUnderTest.encode(value);
+
+        //Assert
+        assertTrue(result.length < getJSONConverter().toJson(value).length());
+    }
+
+    @Test
+    void decodeJSON()
+    {
+        //Arrange
+        var value = new SimpleRecord("value");
+        var jsonValue = getJSONConverter().toJson(value).getBytes(StandardCharsets.UTF_8);
+
+        //Act
+        var result = objectUnderTest.decode(jsonValue, SimpleRecord.class);
+        var resultOfJSONCodec = ValueCodecManager.json().decode(objectUnderTest.encode(value), SimpleRecord.class);
+
+        //Assert
+        assertEquals(value, result);
+        assertEquals(value, resultOfJSONCodec);
+    }
+
+    @Test
+    void decodeChangedRecord()
+    {
+        //Arrange
+        var value = new PreviousVersion(42, "removed field", List.of(new SimpleRecord("removed record")));
+
+        //Act
+        var result = objectUnderTest.decode(objectUnderTest.encode(value), CurrentVersion.class);
+
+        //Assert
+        assertEquals(new CurrentVersion(0, 42L), result);
+    }
+
+    @Test
+    void decodeUnsupportedVersion()
+    {
+        //Arrange
+        var value = objectUnderTest.encode(new SimpleRecord("value"));
+        value[1] = (byte) (BinaryValueCodec.FORMAT_VERSION + 1);
+
+        //Act/Assert
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.decode(value, SimpleRecord.class));
+    }
+
+    @Test
+    void decodeTruncatedValue()
+    {
+        //Arrange
+        var value = objectUnderTest.encode(new SimpleRecord("value"));
+        var truncatedValue = Arrays.copyOf(value, value.length - 1);
+
+        //Act/Assert
+        assertThrows(IllegalArgumentException.class, () -> objectUnderTest.decode(truncatedValue, SimpleRecord.class));
+    }
+
+    @Test
+    void selectValueCodec()
+    {
+        //Act
+        var result = ValueCodecManager.getValueCodec(BinaryValueCodec.NAME);
+
+        //Assert
+        assertEquals(ValueCodecManager.binary(), result);
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecManager.getValueCodec("unknown"));
+    }
+
+    record SimpleRecord(String value) { }
+
+    record ComplexRecord(int intValue,
+                         long longValue,
+                         double doubleValue,
+                         boolean booleanValue,
+                         String stringValue,
+                         TestEnum enumValue,
+                         UUID uuidValue,
+                         BigDecimal decimalValue,
+                         List<SimpleRecord> recordList,
+                         Map<String, Long> longMap,
+                         Set<TestEnum> enumSet,
+                         LocalDateTime dateTimeValue,
+                         String nullValue) { }
+
+    record PreviousVersion(int value, String removedValue, List<SimpleRecord> removedList) { }
+
+    record CurrentVersion(int addedValue, Long value) { }
+}
@@ -0,0 +1,84 @@
+package io.jexxa.common.facade.codec;
+
+import io.jexxa.common.facade.TestConstants;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class ValueCompressionTest
+{
+    @ParameterizedTest
+    @EnumSource(ValueCompression.Algorithm.class)
+    void compressRepetitiveValue(ValueCompression.Algorithm algorithm)
+    {
+        //Arrange
+        var value = "{\"key\":42,\"value\":\"abcdefghij\"},".repeat(10000).getBytes(StandardCharsets.UTF_8);
+
+        //Act
+        var compressedValue = ValueCompression.compress(value, algorithm);
+        var result = ValueCompression.decompress(compressedValue);
+
+        //Assert
+        assertArrayEquals(value, result);
+        assertTrue(compressedValue.length < value.length / 10);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ValueCompression.Algorithm.class)
+    void compressRandomValue(ValueCompression.Algorithm algorithm)
+    {
+        //Arrange
+        var random = new Random(42);
+        for (var length : new int[]{0, 1, 5, 12, 13, 100, 65536, 200_000})
+        {
+            var value = new byte[length];
+            random.nextBytes(value);
+            // Mix random data with repetitions, so that matches with long literals and large offsets occur
+            Arrays.fill(value, length / 2, length / 2 + length / 4, (byte) 7);
+
+            //Act
+            var result = ValueCompression.decompress(ValueCompression.compress(value, algorithm));
+
+            //Assert
+            assertArrayEquals(value, result);
+        }
+    }
+
+    @Test
+    void selectAlgorithmByName()
+    {
+        //Act/Assert
+        assertEquals(ValueCompression.Algorithm.LZ4, ValueCompression.Algorithm.of(" lz4"));
+        assertEquals(ValueCompression.Algorithm.DEFLATE, ValueCompression.Algorithm.of("Deflate"));
+        assertThrows(IllegalArgumentException.class, () -> ValueCompression.Algorithm.of("unknown"));
+    }
+
+    @Test
+    void decompressInvalidValue()
+    {
+        //Arrange
+        var value = "{\"key\":42}".repeat(100).getBytes(StandardCharsets.UTF_8);
+        var compressedValue = ValueCompression.compress(value, ValueCompression.Algorithm.LZ4);
+        var truncatedValue = Arrays.copyOf(compressedValue, compressedValue.length - 1);
+        var unknownAlgorithm = compressedValue.clone();
+        unknownAlgorithm[0] = 42;
+
+        //Act/Assert
+        assertThrows(IllegalArgumentException.class, () -> ValueCompression.decompress(truncatedValue));
+        assertThrows(IllegalArgumentException.class, () -> ValueCompression.decompress(unknownAlgorithm));
+    }
+}
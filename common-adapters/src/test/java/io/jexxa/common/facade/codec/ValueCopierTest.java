@@ -0,0 +1,182 @@
+package io.jexxa.common.facade.codec;
+
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.testapplication.TestEnum;
+import io.jexxa.common.facade.utils.annotation.Immutable;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.UNIT_TEST)
+class ValueCopierTest
+{
+    private final ValueCopier objectUnderTest = new ValueCopier(ValueCodecManager.json());
+
+    @Test
+    void classifyTypes()
+    {
+        //Act / Assert
+        assertTrue(ValueCopier.isImmutable(ImmutableRecord.class));
+        assertTrue(ValueCopier.isImmutable(LinkedRecord.class));
+        assertTrue(ValueCopier.isImmutable(MarkedValue.class));
+        assertTrue(ValueCopier.isImmutable(TestEnum.class));
+        assertFalse(ValueCopier.isImmutable(MutableRecord.class));
+        assertFalse(ValueCopier.isImmutable(MutableValue.class));
+    }
+
+    @Test
+    void registerImmutableType()
+    {
+        //Arrange
+        var mutableResult = ValueCopier.isImmutable(RecordOfRegisteredValue.class);
+
+        //Act
+        ValueCopier.registerImmutableType(RegisteredValue.class);
+
+        //Assert
+        assertFalse(mutableResult);
+        assertTrue(ValueCopier.isImmutable(RecordOfRegisteredValue.class));
+    }
+
+    @Test
+    void shareImmutableValue()
+    {
+        //Arrange
+        var value = new ImmutableRecord(42, "value", TestEnum.ENUM_VALUE1, UUID.randomUUID(), BigDecimal.TEN, Instant.now());
+
+        //Act
+        var result = objectUnderTest.copy(value);
+
+        //Assert
+        assertSame(value, result);
+    }
+
+    @Test
+    void copyMutableRecord()
+    {
+        //Arrange
+        var value = new MutableRecord("value", new ArrayList<>(List.of(new MutableValue("first"))), new int[]{1, 2});
+
+        //Act
+        var result = objectUnderTest.copy(value);
+        value.values().get(0).name = "changed";
+        value.values().add(new MutableValue("second"));
+        value.numbers()[0] = 42;
+
+        //Assert
+        assertEquals(List.of(new MutableValue("first")), result.values());
+        assertArrayEquals(new int[]{1, 2}, result.numbers());
+    }
+
+    @Test
+    void copyMutableValue()
+    {
+        //Arrange
+        var element = new MutableValue("element");
+        var value = new MutableValue("value");
+        value.children.put("first", element);
+        value.children.put("second", element);
+        value.parent = value;
+
+        //Act
+        var result = objectUnderTest.copy(value);
+
+        //Assert
+        assertNotSame(value, result);
+        assertEquals(value, result);
+        assertSame(result, result.parent);
+        assertNotSame(element, result.children.get("first"));
+        assertSame(result.children.get("first"), result.children.get("second"));
+    }
+
+    @Test
+    void copyUnsupportedType()
+    {
+        //Arrange
+        var value = new MutableValue("value");
+        value.names = Collections.unmodifiableList(new ArrayList<>(List.of("first")));
+
+        //Act
+        var result = objectUnderTest.copy(value);
+
+        //Assert - Copied by the fallback codec
+        assertNotSame(value, result);
+        assertEquals(List.of("first"), result.names);
+    }
+
+    record ImmutableRecord(int number, String name, TestEnum testEnum, UUID uuid, BigDecimal decimal, Instant instant) { }
+
+    record LinkedRecord(String name, LinkedRecord next) { }
+
+    record RecordOfRegisteredValue(RegisteredValue registeredValue) { }
+
+    record MutableRecord(String name, List<MutableValue> values, int[] numbers) { }
+
+    @Immutable
+    static final class MarkedValue
+    {
+        private final List<String> names;
+
+        MarkedValue(List<String> names)
+        {
+            this.names = List.copyOf(names);
+        }
+    }
+
+    static final class RegisteredValue
+    {
+        private final int value;
+
+        RegisteredValue(int value)
+        {
+            this.value = value;
+        }
+    }
+
+    static final class MutableValue
+    {
+        private String name;
+        private MutableValue parent;
+        private List<String> names = new ArrayList<>();
+        private final Map<String, MutableValue> children = new HashMap<>();
+
+        MutableValue(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof MutableValue that
+                    && Objects.equals(name, that.name)
+                    && Objects.equals(names, that.names)
+                    && Objects.equals(children, that.children);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(name);
+        }
+    }
+}
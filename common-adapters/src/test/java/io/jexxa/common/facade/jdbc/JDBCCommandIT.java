@@ -48,6 +48,61 @@ class JDBCCommandIT
         }
     }
 
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testBatchInsertValues(Properties properties)
+    {
+        try (JDBCConnection jdbcConnection = JDBCTestDatabase.setupDatabase(properties))
+        {
+            //arrange
+            var batchCommand = jdbcConnection.command(JDBCTestDatabase.JDBCTestSchema.class)
+                    .insertInto(JDBCTestDatabase.class)
+                    .columns(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY.name(), JDBCTestDatabase.JDBCTestSchema.STRING_TYPE.name())
+                    .values(new JDBCObject[]{new JDBCObject(10, SQLDataType.INTEGER), new JDBCObject("first", SQLDataType.TEXT)})
+                    .createBatch()
+                    .addBatch(new JDBCObject[]{new JDBCObject(11, SQLDataType.INTEGER), new JDBCObject("second", SQLDataType.TEXT)})
+                    .addBatch(new Object[]{12, "third"})
+                    .batchSize(2);
+
+            var validateInsert = jdbcConnection.query(JDBCTestDatabase.JDBCTestSchema.class)
+                    .selectAll()
+                    .from(JDBCTestDatabase.class)
+                    .where(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY).isGreaterOrEqual(10)
+                    .create();
+
+            //act
+            var result = batchCommand.execute();
+
+            //Assert
+            assertEquals(3, result.length);
+            assertEquals(3, validateInsert.asString().count());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testBatchUpdateValues(Properties properties)
+    {
+        try (JDBCConnection jdbcConnection = JDBCTestDatabase.setupDatabase(properties))
+        {
+            //arrange
+            var batchCommand = jdbcConnection.command(JDBCTestDatabase.JDBCTestSchema.class)
+                    .update(JDBCTestDatabase.class)
+                    .set(JDBCTestDatabase.JDBCTestSchema.STRING_TYPE, new JDBCObject("updated", SQLDataType.TEXT))
+                    .where(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY).isEqual(JDBCTestDatabase.PRIMARY_KEY_WITH_NONNULL_VALUES)
+                    .createBatch()
+                    .addBatch(new Object[]{"updated", JDBCTestDatabase.PRIMARY_KEY_VALUES_NOT_PRESENT});
+
+            //act
+            var result = batchCommand.execute();
+
+            //Assert
+            assertEquals(1, result[0]);
+            assertEquals(0, result[1]);
+            assertThrows(IllegalArgumentException.class, batchCommand::asUpdate);
+        }
+    }
+
     @ParameterizedTest
     @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
     void testUpdateValues(Properties properties)
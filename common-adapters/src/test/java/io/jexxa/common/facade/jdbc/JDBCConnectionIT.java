@@ -0,0 +1,176 @@
+package io.jexxa.common.facade.jdbc;
+
+import io.jexxa.common.facade.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcDriver;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcStatementCacheSize;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcUrl;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcValidationIdleThreshold;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcValidationStrategy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.INTEGRATION_TEST)
+class JDBCConnectionIT
+{
+    private Properties properties;
+
+    @BeforeEach
+    void initTests()
+    {
+        properties = new Properties();
+        properties.put(jdbcDriver(), "org.h2.Driver");
+        properties.put(jdbcUrl(), "jdbc:h2:mem:jexxa-connection;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void validateAlways()
+    {
+        //Arrange
+        try (var objectUnderTest = new JDBCConnection(properties))
+        {
+            //Act
+            objectUnderTest.validateConnection();
+            objectUnderTest.validateConnection();
+
+            //Assert
+            assertEquals(2, objectUnderTest.getExecutedValidations());
+            assertEquals(0, objectUnderTest.getSkippedValidations());
+        }
+    }
+
+    @Test
+    void validateAfterIdleThreshold() throws InterruptedException
+    {
+        //Arrange
+        properties.put(jdbcValidationStrategy(), "idle");
+        properties.put(jdbcValidationIdleThreshold(), "50");
+        try (var objectUnderTest = new JDBCConnection(properties))
+        {
+            //Act
+            objectUnderTest.validateConnection();
+            Thread.sleep(100);
+            objectUnderTest.validateConnection();
+
+            //Assert
+            assertEquals(1, objectUnderTest.getExecutedValidations());
+            assertEquals(1, objectUnderTest.getSkippedValidations());
+        }
+    }
+
+    @Test
+    void validateAfterFailedStatement()
+    {
+        //Arrange
+        properties.put(jdbcValidationStrategy(), "idle");
+        properties.put(jdbcValidationIdleThreshold(), "60000");
+        try (var objectUnderTest = new JDBCConnection(properties))
+        {
+            var invalidQuery = new JDBCQuery(objectUnderTest::validateConnection, "SELECT * FROM UNKNOWN_TABLE", List.of());
+
+            //Act
+            assertThrows(IllegalArgumentException.class, invalidQuery::isPresent);
+            objectUnderTest.validateConnection();
+
+            //Assert
+            assertEquals(1, objectUnderTest.getExecutedValidations());
+            assertEquals(1, objectUnderTest.getSkippedValidations());
+        }
+    }
+
+    @Test
+    void reuseCachedStatement()
+    {
+        //Arrange
+        properties.put(jdbcStatementCacheSize(), "10");
+        try (var objectUnderTest = new JDBCConnection(properties))
+        {
+            var query = new JDBCQuery(objectUnderTest::validateConnection, "SELECT ?", List.of(1));
+
+            //Act
+            var firstResult = query.asInt().toList();
+            var secondResult = query.asInt().toList();
+
+            //Assert
+            assertEquals(List.of(1), firstResult);
+            assertEquals(firstResult, secondResult);
+            assertEquals(1, objectUnderTest.getStatementCacheMisses());
+            assertEquals(1, objectUnderTest.getStatementCacheHits());
+        }
+    }
+
+    @Test
+    void resetCachedStatement() throws SQLException
+    {
+        //Arrange
+        properties.put(jdbcStatementCacheSize(), "10");
+        try (var objectUnderTest = new JDBCConnection(properties))
+        {
+            int initialFetchSize;
+            int initialMaxRows;
+            int initialQueryTimeout;
+            try (var preparedStatement = objectUnderTest.prepareStatement("SELECT 1"))
+            {
+                initialFetchSize = preparedStatement.getFetchSize();
+                initialMaxRows = preparedStatement.getMaxRows();
+                initialQueryTimeout = preparedStatement.getQueryTimeout();
+                preparedStatement.setFetchSize(initialFetchSize + 10);
+                preparedStatement.setMaxRows(initialMaxRows + 10);
+                preparedStatement.setQueryTimeout(initialQueryTimeout + 10);
+            }
+
+            //Act
+            try (var result = objectUnderTest.prepareStatement("SELECT 1"))
+            {
+                //Assert
+                assertEquals(1, objectUnderTest.getStatementCacheHits());
+                assertEquals(initialFetchSize, result.getFetchSize());
+                assertEquals(initialMaxRows, result.getMaxRows());
+                assertEquals(initialQueryTimeout, result.getQueryTimeout());
+            }
+        }
+    }
+
+    @Test
+    void invalidateCachedStatements()
+    {
+        //Arrange
+        properties.put(jdbcStatementCacheSize(), "10");
+        try (var objectUnderTest = new JDBCConnection(properties))
+        {
+            var query = new JDBCQuery(objectUnderTest::validateConnection, "SELECT 1", List.of());
+            var schemaChange = new JDBCCommand(objectUnderTest::validateConnection, "CREATE TABLE IF NOT EXISTS CACHE_TEST (ID INT)", List.of());
+            query.asInt().toList();
+
+            //Act
+            schemaChange.asIgnore();
+            query.asInt().toList();
+            objectUnderTest.reset();
+            query.asInt().toList();
+
+            //Assert
+            assertEquals(3, objectUnderTest.getStatementCacheMisses());
+            assertEquals(0, objectUnderTest.getStatementCacheHits());
+        }
+    }
+
+    @Test
+    void invalidValidationStrategy()
+    {
+        //Arrange
+        properties.put(jdbcValidationStrategy(), "unknown");
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> new JDBCConnection(properties));
+    }
+}
@@ -0,0 +1,250 @@
+package io.jexxa.common.facade.jdbc;
+
+import io.jexxa.adapterapi.invocation.transaction.TransactionManager;
+import io.jexxa.common.drivenadapter.persistence.repository.jdbc.JDBCKeyValueRepository;
+import io.jexxa.common.facade.TestConstants;
+import io.jexxa.common.facade.testapplication.TestValueObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcDriver;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcPoolLeaseTimeout;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcPoolMaxSize;
+import static io.jexxa.common.facade.jdbc.JDBCProperties.jdbcUrl;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@Tag(TestConstants.INTEGRATION_TEST)
+class JDBCConnectionPoolIT
+{
+    private Properties properties;
+    private String jdbcUrl;
+
+    @BeforeEach
+    void initTests()
+    {
+        // Each test uses its own database so that it gets its own connection pool
+        jdbcUrl = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        properties = new Properties();
+        properties.put(jdbcDriver(), "org.h2.Driver");
+        properties.put(jdbcUrl(), jdbcUrl);
+        properties.put(jdbcPoolMaxSize(), "1");
+        properties.put(jdbcPoolLeaseTimeout(), "100");
+    }
+
+    @AfterEach
+    void cleanup()
+    {
+        if (TransactionManager.isTransactionActive())
+        {
+            TransactionManager.closeTransaction();
+        }
+    }
+
+    @Test
+    void sameConnectionWithinTransaction()
+    {
+        //Arrange
+        TransactionManager.initTransaction();
+
+        //Act
+        var firstConnection = JDBCConnectionPool.getJDBCConnection(properties, this);
+        var secondConnection = JDBCConnectionPool.getJDBCConnection(properties, new Object());
+
+        //Assert
+        assertSame(firstConnection, secondConnection);
+        assertEquals(1, JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().leasedConnections());
+        assertEquals(1.0, JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().utilization());
+    }
+
+    @Test
+    void releaseConnectionAfterTransaction()
+    {
+        //Arrange
+        TransactionManager.initTransaction();
+        var leasedConnection = JDBCConnectionPool.getJDBCConnection(properties, this);
+
+        //Act
+        TransactionManager.closeTransaction();
+
+        //Assert
+        var metrics = JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow();
+        assertEquals(0, metrics.leasedConnections());
+        assertEquals(1, metrics.idleConnections());
+        assertEquals(1, metrics.leaseCount());
+        assertNotSame(leasedConnection, JDBCConnectionPool.getJDBCConnection(properties, this)); // shared connection outside a transaction
+    }
+
+    @Test
+    void leaseConnectionOutsideTransaction()
+    {
+        //Arrange
+        var sharedConnection = JDBCConnectionPool.getJDBCConnection(properties, this);
+
+        //Act
+        var leasedConnection = JDBCConnectionPool.leaseConnection(properties);
+        var leasedConnections = JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().leasedConnections();
+        JDBCConnectionPool.releaseConnection(properties, leasedConnection);
+
+        //Assert
+        assertNotSame(sharedConnection, leasedConnection);
+        assertEquals(1, leasedConnections);
+        assertEquals(0, JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().leasedConnections());
+    }
+
+    @Test
+    void streamOnLeasedConnection()
+    {
+        //Arrange
+        properties.put(JDBCProperties.jdbcAutocreateTable(), "true");
+        var repository = new JDBCKeyValueRepository<>(TestEntity.class, TestEntity::getKey, properties);
+        repository.add(TestEntity.create(new TestValueObject(42)));
+        repository.add(TestEntity.create(new TestValueObject(43)));
+
+        //Act
+        long leasedConnections;
+        long result;
+        try (var aggregates = repository.stream())
+        {
+            result = aggregates.count();
+            leasedConnections = JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().leasedConnections();
+        }
+
+        //Assert
+        assertEquals(2, result);
+        assertEquals(1, leasedConnections);
+        assertEquals(0, JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().leasedConnections());
+    }
+
+    @Test
+    void rollbackUncommittedChangesOnRelease() throws SQLException
+    {
+        //Arrange
+        TransactionManager.initTransaction();
+        var leasedConnection = JDBCConnectionPool.getJDBCConnection(properties, this);
+        try (var statement = leasedConnection.getConnection().createStatement())
+        {
+            statement.execute("create table if not exists pool_test (id int)");
+            leasedConnection.disableAutoCommit();
+            statement.execute("insert into pool_test values (1)");
+        }
+
+        //Act
+        TransactionManager.closeTransaction();
+        TransactionManager.initTransaction();
+        var nextConnection = JDBCConnectionPool.getJDBCConnection(properties, this);
+
+        //Assert
+        assertSame(leasedConnection, nextConnection);
+        assertTrue(nextConnection.getConnection().getAutoCommit());
+        try (var statement = nextConnection.getConnection().createStatement();
+             var resultSet = statement.executeQuery("select count(*) from pool_test"))
+        {
+            assertTrue(resultSet.next());
+            assertEquals(0, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    void closeSuspectConnectionOnRelease()
+    {
+        //Arrange
+        TransactionManager.initTransaction();
+        var leasedConnection = JDBCConnectionPool.getJDBCConnection(properties, this);
+        leasedConnection.markSuspect();
+
+        //Act
+        TransactionManager.closeTransaction();
+
+        //Assert
+        var metrics = JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow();
+        assertEquals(0, metrics.leasedConnections());
+        assertEquals(0, metrics.idleConnections());
+        assertFalse(leasedConnection.isValid());
+    }
+
+    @Test
+    void leaseTimeout() throws InterruptedException
+    {
+        //Arrange
+        var connectionLeased = new CountDownLatch(1);
+        var finishTransaction = new CountDownLatch(1);
+        var otherTransaction = CompletableFuture.runAsync(() -> {
+            TransactionManager.initTransaction();
+            JDBCConnectionPool.getJDBCConnection(properties, this);
+            connectionLeased.countDown();
+            await(finishTransaction);
+            TransactionManager.closeTransaction();
+        });
+        assertTrue(connectionLeased.await(5, TimeUnit.SECONDS));
+
+        //Act
+        TransactionManager.initTransaction();
+        assertThrows(IllegalStateException.class, () -> JDBCConnectionPool.getJDBCConnection(properties, this));
+
+        //Assert
+        finishTransaction.countDown();
+        otherTransaction.join();
+        assertEquals(1, JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow().leaseTimeouts());
+    }
+
+    @Test
+    void waitForReleasedConnection() throws InterruptedException
+    {
+        //Arrange
+        properties.put(jdbcPoolLeaseTimeout(), "5000");
+        var connectionLeased = new CountDownLatch(1);
+        var otherTransaction = CompletableFuture.runAsync(() -> {
+            TransactionManager.initTransaction();
+            JDBCConnectionPool.getJDBCConnection(properties, this);
+            connectionLeased.countDown();
+            sleep();
+            TransactionManager.closeTransaction();
+        });
+        assertTrue(connectionLeased.await(5, TimeUnit.SECONDS));
+
+        //Act
+        TransactionManager.initTransaction();
+        JDBCConnectionPool.getJDBCConnection(properties, this);
+
+        //Assert
+        otherTransaction.join();
+        var metrics = JDBCConnectionPool.getPoolMetrics(jdbcUrl).orElseThrow();
+        assertEquals(2, metrics.leaseCount());
+        assertTrue(metrics.maxLeaseWait().toMillis() > 0);
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep()
+    {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
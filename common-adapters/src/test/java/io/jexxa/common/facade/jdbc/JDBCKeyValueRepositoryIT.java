@@ -74,6 +74,24 @@ class JDBCKeyValueRepositoryIT
     }
 
 
+    @Test
+    void streamAggregates()
+    {
+        //Arrange
+        objectUnderTest.add(aggregate);
+        objectUnderTest.add(TestEntity.create(new TestValueObject(43)));
+
+        //Act
+        long result;
+        try (var aggregates = objectUnderTest.stream())
+        {
+            result = aggregates.count();
+        }
+
+        //Assert
+        assertEquals(2, result);
+    }
+
     @Test
     void removeAggregate()
     {
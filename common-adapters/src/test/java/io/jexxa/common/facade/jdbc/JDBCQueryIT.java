@@ -18,6 +18,7 @@ import java.util.Properties;
 import java.util.stream.Stream;
 
 import static io.jexxa.common.facade.jdbc.JDBCTestDatabase.PRIMARY_KEY_WITH_NONNULL_VALUES;
+import static io.jexxa.common.facade.jdbc.JDBCTestDatabase.PRIMARY_KEY_WITH_NULL_VALUES;
 import static io.jexxa.common.facade.jdbc.JDBCTestDatabase.TEST_DOUBLE_VALUE;
 import static io.jexxa.common.facade.jdbc.JDBCTestDatabase.TEST_FLOAT_VALUE;
 import static io.jexxa.common.facade.jdbc.JDBCTestDatabase.TEST_INT_VALUE;
@@ -281,6 +282,57 @@ class JDBCQueryIT
         assertEquals(TEST_INT_VALUE, result);
     }
 
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testSelectStreaming(Properties properties)
+    {
+        //Arrange
+        jdbcConnection = JDBCTestDatabase.setupDatabase(properties);
+
+        var querySelectAsc = jdbcConnection.query(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .orderBy(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                .create()
+                .streaming(1);
+
+        //Act
+        List<Integer> result;
+        try (var stream = querySelectAsc.asInt())
+        {
+            result = stream.toList();
+        }
+
+        //Assert
+        assertEquals(3, result.size());
+        assertTrue(isSorted(result));
+    }
+
+    @ParameterizedTest
+    @MethodSource(JDBCTestDatabase.JDBC_REPOSITORY_CONFIG)
+    void testSelectStreamingPartially(Properties properties)
+    {
+        //Arrange
+        jdbcConnection = JDBCTestDatabase.setupDatabase(properties);
+
+        var querySelectAsc = jdbcConnection.query(JDBCTestDatabase.JDBCTestSchema.class)
+                .select(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY)
+                .from(JDBCTestDatabase.class)
+                .orderBy(JDBCTestDatabase.JDBCTestSchema.REPOSITORY_KEY, SQLOrder.ASC)
+                .create()
+                .streaming();
+
+        //Act
+        Integer result;
+        try (var stream = querySelectAsc.asInt())
+        {
+            result = stream.findFirst().orElseThrow();
+        }
+
+        //Assert
+        assertEquals(PRIMARY_KEY_WITH_NULL_VALUES, result);
+    }
+
     // Begin> Utility methods used in this test
 
     private Stream<String> readMultiSelect(ResultSet resultSet ) throws SQLException
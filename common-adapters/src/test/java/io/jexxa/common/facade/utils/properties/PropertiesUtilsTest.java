@@ -9,6 +9,8 @@ import static io.jexxa.common.facade.jms.JMSProperties.JNDI_FACTORY_KEY;
 import static io.jexxa.common.facade.jms.JMSProperties.JNDI_PASSWORD_KEY;
 import static io.jexxa.common.facade.jms.JMSProperties.JNDI_PROVIDER_URL_KEY;
 import static io.jexxa.common.facade.jms.JMSProperties.JNDI_USER_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PropertiesUtilsTest {
@@ -28,4 +30,32 @@ class PropertiesUtilsTest {
         assertTrue(result.containsKey(JNDI_USER_KEY));
         assertTrue(result.containsKey(JNDI_PASSWORD_KEY));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getNumbers() {
+        //Arrange
+        var objectUnderTest = new Properties();
+        objectUnderTest.setProperty("int", " 42 ");
+        objectUnderTest.setProperty("long", "10000000000");
+
+        //Act / Assert
+        assertEquals(42, PropertiesUtils.getInt(objectUnderTest, "int", 1));
+        assertEquals(42, PropertiesUtils.getInt(objectUnderTest, "int"));
+        assertEquals(1, PropertiesUtils.getInt(objectUnderTest, "unknown", 1));
+        assertEquals(10000000000L, PropertiesUtils.getLong(objectUnderTest, "long", 1));
+        assertEquals(42, PropertiesUtils.requirePositive("int", 42));
+    }
+
+    @Test
+    void getInvalidNumbers() {
+        //Arrange
+        var objectUnderTest = new Properties();
+        objectUnderTest.setProperty("invalid", "abc");
+
+        //Act / Assert
+        assertThrows(IllegalArgumentException.class, () -> PropertiesUtils.getInt(objectUnderTest, "invalid", 1));
+        assertThrows(IllegalArgumentException.class, () -> PropertiesUtils.getLong(objectUnderTest, "invalid", 1));
+        assertThrows(IllegalArgumentException.class, () -> PropertiesUtils.getInt(objectUnderTest, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> PropertiesUtils.requirePositive("zero", 0));
+    }
+}